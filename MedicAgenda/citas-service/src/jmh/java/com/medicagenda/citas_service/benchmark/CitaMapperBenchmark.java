@@ -0,0 +1,108 @@
+package com.medicagenda.citas_service.benchmark;
+
+import com.medicagenda.citas_service.dominio.model.CitaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaRequest;
+import com.medicagenda.citas_service.entity.Cita;
+import com.medicagenda.citas_service.infraestructura.util.CitaMapper;
+import com.medicagenda.citas_service.infraestructura.util.CitaMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las conversiones de {@link CitaMapper} entre entidades, solicitudes y DTOs.
+ *
+ * @since 2025-06-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CitaMapperBenchmark {
+
+    /** Tamaño de la lista convertida en {@link #toDTOList()}. */
+    @Param({"100"})
+    private int tamanoLista;
+
+    private final CitaMapper mapper = new CitaMapperImpl();
+    private Cita cita;
+    private CitaRequest request;
+    private List<Cita> citas;
+
+    /**
+     * Prepara los objetos de entrada.
+     */
+    @Setup
+    public void preparar() {
+        cita = cita(1);
+        request = new CitaRequest();
+        request.setFecha("2030-01-01");
+        request.setHora("10:00:00");
+        request.setEstado("PENDIENTE");
+        request.setObservaciones("Revisión anual");
+        request.setPacienteId(1);
+        request.setMedicoId(2);
+        citas = new ArrayList<>(tamanoLista);
+        for (int i = 0; i < tamanoLista; i++) {
+            citas.add(cita(i));
+        }
+    }
+
+    /**
+     * Convierte una entidad en DTO.
+     *
+     * @return DTO generado
+     */
+    @Benchmark
+    public CitaDTO toDTO() {
+        return mapper.toDTO(cita);
+    }
+
+    /**
+     * Convierte una solicitud en entidad, incluido el análisis de fecha y hora.
+     *
+     * @return entidad generada
+     */
+    @Benchmark
+    public Cita toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    /**
+     * Convierte una lista de entidades en DTOs.
+     *
+     * @return DTOs generados
+     */
+    @Benchmark
+    public List<CitaDTO> toDTOList() {
+        return mapper.toDTOList(citas);
+    }
+
+    private static Cita cita(int id) {
+        Cita cita = new Cita();
+        cita.setId(id);
+        cita.setFecha(LocalDate.of(2030, 1, 1).plusDays(id % 365));
+        cita.setHora(LocalTime.of(8, 0).plusMinutes(30L * (id % 20)));
+        cita.setEstado(Cita.Estado.PENDIENTE);
+        cita.setObservaciones("Revisión anual");
+        cita.setPacienteId(2 * id + 1);
+        cita.setMedicoId(2 * id + 2);
+        return cita;
+    }
+}
@@ -0,0 +1,188 @@
+package com.medicagenda.citas_service.benchmark;
+
+import com.medicagenda.citas_service.dominio.model.AgendaCitaDTO;
+import com.medicagenda.citas_service.dominio.model.AgendaDiaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaCursor;
+import com.medicagenda.citas_service.dominio.model.CitaFiltro;
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.dominio.model.CitaResumenDTO;
+import com.medicagenda.citas_service.dominio.model.EstadisticasCitasDTO;
+import com.medicagenda.citas_service.dominio.port.out.CitaPortOut;
+import com.medicagenda.citas_service.entity.Cita;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Implementación en memoria de {@link CitaPortOut} para los benchmarks.
+ * <p>
+ * Guarda las citas en mapas concurrentes indexados por ID y por franja de paciente
+ * y médico, de modo que las búsquedas de duplicados no dependen de una base de datos.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+class CitaPortOutEnMemoria implements CitaPortOut {
+
+    private final Map<Integer, Cita> citas = new ConcurrentHashMap<>();
+    private final Map<Franja, Cita> porPaciente = new ConcurrentHashMap<>();
+    private final Map<Franja, Cita> porMedico = new ConcurrentHashMap<>();
+    private final AtomicInteger secuencia = new AtomicInteger();
+
+    /**
+     * Elimina todas las citas guardadas.
+     */
+    void vaciar() {
+        citas.clear();
+        porPaciente.clear();
+        porMedico.clear();
+    }
+
+    @Override
+    public Cita guardar(Cita cita) {
+        if (cita.getId() == null) {
+            cita.setId(secuencia.incrementAndGet());
+        }
+        citas.put(cita.getId(), cita);
+        porPaciente.put(new Franja(cita.getPacienteId(), cita.getFecha(), cita.getHora()), cita);
+        porMedico.put(new Franja(cita.getMedicoId(), cita.getFecha(), cita.getHora()), cita);
+        return cita;
+    }
+
+    @Override
+    public Optional<Cita> buscarPorId(Integer id) {
+        return Optional.ofNullable(citas.get(id));
+    }
+
+    @Override
+    public Optional<Cita> buscarArchivadaPorId(Integer id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Long> buscarVersion(Integer id) {
+        return buscarPorId(id).map(Cita::getVersion);
+    }
+
+    @Override
+    public List<Cita> listar(CitaFiltro filtro, CitaCursor despuesDe, int limite) {
+        return citas.values().stream().limit(limite).toList();
+    }
+
+    @Override
+    public EstadisticasCitasDTO obtenerEstadisticas(Integer medicoId, LocalDate desde, LocalDate hasta) {
+        return new EstadisticasCitasDTO(medicoId, desde, hasta, Map.of(), List.of());
+    }
+
+    @Override
+    public List<CitaResumenDTO> listarResumenesMedico(Integer medicoId, LocalDate desde, LocalDate hasta,
+                                                      Cita.Estado estado, CitaCursor despuesDe, int limite) {
+        return resumenes(cita -> cita.getMedicoId().equals(medicoId)
+                && !cita.getFecha().isBefore(desde) && !cita.getFecha().isAfter(hasta)
+                && (estado == null || cita.getEstado() == estado), limite);
+    }
+
+    @Override
+    public List<CitaResumenDTO> listarHistorialPaciente(Integer pacienteId, Cita.Estado estado,
+                                                        CitaCursor despuesDe, int limite) {
+        return resumenes(cita -> cita.getPacienteId().equals(pacienteId)
+                && (estado == null || cita.getEstado() == estado), limite);
+    }
+
+    @Override
+    public List<CitaResumenDTO> listarResumenesPorEstado(Cita.Estado estado, LocalDate desde, LocalDate hasta,
+                                                         CitaCursor despuesDe, int limite) {
+        return resumenes(cita -> cita.getEstado() == estado
+                && !cita.getFecha().isBefore(desde) && !cita.getFecha().isAfter(hasta), limite);
+    }
+
+    private List<CitaResumenDTO> resumenes(Predicate<Cita> filtro, int limite) {
+        return citas.values().stream()
+                .filter(filtro)
+                .limit(limite)
+                .map(cita -> new CitaResumenDTO(cita.getId(), cita.getMedicoId(), cita.getPacienteId(),
+                        cita.getFecha(), cita.getHora(), cita.getEstado()))
+                .toList();
+    }
+
+    @Override
+    public List<CitaHorario> listarHorariosMedico(Integer medicoId, LocalDate desde, LocalDate hasta) {
+        return citas.values().stream()
+                .filter(cita -> cita.getMedicoId().equals(medicoId))
+                .filter(cita -> !cita.getFecha().isBefore(desde) && !cita.getFecha().isAfter(hasta))
+                .map(CitaHorario::de)
+                .toList();
+    }
+
+    @Override
+    public List<CitaHorario> listarHorariosOcupados(Set<Integer> medicoIds, Set<Integer> pacienteIds,
+                                                    LocalDate desde, LocalDate hasta) {
+        return citas.values().stream()
+                .filter(cita -> medicoIds.contains(cita.getMedicoId()) || pacienteIds.contains(cita.getPacienteId()))
+                .filter(cita -> !cita.getFecha().isBefore(desde) && !cita.getFecha().isAfter(hasta))
+                .map(CitaHorario::de)
+                .toList();
+    }
+
+    @Override
+    public AgendaDiaDTO obtenerAgendaDia(Integer medicoId, LocalDate fecha) {
+        List<AgendaCitaDTO> agenda = citas.values().stream()
+                .filter(cita -> cita.getMedicoId().equals(medicoId) && cita.getFecha().equals(fecha))
+                .sorted(Comparator.comparing(Cita::getHora))
+                .map(cita -> new AgendaCitaDTO(cita.getId(), cita.getHora(), cita.getEstado(), cita.getPacienteId()))
+                .toList();
+        return new AgendaDiaDTO(medicoId, fecha, Integer.toHexString(agenda.hashCode()), agenda);
+    }
+
+    @Override
+    public List<String> guardarLote(List<Cita> lote) {
+        List<String> errores = new ArrayList<>(lote.size());
+        lote.forEach(cita -> {
+            guardar(cita);
+            errores.add(null);
+        });
+        return errores;
+    }
+
+    @Override
+    public void recorrerTodas(Consumer<Cita> consumidor) {
+        citas.values().forEach(consumidor);
+    }
+
+    @Override
+    public boolean eliminar(Integer id) {
+        Cita cita = citas.remove(id);
+        if (cita == null) {
+            return false;
+        }
+        porPaciente.remove(new Franja(cita.getPacienteId(), cita.getFecha(), cita.getHora()));
+        porMedico.remove(new Franja(cita.getMedicoId(), cita.getFecha(), cita.getHora()));
+        return true;
+    }
+
+    @Override
+    public Optional<Cita> buscarPorPacienteFechaHora(Integer pacienteId, LocalDate fecha, LocalTime hora) {
+        return Optional.ofNullable(porPaciente.get(new Franja(pacienteId, fecha, hora)));
+    }
+
+    @Override
+    public Optional<Cita> buscarPorMedicoFechaHora(Integer medicoId, LocalDate fecha, LocalTime hora) {
+        return Optional.ofNullable(porMedico.get(new Franja(medicoId, fecha, hora)));
+    }
+
+    /**
+     * Clave de una franja ocupada por un paciente o un médico.
+     */
+    private record Franja(Integer usuarioId, LocalDate fecha, LocalTime hora) {
+    }
+}
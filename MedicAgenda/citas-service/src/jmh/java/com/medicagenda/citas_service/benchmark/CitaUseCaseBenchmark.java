@@ -0,0 +1,105 @@
+package com.medicagenda.citas_service.benchmark;
+
+import com.medicagenda.citas_service.aplicacion.BloqueoPorMedico;
+import com.medicagenda.citas_service.aplicacion.CitaUseCase;
+import com.medicagenda.citas_service.aplicacion.MetricasReserva;
+import com.medicagenda.citas_service.dominio.model.CitaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaRequest;
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.dominio.port.out.CitaUsuarioValidatorPort;
+import com.medicagenda.citas_service.infraestructura.config.AgendaProperties;
+import com.medicagenda.citas_service.infraestructura.util.CitaMapperImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mide {@link CitaUseCase#crearCita(CitaRequest)} sobre puertos en memoria.
+ * <p>
+ * La persistencia es {@link CitaPortOutEnMemoria} y el validador responde al instante
+ * (IDs impares pacientes, pares médicos), por lo que el resultado refleja solo el coste
+ * de la capa de aplicación: validaciones, búsqueda de duplicados, candado por médico,
+ * métricas y mapeo. Cada invocación usa un paciente y un médico nuevos para no chocar
+ * con citas anteriores.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CitaUseCaseBenchmark {
+
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private CitaPortOutEnMemoria citaPortOut;
+    private CitaUseCase useCase;
+
+    /**
+     * Construye el caso de uso con sus dependencias en memoria.
+     */
+    @Setup(Level.Trial)
+    public void preparar() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CitaUsuarioValidatorPort validador = id -> CompletableFuture.completedFuture(
+                id % 2 == 1 ? UsuarioTipo.PACIENTE : UsuarioTipo.MEDICO);
+        citaPortOut = new CitaPortOutEnMemoria();
+        useCase = new CitaUseCase(citaPortOut, new CitaMapperImpl(), validador, new AgendaProperties(),
+                new BloqueoPorMedico(registry), new MetricasReserva(registry));
+    }
+
+    /**
+     * Vacía la persistencia en memoria para que no crezca entre iteraciones.
+     */
+    @Setup(Level.Iteration)
+    public void vaciar() {
+        citaPortOut.vaciar();
+    }
+
+    /**
+     * Crea una cita desde un solo hilo.
+     *
+     * @return cita creada
+     */
+    @Benchmark
+    public CitaDTO crearCita() {
+        return useCase.crearCita(request(siguiente.incrementAndGet()));
+    }
+
+    /**
+     * Crea citas desde cuatro hilos a la vez, con médicos distintos.
+     *
+     * @return cita creada
+     */
+    @Benchmark
+    @Threads(4)
+    public CitaDTO crearCitaConcurrente() {
+        return useCase.crearCita(request(siguiente.incrementAndGet()));
+    }
+
+    private static CitaRequest request(int n) {
+        CitaRequest request = new CitaRequest();
+        request.setFecha("2030-01-01");
+        request.setHora("10:00:00");
+        request.setEstado("PENDIENTE");
+        request.setPacienteId(2 * n + 1);
+        request.setMedicoId(2 * n + 2);
+        return request;
+    }
+}
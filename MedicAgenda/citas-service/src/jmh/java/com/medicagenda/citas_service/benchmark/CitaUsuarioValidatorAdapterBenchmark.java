@@ -0,0 +1,121 @@
+package com.medicagenda.citas_service.benchmark;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.infraestructura.adapter.CitaUsuarioValidatorAdapter;
+import com.medicagenda.citas_service.infraestructura.config.UsuariosServiceProperties;
+import com.medicagenda.citas_service.infraestructura.config.WebClientConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mide {@link CitaUsuarioValidatorAdapter} contra un usuarios-service simulado local.
+ * <p>
+ * El servidor simulado es {@link UsuariosServiceSimulado} y responde sin
+ * latencia añadida, de modo que el resultado refleja el coste del cliente HTTP
+ * y de la serialización JSON.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CitaUsuarioValidatorAdapterBenchmark {
+
+    /** Número de IDs de cada consulta por lotes. */
+    @Param({"100"})
+    private int tamanoLote;
+
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private UsuariosServiceSimulado usuarios;
+    private ConnectionProvider conexiones;
+    private CitaUsuarioValidatorAdapter adapter;
+    private Set<Integer> lote;
+
+    /**
+     * Arranca el servidor simulado y construye el adaptador como lo hace Spring.
+     *
+     * @throws IOException si no se puede abrir el puerto
+     */
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        usuarios = new UsuariosServiceSimulado(0, 0, 0, 0);
+        UsuariosServiceProperties properties = new UsuariosServiceProperties();
+        properties.setUrl(usuarios.url());
+        properties.getHttp().setMaximoPendientes(10_000);
+
+        WebClientConfig config = new WebClientConfig();
+        conexiones = config.usuariosConnectionProvider(properties);
+        WebClient webClient = config.webClientUsuarios(WebClient.builder(), conexiones, properties);
+        adapter = new CitaUsuarioValidatorAdapter(webClient);
+
+        lote = new LinkedHashSet<>();
+        for (int i = 1; i <= tamanoLote; i++) {
+            lote.add(i);
+        }
+    }
+
+    /**
+     * Detiene el pool de conexiones y el servidor simulado.
+     */
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        conexiones.dispose();
+        usuarios.close();
+    }
+
+    /**
+     * Consulta el tipo de un usuario desde un solo hilo.
+     *
+     * @return tipo de usuario
+     */
+    @Benchmark
+    public UsuarioTipo obtenerTipoUsuario() {
+        return adapter.obtenerTipoUsuarioAsync(siguiente.incrementAndGet()).join();
+    }
+
+    /**
+     * Consulta el tipo de un usuario desde dieciséis hilos a la vez.
+     *
+     * @return tipo de usuario
+     */
+    @Benchmark
+    @Threads(16)
+    public UsuarioTipo obtenerTipoUsuarioConcurrente() {
+        return adapter.obtenerTipoUsuarioAsync(siguiente.incrementAndGet()).join();
+    }
+
+    /**
+     * Consulta el tipo de varios usuarios en una sola llamada.
+     *
+     * @return tipo de cada usuario
+     */
+    @Benchmark
+    public Map<Integer, UsuarioTipo> obtenerTiposUsuario() {
+        return adapter.obtenerTiposUsuarioAsync(lote).join();
+    }
+}
@@ -2,6 +2,8 @@ package com.medicagenda.citas_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal para el arranque del microservicio de citas médicas.
@@ -14,6 +16,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @since 2025-06-18
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class CitasServiceApplication {
 
     /**
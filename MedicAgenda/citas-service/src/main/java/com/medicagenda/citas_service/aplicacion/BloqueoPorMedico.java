@@ -0,0 +1,132 @@
+package com.medicagenda.citas_service.aplicacion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa las operaciones de agenda de un mismo médico.
+ * <p>
+ * Usa un conjunto fijo de candados (franjas) y asigna cada médico a una franja
+ * según su ID. Las reservas de un mismo médico esperan unas a otras, mientras que
+ * las de médicos distintos casi nunca coinciden en la misma franja. No existe
+ * ningún candado global.
+ * </p>
+ *
+ * <ul>
+ *     <li>El número de franjas es una potencia de dos proporcional al número de núcleos.</li>
+ *     <li>El tiempo de espera se publica en el temporizador <code>citas.bloqueo.medico.espera</code>.</li>
+ *     <li>Las esperas por un candado ocupado se cuentan en <code>citas.bloqueo.medico.contencion</code>.</li>
+ * </ul>
+ *
+ * Una operación que mueve una cita de un médico a otro toma las franjas de ambos,
+ * siempre en orden de franja ascendente, para que dos movimientos cruzados no se
+ * bloqueen entre sí. Solo protege la comprobación y el guardado; las consultas
+ * remotas deben hacerse antes de entrar para no alargar la sección crítica.
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class BloqueoPorMedico {
+
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+    private final Timer espera;
+    private final Counter contencion;
+
+    /**
+     * Crea las franjas y registra sus métricas.
+     *
+     * @param registry registro de métricas de Micrometer
+     */
+    public BloqueoPorMedico(MeterRegistry registry) {
+        int numero = Integer.highestOneBit(Math.max(64, Runtime.getRuntime().availableProcessors() * 16));
+        this.franjas = new ReentrantLock[numero];
+        for (int i = 0; i < numero; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.mascara = numero - 1;
+        this.espera = Timer.builder("citas.bloqueo.medico.espera")
+                .description("Tiempo de espera para obtener el candado de agenda de un médico")
+                .register(registry);
+        this.contencion = Counter.builder("citas.bloqueo.medico.contencion")
+                .description("Veces que el candado de agenda de un médico estaba ocupado")
+                .register(registry);
+    }
+
+    /**
+     * Ejecuta una acción con el candado del médico indicado.
+     *
+     * @param medicoId ID del médico
+     * @param accion   acción a ejecutar
+     * @param <T>      tipo del resultado
+     * @return resultado de la acción
+     */
+    public <T> T ejecutar(Integer medicoId, Supplier<T> accion) {
+        return ejecutar(medicoId, medicoId, accion);
+    }
+
+    /**
+     * Ejecuta una acción con los candados de dos médicos, por ejemplo al mover una
+     * cita de uno a otro. Las franjas se toman de menor a mayor y una sola vez si
+     * ambos médicos comparten franja.
+     *
+     * @param medicoId     ID de uno de los médicos
+     * @param otroMedicoId ID del otro médico
+     * @param accion       acción a ejecutar
+     * @param <T>          tipo del resultado
+     * @return resultado de la acción
+     */
+    public <T> T ejecutar(Integer medicoId, Integer otroMedicoId, Supplier<T> accion) {
+        int una = franja(medicoId);
+        int otra = franja(otroMedicoId);
+        ReentrantLock primero = franjas[Math.min(una, otra)];
+        ReentrantLock segundo = una == otra ? null : franjas[Math.max(una, otra)];
+        long inicio = System.nanoTime();
+        boolean contendido = bloquear(primero);
+        try {
+            contendido |= segundo != null && bloquear(segundo);
+            try {
+                espera.record(contendido ? System.nanoTime() - inicio : 0, TimeUnit.NANOSECONDS);
+                return accion.get();
+            } finally {
+                if (segundo != null) {
+                    segundo.unlock();
+                }
+            }
+        } finally {
+            primero.unlock();
+        }
+    }
+
+    /**
+     * Toma un candado, contando la espera si estaba ocupado.
+     *
+     * @param candado candado de una franja
+     * @return true si hubo que esperar
+     */
+    private boolean bloquear(ReentrantLock candado) {
+        if (candado.tryLock()) {
+            return false;
+        }
+        contencion.increment();
+        candado.lock();
+        return true;
+    }
+
+    /**
+     * Obtiene la franja asignada a un médico.
+     *
+     * @param medicoId ID del médico
+     * @return índice de la franja
+     */
+    int franja(Integer medicoId) {
+        int hash = medicoId == null ? 0 : medicoId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mascara;
+    }
+}
@@ -1,24 +1,51 @@
 package com.medicagenda.citas_service.aplicacion;
 
+import com.medicagenda.citas_service.dominio.model.AgendaDiaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaCursor;
 import com.medicagenda.citas_service.dominio.model.CitaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaFiltro;
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.dominio.model.CitaLoteFilaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaLoteResultadoDTO;
+import com.medicagenda.citas_service.dominio.model.CitaPaginaDTO;
 import com.medicagenda.citas_service.dominio.model.CitaRequest;
+import com.medicagenda.citas_service.dominio.model.CitaResumenDTO;
+import com.medicagenda.citas_service.dominio.model.CitaResumenPaginaDTO;
+import com.medicagenda.citas_service.dominio.model.DisponibilidadDTO;
+import com.medicagenda.citas_service.dominio.model.EstadisticasCitasDTO;
+import com.medicagenda.citas_service.dominio.model.IntervaloLibreDTO;
 import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
 import com.medicagenda.citas_service.dominio.port.in.CitaPortIn;
 import com.medicagenda.citas_service.dominio.port.out.CitaPortOut;
 import com.medicagenda.citas_service.dominio.port.out.CitaUsuarioValidatorPort;
+import com.medicagenda.citas_service.dominio.excepciones.CitaArchivadaException;
 import com.medicagenda.citas_service.dominio.excepciones.CitaNoEncontradaException;
 import com.medicagenda.citas_service.dominio.excepciones.PacienteNoValidoException;
 import com.medicagenda.citas_service.dominio.excepciones.MedicoNoValidoException;
 import com.medicagenda.citas_service.dominio.excepciones.CitaDuplicadaException;
+import com.medicagenda.citas_service.dominio.excepciones.CitaVersionNoCoincideException;
 import com.medicagenda.citas_service.entity.Cita;
 import com.medicagenda.citas_service.entity.Cita.Estado;
+import com.medicagenda.citas_service.infraestructura.config.AgendaProperties;
 import com.medicagenda.citas_service.infraestructura.util.CitaMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import static com.medicagenda.citas_service.aplicacion.MetricasReserva.*;
+
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Implementación de los casos de uso para la gestión de citas médicas.
@@ -29,7 +56,11 @@ import java.util.List;
  *
  * <ul>
  *     <li>Valida que los IDs de paciente y médico correspondan a usuarios válidos.</li>
- *     <li>Evita duplicidad de citas para un mismo paciente o médico en la misma fecha y hora.</li>
+ *     <li>Evita duplicidad de citas para un mismo paciente o médico en la misma fecha y hora,
+ *     apoyándose en las restricciones únicas de la base de datos.</li>
+ *     <li>Mide cada fase de la creación y actualización con {@link MetricasReserva}.</li>
+ *     <li>Serializa con {@link BloqueoPorMedico} la comprobación y el guardado de las citas
+ *     de un mismo médico; la validación remota de usuarios se hace fuera del candado.</li>
  *     <li>Lanza excepciones personalizadas para errores de negocio.</li>
  * </ul>
  *
@@ -44,9 +75,24 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CitaUseCase implements CitaPortIn {
 
+    /** Tamaño de página por defecto del listado de citas. */
+    static final int LIMITE_POR_DEFECTO = 50;
+
+    /** Tamaño de página máximo permitido en el listado de citas. */
+    static final int LIMITE_MAXIMO = 500;
+
+    /** Número máximo de días que abarca una consulta de estadísticas. */
+    static final int MAXIMO_DIAS_ESTADISTICAS = 366;
+
+    /** Número máximo de citas que se pueden crear en una carga masiva. */
+    static final int MAXIMO_CITAS_POR_LOTE = 10_000;
+
     private final CitaPortOut citaPortOut;
     private final CitaMapper mapper;
     private final CitaUsuarioValidatorPort citaUsuarioValidator;
+    private final AgendaProperties agenda;
+    private final BloqueoPorMedico bloqueoPorMedico;
+    private final MetricasReserva metricas;
 
     /**
      * Crea una nueva cita médica, validando el tipo de usuario y la disponibilidad.
@@ -59,35 +105,165 @@ public class CitaUseCase implements CitaPortIn {
      */
     @Override
     public CitaDTO crearCita(CitaRequest request) {
-        // Validar tipo de usuario para paciente y médico
-        UsuarioTipo tipoPaciente = citaUsuarioValidator.obtenerTipoUsuario(request.getPacienteId());
-        UsuarioTipo tipoMedico = citaUsuarioValidator.obtenerTipoUsuario(request.getMedicoId());
+        return metricas.medir(CREAR, FASE_TOTAL, () -> {
+            // Validar tipo de usuario para paciente y médico
+            validarParticipantes(CREAR, request);
 
-        if (tipoPaciente != UsuarioTipo.PACIENTE) {
-            throw new PacienteNoValidoException(request.getPacienteId());
+            // Validar disponibilidad de paciente y médico en la fecha y hora. Los horarios libres
+            // se resuelven en memoria; las reservas del mismo médico se serializan y las
+            // restricciones únicas de la tabla cubren el resto de carreras.
+            LocalDate fecha = LocalDate.parse(request.getFecha());
+            LocalTime hora = LocalTime.parse(request.getHora());
+
+            return bloqueoPorMedico.ejecutar(request.getMedicoId(), () -> {
+                if (metricas.medir(CREAR, FASE_DUPLICADO_PACIENTE,
+                        () -> citaPortOut.buscarPorPacienteFechaHora(request.getPacienteId(), fecha, hora),
+                        existente -> existente.isPresent() ? DUPLICADA : OK).isPresent()) {
+                    throw new CitaDuplicadaException("El paciente ya tiene una cita a esa fecha y hora.");
+                }
+                if (metricas.medir(CREAR, FASE_DUPLICADO_MEDICO,
+                        () -> citaPortOut.buscarPorMedicoFechaHora(request.getMedicoId(), fecha, hora),
+                        existente -> existente.isPresent() ? DUPLICADA : OK).isPresent()) {
+                    throw new CitaDuplicadaException("El médico ya tiene una cita a esa fecha y hora.");
+                }
+
+                Cita cita = metricas.medir(CREAR, FASE_MAPEO, () -> {
+                    Cita nueva = mapper.toEntity(request);
+                    nueva.setEstado(Estado.PENDIENTE);
+                    return nueva;
+                });
+                Cita guardada = metricas.medir(CREAR, FASE_GUARDAR, () -> citaPortOut.guardar(cita));
+                return metricas.medir(CREAR, FASE_MAPEO_RESPUESTA, () -> mapper.toDTO(guardada));
+            });
+        });
+    }
+
+    /**
+     * Crea varias citas en una sola operación, informando del resultado de cada fila.
+     * <p>
+     * Los tipos de todos los pacientes y médicos distintos se consultan con una sola
+     * consulta por lotes. Los choques de horario se detectan en memoria, tanto entre
+     * filas de la misma carga como con las citas existentes, que se leen con una
+     * consulta por conjunto de IDs y rango de fechas. Las filas válidas se insertan
+     * en lotes JDBC. Una fila rechazada no impide crear las demás.
+     * </p>
+     *
+     * @param requests datos de las citas a crear
+     * @return resultado de cada fila, en el orden de la solicitud
+     * @throws IllegalArgumentException si la carga está vacía o supera {@value #MAXIMO_CITAS_POR_LOTE} citas
+     */
+    @Override
+    public CitaLoteResultadoDTO crearCitasLote(List<CitaRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("La carga debe contener al menos una cita.");
         }
-        if (tipoMedico != UsuarioTipo.MEDICO) {
-            throw new MedicoNoValidoException(request.getMedicoId());
+        if (requests.size() > MAXIMO_CITAS_POR_LOTE) {
+            throw new IllegalArgumentException("La carga no puede superar " + MAXIMO_CITAS_POR_LOTE + " citas.");
         }
 
-        // Validar disponibilidad de paciente y médico en la fecha y hora
-        LocalDate fecha = LocalDate.parse(request.getFecha());
-        LocalTime hora = LocalTime.parse(request.getHora());
+        // Interpretar las filas y reunir los usuarios y el rango de fechas
+        int total = requests.size();
+        String[] errores = new String[total];
+        LocalDate[] fechas = new LocalDate[total];
+        LocalTime[] horas = new LocalTime[total];
+        Set<Integer> usuarios = new HashSet<>();
+        LocalDate desde = null;
+        LocalDate hasta = null;
+        for (int i = 0; i < total; i++) {
+            CitaRequest request = requests.get(i);
+            if (request == null || request.getPacienteId() == null || request.getMedicoId() == null) {
+                errores[i] = "La cita debe indicar pacienteId y medicoId.";
+                continue;
+            }
+            try {
+                fechas[i] = LocalDate.parse(request.getFecha());
+                horas[i] = LocalTime.parse(request.getHora());
+            } catch (DateTimeParseException | NullPointerException e) {
+                errores[i] = "Fecha u hora no válidas.";
+                continue;
+            }
+            usuarios.add(request.getPacienteId());
+            usuarios.add(request.getMedicoId());
+            desde = desde == null || fechas[i].isBefore(desde) ? fechas[i] : desde;
+            hasta = hasta == null || fechas[i].isAfter(hasta) ? fechas[i] : hasta;
+        }
+
+        // Validar tipos de usuario con una sola consulta deduplicada
+        Map<Integer, UsuarioTipo> tipos = usuarios.isEmpty()
+                ? Map.of()
+                : esperar(citaUsuarioValidator.obtenerTiposUsuarioAsync(usuarios));
+        Set<Integer> medicos = new HashSet<>();
+        Set<Integer> pacientes = new HashSet<>();
+        for (int i = 0; i < total; i++) {
+            if (errores[i] != null) {
+                continue;
+            }
+            CitaRequest request = requests.get(i);
+            if (tipos.getOrDefault(request.getPacienteId(), UsuarioTipo.DESCONOCIDO) != UsuarioTipo.PACIENTE) {
+                errores[i] = new PacienteNoValidoException(request.getPacienteId()).getMessage();
+            } else if (tipos.getOrDefault(request.getMedicoId(), UsuarioTipo.DESCONOCIDO) != UsuarioTipo.MEDICO) {
+                errores[i] = new MedicoNoValidoException(request.getMedicoId()).getMessage();
+            } else {
+                pacientes.add(request.getPacienteId());
+                medicos.add(request.getMedicoId());
+            }
+        }
 
-        if (citaPortOut.buscarPorPacienteFechaHora(request.getPacienteId(), fecha, hora).isPresent()) {
-            throw new CitaDuplicadaException("El paciente ya tiene una cita a esa fecha y hora.");
+        // Detectar choques con las citas existentes y entre filas de la carga
+        Set<Horario> ocupadosPaciente = new HashSet<>();
+        Set<Horario> ocupadosMedico = new HashSet<>();
+        if (!medicos.isEmpty()) {
+            for (CitaHorario horario : citaPortOut.listarHorariosOcupados(medicos, pacientes, desde, hasta)) {
+                ocupadosPaciente.add(new Horario(horario.pacienteId(), horario.fecha(), horario.hora()));
+                ocupadosMedico.add(new Horario(horario.medicoId(), horario.fecha(), horario.hora()));
+            }
         }
-        if (citaPortOut.buscarPorMedicoFechaHora(request.getMedicoId(), fecha, hora).isPresent()) {
-            throw new CitaDuplicadaException("El médico ya tiene una cita a esa fecha y hora.");
+        List<Cita> nuevas = new ArrayList<>();
+        List<Integer> filasNuevas = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (errores[i] != null) {
+                continue;
+            }
+            CitaRequest request = requests.get(i);
+            if (!ocupadosPaciente.add(new Horario(request.getPacienteId(), fechas[i], horas[i]))) {
+                errores[i] = "El paciente ya tiene una cita a esa fecha y hora.";
+            } else if (!ocupadosMedico.add(new Horario(request.getMedicoId(), fechas[i], horas[i]))) {
+                ocupadosPaciente.remove(new Horario(request.getPacienteId(), fechas[i], horas[i]));
+                errores[i] = "El médico ya tiene una cita a esa fecha y hora.";
+            } else {
+                Cita cita = mapper.toEntity(request);
+                cita.setEstado(Estado.PENDIENTE);
+                nuevas.add(cita);
+                filasNuevas.add(i);
+            }
         }
 
-        Cita cita = mapper.toEntity(request);
-        cita.setEstado(Estado.PENDIENTE);
-        return mapper.toDTO(citaPortOut.guardar(cita));
+        // Insertar las filas válidas en lotes
+        Integer[] ids = new Integer[total];
+        List<String> fallos = nuevas.isEmpty() ? List.of() : citaPortOut.guardarLote(nuevas);
+        for (int j = 0; j < nuevas.size(); j++) {
+            int fila = filasNuevas.get(j);
+            if (fallos.get(j) != null) {
+                errores[fila] = fallos.get(j);
+            } else {
+                ids[fila] = nuevas.get(j).getId();
+            }
+        }
+
+        List<CitaLoteFilaDTO> resultados = new ArrayList<>(total);
+        int creadas = 0;
+        for (int i = 0; i < total; i++) {
+            resultados.add(new CitaLoteFilaDTO(i, ids[i], errores[i]));
+            if (ids[i] != null) {
+                creadas++;
+            }
+        }
+        return new CitaLoteResultadoDTO(total, creadas, total - creadas, resultados);
     }
 
     /**
-     * Obtiene los datos de una cita específica por su identificador.
+     * Obtiene los datos de una cita específica por su identificador. Si no está entre
+     * las citas activas, se busca entre las archivadas.
      *
      * @param id identificador de la cita
      * @return DTO de la cita encontrada
@@ -96,18 +272,302 @@ public class CitaUseCase implements CitaPortIn {
     @Override
     public CitaDTO obtenerCitaPorId(Integer id) {
         Cita cita = citaPortOut.buscarPorId(id)
+                .or(() -> citaPortOut.buscarArchivadaPorId(id))
                 .orElseThrow(() -> new CitaNoEncontradaException(id));
         return mapper.toDTO(cita);
     }
 
     /**
-     * Lista todas las citas existentes en el sistema.
+     * Obtiene la versión actual de una cita con una consulta de una sola columna,
+     * sin cargar la entidad ni convertirla.
+     *
+     * @param id identificador de la cita
+     * @return versión de la cita
+     * @throws CitaNoEncontradaException si no existe una cita con el ID proporcionado
+     */
+    @Override
+    public Long obtenerVersionCita(Integer id) {
+        return citaPortOut.buscarVersion(id)
+                .orElseThrow(() -> new CitaNoEncontradaException(id));
+    }
+
+    /**
+     * Lista una página de citas que cumplen el filtro, ordenadas por fecha, hora e ID.
+     * <p>
+     * El tamaño de página se limita a {@value #LIMITE_MAXIMO}. Se pide una cita más
+     * de las necesarias para saber si existe una página siguiente sin contar el total.
+     * </p>
+     *
+     * @param filtro criterios de filtrado
+     * @param cursor token de la página a obtener, o nulo para la primera
+     * @param limite tamaño de página solicitado, o nulo para {@value #LIMITE_POR_DEFECTO}
+     * @return página de citas con el cursor de la siguiente, nulo si no hay más
+     * @throws IllegalArgumentException si el cursor o el límite no son válidos
+     */
+    @Override
+    public CitaPaginaDTO listarCitas(CitaFiltro filtro, String cursor, Integer limite) {
+        return listarCitasSiCambia(filtro, cursor, limite, Set.of()).orElseThrow();
+    }
+
+    /**
+     * Lista una página de citas que cumplen el filtro si su versión no es una de las
+     * que ya tiene el cliente.
+     * <p>
+     * La versión se calcula con el ID y la versión de cada cita de la página, antes
+     * de convertirlas, de modo que una página sin cambios no pasa por el mapeador.
+     * </p>
+     *
+     * @param filtro             criterios de filtrado
+     * @param cursor             token de la página a obtener, o nulo para la primera
+     * @param limite             tamaño de página solicitado, o nulo para {@value #LIMITE_POR_DEFECTO}
+     * @param versionesConocidas versiones de la página que ya tiene el cliente
+     * @return página de citas con el cursor de la siguiente, o vacío si no ha cambiado
+     * @throws IllegalArgumentException si el cursor o el límite no son válidos
+     */
+    @Override
+    public Optional<CitaPaginaDTO> listarCitasSiCambia(CitaFiltro filtro, String cursor, Integer limite,
+                                                       Set<String> versionesConocidas) {
+        int tamano = tamanoPagina(limite);
+        CitaCursor despuesDe = decodificarCursor(cursor);
+
+        List<Cita> citas = citaPortOut.listar(filtro, despuesDe, tamano + 1);
+        String siguiente = null;
+        if (citas.size() > tamano) {
+            citas = citas.subList(0, tamano);
+            siguiente = CitaCursor.despuesDe(citas.get(tamano - 1)).codificar();
+        }
+        String version = versionPagina(citas, siguiente != null);
+        if (versionesConocidas.contains(version)) {
+            return Optional.empty();
+        }
+        return Optional.of(new CitaPaginaDTO(mapper.toDTOList(citas), siguiente, version));
+    }
+
+    /**
+     * Calcula la versión de una página de citas a partir del ID y la versión de cada una.
+     * Cambia si alguna cita de la página se modifica, sale de ella o entra en ella.
+     *
+     * @param citas     citas de la página, en orden
+     * @param siguiente si existe una página siguiente
+     * @return versión de la página en hexadecimal
+     */
+    static String versionPagina(List<Cita> citas, boolean siguiente) {
+        long hash = siguiente ? 1 : 0;
+        for (Cita cita : citas) {
+            hash = 31 * hash + cita.getId();
+            hash = 31 * hash + (cita.getVersion() == null ? 0 : cita.getVersion());
+        }
+        // Mezcla final de SplitMix64 para repartir los bits del hash entre todo el valor
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return Long.toHexString(hash ^ (hash >>> 31));
+    }
+
+    /**
+     * Lista una página de resúmenes de las citas de un médico en un rango de fechas.
+     * Los resúmenes se construyen en la consulta, sin cargar entidades ni observaciones.
+     *
+     * @param medicoId ID del médico
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @param estado   estado de las citas, o nulo para todos
+     * @param cursor   token de la página a obtener, o nulo para la primera
+     * @param limite   tamaño de página solicitado, o nulo para {@value #LIMITE_POR_DEFECTO}
+     * @return página de resúmenes con el cursor de la siguiente, nulo si no hay más
+     * @throws IllegalArgumentException si el rango de fechas, el cursor o el límite no son válidos
+     */
+    @Override
+    public CitaResumenPaginaDTO listarResumenesMedico(Integer medicoId, LocalDate desde, LocalDate hasta,
+                                                      Estado estado, String cursor, Integer limite) {
+        validarRango(desde, hasta);
+        int tamano = tamanoPagina(limite);
+        return paginaResumenes(citaPortOut.listarResumenesMedico(
+                medicoId, desde, hasta, estado, decodificarCursor(cursor), tamano + 1), tamano);
+    }
+
+    /**
+     * Lista una página del historial de citas de un paciente, de la más reciente a la más antigua.
+     * Los resúmenes se construyen en la consulta, sin cargar entidades ni observaciones.
+     *
+     * @param pacienteId ID del paciente
+     * @param estado     estado de las citas, o nulo para todos
+     * @param cursor     token de la página a obtener, o nulo para la primera
+     * @param limite     tamaño de página solicitado, o nulo para {@value #LIMITE_POR_DEFECTO}
+     * @return página de resúmenes con el cursor de la siguiente, nulo si no hay más
+     * @throws IllegalArgumentException si el cursor o el límite no son válidos
+     */
+    @Override
+    public CitaResumenPaginaDTO listarHistorialPaciente(Integer pacienteId, Estado estado, String cursor,
+                                                        Integer limite) {
+        int tamano = tamanoPagina(limite);
+        return paginaResumenes(citaPortOut.listarHistorialPaciente(
+                pacienteId, estado, decodificarCursor(cursor), tamano + 1), tamano);
+    }
+
+    /**
+     * Lista una página de resúmenes de las citas en un estado dentro de un rango de fechas.
+     * Los resúmenes se construyen en la consulta, sin cargar entidades ni observaciones.
+     *
+     * @param estado estado de las citas
+     * @param desde  fecha inicial (inclusive)
+     * @param hasta  fecha final (inclusive)
+     * @param cursor token de la página a obtener, o nulo para la primera
+     * @param limite tamaño de página solicitado, o nulo para {@value #LIMITE_POR_DEFECTO}
+     * @return página de resúmenes con el cursor de la siguiente, nulo si no hay más
+     * @throws IllegalArgumentException si el rango de fechas, el cursor o el límite no son válidos
+     */
+    @Override
+    public CitaResumenPaginaDTO listarResumenesPorEstado(Estado estado, LocalDate desde, LocalDate hasta,
+                                                         String cursor, Integer limite) {
+        validarRango(desde, hasta);
+        int tamano = tamanoPagina(limite);
+        return paginaResumenes(citaPortOut.listarResumenesPorEstado(
+                estado, desde, hasta, decodificarCursor(cursor), tamano + 1), tamano);
+    }
+
+    /**
+     * Obtiene el tamaño de página efectivo.
+     *
+     * @param limite tamaño solicitado, o nulo para {@value #LIMITE_POR_DEFECTO}
+     * @return tamaño de página, como máximo {@value #LIMITE_MAXIMO}
+     * @throws IllegalArgumentException si el límite no es mayor que cero
+     */
+    private static int tamanoPagina(Integer limite) {
+        int tamano = limite == null ? LIMITE_POR_DEFECTO : limite;
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor que cero.");
+        }
+        return Math.min(tamano, LIMITE_MAXIMO);
+    }
+
+    private static CitaCursor decodificarCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : CitaCursor.decodificar(cursor);
+    }
+
+    private static void validarRango(LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial.");
+        }
+    }
+
+    /**
+     * Construye una página a partir de los resúmenes leídos, que incluyen uno más
+     * que el tamaño de página si hay página siguiente.
+     *
+     * @param resumenes resúmenes leídos
+     * @param tamano    tamaño de página
+     * @return página con el cursor de la siguiente, nulo si no hay más
+     */
+    private static CitaResumenPaginaDTO paginaResumenes(List<CitaResumenDTO> resumenes, int tamano) {
+        if (resumenes.size() <= tamano) {
+            return new CitaResumenPaginaDTO(resumenes, null);
+        }
+        List<CitaResumenDTO> pagina = resumenes.subList(0, tamano);
+        return new CitaResumenPaginaDTO(pagina, CitaCursor.despuesDe(pagina.get(tamano - 1)).codificar());
+    }
+
+    /**
+     * Calcula los intervalos libres de un médico en un rango de fechas.
+     * <p>
+     * Las citas del rango se obtienen con una sola consulta ordenada por fecha y hora.
+     * Cada día se recorre la jornada configurada y se devuelven los huecos entre citas
+     * donde cabe al menos la duración solicitada, agrupados en intervalos en lugar de
+     * enumerar cada horario. Toda cita ocupa su horario con independencia de su estado,
+     * igual que en la comprobación de duplicados.
+     * </p>
      *
-     * @return lista de DTOs de citas
+     * @param medicoId        ID del médico
+     * @param desde           fecha inicial (inclusive)
+     * @param hasta           fecha final (inclusive)
+     * @param duracionMinutos duración mínima de los intervalos, o nulo para la duración de una cita
+     * @return intervalos libres del médico
+     * @throws IllegalArgumentException si el rango de fechas o la duración no son válidos
      */
     @Override
-    public List<CitaDTO> listarCitas() {
-        return mapper.toDTOList(citaPortOut.listar());
+    public DisponibilidadDTO consultarDisponibilidad(Integer medicoId, LocalDate desde, LocalDate hasta,
+                                                     Integer duracionMinutos) {
+        validarRango(desde, hasta);
+        if (ChronoUnit.DAYS.between(desde, hasta) >= agenda.getMaximoDiasConsulta()) {
+            throw new IllegalArgumentException(
+                    "El rango no puede superar " + agenda.getMaximoDiasConsulta() + " días.");
+        }
+        int duracionCita = (int) agenda.getDuracionCita().toMinutes();
+        int duracion = duracionMinutos == null ? duracionCita : duracionMinutos;
+        if (duracion < 1) {
+            throw new IllegalArgumentException("La duración debe ser mayor que cero.");
+        }
+
+        int inicioJornada = minutoDelDia(agenda.getHoraInicio());
+        int finJornada = minutoDelDia(agenda.getHoraFin());
+        List<CitaHorario> citas = citaPortOut.listarHorariosMedico(medicoId, desde, hasta);
+        List<IntervaloLibreDTO> intervalos = new ArrayList<>();
+
+        int i = 0;
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            int libreDesde = inicioJornada;
+            for (; i < citas.size() && citas.get(i).fecha().equals(fecha); i++) {
+                int inicioCita = minutoDelDia(citas.get(i).hora());
+                agregarIntervalo(intervalos, fecha, libreDesde, Math.min(inicioCita, finJornada), duracion);
+                libreDesde = Math.max(libreDesde, inicioCita + duracionCita);
+            }
+            agregarIntervalo(intervalos, fecha, libreDesde, finJornada, duracion);
+        }
+        return new DisponibilidadDTO(medicoId, desde, hasta, duracion, intervalos);
+    }
+
+    /**
+     * Obtiene la agenda de un médico en un día.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día de la agenda
+     * @return agenda del día con sus citas ordenadas por hora
+     */
+    @Override
+    public AgendaDiaDTO obtenerAgendaDia(Integer medicoId, LocalDate fecha) {
+        return citaPortOut.obtenerAgendaDia(medicoId, fecha);
+    }
+
+    /**
+     * Obtiene la versión de la agenda de un médico en un día. El documento de la agenda
+     * ya está en memoria, así que solo se lee su versión.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día de la agenda
+     * @return versión de la agenda
+     */
+    @Override
+    public String obtenerVersionAgendaDia(Integer medicoId, LocalDate fecha) {
+        return citaPortOut.obtenerAgendaDia(medicoId, fecha).getVersion();
+    }
+
+    /**
+     * Obtiene el número de citas por día y estado en un rango de fechas a partir de
+     * contadores mantenidos en memoria, sin recorrer la tabla de citas.
+     *
+     * @param medicoId ID del médico, o nulo para contar todos los médicos
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @return estadísticas del rango
+     * @throws IllegalArgumentException si el rango de fechas no es válido o supera
+     *                                  {@value #MAXIMO_DIAS_ESTADISTICAS} días
+     */
+    @Override
+    public EstadisticasCitasDTO obtenerEstadisticas(Integer medicoId, LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        if (ChronoUnit.DAYS.between(desde, hasta) >= MAXIMO_DIAS_ESTADISTICAS) {
+            throw new IllegalArgumentException("El rango no puede superar " + MAXIMO_DIAS_ESTADISTICAS + " días.");
+        }
+        return citaPortOut.obtenerEstadisticas(medicoId, desde, hasta);
+    }
+
+    /**
+     * Entrega todas las citas convertidas a DTO a medida que se leen de la base de datos.
+     *
+     * @param consumidor función que recibe cada cita
+     */
+    @Override
+    public void exportarCitas(Consumer<CitaDTO> consumidor) {
+        citaPortOut.recorrerTodas(cita -> consumidor.accept(mapper.toDTO(cita)));
     }
 
     /**
@@ -117,17 +577,134 @@ public class CitaUseCase implements CitaPortIn {
      * @param request nuevos datos para la cita
      * @return DTO de la cita actualizada
      * @throws CitaNoEncontradaException si no existe una cita con el ID proporcionado
+     * @throws CitaArchivadaException si la cita está archivada
      * @throws PacienteNoValidoException si el pacienteId no corresponde a un paciente válido
      * @throws MedicoNoValidoException si el medicoId no corresponde a un médico válido
      * @throws CitaDuplicadaException si ya existe una cita para el paciente o médico en la misma fecha y hora (excepto la actual)
+     * @throws CitaVersionNoCoincideException si otra petición modifica la cita mientras se actualiza
      */
     @Override
     public CitaDTO actualizarCita(Integer id, CitaRequest request) {
-        Cita existente = citaPortOut.buscarPorId(id)
-                .orElseThrow(() -> new CitaNoEncontradaException(id));
+        return actualizarCita(id, request, null);
+    }
 
-        UsuarioTipo tipoPaciente = citaUsuarioValidator.obtenerTipoUsuario(request.getPacienteId());
-        UsuarioTipo tipoMedico = citaUsuarioValidator.obtenerTipoUsuario(request.getMedicoId());
+    /**
+     * Actualiza una cita existente si su versión es la que leyó el cliente.
+     * <p>
+     * La versión se comprueba al cargar la cita, antes de consultar usuarios-service,
+     * y de nuevo al guardarla, por lo que tampoco se pierde una modificación que
+     * llegue entre ambas.
+     * </p>
+     *
+     * @param id              identificador de la cita a actualizar
+     * @param request         nuevos datos para la cita
+     * @param versionEsperada versión que el cliente leyó, o nula para no comprobarla al cargar
+     * @return DTO de la cita actualizada
+     * @throws CitaNoEncontradaException si no existe una cita con el ID proporcionado
+     * @throws CitaArchivadaException si la cita está archivada
+     * @throws CitaVersionNoCoincideException si la versión de la cita no es la esperada
+     */
+    @Override
+    public CitaDTO actualizarCita(Integer id, CitaRequest request, Long versionEsperada) {
+        return metricas.medir(ACTUALIZAR, FASE_TOTAL, () -> {
+            Cita existente = metricas.medir(ACTUALIZAR, FASE_CARGA, () -> citaPortOut.buscarPorId(id)
+                    .orElseThrow(() -> noActiva(id)));
+            if (versionEsperada != null && !versionEsperada.equals(existente.getVersion())) {
+                throw new CitaVersionNoCoincideException(id);
+            }
+
+            validarParticipantes(ACTUALIZAR, request);
+
+            // Validar disponibilidad de paciente y médico en la fecha y hora (excepto la cita actual).
+            // Si la cita cambia de médico, también se toma el candado del médico anterior,
+            // cuyo horario queda libre al guardar.
+            LocalDate fecha = LocalDate.parse(request.getFecha());
+            LocalTime hora = LocalTime.parse(request.getHora());
+
+            return bloqueoPorMedico.ejecutar(existente.getMedicoId(), request.getMedicoId(), () -> {
+                metricas.medir(ACTUALIZAR, FASE_DUPLICADO_PACIENTE,
+                                () -> citaPortOut.buscarPorPacienteFechaHora(request.getPacienteId(), fecha, hora)
+                                        .filter(cita -> !cita.getId().equals(id)),
+                                otra -> otra.isPresent() ? DUPLICADA : OK)
+                        .ifPresent(cita -> {
+                            throw new CitaDuplicadaException("El paciente ya tiene una cita a esa fecha y hora.");
+                        });
+
+                metricas.medir(ACTUALIZAR, FASE_DUPLICADO_MEDICO,
+                                () -> citaPortOut.buscarPorMedicoFechaHora(request.getMedicoId(), fecha, hora)
+                                        .filter(cita -> !cita.getId().equals(id)),
+                                otra -> otra.isPresent() ? DUPLICADA : OK)
+                        .ifPresent(cita -> {
+                            throw new CitaDuplicadaException("El médico ya tiene una cita a esa fecha y hora.");
+                        });
+
+                metricas.medir(ACTUALIZAR, FASE_MAPEO, () -> {
+                    existente.setFecha(fecha);
+                    existente.setHora(hora);
+                    existente.setEstado(Estado.valueOf(request.getEstado()));
+                    existente.setObservaciones(request.getObservaciones());
+                    existente.setPacienteId(request.getPacienteId());
+                    existente.setMedicoId(request.getMedicoId());
+                    return existente;
+                });
+
+                Cita guardada = metricas.medir(ACTUALIZAR, FASE_GUARDAR, () -> citaPortOut.guardar(existente));
+                return metricas.medir(ACTUALIZAR, FASE_MAPEO_RESPUESTA, () -> mapper.toDTO(guardada));
+            });
+        });
+    }
+
+    /**
+     * Elimina una cita por su identificador.
+     * <p>
+     * Las citas archivadas son de solo lectura y no se eliminan: se responde con un
+     * conflicto en lugar de borrarlas del archivo, que conserva el histórico.
+     * </p>
+     *
+     * @param id identificador de la cita a eliminar
+     * @throws CitaNoEncontradaException si no existe una cita con el ID proporcionado
+     * @throws CitaArchivadaException si la cita está archivada
+     */
+    @Override
+    public void eliminarCita(Integer id) {
+        if (!citaPortOut.eliminar(id)) {
+            throw noActiva(id);
+        }
+    }
+
+    /**
+     * Construye el error para una cita que no está entre las activas.
+     *
+     * @param id identificador de la cita
+     * @return {@link CitaArchivadaException} si está archivada, o {@link CitaNoEncontradaException}
+     */
+    private RuntimeException noActiva(Integer id) {
+        return citaPortOut.buscarArchivadaPorId(id).isPresent()
+                ? new CitaArchivadaException(id) : new CitaNoEncontradaException(id);
+    }
+
+    /**
+     * Valida que el paciente y el médico de la solicitud tengan el tipo correcto.
+     * <p>
+     * Ambas consultas a usuarios-service se lanzan a la vez, por lo que la espera
+     * total es la de la más lenta y no la suma de las dos.
+     * </p>
+     *
+     * @param operacion operación en curso, para las métricas
+     * @param request datos de la cita
+     * @throws PacienteNoValidoException si el pacienteId no corresponde a un paciente válido
+     * @throws MedicoNoValidoException si el medicoId no corresponde a un médico válido
+     */
+    private void validarParticipantes(String operacion, CitaRequest request) {
+        CompletableFuture<UsuarioTipo> paciente = metricas.medirAsync(operacion, FASE_VALIDACION_PACIENTE,
+                () -> citaUsuarioValidator.obtenerTipoUsuarioAsync(request.getPacienteId()),
+                tipo -> tipo == UsuarioTipo.PACIENTE ? OK : PACIENTE_INVALIDO);
+        CompletableFuture<UsuarioTipo> medico = metricas.medirAsync(operacion, FASE_VALIDACION_MEDICO,
+                () -> citaUsuarioValidator.obtenerTipoUsuarioAsync(request.getMedicoId()),
+                tipo -> tipo == UsuarioTipo.MEDICO ? OK : MEDICO_INVALIDO);
+
+        UsuarioTipo tipoPaciente = esperar(paciente);
+        UsuarioTipo tipoMedico = esperar(medico);
 
         if (tipoPaciente != UsuarioTipo.PACIENTE) {
             throw new PacienteNoValidoException(request.getPacienteId());
@@ -135,40 +712,57 @@ public class CitaUseCase implements CitaPortIn {
         if (tipoMedico != UsuarioTipo.MEDICO) {
             throw new MedicoNoValidoException(request.getMedicoId());
         }
+    }
 
-        // Validar disponibilidad de paciente y médico en la fecha y hora (excepto la cita actual)
-        LocalDate fecha = LocalDate.parse(request.getFecha());
-        LocalTime hora = LocalTime.parse(request.getHora());
-
-        citaPortOut.buscarPorPacienteFechaHora(request.getPacienteId(), fecha, hora)
-                .filter(cita -> !cita.getId().equals(id))
-                .ifPresent(cita -> {
-                    throw new CitaDuplicadaException("El paciente ya tiene una cita a esa fecha y hora.");
-                });
+    /**
+     * Añade un intervalo libre si tiene al menos la duración indicada.
+     *
+     * @param intervalos lista de intervalos libres
+     * @param fecha      día del intervalo
+     * @param inicio     minuto del día en que empieza el intervalo
+     * @param fin        minuto del día en que termina el intervalo
+     * @param duracion   duración mínima en minutos
+     */
+    private static void agregarIntervalo(List<IntervaloLibreDTO> intervalos, LocalDate fecha,
+                                         int inicio, int fin, int duracion) {
+        if (fin - inicio >= duracion) {
+            intervalos.add(new IntervaloLibreDTO(fecha, horaDelDia(inicio), horaDelDia(fin)));
+        }
+    }
 
-        citaPortOut.buscarPorMedicoFechaHora(request.getMedicoId(), fecha, hora)
-                .filter(cita -> !cita.getId().equals(id))
-                .ifPresent(cita -> {
-                    throw new CitaDuplicadaException("El médico ya tiene una cita a esa fecha y hora.");
-                });
+    private static int minutoDelDia(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
 
-        existente.setFecha(fecha);
-        existente.setHora(hora);
-        existente.setEstado(Estado.valueOf(request.getEstado()));
-        existente.setObservaciones(request.getObservaciones());
-        existente.setPacienteId(request.getPacienteId());
-        existente.setMedicoId(request.getMedicoId());
+    private static LocalTime horaDelDia(int minuto) {
+        return LocalTime.of(minuto / 60, minuto % 60);
+    }
 
-        return mapper.toDTO(citaPortOut.guardar(existente));
+    /**
+     * Espera el resultado de una consulta asíncrona, relanzando la excepción original si falla.
+     *
+     * @param resultado consulta en curso
+     * @param <T>       tipo del resultado
+     * @return resultado obtenido
+     */
+    private static <T> T esperar(CompletableFuture<T> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
     }
 
     /**
-     * Elimina una cita por su identificador.
+     * Horario de un usuario, usado para detectar choques en las cargas masivas.
      *
-     * @param id identificador de la cita a eliminar
+     * @param usuarioId ID del paciente o del médico
+     * @param fecha     fecha de la cita
+     * @param hora      hora de la cita
      */
-    @Override
-    public void eliminarCita(Integer id) {
-        citaPortOut.eliminar(id);
+    private record Horario(Integer usuarioId, LocalDate fecha, LocalTime hora) {
     }
-}
\ No newline at end of file
+}
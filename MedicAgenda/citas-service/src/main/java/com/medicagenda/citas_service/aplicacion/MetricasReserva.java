@@ -0,0 +1,185 @@
+package com.medicagenda.citas_service.aplicacion;
+
+import com.medicagenda.citas_service.dominio.excepciones.CitaArchivadaException;
+import com.medicagenda.citas_service.dominio.excepciones.CitaDuplicadaException;
+import com.medicagenda.citas_service.dominio.excepciones.CitaNoEncontradaException;
+import com.medicagenda.citas_service.dominio.excepciones.CitaVersionNoCoincideException;
+import com.medicagenda.citas_service.dominio.excepciones.MedicoNoValidoException;
+import com.medicagenda.citas_service.dominio.excepciones.MicroUsuariosServiceNoDisponibleException;
+import com.medicagenda.citas_service.dominio.excepciones.PacienteNoValidoException;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Mide la duración de cada fase de la creación y actualización de citas.
+ * <p>
+ * Todas las mediciones se publican en el temporizador <code>citas.reserva.fase</code>
+ * con las etiquetas <code>operacion</code> (crear, actualizar), <code>fase</code> y
+ * <code>resultado</code>. Los percentiles e histogramas se configuran en
+ * <code>application.properties</code> con
+ * <code>management.metrics.distribution.*.citas.reserva.fase</code>.
+ * </p>
+ *
+ * <ul>
+ *     <li>Las fases que terminan con una excepción se etiquetan según su tipo
+ *     (duplicada, paciente_invalido, medico_invalido, usuarios_no_disponible, no_encontrada,
+ *     archivada, version_no_coincide, error).</li>
+ *     <li>La fase {@value #FASE_TOTAL} mide la operación completa.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class MetricasReserva {
+
+    /** Creación de una cita. */
+    public static final String CREAR = "crear";
+    /** Actualización de una cita. */
+    public static final String ACTUALIZAR = "actualizar";
+
+    /** Operación completa. */
+    public static final String FASE_TOTAL = "total";
+    /** Lectura de la cita que se va a actualizar. */
+    public static final String FASE_CARGA = "carga";
+    /** Consulta remota del tipo del paciente. */
+    public static final String FASE_VALIDACION_PACIENTE = "validacion_paciente";
+    /** Consulta remota del tipo del médico. */
+    public static final String FASE_VALIDACION_MEDICO = "validacion_medico";
+    /** Búsqueda de otra cita del paciente en el mismo horario. */
+    public static final String FASE_DUPLICADO_PACIENTE = "duplicado_paciente";
+    /** Búsqueda de otra cita del médico en el mismo horario. */
+    public static final String FASE_DUPLICADO_MEDICO = "duplicado_medico";
+    /** Conversión de la solicitud en entidad. */
+    public static final String FASE_MAPEO = "mapeo";
+    /** Escritura en la base de datos. */
+    public static final String FASE_GUARDAR = "guardar";
+    /** Conversión de la entidad guardada en respuesta. */
+    public static final String FASE_MAPEO_RESPUESTA = "mapeo_respuesta";
+
+    /** Fase terminada sin error. */
+    public static final String OK = "ok";
+    /** Horario ocupado. */
+    public static final String DUPLICADA = "duplicada";
+    /** El paciente no es válido. */
+    public static final String PACIENTE_INVALIDO = "paciente_invalido";
+    /** El médico no es válido. */
+    public static final String MEDICO_INVALIDO = "medico_invalido";
+    /** usuarios-service no disponible. */
+    public static final String USUARIOS_NO_DISPONIBLE = "usuarios_no_disponible";
+    /** La cita no existe. */
+    public static final String NO_ENCONTRADA = "no_encontrada";
+    /** La cita está archivada y no se puede modificar. */
+    public static final String ARCHIVADA = "archivada";
+    /** La cita cambió desde que el cliente la leyó. */
+    public static final String VERSION_NO_COINCIDE = "version_no_coincide";
+    /** Cualquier otro error. */
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Meter.MeterProvider<Timer> fases;
+
+    /**
+     * Crea el medidor de fases.
+     *
+     * @param registry registro de métricas de Micrometer
+     */
+    public MetricasReserva(MeterRegistry registry) {
+        this.registry = registry;
+        this.fases = Timer.builder("citas.reserva.fase")
+                .description("Duración de cada fase de la creación y actualización de citas")
+                .withRegistry(registry);
+    }
+
+    /**
+     * Mide una fase síncrona cuyo resultado es {@value #OK} si termina sin excepción.
+     *
+     * @param operacion operación (crear, actualizar)
+     * @param fase      nombre de la fase
+     * @param accion    código de la fase
+     * @param <T>       tipo del resultado
+     * @return resultado de la fase
+     */
+    public <T> T medir(String operacion, String fase, Supplier<T> accion) {
+        return medir(operacion, fase, accion, valor -> OK);
+    }
+
+    /**
+     * Mide una fase síncrona cuyo resultado depende del valor devuelto.
+     *
+     * @param operacion operación (crear, actualizar)
+     * @param fase      nombre de la fase
+     * @param accion    código de la fase
+     * @param resultado función que obtiene la etiqueta de resultado a partir del valor
+     * @param <T>       tipo del resultado
+     * @return resultado de la fase
+     */
+    public <T> T medir(String operacion, String fase, Supplier<T> accion, Function<? super T, String> resultado) {
+        Timer.Sample muestra = Timer.start(registry);
+        T valor;
+        try {
+            valor = accion.get();
+        } catch (RuntimeException e) {
+            muestra.stop(fases.withTags("operacion", operacion, "fase", fase, "resultado", clasificar(e)));
+            throw e;
+        }
+        muestra.stop(fases.withTags("operacion", operacion, "fase", fase, "resultado", resultado.apply(valor)));
+        return valor;
+    }
+
+    /**
+     * Mide una fase asíncrona desde que se lanza hasta que se completa.
+     *
+     * @param operacion operación (crear, actualizar)
+     * @param fase      nombre de la fase
+     * @param accion    código que lanza la fase
+     * @param resultado función que obtiene la etiqueta de resultado a partir del valor
+     * @param <T>       tipo del resultado
+     * @return resultado futuro de la fase
+     */
+    public <T> CompletableFuture<T> medirAsync(String operacion, String fase, Supplier<CompletableFuture<T>> accion,
+                                               Function<? super T, String> resultado) {
+        Timer.Sample muestra = Timer.start(registry);
+        return accion.get().whenComplete((valor, error) -> muestra.stop(fases.withTags(
+                "operacion", operacion, "fase", fase,
+                "resultado", error != null ? clasificar(error) : resultado.apply(valor))));
+    }
+
+    /**
+     * Obtiene la etiqueta de resultado correspondiente a una excepción.
+     *
+     * @param error excepción, posiblemente envuelta en {@link CompletionException}
+     * @return etiqueta de resultado
+     */
+    private static String clasificar(Throwable error) {
+        Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (causa instanceof CitaDuplicadaException) {
+            return DUPLICADA;
+        }
+        if (causa instanceof PacienteNoValidoException) {
+            return PACIENTE_INVALIDO;
+        }
+        if (causa instanceof MedicoNoValidoException) {
+            return MEDICO_INVALIDO;
+        }
+        if (causa instanceof MicroUsuariosServiceNoDisponibleException) {
+            return USUARIOS_NO_DISPONIBLE;
+        }
+        if (causa instanceof CitaNoEncontradaException) {
+            return NO_ENCONTRADA;
+        }
+        if (causa instanceof CitaArchivadaException) {
+            return ARCHIVADA;
+        }
+        if (causa instanceof CitaVersionNoCoincideException) {
+            return VERSION_NO_COINCIDE;
+        }
+        return ERROR;
+    }
+}
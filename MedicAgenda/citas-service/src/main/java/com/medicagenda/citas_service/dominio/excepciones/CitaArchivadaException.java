@@ -0,0 +1,22 @@
+package com.medicagenda.citas_service.dominio.excepciones;
+
+/**
+ * Excepción de negocio que indica que se intenta modificar una cita archivada.
+ * <p>
+ * Las citas pasadas que se trasladan a la tabla <code>cita_archivo</code> siguen
+ * pudiéndose consultar, pero son de solo lectura: no se actualizan ni se eliminan.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+public class CitaArchivadaException extends RuntimeException {
+
+    /**
+     * Crea una nueva excepción indicando el ID de la cita archivada.
+     *
+     * @param id identificador de la cita
+     */
+    public CitaArchivadaException(Integer id) {
+        super("La cita con ID " + id + " está archivada y no se puede modificar.");
+    }
+}
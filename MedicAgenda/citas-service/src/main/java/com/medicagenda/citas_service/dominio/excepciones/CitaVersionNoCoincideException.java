@@ -0,0 +1,24 @@
+package com.medicagenda.citas_service.dominio.excepciones;
+
+/**
+ * Excepción de negocio que indica que una cita ha cambiado desde que el cliente
+ * la leyó.
+ * <p>
+ * Se lanza cuando la versión enviada para actualizar una cita no es la actual, o
+ * cuando otra petición la modifica entre la lectura y la escritura. El cliente
+ * debe volver a leer la cita y repetir la actualización.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+public class CitaVersionNoCoincideException extends RuntimeException {
+
+    /**
+     * Crea una nueva excepción indicando el ID de la cita modificada.
+     *
+     * @param id identificador de la cita
+     */
+    public CitaVersionNoCoincideException(Integer id) {
+        super("La cita con ID " + id + " ha sido modificada por otra petición.");
+    }
+}
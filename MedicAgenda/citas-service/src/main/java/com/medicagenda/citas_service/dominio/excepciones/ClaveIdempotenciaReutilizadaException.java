@@ -0,0 +1,23 @@
+package com.medicagenda.citas_service.dominio.excepciones;
+
+/**
+ * Excepción que indica que una clave de idempotencia se ha enviado con una
+ * petición distinta de la original.
+ * <p>
+ * Una misma clave solo puede repetir exactamente la misma petición; con otros
+ * datos el cliente debe usar una clave nueva.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+public class ClaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    /**
+     * Crea una nueva excepción indicando la clave reutilizada.
+     *
+     * @param clave clave de idempotencia
+     */
+    public ClaveIdempotenciaReutilizadaException(String clave) {
+        super("La clave de idempotencia '" + clave + "' ya se usó con una petición distinta.");
+    }
+}
@@ -0,0 +1,23 @@
+package com.medicagenda.citas_service.dominio.excepciones;
+
+/**
+ * Excepción que indica que la petición original de una clave de idempotencia
+ * sigue en curso y no terminó dentro del tiempo de espera.
+ * <p>
+ * El cliente puede repetir la petición más tarde con la misma clave para
+ * obtener su resultado.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+public class PeticionIdempotenteEnCursoException extends RuntimeException {
+
+    /**
+     * Crea una nueva excepción indicando la clave de la petición en curso.
+     *
+     * @param clave clave de idempotencia
+     */
+    public PeticionIdempotenteEnCursoException(String clave) {
+        super("La petición con la clave de idempotencia '" + clave + "' sigue en curso.");
+    }
+}
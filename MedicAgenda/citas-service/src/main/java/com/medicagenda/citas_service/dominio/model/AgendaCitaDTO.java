@@ -0,0 +1,31 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import com.medicagenda.citas_service.entity.Cita;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalTime;
+
+/**
+ * Cita dentro de la agenda diaria de un médico.
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Cita de la agenda diaria de un médico")
+public class AgendaCitaDTO {
+
+    @Schema(description = "ID de la cita", example = "120")
+    private Integer id;
+
+    @Schema(description = "Hora de la cita", example = "10:30")
+    private LocalTime hora;
+
+    @Schema(description = "Estado de la cita", example = "CONFIRMADA")
+    private Cita.Estado estado;
+
+    @Schema(description = "ID del paciente", example = "15")
+    private Integer pacienteId;
+}
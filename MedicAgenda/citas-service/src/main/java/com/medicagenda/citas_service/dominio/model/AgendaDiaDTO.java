@@ -0,0 +1,35 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Agenda de un médico en un día: sus citas ordenadas por hora.
+ * <p>
+ * Es el documento del modelo de lectura de agendas diarias. Cada cambio en las
+ * citas del día crea un documento nuevo con otra versión, que se usa como ETag.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Agenda diaria de un médico")
+public class AgendaDiaDTO {
+
+    @Schema(description = "ID del médico", example = "4")
+    private Integer medicoId;
+
+    @Schema(description = "Fecha de la agenda", example = "2025-07-01")
+    private LocalDate fecha;
+
+    @Schema(description = "Versión del contenido, cambia con cada modificación", example = "9f3c2a7d41b0e265")
+    private String version;
+
+    @Schema(description = "Citas del día ordenadas por hora")
+    private List<AgendaCitaDTO> citas;
+}
@@ -0,0 +1,85 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import com.medicagenda.citas_service.entity.Cita;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición dentro del listado de citas, ordenado por fecha, hora e ID.
+ * <p>
+ * Permite paginar por clave (keyset): la siguiente página empieza justo después
+ * de la última cita devuelta, sin recorrer las anteriores. Se intercambia con el
+ * cliente como un token opaco en Base64 URL-safe.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+public class CitaCursor {
+
+    /** Fecha de la última cita devuelta. */
+    private LocalDate fecha;
+
+    /** Hora de la última cita devuelta. */
+    private LocalTime hora;
+
+    /** ID de la última cita devuelta. */
+    private Integer id;
+
+    /**
+     * Crea el cursor que apunta justo después de la cita indicada.
+     *
+     * @param cita última cita de una página
+     * @return cursor de la página siguiente
+     */
+    public static CitaCursor despuesDe(Cita cita) {
+        return new CitaCursor(cita.getFecha(), cita.getHora(), cita.getId());
+    }
+
+    /**
+     * Crea el cursor que apunta justo después del resumen indicado.
+     *
+     * @param cita último resumen de una página
+     * @return cursor de la página siguiente
+     */
+    public static CitaCursor despuesDe(CitaResumenDTO cita) {
+        return new CitaCursor(cita.getFecha(), cita.getHora(), cita.getId());
+    }
+
+    /**
+     * Codifica el cursor como token opaco.
+     *
+     * @return token para enviar al cliente
+     */
+    public String codificar() {
+        String valor = fecha + "|" + hora + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token recibido del cliente.
+     *
+     * @param token token generado por {@link #codificar()}
+     * @return cursor correspondiente
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    public static CitaCursor decodificar(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|");
+            if (partes.length != 3) {
+                throw new IllegalArgumentException("Cursor de paginación no válido.");
+            }
+            return new CitaCursor(LocalDate.parse(partes[0]), LocalTime.parse(partes[1]), Integer.valueOf(partes[2]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido.");
+        }
+    }
+}
@@ -45,4 +45,7 @@ public class CitaDTO {
 
     @Schema(description = "ID del médico", example = "105")
     private Integer medicoId;
+
+    @Schema(description = "Versión de la cita, cambia con cada modificación; se envía en If-Match para actualizarla", example = "3")
+    private Long version;
 }
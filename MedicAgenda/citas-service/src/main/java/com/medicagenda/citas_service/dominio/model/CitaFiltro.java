@@ -0,0 +1,37 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import com.medicagenda.citas_service.entity.Cita.Estado;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Criterios opcionales para filtrar el listado de citas.
+ * <p>
+ * Los campos nulos no se aplican. El rango de fechas es inclusivo en ambos extremos.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CitaFiltro {
+
+    /** ID del médico cuyas citas se quieren listar. */
+    private Integer medicoId;
+
+    /** ID del paciente cuyas citas se quieren listar. */
+    private Integer pacienteId;
+
+    /** Estado de las citas a listar. */
+    private Estado estado;
+
+    /** Fecha mínima de las citas (inclusive). */
+    private LocalDate desde;
+
+    /** Fecha máxima de las citas (inclusive). */
+    private LocalDate hasta;
+}
@@ -0,0 +1,36 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import com.medicagenda.citas_service.entity.Cita;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Datos de agenda de una cita: quién la tiene, cuándo y en qué estado.
+ * <p>
+ * Es una proyección ligera de {@link Cita} sin observaciones, utilizada por los
+ * índices y modelos de lectura en memoria.
+ * </p>
+ *
+ * @param id         identificador de la cita
+ * @param medicoId   ID del médico
+ * @param pacienteId ID del paciente
+ * @param fecha      fecha de la cita
+ * @param hora       hora de la cita
+ * @param estado     estado de la cita
+ * @since 2025-06-19
+ */
+public record CitaHorario(Integer id, Integer medicoId, Integer pacienteId,
+                          LocalDate fecha, LocalTime hora, Cita.Estado estado) {
+
+    /**
+     * Obtiene los datos de agenda de una entidad cita.
+     *
+     * @param cita entidad cita
+     * @return proyección con los datos de agenda
+     */
+    public static CitaHorario de(Cita cita) {
+        return new CitaHorario(cita.getId(), cita.getMedicoId(), cita.getPacienteId(),
+                cita.getFecha(), cita.getHora(), cita.getEstado());
+    }
+}
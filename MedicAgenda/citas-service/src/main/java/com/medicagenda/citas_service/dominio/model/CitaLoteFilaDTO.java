@@ -0,0 +1,28 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resultado de una fila de una carga masiva de citas.
+ * <p>
+ * Si la cita se creó, contiene su ID; si se rechazó, contiene el motivo.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Resultado de una fila de la carga masiva de citas")
+public class CitaLoteFilaDTO {
+
+    @Schema(description = "Posición de la fila en la solicitud, empezando en 0", example = "0")
+    private int indice;
+
+    @Schema(description = "ID de la cita creada; nulo si la fila se rechazó", example = "101", nullable = true)
+    private Integer id;
+
+    @Schema(description = "Motivo del rechazo; nulo si la cita se creó", example = "El médico ya tiene una cita a esa fecha y hora.", nullable = true)
+    private String error;
+}
@@ -0,0 +1,30 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Resultado de una carga masiva de citas, con el detalle de cada fila.
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Resultado de la carga masiva de citas")
+public class CitaLoteResultadoDTO {
+
+    @Schema(description = "Número de filas recibidas", example = "3")
+    private int total;
+
+    @Schema(description = "Número de citas creadas", example = "2")
+    private int creadas;
+
+    @Schema(description = "Número de filas rechazadas", example = "1")
+    private int rechazadas;
+
+    @Schema(description = "Resultado de cada fila, en el orden de la solicitud")
+    private List<CitaLoteFilaDTO> resultados;
+}
@@ -0,0 +1,32 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Página de citas devuelta por el listado paginado.
+ * <p>
+ * Contiene las citas de la página y el cursor para pedir la siguiente.
+ * Cuando no hay más citas, el cursor es nulo. La versión resume el ID y la
+ * versión de cada cita de la página y se usa como ETag del listado.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Página de citas médicas con cursor para la página siguiente")
+public class CitaPaginaDTO {
+
+    @Schema(description = "Citas de la página, ordenadas por fecha, hora e ID")
+    private List<CitaDTO> citas;
+
+    @Schema(description = "Cursor para obtener la página siguiente; nulo si no hay más citas", example = "MjAyNS0wNy0wMXwwOTozMHwxMDE", nullable = true)
+    private String siguienteCursor;
+
+    @Schema(description = "Versión del contenido de la página, cambia si alguna de sus citas cambia", example = "5b1e07c9a3d2f468")
+    private String version;
+}
@@ -0,0 +1,43 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import com.medicagenda.citas_service.entity.Cita;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Resumen de una cita médica para los listados de solo lectura.
+ * <p>
+ * Contiene los mismos datos que {@link CitaDTO} salvo las observaciones. Las consultas
+ * lo construyen directamente en la sentencia SELECT, de modo que no se carga la
+ * entidad {@link Cita} ni su columna de observaciones.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Resumen de una cita médica, sin observaciones")
+public class CitaResumenDTO {
+
+    @Schema(description = "Identificador único de la cita", example = "101")
+    private Integer id;
+
+    @Schema(description = "ID del médico", example = "105")
+    private Integer medicoId;
+
+    @Schema(description = "ID del paciente", example = "202")
+    private Integer pacienteId;
+
+    @Schema(description = "Fecha de la cita", example = "2025-06-25")
+    private LocalDate fecha;
+
+    @Schema(description = "Hora de la cita", example = "10:30")
+    private LocalTime hora;
+
+    @Schema(description = "Estado de la cita (PENDIENTE, CONFIRMADA, CANCELADA)", example = "PENDIENTE")
+    private Cita.Estado estado;
+}
@@ -0,0 +1,28 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Página de resúmenes de citas devuelta por los listados de solo lectura.
+ * <p>
+ * Contiene los resúmenes de la página y el cursor para pedir la siguiente.
+ * Cuando no hay más citas, el cursor es nulo.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Página de resúmenes de citas con cursor para la página siguiente")
+public class CitaResumenPaginaDTO {
+
+    @Schema(description = "Resúmenes de las citas de la página")
+    private List<CitaResumenDTO> citas;
+
+    @Schema(description = "Cursor para obtener la página siguiente; nulo si no hay más citas", example = "MjAyNS0wNy0wMXwwOTozMHwxMDE", nullable = true)
+    private String siguienteCursor;
+}
@@ -0,0 +1,21 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import com.medicagenda.citas_service.entity.Cita;
+
+import java.time.LocalDate;
+
+/**
+ * Número de citas de un médico en un día con un estado determinado.
+ * <p>
+ * Es el resultado de las consultas agrupadas con las que se inicializan los
+ * contadores de citas en memoria.
+ * </p>
+ *
+ * @param medicoId ID del médico
+ * @param fecha    día de las citas
+ * @param estado   estado de las citas
+ * @param total    número de citas
+ * @since 2025-06-19
+ */
+public record ConteoCitas(Integer medicoId, LocalDate fecha, Cita.Estado estado, Long total) {
+}
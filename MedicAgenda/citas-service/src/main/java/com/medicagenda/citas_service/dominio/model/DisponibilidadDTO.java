@@ -0,0 +1,38 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Horarios libres de un médico en un rango de fechas.
+ * <p>
+ * Los huecos consecutivos se agrupan en intervalos; solo se incluyen los
+ * intervalos donde cabe una cita de la duración solicitada.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Disponibilidad de un médico en un rango de fechas")
+public class DisponibilidadDTO {
+
+    @Schema(description = "ID del médico", example = "4")
+    private Integer medicoId;
+
+    @Schema(description = "Fecha inicial consultada", example = "2025-07-01")
+    private LocalDate desde;
+
+    @Schema(description = "Fecha final consultada", example = "2025-07-07")
+    private LocalDate hasta;
+
+    @Schema(description = "Duración mínima de los intervalos, en minutos", example = "30")
+    private int duracionMinutos;
+
+    @Schema(description = "Intervalos libres ordenados por fecha y hora")
+    private List<IntervaloLibreDTO> intervalos;
+}
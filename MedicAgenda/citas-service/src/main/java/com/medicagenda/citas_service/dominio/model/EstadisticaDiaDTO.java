@@ -0,0 +1,29 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import com.medicagenda.citas_service.entity.Cita;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Número de citas de un día desglosado por estado.
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Número de citas de un día por estado")
+public class EstadisticaDiaDTO {
+
+    @Schema(description = "Fecha", example = "2025-07-01")
+    private LocalDate fecha;
+
+    @Schema(description = "Número de citas de cada estado", example = "{\"PENDIENTE\": 6, \"CONFIRMADA\": 10, \"CANCELADA\": 1}")
+    private Map<Cita.Estado, Long> porEstado;
+
+    @Schema(description = "Número total de citas del día", example = "17")
+    private long total;
+}
@@ -0,0 +1,39 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import com.medicagenda.citas_service.entity.Cita;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Número de citas por día y estado en un rango de fechas, de un médico o de todos.
+ * <p>
+ * Solo se incluyen los días con alguna cita.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Estadísticas de citas por día y estado")
+public class EstadisticasCitasDTO {
+
+    @Schema(description = "ID del médico; nulo si se cuentan todos los médicos", example = "4", nullable = true)
+    private Integer medicoId;
+
+    @Schema(description = "Fecha inicial consultada", example = "2025-07-01")
+    private LocalDate desde;
+
+    @Schema(description = "Fecha final consultada", example = "2025-07-31")
+    private LocalDate hasta;
+
+    @Schema(description = "Número de citas de cada estado en todo el rango", example = "{\"PENDIENTE\": 120, \"CONFIRMADA\": 300, \"CANCELADA\": 14}")
+    private Map<Cita.Estado, Long> totales;
+
+    @Schema(description = "Número de citas de cada día con citas, ordenados por fecha")
+    private List<EstadisticaDiaDTO> dias;
+}
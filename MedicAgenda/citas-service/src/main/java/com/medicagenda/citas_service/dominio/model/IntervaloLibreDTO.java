@@ -0,0 +1,28 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Intervalo de tiempo libre en la agenda de un médico dentro de un día.
+ *
+ * @since 2025-06-19
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Intervalo libre en la agenda de un médico")
+public class IntervaloLibreDTO {
+
+    @Schema(description = "Fecha del intervalo", example = "2025-07-01")
+    private LocalDate fecha;
+
+    @Schema(description = "Hora de inicio del intervalo (inclusive)", example = "10:00")
+    private LocalTime inicio;
+
+    @Schema(description = "Hora de fin del intervalo (exclusive)", example = "12:30")
+    private LocalTime fin;
+}
@@ -0,0 +1,19 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de tipo de un usuario publicado por usuarios-service.
+ * <p>
+ * Los eventos se numeran en orden creciente; aplicarlos en ese orden deja una
+ * copia local del tipo de cada usuario al día.
+ * </p>
+ *
+ * @param id        número del evento en usuarios-service
+ * @param usuarioId ID del usuario modificado
+ * @param tipo      tipo del usuario tras el cambio; DESCONOCIDO si el usuario se eliminó
+ * @param fecha     momento en que usuarios-service registró el cambio
+ * @since 2025-06-19
+ */
+public record UsuarioEvento(long id, Integer usuarioId, UsuarioTipo tipo, LocalDateTime fecha) {
+}
@@ -0,0 +1,13 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import java.util.List;
+
+/**
+ * Página de eventos de usuario leída de usuarios-service.
+ *
+ * @param eventos        eventos de la página, en orden de ID
+ * @param ultimoEventoId ID del último evento existente en usuarios-service
+ * @since 2025-06-19
+ */
+public record UsuarioEventoPagina(List<UsuarioEvento> eventos, long ultimoEventoId) {
+}
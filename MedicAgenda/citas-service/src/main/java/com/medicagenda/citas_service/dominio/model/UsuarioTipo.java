@@ -26,5 +26,23 @@ public enum UsuarioTipo {
     /**
      * Usuario cuyo tipo es desconocido o no válido.
      */
-    DESCONOCIDO
+    DESCONOCIDO;
+
+    /**
+     * Convierte el tipo recibido de usuarios-service en un {@link UsuarioTipo}.
+     *
+     * @param tipo nombre del tipo, sin distinguir mayúsculas
+     * @return tipo de usuario, DESCONOCIDO si es nulo o no es reconocido
+     */
+    public static UsuarioTipo de(String tipo) {
+        if (tipo == null) {
+            return DESCONOCIDO;
+        }
+        return switch (tipo.toUpperCase()) {
+            case "PACIENTE" -> PACIENTE;
+            case "MEDICO" -> MEDICO;
+            case "ADMIN" -> ADMIN;
+            default -> DESCONOCIDO;
+        };
+    }
 }
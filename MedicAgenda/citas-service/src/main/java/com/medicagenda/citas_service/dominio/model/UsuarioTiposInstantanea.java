@@ -0,0 +1,17 @@
+package com.medicagenda.citas_service.dominio.model;
+
+import java.util.Map;
+
+/**
+ * Página de la instantánea del tipo de todos los usuarios de usuarios-service.
+ * <p>
+ * Quien recorre todas las páginas debe quedarse con el ID de evento de la primera
+ * y aplicar después los eventos posteriores a ese ID.
+ * </p>
+ *
+ * @param ultimoEventoId ID del último evento escrito antes de leer la página
+ * @param tipos          tipo de cada usuario de la página, por ID
+ * @since 2025-06-19
+ */
+public record UsuarioTiposInstantanea(long ultimoEventoId, Map<Integer, UsuarioTipo> tipos) {
+}
@@ -1,9 +1,21 @@
 package com.medicagenda.citas_service.dominio.port.in;
 
+import com.medicagenda.citas_service.dominio.model.AgendaDiaDTO;
 import com.medicagenda.citas_service.dominio.model.CitaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaFiltro;
+import com.medicagenda.citas_service.dominio.model.CitaLoteResultadoDTO;
+import com.medicagenda.citas_service.dominio.model.CitaPaginaDTO;
 import com.medicagenda.citas_service.dominio.model.CitaRequest;
+import com.medicagenda.citas_service.dominio.model.CitaResumenPaginaDTO;
+import com.medicagenda.citas_service.dominio.model.DisponibilidadDTO;
+import com.medicagenda.citas_service.dominio.model.EstadisticasCitasDTO;
+import com.medicagenda.citas_service.entity.Cita;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Puerto de entrada para la gestión de citas médicas.
@@ -32,6 +44,14 @@ public interface CitaPortIn {
      */
     CitaDTO crearCita(CitaRequest request);
 
+    /**
+     * Crea varias citas en una sola operación.
+     *
+     * @param requests datos de las citas a crear
+     * @return resultado de cada fila; las filas rechazadas no impiden crear las demás
+     */
+    CitaLoteResultadoDTO crearCitasLote(List<CitaRequest> requests);
+
     /**
      * Obtiene los datos de una cita específica por ID.
      *
@@ -41,11 +61,119 @@ public interface CitaPortIn {
     CitaDTO obtenerCitaPorId(Integer id);
 
     /**
-     * Lista todas las citas existentes.
+     * Obtiene la versión actual de una cita sin cargarla.
+     *
+     * @param id identificador de la cita
+     * @return versión de la cita
+     */
+    Long obtenerVersionCita(Integer id);
+
+    /**
+     * Lista una página de citas que cumplen el filtro.
+     *
+     * @param filtro criterios de filtrado
+     * @param cursor token de la página a obtener, o nulo para la primera
+     * @param limite tamaño de página solicitado, o nulo para el tamaño por defecto
+     * @return página de citas con el cursor de la siguiente
+     */
+    CitaPaginaDTO listarCitas(CitaFiltro filtro, String cursor, Integer limite);
+
+    /**
+     * Lista una página de citas que cumplen el filtro si ha cambiado respecto a
+     * alguna de las versiones que ya tiene el cliente.
+     *
+     * @param filtro             criterios de filtrado
+     * @param cursor             token de la página a obtener, o nulo para la primera
+     * @param limite             tamaño de página solicitado, o nulo para el tamaño por defecto
+     * @param versionesConocidas versiones de la página que ya tiene el cliente
+     * @return página de citas, o vacío si su versión es una de las conocidas
+     */
+    Optional<CitaPaginaDTO> listarCitasSiCambia(CitaFiltro filtro, String cursor, Integer limite,
+                                                Set<String> versionesConocidas);
+
+    /**
+     * Lista una página de resúmenes de las citas de un médico en un rango de fechas.
+     *
+     * @param medicoId ID del médico
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @param estado   estado de las citas, o nulo para todos
+     * @param cursor   token de la página a obtener, o nulo para la primera
+     * @param limite   tamaño de página solicitado, o nulo para el tamaño por defecto
+     * @return página de resúmenes ordenados por fecha y hora
+     */
+    CitaResumenPaginaDTO listarResumenesMedico(Integer medicoId, LocalDate desde, LocalDate hasta,
+                                               Cita.Estado estado, String cursor, Integer limite);
+
+    /**
+     * Lista una página del historial de citas de un paciente, de la más reciente a la más antigua.
+     *
+     * @param pacienteId ID del paciente
+     * @param estado     estado de las citas, o nulo para todos
+     * @param cursor     token de la página a obtener, o nulo para la primera
+     * @param limite     tamaño de página solicitado, o nulo para el tamaño por defecto
+     * @return página de resúmenes
+     */
+    CitaResumenPaginaDTO listarHistorialPaciente(Integer pacienteId, Cita.Estado estado, String cursor, Integer limite);
+
+    /**
+     * Lista una página de resúmenes de las citas en un estado dentro de un rango de fechas.
      *
-     * @return lista de citas
+     * @param estado estado de las citas
+     * @param desde  fecha inicial (inclusive)
+     * @param hasta  fecha final (inclusive)
+     * @param cursor token de la página a obtener, o nulo para la primera
+     * @param limite tamaño de página solicitado, o nulo para el tamaño por defecto
+     * @return página de resúmenes ordenados por fecha, hora e ID
      */
-    List<CitaDTO> listarCitas();
+    CitaResumenPaginaDTO listarResumenesPorEstado(Cita.Estado estado, LocalDate desde, LocalDate hasta,
+                                                  String cursor, Integer limite);
+
+    /**
+     * Calcula los intervalos libres de un médico en un rango de fechas.
+     *
+     * @param medicoId        ID del médico
+     * @param desde           fecha inicial (inclusive)
+     * @param hasta           fecha final (inclusive)
+     * @param duracionMinutos duración mínima de los intervalos, o nulo para la duración de una cita
+     * @return intervalos libres del médico
+     */
+    DisponibilidadDTO consultarDisponibilidad(Integer medicoId, LocalDate desde, LocalDate hasta, Integer duracionMinutos);
+
+    /**
+     * Obtiene la agenda de un médico en un día, con sus citas ordenadas por hora.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día de la agenda
+     * @return agenda del día con su versión
+     */
+    AgendaDiaDTO obtenerAgendaDia(Integer medicoId, LocalDate fecha);
+
+    /**
+     * Obtiene la versión de la agenda de un médico en un día sin construir la respuesta.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día de la agenda
+     * @return versión de la agenda
+     */
+    String obtenerVersionAgendaDia(Integer medicoId, LocalDate fecha);
+
+    /**
+     * Obtiene el número de citas por día y estado en un rango de fechas.
+     *
+     * @param medicoId ID del médico, o nulo para contar todos los médicos
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @return estadísticas del rango
+     */
+    EstadisticasCitasDTO obtenerEstadisticas(Integer medicoId, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Entrega todas las citas, una a una, sin cargarlas todas en memoria.
+     *
+     * @param consumidor función que recibe cada cita
+     */
+    void exportarCitas(Consumer<CitaDTO> consumidor);
 
     /**
      * Actualiza una cita existente.
@@ -57,7 +185,17 @@ public interface CitaPortIn {
     CitaDTO actualizarCita(Integer id, CitaRequest request);
 
     /**
-     * Elimina una cita por su identificador.
+     * Actualiza una cita existente solo si su versión es la indicada.
+     *
+     * @param id              identificador de la cita
+     * @param request         datos nuevos
+     * @param versionEsperada versión que el cliente leyó, o nula para no comprobarla
+     * @return cita actualizada
+     */
+    CitaDTO actualizarCita(Integer id, CitaRequest request, Long versionEsperada);
+
+    /**
+     * Elimina una cita por su identificador. Las citas archivadas no se eliminan.
      *
      * @param id identificador de la cita
      */
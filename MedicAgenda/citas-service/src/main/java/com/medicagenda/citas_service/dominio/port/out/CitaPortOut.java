@@ -1,11 +1,19 @@
 package com.medicagenda.citas_service.dominio.port.out;
 
+import com.medicagenda.citas_service.dominio.model.AgendaDiaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaCursor;
+import com.medicagenda.citas_service.dominio.model.CitaFiltro;
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.dominio.model.CitaResumenDTO;
+import com.medicagenda.citas_service.dominio.model.EstadisticasCitasDTO;
 import com.medicagenda.citas_service.entity.Cita;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Puerto de salida para operaciones relacionadas con el almacenamiento de citas
@@ -44,18 +52,141 @@ public interface CitaPortOut {
     Optional<Cita> buscarPorId(Integer id);
 
     /**
-     * Lista todas las citas disponibles en el sistema.
+     * Busca una cita entre las citas pasadas archivadas, que son de solo lectura.
      *
+     * @param id el ID de la cita
+     * @return un Optional con la cita archivada o vacío si no está archivada
+     */
+    Optional<Cita> buscarArchivadaPorId(Integer id);
+
+    /**
+     * Obtiene la versión actual de una cita, activa o archivada, sin cargar la entidad.
+     *
+     * @param id el ID de la cita
+     * @return un Optional con la versión de la cita o vacío si no existe
+     */
+    Optional<Long> buscarVersion(Integer id);
+
+    /**
+     * Lista las citas que cumplen el filtro, ordenadas por fecha, hora e ID.
+     *
+     * @param filtro    criterios de filtrado
+     * @param despuesDe posición a partir de la cual listar, o nulo para empezar desde el principio
+     * @param limite    número máximo de citas a devolver
      * @return lista de citas
      */
-    List<Cita> listar();
+    List<Cita> listar(CitaFiltro filtro, CitaCursor despuesDe, int limite);
+
+    /**
+     * Lista los resúmenes de las citas de un médico en un rango de fechas, ordenados por fecha y hora.
+     *
+     * @param medicoId  ID del médico
+     * @param desde     fecha inicial (inclusive)
+     * @param hasta     fecha final (inclusive)
+     * @param estado    estado de las citas, o nulo para todos
+     * @param despuesDe posición a partir de la cual listar, o nulo para empezar desde el principio
+     * @param limite    número máximo de resúmenes a devolver
+     * @return resúmenes de las citas
+     */
+    List<CitaResumenDTO> listarResumenesMedico(Integer medicoId, LocalDate desde, LocalDate hasta,
+                                               Cita.Estado estado, CitaCursor despuesDe, int limite);
+
+    /**
+     * Lista los resúmenes de las citas de un paciente de la más reciente a la más antigua.
+     *
+     * @param pacienteId ID del paciente
+     * @param estado     estado de las citas, o nulo para todos
+     * @param despuesDe  posición a partir de la cual listar, o nulo para empezar por la más reciente
+     * @param limite     número máximo de resúmenes a devolver
+     * @return resúmenes de las citas
+     */
+    List<CitaResumenDTO> listarHistorialPaciente(Integer pacienteId, Cita.Estado estado,
+                                                 CitaCursor despuesDe, int limite);
+
+    /**
+     * Lista los resúmenes de las citas en un estado dentro de un rango de fechas,
+     * ordenados por fecha, hora e ID.
+     *
+     * @param estado    estado de las citas
+     * @param desde     fecha inicial (inclusive)
+     * @param hasta     fecha final (inclusive)
+     * @param despuesDe posición a partir de la cual listar, o nulo para empezar desde el principio
+     * @param limite    número máximo de resúmenes a devolver
+     * @return resúmenes de las citas
+     */
+    List<CitaResumenDTO> listarResumenesPorEstado(Cita.Estado estado, LocalDate desde, LocalDate hasta,
+                                                  CitaCursor despuesDe, int limite);
+
+    /**
+     * Obtiene los datos de agenda de las citas de un médico en un rango de fechas,
+     * ordenados por fecha y hora.
+     *
+     * @param medicoId ID del médico
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @return datos de agenda de las citas
+     */
+    List<CitaHorario> listarHorariosMedico(Integer medicoId, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Obtiene la agenda de un médico en un día, con sus citas ordenadas por hora.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día de la agenda
+     * @return agenda del día, sin citas si el médico no tiene ninguna
+     */
+    AgendaDiaDTO obtenerAgendaDia(Integer medicoId, LocalDate fecha);
+
+    /**
+     * Obtiene el número de citas por día y estado en un rango de fechas.
+     *
+     * @param medicoId ID del médico, o nulo para contar todos los médicos
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @return estadísticas del rango
+     */
+    EstadisticasCitasDTO obtenerEstadisticas(Integer medicoId, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Obtiene los datos de agenda de las citas, en un rango de fechas, de cualquiera
+     * de los médicos o pacientes indicados.
+     *
+     * @param medicoIds   IDs de los médicos
+     * @param pacienteIds IDs de los pacientes
+     * @param desde       fecha inicial (inclusive)
+     * @param hasta       fecha final (inclusive)
+     * @return datos de agenda de las citas, sin orden definido
+     */
+    List<CitaHorario> listarHorariosOcupados(Set<Integer> medicoIds, Set<Integer> pacienteIds,
+                                             LocalDate desde, LocalDate hasta);
+
+    /**
+     * Persiste un lote de citas nuevas agrupando las inserciones.
+     * <p>
+     * Las citas guardadas reciben su ID. Si una cita choca con otra ya existente o
+     * incumple otra restricción de la base de datos, no se guarda y su posición en el
+     * resultado contiene el error; las demás citas se guardan igualmente.
+     * </p>
+     *
+     * @param citas citas a guardar
+     * @return lista del mismo tamaño con el mensaje de error de cada cita, o nulo si se guardó
+     */
+    List<String> guardarLote(List<Cita> citas);
+
+    /**
+     * Recorre todas las citas, archivadas y activas, sin cargarlas todas en memoria.
+     *
+     * @param consumidor función que recibe cada cita; no debe conservar la referencia
+     */
+    void recorrerTodas(Consumer<Cita> consumidor);
 
     /**
-     * Elimina una cita existente por su identificador.
+     * Elimina una cita activa por su identificador. Las citas archivadas no se eliminan.
      *
      * @param id el ID de la cita a eliminar
+     * @return true si se eliminó; false si no hay ninguna cita activa con ese ID
      */
-    void eliminar(Integer id);
+    boolean eliminar(Integer id);
 
     /**
      * Verifica si el paciente ya tiene una cita en una fecha y hora determinadas.
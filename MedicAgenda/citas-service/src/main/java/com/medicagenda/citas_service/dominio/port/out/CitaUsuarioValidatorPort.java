@@ -2,12 +2,19 @@ package com.medicagenda.citas_service.dominio.port.out;
 
 import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Puerto de salida para validar existencia y tipo de usuarios
  * consultando el microservicio usuarios-service.
  * <p>
  * Permite abstraer la lógica de consulta de usuarios externos,
  * facilitando la validación de roles y la integración con otros sistemas.
+ * La consulta asíncrona permite validar paciente y médico al mismo tiempo.
  * </p>
  *
  * @author Ander
@@ -16,10 +23,52 @@ import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
 public interface CitaUsuarioValidatorPort {
 
     /**
-     * Obtiene el tipo de un usuario por su ID.
+     * Obtiene el tipo de un usuario por su ID, esperando la respuesta.
      *
      * @param usuarioId ID del usuario a consultar
      * @return tipo de usuario (PACIENTE, MEDICO, ADMIN, DESCONOCIDO)
      */
-    UsuarioTipo obtenerTipoUsuario(Integer usuarioId);
+    default UsuarioTipo obtenerTipoUsuario(Integer usuarioId) {
+        try {
+            return obtenerTipoUsuarioAsync(usuarioId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el tipo de un usuario por su ID sin bloquear el hilo que llama.
+     * <p>
+     * Si usuarios-service no está disponible, el resultado se completa con
+     * {@link com.medicagenda.citas_service.dominio.excepciones.MicroUsuariosServiceNoDisponibleException}.
+     * </p>
+     *
+     * @param usuarioId ID del usuario a consultar
+     * @return resultado futuro con el tipo de usuario
+     */
+    CompletableFuture<UsuarioTipo> obtenerTipoUsuarioAsync(Integer usuarioId);
+
+    /**
+     * Obtiene el tipo de varios usuarios a la vez.
+     * <p>
+     * La implementación por defecto lanza una consulta por usuario; los adaptadores
+     * que disponen de una consulta por lotes deben sobrescribirla.
+     * </p>
+     *
+     * @param usuarioIds IDs de los usuarios a consultar
+     * @return resultado futuro con el tipo de cada usuario solicitado
+     */
+    default CompletableFuture<Map<Integer, UsuarioTipo>> obtenerTiposUsuarioAsync(Set<Integer> usuarioIds) {
+        Map<Integer, CompletableFuture<UsuarioTipo>> consultas = new HashMap<>();
+        usuarioIds.forEach(id -> consultas.put(id, obtenerTipoUsuarioAsync(id)));
+        return CompletableFuture.allOf(consultas.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignorado -> {
+                    Map<Integer, UsuarioTipo> tipos = new HashMap<>();
+                    consultas.forEach((id, consulta) -> tipos.put(id, consulta.join()));
+                    return tipos;
+                });
+    }
 }
@@ -0,0 +1,44 @@
+package com.medicagenda.citas_service.dominio.port.out;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioEventoPagina;
+import com.medicagenda.citas_service.dominio.model.UsuarioTiposInstantanea;
+
+/**
+ * Puerto de salida para leer los cambios de tipo de usuario publicados por
+ * usuarios-service.
+ * <p>
+ * Abstrae el transporte de los eventos (consulta periódica por HTTP, cola de
+ * mensajes, etc.) para mantener una copia local del tipo de cada usuario sin
+ * consultar usuarios-service en cada cita.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+public interface UsuarioEventoFuentePort {
+
+    /**
+     * Lee los eventos posteriores a un ID, en orden de ID.
+     * <p>
+     * Si usuarios-service no está disponible, lanza
+     * {@link com.medicagenda.citas_service.dominio.excepciones.MicroUsuariosServiceNoDisponibleException}.
+     * </p>
+     *
+     * @param despuesDe ID del último evento ya leído
+     * @param limite    número máximo de eventos
+     * @return página de eventos
+     */
+    UsuarioEventoPagina leerEventos(long despuesDe, int limite);
+
+    /**
+     * Lee una página de la instantánea del tipo de todos los usuarios, en orden de ID.
+     * <p>
+     * Si usuarios-service no está disponible, lanza
+     * {@link com.medicagenda.citas_service.dominio.excepciones.MicroUsuariosServiceNoDisponibleException}.
+     * </p>
+     *
+     * @param despuesDeUsuarioId ID del último usuario ya leído
+     * @param limite             número máximo de usuarios
+     * @return página de la instantánea
+     */
+    UsuarioTiposInstantanea leerInstantanea(int despuesDeUsuarioId, int limite);
+}
@@ -0,0 +1,106 @@
+package com.medicagenda.citas_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Entidad que representa una cita médica en el sistema.
+ * <p>
+ * Esta clase está mapeada a la tabla <code>cita</code> en la base de datos,
+ * y es utilizada por JPA para la persistencia de las citas.
+ * </p>
+ *
+ * <p>
+ * Contiene la información básica necesaria para agendar, actualizar o cancelar
+ * una cita médica, incluyendo la fecha, hora, estado, observaciones y la relación
+ * con paciente y médico.
+ * </p>
+ *
+ * <p>
+ * La base de datos garantiza que un médico o un paciente no tengan dos citas
+ * en la misma fecha y hora mediante restricciones únicas.
+ * </p>
+ *
+ * @author Ander
+ * @since 2025-06-18
+ */
+@Entity
+@Table(name = "cita",
+        uniqueConstraints = {
+                @UniqueConstraint(name = Cita.UK_MEDICO_FECHA_HORA, columnNames = {"medico_id", "fecha", "hora"}),
+                @UniqueConstraint(name = Cita.UK_PACIENTE_FECHA_HORA, columnNames = {"paciente_id", "fecha", "hora"})
+        },
+        indexes = {
+                @Index(name = "idx_cita_fecha_hora", columnList = "fecha, hora, id"),
+                @Index(name = "idx_cita_estado_fecha_hora", columnList = "estado, fecha, hora, id")
+        })
+@Data
+public class Cita {
+
+    /** Nombre de la restricción única sobre (medico_id, fecha, hora). */
+    public static final String UK_MEDICO_FECHA_HORA = "uk_cita_medico_fecha_hora";
+
+    /** Nombre de la restricción única sobre (paciente_id, fecha, hora). */
+    public static final String UK_PACIENTE_FECHA_HORA = "uk_cita_paciente_fecha_hora";
+
+    /** Número de IDs que se reservan de la secuencia en cada consulta. */
+    public static final int TAMANO_ASIGNACION_ID = 50;
+
+    /**
+     * Identificador único de la cita (clave primaria).
+     * <p>
+     * Se genera con una secuencia que reserva bloques de IDs, lo que permite a
+     * Hibernate agrupar las inserciones en lotes JDBC.
+     * </p>
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cita_seq")
+    @SequenceGenerator(name = "cita_seq", sequenceName = "cita_seq", allocationSize = TAMANO_ASIGNACION_ID)
+    private Integer id;
+
+    /** Fecha programada para la cita. */
+    @Column(name = "fecha", nullable = false)
+    private java.time.LocalDate fecha;
+
+    /** Hora programada para la cita. */
+    @Column(name = "hora", nullable = false)
+    private java.time.LocalTime hora;
+
+    /** Estado actual de la cita (PENDIENTE, CONFIRMADA, CANCELADA). */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private Estado estado;
+
+    /** Observaciones o notas adicionales sobre la cita. */
+    @Column(name = "observaciones", columnDefinition = "TEXT")
+    private String observaciones;
+
+    /** ID del paciente que agenda la cita. */
+    @Column(name = "paciente_id", nullable = false)
+    private Integer pacienteId;
+
+    /** ID del médico que atenderá la cita. */
+    @Column(name = "medico_id", nullable = false)
+    private Integer medicoId;
+
+    /**
+     * Versión de la cita, incrementada por Hibernate en cada modificación.
+     * <p>
+     * Al guardar una cita cargada antes, la actualización solo se aplica si la
+     * versión no ha cambiado entretanto, de modo que dos ediciones simultáneas no
+     * se sobrescriben en silencio. También se usa como ETag de la cita.
+     * </p>
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Enumeración que representa los estados válidos de una cita.
+     */
+    public enum Estado {
+        PENDIENTE,
+        CONFIRMADA,
+        CANCELADA
+    }
+}
@@ -0,0 +1,96 @@
+package com.medicagenda.citas_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Cita pasada trasladada al archivo.
+ * <p>
+ * Esta clase está mapeada a la tabla <code>cita_archivo</code>, que tiene las mismas
+ * columnas que <code>cita</code> más el momento del traslado. Las citas con una
+ * fecha anterior a <code>citas.archivo.meses-retencion</code> meses se trasladan
+ * aquí por lotes, de modo que la tabla <code>cita</code> y sus índices solo crecen
+ * con las citas recientes y futuras.
+ * </p>
+ *
+ * <p>
+ * Las filas conservan el ID y la versión de la cita original y no se modifican una
+ * vez archivadas. No hay restricciones únicas de agenda: solo se comprueban en la
+ * tabla <code>cita</code>, donde se reservan los horarios.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Entity
+@Immutable
+@Table(name = "cita_archivo",
+        indexes = {
+                @Index(name = "idx_cita_archivo_medico_fecha_hora", columnList = "medico_id, fecha, hora"),
+                @Index(name = "idx_cita_archivo_paciente_fecha_hora", columnList = "paciente_id, fecha, hora"),
+                @Index(name = "idx_cita_archivo_fecha_hora", columnList = "fecha, hora, id"),
+                @Index(name = "idx_cita_archivo_estado_fecha_hora", columnList = "estado, fecha, hora, id")
+        })
+@Data
+public class CitaArchivada {
+
+    /** Identificador de la cita original (clave primaria). */
+    @Id
+    private Integer id;
+
+    /** Fecha de la cita. */
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+
+    /** Hora de la cita. */
+    @Column(name = "hora", nullable = false)
+    private LocalTime hora;
+
+    /** Estado de la cita al archivarla. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private Cita.Estado estado;
+
+    /** Observaciones de la cita. */
+    @Column(name = "observaciones", columnDefinition = "TEXT")
+    private String observaciones;
+
+    /** ID del paciente de la cita. */
+    @Column(name = "paciente_id", nullable = false)
+    private Integer pacienteId;
+
+    /** ID del médico de la cita. */
+    @Column(name = "medico_id", nullable = false)
+    private Integer medicoId;
+
+    /** Versión de la cita al archivarla. */
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /** Momento en que la cita se trasladó al archivo. */
+    @Column(name = "archivada", nullable = false)
+    private Instant archivada;
+
+    /**
+     * Obtiene una cita con los datos de la fila archivada. La cita no está asociada
+     * al contexto de persistencia y no debe guardarse.
+     *
+     * @return cita con el mismo ID, datos y versión
+     */
+    public Cita aCita() {
+        Cita cita = new Cita();
+        cita.setId(id);
+        cita.setFecha(fecha);
+        cita.setHora(hora);
+        cita.setEstado(estado);
+        cita.setObservaciones(observaciones);
+        cita.setPacienteId(pacienteId);
+        cita.setMedicoId(medicoId);
+        cita.setVersion(version);
+        return cita;
+    }
+}
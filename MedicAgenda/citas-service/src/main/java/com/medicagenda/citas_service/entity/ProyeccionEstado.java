@@ -0,0 +1,49 @@
+package com.medicagenda.citas_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Posición de lectura de una proyección alimentada por eventos de otro servicio.
+ * <p>
+ * Esta clase está mapeada a la tabla <code>proyeccion_estado</code> y guarda, por
+ * proyección, el ID del último evento aplicado, de modo que tras un reinicio la
+ * lectura continúa donde se quedó.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Entity
+@Table(name = "proyeccion_estado")
+@Data
+@NoArgsConstructor
+public class ProyeccionEstado {
+
+    /** Nombre de la proyección (clave primaria). */
+    @Id
+    @Column(name = "nombre", length = 50)
+    private String nombre;
+
+    /** ID del último evento aplicado. */
+    @Column(name = "ultimo_evento_id", nullable = false)
+    private long ultimoEventoId;
+
+    /** Momento de la última actualización. */
+    @Column(name = "actualizado", nullable = false)
+    private LocalDateTime actualizado;
+
+    /**
+     * Crea el estado de una proyección.
+     *
+     * @param nombre         nombre de la proyección
+     * @param ultimoEventoId ID del último evento aplicado
+     */
+    public ProyeccionEstado(String nombre, long ultimoEventoId) {
+        this.nombre = nombre;
+        this.ultimoEventoId = ultimoEventoId;
+        this.actualizado = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,90 @@
+package com.medicagenda.citas_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Respuesta guardada de una petición con clave de idempotencia.
+ * <p>
+ * Esta clase está mapeada a la tabla <code>idempotencia_respuesta</code>. Solo se
+ * usa si las respuestas se guardan también en la base de datos, para repetirlas
+ * tras un reinicio o desde otra instancia.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Entity
+@Table(name = "idempotencia_respuesta",
+        indexes = @Index(name = "idx_idempotencia_creada", columnList = "creada"))
+@Data
+@NoArgsConstructor
+public class RespuestaIdempotente implements Persistable<String> {
+
+    /** Clave de idempotencia enviada por el cliente (clave primaria). */
+    @Id
+    @Column(name = "clave", length = 255)
+    private String clave;
+
+    /** Huella SHA-256 de la petición original, en hexadecimal. */
+    @Column(name = "huella", length = 64, nullable = false)
+    private String huella;
+
+    /** Código HTTP de la respuesta original. */
+    @Column(name = "estado", nullable = false)
+    private int estado;
+
+    /** Cuerpo JSON de la respuesta original. */
+    @Column(name = "cuerpo", columnDefinition = "TEXT")
+    private String cuerpo;
+
+    /** Momento en que se guardó la respuesta. */
+    @Column(name = "creada", nullable = false)
+    private Instant creada;
+
+    /**
+     * Indica si la fila aún no existe en la base de datos, para insertarla sin
+     * consultarla antes.
+     */
+    @Transient
+    private boolean nuevo = true;
+
+    /**
+     * Crea una fila nueva.
+     *
+     * @param clave  clave de idempotencia
+     * @param huella huella de la petición
+     * @param estado código HTTP de la respuesta
+     * @param cuerpo cuerpo JSON de la respuesta
+     * @param creada momento en que se guarda
+     */
+    public RespuestaIdempotente(String clave, String huella, int estado, String cuerpo, Instant creada) {
+        this.clave = clave;
+        this.huella = huella;
+        this.estado = estado;
+        this.cuerpo = cuerpo;
+        this.creada = creada;
+    }
+
+    @Override
+    public String getId() {
+        return clave;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    /**
+     * Marca la fila como existente al leerla o guardarla.
+     */
+    @PostLoad
+    @PostPersist
+    void marcarExistente() {
+        nuevo = false;
+    }
+}
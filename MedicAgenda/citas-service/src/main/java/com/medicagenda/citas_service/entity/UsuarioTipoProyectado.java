@@ -0,0 +1,78 @@
+package com.medicagenda.citas_service.entity;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Copia local del tipo de un usuario de usuarios-service.
+ * <p>
+ * Esta clase está mapeada a la tabla <code>usuario_tipo</code>, que se mantiene
+ * con los eventos publicados por usuarios-service y permite validar pacientes y
+ * médicos sin consultarlo en cada cita. Los usuarios eliminados se conservan con
+ * tipo DESCONOCIDO para que un evento antiguo no los vuelva a crear.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Entity
+@Table(name = "usuario_tipo")
+@Data
+@NoArgsConstructor
+public class UsuarioTipoProyectado implements Persistable<Integer> {
+
+    /** ID del usuario en usuarios-service (clave primaria). */
+    @Id
+    @Column(name = "usuario_id")
+    private Integer usuarioId;
+
+    /** Tipo actual del usuario; DESCONOCIDO si se eliminó. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false)
+    private UsuarioTipo tipo;
+
+    /** ID del último evento aplicado a este usuario. */
+    @Column(name = "ultimo_evento_id", nullable = false)
+    private long ultimoEventoId;
+
+    /**
+     * Indica si la fila aún no existe en la base de datos, para insertarla sin
+     * consultarla antes.
+     */
+    @Transient
+    private boolean nuevo = true;
+
+    /**
+     * Crea una fila nueva.
+     *
+     * @param usuarioId      ID del usuario
+     * @param tipo           tipo del usuario
+     * @param ultimoEventoId ID del último evento aplicado
+     */
+    public UsuarioTipoProyectado(Integer usuarioId, UsuarioTipo tipo, long ultimoEventoId) {
+        this.usuarioId = usuarioId;
+        this.tipo = tipo;
+        this.ultimoEventoId = ultimoEventoId;
+    }
+
+    @Override
+    public Integer getId() {
+        return usuarioId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    /**
+     * Marca la fila como existente al leerla o guardarla.
+     */
+    @PostLoad
+    @PostPersist
+    void marcarExistente() {
+        nuevo = false;
+    }
+}
@@ -1,15 +1,48 @@
 package com.medicagenda.citas_service.infraestructura.adapter;
 
+import com.medicagenda.citas_service.dominio.excepciones.CitaDuplicadaException;
+import com.medicagenda.citas_service.dominio.excepciones.CitaVersionNoCoincideException;
+import com.medicagenda.citas_service.dominio.model.AgendaDiaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaCursor;
+import com.medicagenda.citas_service.dominio.model.CitaFiltro;
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.dominio.model.CitaResumenDTO;
+import com.medicagenda.citas_service.dominio.model.EstadisticasCitasDTO;
 import com.medicagenda.citas_service.entity.Cita;
+import com.medicagenda.citas_service.entity.CitaArchivada;
 import com.medicagenda.citas_service.dominio.port.out.CitaPortOut;
+import com.medicagenda.citas_service.infraestructura.archivo.LimiteArchivo;
+import com.medicagenda.citas_service.infraestructura.evento.CitaModificadaEvent;
+import com.medicagenda.citas_service.infraestructura.indice.AgendaDiariaIndex;
+import com.medicagenda.citas_service.infraestructura.indice.ContadorCitasIndex;
+import com.medicagenda.citas_service.infraestructura.indice.OcupacionIndex;
+import com.medicagenda.citas_service.infraestructura.repository.CitaArchivadaRepository;
 import com.medicagenda.citas_service.infraestructura.repository.CitaRepository;
-import lombok.RequiredArgsConstructor;
+import com.medicagenda.citas_service.infraestructura.repository.CitaSpecifications;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Adaptador que implementa la interfaz {@link CitaPortOut} para interactuar con
@@ -22,7 +55,17 @@ import java.util.Optional;
  *
  * <ul>
  *     <li>Permite guardar, buscar, listar y eliminar citas médicas.</li>
- *     <li>Implementa métodos para verificar disponibilidad de paciente y médico en una fecha y hora.</li>
+ *     <li>Implementa métodos para verificar disponibilidad de paciente y médico en una fecha y hora,
+ *     resolviendo en memoria con {@link OcupacionIndex} los horarios que están libres.</li>
+ *     <li>Lista resúmenes de citas con proyecciones que no cargan entidades ni observaciones.</li>
+ *     <li>Sirve la agenda diaria de cada médico desde el modelo de lectura {@link AgendaDiariaIndex}.</li>
+ *     <li>Sirve el número de citas por médico, día y estado desde {@link ContadorCitasIndex}.</li>
+ *     <li>Guarda lotes de citas con inserciones JDBC agrupadas.</li>
+ *     <li>Publica un {@link CitaModificadaEvent} tras cada escritura.</li>
+ *     <li>Las lecturas cuyo rango de fechas empieza antes del {@link LimiteArchivo} consultan
+ *     también la tabla <code>cita_archivo</code> y combinan ambos resultados en orden; el resto
+ *     solo consulta la tabla <code>cita</code>. La disponibilidad y los duplicados solo se
+ *     comprueban en la tabla <code>cita</code>, donde se reservan los horarios.</li>
  * </ul>
  *
  * @author Ander
@@ -30,20 +73,136 @@ import java.util.Optional;
  * @since 2025-06-18
  */
 @Repository
-@RequiredArgsConstructor
 public class CitaAdapter implements CitaPortOut {
 
+    private static final Logger log = LoggerFactory.getLogger(CitaAdapter.class);
+
+    /** Error de una cita de un lote que la base de datos rechaza por otra restricción. */
+    private static final String ERROR_RESTRICCION = "La cita no cumple las restricciones de la base de datos.";
+
+    /** Número de citas de un lote que se guardan en cada transacción. */
+    private static final int CITAS_POR_TRANSACCION = 1000;
+
+    /** Número máximo de IDs por consulta con cláusula IN. */
+    private static final int IDS_POR_CONSULTA = 1000;
+
+    private static final Comparator<Cita> ORDEN_CITAS =
+            Comparator.comparing(Cita::getFecha).thenComparing(Cita::getHora).thenComparing(Cita::getId);
+
+    private static final Comparator<CitaResumenDTO> ORDEN_RESUMENES = Comparator.comparing(CitaResumenDTO::getFecha)
+            .thenComparing(CitaResumenDTO::getHora).thenComparing(CitaResumenDTO::getId);
+
     private final CitaRepository citaRepository;
+    private final CitaArchivadaRepository archivadaRepository;
+    private final LimiteArchivo limiteArchivo;
+    private final EntityManager entityManager;
+    private final OcupacionIndex ocupacionIndex;
+    private final AgendaDiariaIndex agendaDiariaIndex;
+    private final ContadorCitasIndex contadorCitasIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Crea el adaptador.
+     *
+     * @param citaRepository      repositorio JPA de citas
+     * @param archivadaRepository repositorio JPA de citas archivadas
+     * @param limiteArchivo       límite de las citas archivadas
+     * @param entityManager       gestor de entidades de la unidad de persistencia
+     * @param ocupacionIndex      índice en memoria de horarios ocupados
+     * @param agendaDiariaIndex   modelo de lectura de agendas diarias
+     * @param contadorCitasIndex  contadores en memoria de citas por médico, día y estado
+     * @param eventPublisher      publicador de eventos de cambios en citas
+     * @param transactionManager  gestor de transacciones para guardar lotes
+     */
+    public CitaAdapter(CitaRepository citaRepository, CitaArchivadaRepository archivadaRepository,
+                       LimiteArchivo limiteArchivo, EntityManager entityManager, OcupacionIndex ocupacionIndex,
+                       AgendaDiariaIndex agendaDiariaIndex, ContadorCitasIndex contadorCitasIndex,
+                       ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.citaRepository = citaRepository;
+        this.archivadaRepository = archivadaRepository;
+        this.limiteArchivo = limiteArchivo;
+        this.entityManager = entityManager;
+        this.ocupacionIndex = ocupacionIndex;
+        this.agendaDiariaIndex = agendaDiariaIndex;
+        this.contadorCitasIndex = contadorCitasIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * Guarda una cita en la base de datos.
+     * <p>
+     * La inserción o actualización se envía de inmediato para que una violación de
+     * las restricciones únicas de agenda se detecte aquí y se traduzca a
+     * {@link CitaDuplicadaException}. Una cita existente solo se actualiza si su
+     * versión sigue siendo la que tenía al cargarse.
+     * </p>
      *
      * @param cita la entidad cita a persistir.
      * @return la cita guardada con su ID generado.
+     * @throws CitaDuplicadaException si el paciente o el médico ya tienen una cita en esa fecha y hora.
+     * @throws CitaVersionNoCoincideException si la cita se modificó o eliminó después de cargarla.
      */
     @Override
     public Cita guardar(Cita cita) {
-        return citaRepository.save(cita);
+        CitaHorario anterior = cita.getId() == null ? null : citaRepository.findHorarioById(cita.getId()).orElse(null);
+        Cita guardada;
+        try {
+            guardada = citaRepository.saveAndFlush(cita);
+        } catch (DataIntegrityViolationException e) {
+            throw traducirConflicto(e);
+        } catch (OptimisticLockingFailureException e) {
+            // Otra petición modificó o eliminó la cita después de que se cargara
+            throw new CitaVersionNoCoincideException(cita.getId());
+        }
+        eventPublisher.publishEvent(new CitaModificadaEvent(anterior, CitaHorario.de(guardada)));
+        return guardada;
+    }
+
+    /**
+     * Guarda un lote de citas nuevas en bloques de {@value #CITAS_POR_TRANSACCION},
+     * cada uno en su propia transacción.
+     * <p>
+     * Los IDs se reservan por bloques de la secuencia, por lo que Hibernate puede
+     * agrupar las inserciones en lotes JDBC. Si un bloque viola alguna restricción
+     * (otra petición ocupó el horario entretanto, o una cita no cumple las columnas),
+     * se deshace y sus citas se guardan una a una: cada cita que falla recibe su error
+     * y las demás del bloque se guardan.
+     * </p>
+     *
+     * @param citas citas nuevas a guardar.
+     * @return lista del mismo tamaño con el mensaje de error de cada cita, o nulo si se guardó.
+     */
+    @Override
+    public List<String> guardarLote(List<Cita> citas) {
+        List<String> errores = new ArrayList<>(Collections.nCopies(citas.size(), null));
+        for (int inicio = 0; inicio < citas.size(); inicio += CITAS_POR_TRANSACCION) {
+            List<Cita> bloque = citas.subList(inicio, Math.min(inicio + CITAS_POR_TRANSACCION, citas.size()));
+            try {
+                transactionTemplate.executeWithoutResult(estado -> {
+                    citaRepository.saveAllAndFlush(bloque);
+                    entityManager.clear();
+                });
+            } catch (DataIntegrityViolationException e) {
+                for (int i = 0; i < bloque.size(); i++) {
+                    Cita cita = bloque.get(i);
+                    cita.setId(null);
+                    cita.setVersion(null);
+                    try {
+                        guardar(cita);
+                    } catch (CitaDuplicadaException duplicada) {
+                        errores.set(inicio + i, duplicada.getMessage());
+                    } catch (DataIntegrityViolationException invalida) {
+                        log.warn("Cita {} del lote rechazada por la base de datos", inicio + i, invalida);
+                        errores.set(inicio + i, ERROR_RESTRICCION);
+                    }
+                }
+                continue;
+            }
+            bloque.forEach(cita -> eventPublisher.publishEvent(new CitaModificadaEvent(null, CitaHorario.de(cita))));
+        }
+        return errores;
     }
 
     /**
@@ -58,27 +217,243 @@ public class CitaAdapter implements CitaPortOut {
     }
 
     /**
-     * Retorna todas las citas almacenadas.
+     * Busca una cita en la tabla de citas archivadas.
+     *
+     * @param id identificador de la cita.
+     * @return un {@link Optional} con una copia de la cita archivada, no asociada al contexto de persistencia.
+     */
+    @Override
+    public Optional<Cita> buscarArchivadaPorId(Integer id) {
+        return archivadaRepository.findById(id).map(CitaArchivada::aCita);
+    }
+
+    /**
+     * Obtiene la versión de una cita con una consulta de una sola columna, primero
+     * entre las citas activas y después entre las archivadas.
+     *
+     * @param id identificador de la cita.
+     * @return un {@link Optional} con la versión, vacío si la cita no existe.
+     */
+    @Override
+    public Optional<Long> buscarVersion(Integer id) {
+        return citaRepository.findVersionById(id).or(() -> archivadaRepository.findVersionById(id));
+    }
+
+    /**
+     * Retorna las citas que cumplen el filtro a partir del cursor, resolviendo
+     * filtro, orden y límite en la base de datos.
      *
-     * @return una lista con todas las citas.
+     * @param filtro    criterios de filtrado.
+     * @param despuesDe posición a partir de la cual listar, o nulo.
+     * @param limite    número máximo de citas.
+     * @return una lista con las citas de la página.
      */
     @Override
-    public List<Cita> listar() {
-        return citaRepository.findAll();
+    public List<Cita> listar(CitaFiltro filtro, CitaCursor despuesDe, int limite) {
+        List<Cita> citas = citaRepository.findBy(CitaSpecifications.filtradas(filtro, despuesDe),
+                consulta -> consulta.sortBy(CitaSpecifications.ORDEN_AGENDA).limit(limite).all());
+        if (!limiteArchivo.alcanza(primeraFecha(filtro.getDesde(), despuesDe))) {
+            return citas;
+        }
+        List<Cita> archivadas = archivadaRepository.findBy(CitaSpecifications.<CitaArchivada>filtradas(filtro, despuesDe),
+                        consulta -> consulta.sortBy(CitaSpecifications.ORDEN_AGENDA).limit(limite).all())
+                .stream().map(CitaArchivada::aCita).toList();
+        return mezclar(citas, archivadas, ORDEN_CITAS, Cita::getId, limite);
     }
 
     /**
-     * Elimina una cita según su identificador.
+     * Lista los resúmenes de las citas de un médico construyéndolos en la consulta,
+     * en una transacción de solo lectura y sin cargar entidades.
+     *
+     * @param medicoId  ID del médico.
+     * @param desde     fecha inicial (inclusive).
+     * @param hasta     fecha final (inclusive).
+     * @param estado    estado de las citas, o nulo para todos.
+     * @param despuesDe posición a partir de la cual listar, o nulo.
+     * @param limite    número máximo de resúmenes.
+     * @return resúmenes ordenados por fecha y hora.
+     */
+    @Override
+    public List<CitaResumenDTO> listarResumenesMedico(Integer medicoId, LocalDate desde, LocalDate hasta,
+                                                      Cita.Estado estado, CitaCursor despuesDe, int limite) {
+        LocalDate cursorFecha = despuesDe == null ? null : despuesDe.getFecha();
+        LocalTime cursorHora = despuesDe == null ? null : despuesDe.getHora();
+        List<CitaResumenDTO> resumenes = citaRepository.findResumenesMedico(medicoId, desde, hasta, estado,
+                cursorFecha, cursorHora, Limit.of(limite));
+        if (!limiteArchivo.alcanza(primeraFecha(desde, despuesDe))) {
+            return resumenes;
+        }
+        return mezclar(resumenes, archivadaRepository.findResumenesMedico(medicoId, desde, hasta, estado,
+                cursorFecha, cursorHora, Limit.of(limite)), ORDEN_RESUMENES, CitaResumenDTO::getId, limite);
+    }
+
+    /**
+     * Lista los resúmenes de las citas de un paciente construyéndolos en la consulta,
+     * en una transacción de solo lectura y sin cargar entidades.
+     *
+     * @param pacienteId ID del paciente.
+     * @param estado     estado de las citas, o nulo para todos.
+     * @param despuesDe  posición a partir de la cual listar, o nulo.
+     * @param limite     número máximo de resúmenes.
+     * @return resúmenes de la cita más reciente a la más antigua; las archivadas solo se
+     *         consultan si la página no se completa con citas posteriores al límite del archivo.
+     */
+    @Override
+    public List<CitaResumenDTO> listarHistorialPaciente(Integer pacienteId, Cita.Estado estado,
+                                                        CitaCursor despuesDe, int limite) {
+        LocalDate cursorFecha = despuesDe == null ? null : despuesDe.getFecha();
+        LocalTime cursorHora = despuesDe == null ? null : despuesDe.getHora();
+        List<CitaResumenDTO> resumenes = citaRepository.findHistorialPaciente(pacienteId, estado,
+                cursorFecha, cursorHora, Limit.of(limite));
+        LocalDate limiteFecha = limiteArchivo.obtener();
+        if (limiteFecha == null
+                || (resumenes.size() == limite && !resumenes.getLast().getFecha().isBefore(limiteFecha))) {
+            return resumenes;
+        }
+        return mezclar(resumenes, archivadaRepository.findHistorialPaciente(pacienteId, estado,
+                cursorFecha, cursorHora, Limit.of(limite)), ORDEN_RESUMENES.reversed(), CitaResumenDTO::getId, limite);
+    }
+
+    /**
+     * Lista los resúmenes de las citas en un estado construyéndolos en la consulta,
+     * en una transacción de solo lectura y sin cargar entidades.
+     *
+     * @param estado    estado de las citas.
+     * @param desde     fecha inicial (inclusive).
+     * @param hasta     fecha final (inclusive).
+     * @param despuesDe posición a partir de la cual listar, o nulo.
+     * @param limite    número máximo de resúmenes.
+     * @return resúmenes ordenados por fecha, hora e ID.
+     */
+    @Override
+    public List<CitaResumenDTO> listarResumenesPorEstado(Cita.Estado estado, LocalDate desde, LocalDate hasta,
+                                                         CitaCursor despuesDe, int limite) {
+        LocalDate cursorFecha = despuesDe == null ? null : despuesDe.getFecha();
+        LocalTime cursorHora = despuesDe == null ? null : despuesDe.getHora();
+        Integer cursorId = despuesDe == null ? null : despuesDe.getId();
+        List<CitaResumenDTO> resumenes = citaRepository.findResumenesPorEstado(estado, desde, hasta,
+                cursorFecha, cursorHora, cursorId, Limit.of(limite));
+        if (!limiteArchivo.alcanza(primeraFecha(desde, despuesDe))) {
+            return resumenes;
+        }
+        return mezclar(resumenes, archivadaRepository.findResumenesPorEstado(estado, desde, hasta,
+                cursorFecha, cursorHora, cursorId, Limit.of(limite)), ORDEN_RESUMENES, CitaResumenDTO::getId, limite);
+    }
+
+    /**
+     * Obtiene los datos de agenda de las citas de un médico en un rango de fechas
+     * con una sola consulta de rango sobre (medico_id, fecha).
+     *
+     * @param medicoId ID del médico.
+     * @param desde    fecha inicial (inclusive).
+     * @param hasta    fecha final (inclusive).
+     * @return datos de agenda ordenados por fecha y hora.
+     */
+    @Override
+    public List<CitaHorario> listarHorariosMedico(Integer medicoId, LocalDate desde, LocalDate hasta) {
+        return citaRepository.findHorariosMedico(medicoId, desde, hasta);
+    }
+
+    /**
+     * Obtiene la agenda de un médico en un día desde el modelo de lectura en memoria,
+     * que solo consulta la base de datos si el día no está cargado.
+     *
+     * @param medicoId ID del médico.
+     * @param fecha    día de la agenda.
+     * @return agenda del día.
+     */
+    @Override
+    public AgendaDiaDTO obtenerAgendaDia(Integer medicoId, LocalDate fecha) {
+        return agendaDiariaIndex.obtener(medicoId, fecha);
+    }
+
+    /**
+     * Obtiene el número de citas por día y estado desde los contadores en memoria,
+     * sin consultar la base de datos. Los días anteriores al límite del archivo se
+     * cuentan en cambio con una consulta agrupada sobre las dos tablas, que no depende
+     * de cuándo reciben los contadores el aviso de cada lote archivado.
+     *
+     * @param medicoId ID del médico, o nulo para contar todos los médicos.
+     * @param desde    fecha inicial (inclusive).
+     * @param hasta    fecha final (inclusive).
+     * @return estadísticas del rango.
+     */
+    @Override
+    public EstadisticasCitasDTO obtenerEstadisticas(Integer medicoId, LocalDate desde, LocalDate hasta) {
+        return contadorCitasIndex.consultar(medicoId, desde, hasta,
+                (inicio, fin) -> archivadaRepository.contarConActivasEntre(medicoId, inicio, fin));
+    }
+
+    /**
+     * Obtiene los datos de agenda de las citas de los médicos y pacientes indicados
+     * con consultas de rango sobre los índices (medico_id, fecha) y (paciente_id, fecha),
+     * en bloques de {@value #IDS_POR_CONSULTA} IDs.
+     *
+     * @param medicoIds   IDs de los médicos.
+     * @param pacienteIds IDs de los pacientes.
+     * @param desde       fecha inicial (inclusive).
+     * @param hasta       fecha final (inclusive).
+     * @return datos de agenda de las citas; una cita puede aparecer dos veces.
+     */
+    @Override
+    public List<CitaHorario> listarHorariosOcupados(Set<Integer> medicoIds, Set<Integer> pacienteIds,
+                                                    LocalDate desde, LocalDate hasta) {
+        List<CitaHorario> horarios = new ArrayList<>();
+        for (List<Integer> ids : enBloques(medicoIds)) {
+            horarios.addAll(citaRepository.findHorariosMedicos(ids, desde, hasta));
+        }
+        for (List<Integer> ids : enBloques(pacienteIds)) {
+            horarios.addAll(citaRepository.findHorariosPacientes(ids, desde, hasta));
+        }
+        return horarios;
+    }
+
+    /**
+     * Recorre todas las citas en una transacción de solo lectura, primero las archivadas
+     * y después las activas, leyéndolas por bloques y separando cada entidad del
+     * contexto de persistencia una vez procesada para que la memoria no crezca con el
+     * tamaño de las tablas.
+     *
+     * @param consumidor función que recibe cada cita.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerTodas(Consumer<Cita> consumidor) {
+        try (Stream<CitaArchivada> archivadas = archivadaRepository.streamAllByOrderById()) {
+            archivadas.forEach(archivada -> {
+                consumidor.accept(archivada.aCita());
+                entityManager.detach(archivada);
+            });
+        }
+        try (Stream<Cita> citas = citaRepository.streamAllByOrderById()) {
+            citas.forEach(cita -> {
+                consumidor.accept(cita);
+                entityManager.detach(cita);
+            });
+        }
+    }
+
+    /**
+     * Elimina una cita activa según su identificador. Solo se publica el cambio si la
+     * sentencia elimina la fila, de modo que una cita archivada mientras tanto no se
+     * descuenta de los índices.
      *
      * @param id el identificador de la cita a eliminar.
+     * @return true si se eliminó; false si no existe o está archivada.
      */
     @Override
-    public void eliminar(Integer id) {
-        citaRepository.deleteById(id);
+    public boolean eliminar(Integer id) {
+        Optional<CitaHorario> anterior = citaRepository.findHorarioById(id);
+        if (anterior.isEmpty() || citaRepository.deleteActivaById(id) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new CitaModificadaEvent(anterior.get(), null));
+        return true;
     }
 
     /**
-     * Busca una cita por paciente, fecha y hora.
+     * Busca una cita por paciente, fecha y hora. Si el índice de ocupación indica
+     * que el horario está libre, no se consulta la base de datos.
      *
      * @param pacienteId identificador del paciente.
      * @param fecha      fecha de la cita.
@@ -87,11 +462,15 @@ public class CitaAdapter implements CitaPortOut {
      */
     @Override
     public Optional<Cita> buscarPorPacienteFechaHora(Integer pacienteId, LocalDate fecha, LocalTime hora) {
+        if (!ocupacionIndex.pacientePosiblementeOcupado(pacienteId, fecha, hora)) {
+            return Optional.empty();
+        }
         return citaRepository.findByPacienteIdAndFechaAndHora(pacienteId, fecha, hora);
     }
 
     /**
-     * Busca una cita por médico, fecha y hora.
+     * Busca una cita por médico, fecha y hora. Si el índice de ocupación indica
+     * que el horario está libre, no se consulta la base de datos.
      *
      * @param medicoId identificador del médico.
      * @param fecha    fecha de la cita.
@@ -100,6 +479,90 @@ public class CitaAdapter implements CitaPortOut {
      */
     @Override
     public Optional<Cita> buscarPorMedicoFechaHora(Integer medicoId, LocalDate fecha, LocalTime hora) {
+        if (!ocupacionIndex.medicoPosiblementeOcupado(medicoId, fecha, hora)) {
+            return Optional.empty();
+        }
         return citaRepository.findByMedicoIdAndFechaAndHora(medicoId, fecha, hora);
     }
+
+    /**
+     * Obtiene la primera fecha que puede tener una cita del listado: la fecha inicial
+     * del filtro o, si es posterior, la del cursor.
+     *
+     * @param desde     fecha inicial del filtro, o nula
+     * @param despuesDe cursor de la página, o nulo
+     * @return primera fecha posible, o nula si el listado no tiene límite inferior
+     */
+    private static LocalDate primeraFecha(LocalDate desde, CitaCursor despuesDe) {
+        if (despuesDe == null || (desde != null && desde.isAfter(despuesDe.getFecha()))) {
+            return desde;
+        }
+        return despuesDe.getFecha();
+    }
+
+    /**
+     * Combina dos listas ordenadas, una de la tabla <code>cita</code> y otra del archivo,
+     * en una sola con como máximo <code>limite</code> elementos.
+     *
+     * @param activas    elementos de la tabla <code>cita</code>, ordenados
+     * @param archivadas elementos del archivo, en el mismo orden
+     * @param orden      orden de ambas listas, que desempata por ID
+     * @param id         ID de cada elemento
+     * @param limite     número máximo de elementos
+     * @param <T>        tipo de los elementos
+     * @return elementos de ambas listas en orden
+     */
+    private static <T> List<T> mezclar(List<T> activas, List<T> archivadas, Comparator<T> orden,
+                                       Function<T, Integer> id, int limite) {
+        if (archivadas.isEmpty()) {
+            return activas;
+        }
+        List<T> resultado = new ArrayList<>(Math.min(limite, activas.size() + archivadas.size()));
+        int i = 0;
+        int j = 0;
+        while (resultado.size() < limite && (i < activas.size() || j < archivadas.size())) {
+            T siguiente = j >= archivadas.size()
+                    || (i < activas.size() && orden.compare(activas.get(i), archivadas.get(j)) <= 0)
+                    ? activas.get(i++) : archivadas.get(j++);
+            // Una cita que se archiva entre las dos consultas aparece en ambas
+            if (resultado.isEmpty() || !id.apply(resultado.getLast()).equals(id.apply(siguiente))) {
+                resultado.add(siguiente);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Divide un conjunto de IDs en listas de como máximo {@value #IDS_POR_CONSULTA} elementos.
+     *
+     * @param ids IDs a dividir.
+     * @return bloques de IDs.
+     */
+    private static List<List<Integer>> enBloques(Set<Integer> ids) {
+        List<Integer> todos = new ArrayList<>(ids);
+        List<List<Integer>> bloques = new ArrayList<>();
+        for (int inicio = 0; inicio < todos.size(); inicio += IDS_POR_CONSULTA) {
+            bloques.add(todos.subList(inicio, Math.min(inicio + IDS_POR_CONSULTA, todos.size())));
+        }
+        return bloques;
+    }
+
+    /**
+     * Traduce una violación de integridad a la excepción de dominio correspondiente
+     * según la restricción única que la provocó.
+     *
+     * @param e excepción lanzada por la base de datos.
+     * @return excepción de cita duplicada, o la excepción original si no se debe a la agenda.
+     */
+    private static RuntimeException traducirConflicto(DataIntegrityViolationException e) {
+        String mensaje = e.getMostSpecificCause().getMessage();
+        mensaje = mensaje == null ? "" : mensaje.toLowerCase(Locale.ROOT);
+        if (mensaje.contains(Cita.UK_PACIENTE_FECHA_HORA)) {
+            return new CitaDuplicadaException("El paciente ya tiene una cita a esa fecha y hora.");
+        }
+        if (mensaje.contains(Cita.UK_MEDICO_FECHA_HORA)) {
+            return new CitaDuplicadaException("El médico ya tiene una cita a esa fecha y hora.");
+        }
+        return e;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.medicagenda.citas_service.infraestructura.adapter;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.dominio.port.out.CitaUsuarioValidatorPort;
+import com.medicagenda.citas_service.infraestructura.config.UsuariosServiceProperties;
+import com.medicagenda.citas_service.infraestructura.proyeccion.ProyeccionUsuarios;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adaptador que resuelve el tipo de usuario con la copia local de {@link ProyeccionUsuarios}.
+ * <p>
+ * Es la implementación de {@link CitaUsuarioValidatorPort} que usan los casos de uso:
+ * los usuarios presentes en la copia se resuelven en memoria, sin llamadas remotas.
+ * Los que aún no han llegado (por ejemplo, recién creados) se consultan a través de
+ * {@link CitaUsuarioTipoCacheAdapter} si <code>usuarios-service.proyeccion.respaldo-remoto</code>
+ * está activo, o se consideran DESCONOCIDO si no. Mientras la copia no está cargada,
+ * todas las consultas van a usuarios-service.
+ * </p>
+ *
+ * Cuenta las consultas en <code>usuarios.proyeccion.consultas</code> con la etiqueta
+ * <code>origen</code> (local, remoto, desconocido).
+ *
+ * @since 2025-06-19
+ */
+@Primary
+@Component
+public class CitaUsuarioProyeccionAdapter implements CitaUsuarioValidatorPort {
+
+    private final ProyeccionUsuarios proyeccion;
+    private final CitaUsuarioTipoCacheAdapter remoto;
+    private final boolean respaldoRemoto;
+    private final Counter locales;
+    private final Counter remotas;
+    private final Counter desconocidas;
+
+    /**
+     * Crea el adaptador y registra sus métricas.
+     *
+     * @param proyeccion copia local de tipos de usuario
+     * @param remoto     adaptador con caché que consulta usuarios-service
+     * @param properties configuración de la integración con usuarios-service
+     * @param registry   registro de métricas de Micrometer
+     */
+    public CitaUsuarioProyeccionAdapter(ProyeccionUsuarios proyeccion,
+                                        CitaUsuarioTipoCacheAdapter remoto,
+                                        UsuariosServiceProperties properties,
+                                        MeterRegistry registry) {
+        this.proyeccion = proyeccion;
+        this.remoto = remoto;
+        this.respaldoRemoto = properties.getProyeccion().isRespaldoRemoto();
+        this.locales = consultas(registry, "local");
+        this.remotas = consultas(registry, "remoto");
+        this.desconocidas = consultas(registry, "desconocido");
+    }
+
+    /**
+     * Obtiene el tipo de usuario de la copia local o, si no está, de usuarios-service.
+     *
+     * @param usuarioId ID del usuario
+     * @return resultado futuro con el tipo de usuario
+     */
+    @Override
+    public CompletableFuture<UsuarioTipo> obtenerTipoUsuarioAsync(Integer usuarioId) {
+        UsuarioTipo tipo = usuarioId == null ? UsuarioTipo.DESCONOCIDO : proyeccion.tipo(usuarioId);
+        if (tipo != null) {
+            locales.increment();
+            return CompletableFuture.completedFuture(tipo);
+        }
+        if (consultarRemoto()) {
+            remotas.increment();
+            return remoto.obtenerTipoUsuarioAsync(usuarioId);
+        }
+        desconocidas.increment();
+        return CompletableFuture.completedFuture(UsuarioTipo.DESCONOCIDO);
+    }
+
+    /**
+     * Obtiene el tipo de varios usuarios, consultando a usuarios-service en un solo
+     * lote únicamente los que no están en la copia local.
+     *
+     * @param usuarioIds IDs de los usuarios
+     * @return resultado futuro con el tipo de cada usuario
+     */
+    @Override
+    public CompletableFuture<Map<Integer, UsuarioTipo>> obtenerTiposUsuarioAsync(Set<Integer> usuarioIds) {
+        Map<Integer, UsuarioTipo> tipos = new HashMap<>();
+        Set<Integer> faltantes = new HashSet<>();
+        for (Integer usuarioId : usuarioIds) {
+            UsuarioTipo tipo = proyeccion.tipo(usuarioId);
+            if (tipo != null) {
+                tipos.put(usuarioId, tipo);
+            } else {
+                faltantes.add(usuarioId);
+            }
+        }
+        locales.increment(tipos.size());
+        if (faltantes.isEmpty()) {
+            return CompletableFuture.completedFuture(tipos);
+        }
+        if (!consultarRemoto()) {
+            desconocidas.increment(faltantes.size());
+            faltantes.forEach(usuarioId -> tipos.put(usuarioId, UsuarioTipo.DESCONOCIDO));
+            return CompletableFuture.completedFuture(tipos);
+        }
+        remotas.increment(faltantes.size());
+        return remoto.obtenerTiposUsuarioAsync(faltantes).thenApply(consultados -> {
+            tipos.putAll(consultados);
+            return tipos;
+        });
+    }
+
+    /**
+     * Indica si un usuario que no está en la copia local debe consultarse a usuarios-service.
+     *
+     * @return true si la copia no está cargada o el respaldo remoto está activo
+     */
+    private boolean consultarRemoto() {
+        return respaldoRemoto || !proyeccion.lista();
+    }
+
+    private static Counter consultas(MeterRegistry registry, String origen) {
+        return Counter.builder("usuarios.proyeccion.consultas")
+                .description("Consultas de tipo de usuario según dónde se resolvieron")
+                .tag("origen", origen)
+                .register(registry);
+    }
+}
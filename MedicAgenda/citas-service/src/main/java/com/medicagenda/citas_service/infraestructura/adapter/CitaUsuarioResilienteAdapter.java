@@ -0,0 +1,258 @@
+package com.medicagenda.citas_service.infraestructura.adapter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicagenda.citas_service.dominio.excepciones.MicroUsuariosServiceNoDisponibleException;
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.dominio.port.out.CitaUsuarioValidatorPort;
+import com.medicagenda.citas_service.infraestructura.config.UsuariosServiceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Adaptador que protege las llamadas a usuarios-service con un circuit breaker y un bulkhead.
+ * <p>
+ * Se sitúa entre {@link CitaUsuarioTipoCacheAdapter} y {@link CitaUsuarioValidatorAdapter}.
+ * Cuando la tasa de fallos de la ventana deslizante supera el umbral, el circuito se abre
+ * y las consultas se rechazan al instante sin llamar al microservicio. El bulkhead limita
+ * las consultas en curso; las que lo superan también se rechazan de inmediato.
+ * </p>
+ * <p>
+ * Si el agrupador está habilitado, las consultas concurrentes de distintos hilos se
+ * combinan aquí en una sola llamada a <code>POST /api/usuarios/tipos</code> antes de
+ * pasar por el circuito, de modo que cada llamada HTTP cuenta una sola vez en la
+ * ventana del circuit breaker y ocupa un solo permiso del bulkhead.
+ * </p>
+ *
+ * <ul>
+ *     <li>Si una consulta se rechaza o falla, se responde con el último tipo conocido de
+ *     cada usuario, si existe y el respaldo está habilitado; si no, se lanza
+ *     {@link MicroUsuariosServiceNoDisponibleException}.</li>
+ *     <li>Solo se guardan como respaldo los tipos conocidos (PACIENTE, MEDICO, ADMIN).</li>
+ *     <li>{@link CitaUsuarioTipoCacheAdapter} carga su caché sin respaldo y lo aplica después,
+ *     para que un tipo de respaldo no se guarde con el tiempo de vida normal y se siga
+ *     sirviendo cuando usuarios-service se recupere.</li>
+ *     <li>La configuración se lee de <code>resilience4j.circuitbreaker.instances.usuarios-service</code>
+ *     y <code>resilience4j.bulkhead.instances.usuarios-service</code>.</li>
+ *     <li>Las transiciones de estado se cuentan en <code>usuarios.circuito.transiciones</code> y las
+ *     respuestas de respaldo en <code>usuarios.tipo.respaldo</code>.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class CitaUsuarioResilienteAdapter implements CitaUsuarioValidatorPort {
+
+    private static final Logger log = LoggerFactory.getLogger(CitaUsuarioResilienteAdapter.class);
+
+    /** Nombre de la instancia de circuit breaker y bulkhead. */
+    static final String INSTANCIA = "usuarios-service";
+
+    private final CitaUsuarioValidatorAdapter remoto;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final UsuarioTipoColapsador colapsador;
+    private final Cache<Integer, UsuarioTipo> ultimosConocidos;
+    private final Counter respaldos;
+
+    /**
+     * Crea el adaptador y registra sus métricas.
+     *
+     * @param remoto                  adaptador que consulta usuarios-service
+     * @param circuitBreakerRegistry  registro de circuit breakers de Resilience4j
+     * @param bulkheadRegistry        registro de bulkheads de Resilience4j
+     * @param properties              configuración de la integración con usuarios-service
+     * @param registry                registro de métricas de Micrometer
+     */
+    public CitaUsuarioResilienteAdapter(CitaUsuarioValidatorAdapter remoto,
+                                        CircuitBreakerRegistry circuitBreakerRegistry,
+                                        BulkheadRegistry bulkheadRegistry,
+                                        UsuariosServiceProperties properties,
+                                        MeterRegistry registry) {
+        this.remoto = remoto;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCIA);
+        this.bulkhead = bulkheadRegistry.bulkhead(INSTANCIA);
+        UsuariosServiceProperties.Colapsador agrupador = properties.getColapsador();
+        this.colapsador = agrupador.isHabilitado()
+                ? new UsuarioTipoColapsador(this::consultarTipos, agrupador.getVentana(), agrupador.getMaximoLote())
+                : null;
+
+        UsuariosServiceProperties.Respaldo respaldo = properties.getRespaldo();
+        this.ultimosConocidos = respaldo.isHabilitado()
+                ? Caffeine.newBuilder()
+                        .maximumSize(respaldo.getMaximoEntradas())
+                        .expireAfterWrite(respaldo.getAntiguedadMaxima())
+                        .recordStats()
+                        .build()
+                : null;
+        if (ultimosConocidos != null) {
+            CaffeineCacheMetrics.monitor(registry, ultimosConocidos, "usuarios.tipo.conocido");
+        }
+        this.respaldos = Counter.builder("usuarios.tipo.respaldo")
+                .description("Consultas de tipo de usuario respondidas con el último valor conocido")
+                .register(registry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(evento -> {
+            CircuitBreaker.StateTransition transicion = evento.getStateTransition();
+            Counter.builder("usuarios.circuito.transiciones")
+                    .description("Transiciones de estado del circuito hacia usuarios-service")
+                    .tag("desde", transicion.getFromState().name())
+                    .tag("hacia", transicion.getToState().name())
+                    .register(registry)
+                    .increment();
+            log.warn("Circuito hacia usuarios-service: {} -> {}", transicion.getFromState(), transicion.getToState());
+        });
+    }
+
+    /**
+     * Obtiene el tipo de un usuario a través del circuito, agrupado con otras consultas
+     * concurrentes si el agrupador está habilitado, o el último conocido si falla.
+     *
+     * @param usuarioId ID del usuario
+     * @return resultado futuro con el tipo de usuario
+     */
+    @Override
+    public CompletableFuture<UsuarioTipo> obtenerTipoUsuarioAsync(Integer usuarioId) {
+        return consultarTipo(usuarioId).exceptionally(error -> respaldo(usuarioId, error));
+    }
+
+    /**
+     * Obtiene el tipo de varios usuarios a través del circuito. Si falla, responde con
+     * los últimos tipos conocidos solo si se conocen todos.
+     *
+     * @param usuarioIds IDs de los usuarios
+     * @return resultado futuro con el tipo de cada usuario
+     */
+    @Override
+    public CompletableFuture<Map<Integer, UsuarioTipo>> obtenerTiposUsuarioAsync(Set<Integer> usuarioIds) {
+        return consultarTipos(usuarioIds).exceptionally(error -> respaldo(usuarioIds, error));
+    }
+
+    /**
+     * Consulta el tipo de un usuario a través del circuito, agrupado con otras consultas
+     * concurrentes si el agrupador está habilitado, sin respaldo.
+     *
+     * @param usuarioId ID del usuario
+     * @return resultado futuro con el tipo de usuario
+     */
+    CompletableFuture<UsuarioTipo> consultarTipo(Integer usuarioId) {
+        if (colapsador != null) {
+            return colapsador.obtener(usuarioId);
+        }
+        return proteger(() -> remoto.obtenerTipoUsuarioAsync(usuarioId)).thenApply(tipo -> {
+            recordar(usuarioId, tipo);
+            return tipo;
+        });
+    }
+
+    /**
+     * Consulta el tipo de varios usuarios a través del circuito, sin respaldo.
+     *
+     * @param usuarioIds IDs de los usuarios
+     * @return resultado futuro con el tipo de cada usuario
+     */
+    CompletableFuture<Map<Integer, UsuarioTipo>> consultarTipos(Set<Integer> usuarioIds) {
+        return proteger(() -> remoto.obtenerTiposUsuarioAsync(usuarioIds))
+                .thenApply(tipos -> {
+                    tipos.forEach(this::recordar);
+                    return tipos;
+                });
+    }
+
+    /**
+     * Responde a una consulta fallida con el último tipo conocido del usuario.
+     *
+     * @param usuarioId ID del usuario
+     * @param error     error de la consulta
+     * @return último tipo conocido
+     * @throws MicroUsuariosServiceNoDisponibleException si no se conoce el tipo del usuario
+     */
+    UsuarioTipo respaldo(Integer usuarioId, Throwable error) {
+        UsuarioTipo conocido = ultimosConocidos == null ? null : ultimosConocidos.getIfPresent(usuarioId);
+        if (conocido == null) {
+            throw noDisponible(error);
+        }
+        respaldos.increment();
+        return conocido;
+    }
+
+    /**
+     * Responde a una consulta fallida con los últimos tipos conocidos, solo si se
+     * conocen todos.
+     *
+     * @param usuarioIds IDs de los usuarios
+     * @param error      error de la consulta
+     * @return último tipo conocido de cada usuario
+     * @throws MicroUsuariosServiceNoDisponibleException si no se conoce el tipo de algún usuario
+     */
+    Map<Integer, UsuarioTipo> respaldo(Set<Integer> usuarioIds, Throwable error) {
+        Map<Integer, UsuarioTipo> conocidos = ultimosConocidos == null
+                ? Map.of() : ultimosConocidos.getAllPresent(usuarioIds);
+        if (conocidos.size() < usuarioIds.size()) {
+            throw noDisponible(error);
+        }
+        respaldos.increment(usuarioIds.size());
+        return new HashMap<>(conocidos);
+    }
+
+    /**
+     * Envía las consultas pendientes y detiene el agrupador al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        if (colapsador != null) {
+            colapsador.cerrar();
+        }
+    }
+
+    /**
+     * Ejecuta una consulta dentro del bulkhead y del circuit breaker. Ambos rechazan
+     * sin esperar, devolviendo un resultado ya fallido.
+     *
+     * @param consulta consulta a usuarios-service
+     * @param <T>      tipo del resultado
+     * @return resultado futuro de la consulta
+     */
+    private <T> CompletableFuture<T> proteger(Supplier<CompletableFuture<T>> consulta) {
+        return Bulkhead.decorateCompletionStage(bulkhead,
+                        CircuitBreaker.decorateCompletionStage(circuitBreaker, consulta::get))
+                .get()
+                .toCompletableFuture();
+    }
+
+    private void recordar(Integer usuarioId, UsuarioTipo tipo) {
+        if (ultimosConocidos != null && tipo != UsuarioTipo.DESCONOCIDO) {
+            ultimosConocidos.put(usuarioId, tipo);
+        }
+    }
+
+    /**
+     * Convierte el error de una consulta en la excepción de servicio no disponible.
+     *
+     * @param error error de la consulta, posiblemente envuelto
+     * @return excepción a lanzar
+     */
+    private static RuntimeException noDisponible(Throwable error) {
+        Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (causa instanceof MicroUsuariosServiceNoDisponibleException noDisponible) {
+            return noDisponible;
+        }
+        return new MicroUsuariosServiceNoDisponibleException();
+    }
+}
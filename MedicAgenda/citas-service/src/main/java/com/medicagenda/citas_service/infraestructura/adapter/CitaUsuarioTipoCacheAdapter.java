@@ -0,0 +1,136 @@
+package com.medicagenda.citas_service.infraestructura.adapter;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.dominio.port.out.CitaUsuarioValidatorPort;
+import com.medicagenda.citas_service.infraestructura.config.UsuariosServiceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adaptador que antepone una caché local al {@link CitaUsuarioResilienteAdapter}.
+ * <p>
+ * Evita consultar usuarios-service en cada cita guardando el tipo de cada usuario
+ * durante un tiempo configurable. La caché está acotada en tamaño y expone sus
+ * métricas (aciertos, fallos y desalojos) a través de Actuator con el nombre
+ * <code>usuarios.tipo</code>. Lo usa {@link CitaUsuarioProyeccionAdapter} para los
+ * usuarios que aún no están en la copia local.
+ * </p>
+ *
+ * <ul>
+ *     <li>Los tipos conocidos se guardan durante <code>usuarios-service.cache.ttl</code>.</li>
+ *     <li>Los resultados DESCONOCIDO se guardan durante <code>usuarios-service.cache.ttl-desconocido</code>.</li>
+ *     <li>Los errores de comunicación no se almacenan. Tampoco los tipos de respaldo que
+ *     {@link CitaUsuarioResilienteAdapter} da mientras usuarios-service no responde: la caché
+ *     se carga sin respaldo y este se aplica fuera de ella, así que en cuanto el circuito se
+ *     cierra la siguiente consulta vuelve a usuarios-service.</li>
+ *     <li>Las consultas concurrentes de un mismo usuario comparten una sola llamada remota.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class CitaUsuarioTipoCacheAdapter implements CitaUsuarioValidatorPort {
+
+    private final CitaUsuarioResilienteAdapter remoto;
+    private final AsyncCache<Integer, UsuarioTipo> cache;
+
+    /**
+     * Crea el adaptador con caché y registra sus métricas.
+     *
+     * @param remoto     adaptador que consulta usuarios-service a través del circuit breaker
+     * @param properties configuración de la caché
+     * @param registry   registro de métricas de Micrometer
+     */
+    public CitaUsuarioTipoCacheAdapter(CitaUsuarioResilienteAdapter remoto,
+                                       UsuariosServiceProperties properties,
+                                       MeterRegistry registry) {
+        this.remoto = remoto;
+        UsuariosServiceProperties.Cache config = properties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximoEntradas())
+                .expireAfter(new ExpiracionPorTipo(config.getTtl().toNanos(), config.getTtlDesconocido().toNanos()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache, "usuarios.tipo");
+    }
+
+    /**
+     * Obtiene el tipo de usuario desde la caché o, si no está, desde usuarios-service.
+     *
+     * @param usuarioId ID del usuario
+     * @return resultado futuro con el tipo de usuario; DESCONOCIDO si el ID es nulo
+     */
+    @Override
+    public CompletableFuture<UsuarioTipo> obtenerTipoUsuarioAsync(Integer usuarioId) {
+        if (usuarioId == null) {
+            return CompletableFuture.completedFuture(UsuarioTipo.DESCONOCIDO);
+        }
+        return cache.get(usuarioId, (id, executor) -> remoto.consultarTipo(id))
+                .exceptionally(error -> remoto.respaldo(usuarioId, error));
+    }
+
+    /**
+     * Obtiene el tipo de varios usuarios, consultando a usuarios-service en un solo
+     * lote únicamente los que no están en la caché.
+     *
+     * @param usuarioIds IDs de los usuarios
+     * @return resultado futuro con el tipo de cada usuario
+     */
+    @Override
+    public CompletableFuture<Map<Integer, UsuarioTipo>> obtenerTiposUsuarioAsync(Set<Integer> usuarioIds) {
+        return cache.getAll(usuarioIds, (faltantes, executor) -> remoto.consultarTipos(Set.copyOf(faltantes)))
+                .exceptionally(error -> {
+                    Map<Integer, UsuarioTipo> tipos = new HashMap<>();
+                    Set<Integer> sinCache = new HashSet<>();
+                    for (Integer usuarioId : usuarioIds) {
+                        CompletableFuture<UsuarioTipo> guardado = cache.getIfPresent(usuarioId);
+                        if (guardado != null && guardado.isDone() && !guardado.isCompletedExceptionally()) {
+                            tipos.put(usuarioId, guardado.join());
+                        } else {
+                            sinCache.add(usuarioId);
+                        }
+                    }
+                    tipos.putAll(remoto.respaldo(sinCache, error));
+                    return tipos;
+                });
+    }
+
+    /**
+     * Política de expiración que asigna un tiempo de vida más corto a los usuarios DESCONOCIDO.
+     */
+    private static final class ExpiracionPorTipo implements Expiry<Integer, UsuarioTipo> {
+
+        private final long ttlNanos;
+        private final long ttlDesconocidoNanos;
+
+        private ExpiracionPorTipo(long ttlNanos, long ttlDesconocidoNanos) {
+            this.ttlNanos = ttlNanos;
+            this.ttlDesconocidoNanos = ttlDesconocidoNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Integer usuarioId, UsuarioTipo tipo, long currentTime) {
+            return tipo == UsuarioTipo.DESCONOCIDO ? ttlDesconocidoNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Integer usuarioId, UsuarioTipo tipo, long currentTime, long currentDuration) {
+            return expireAfterCreate(usuarioId, tipo, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Integer usuarioId, UsuarioTipo tipo, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -8,15 +8,25 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.core.ParameterizedTypeReference;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Adaptador que implementa {@link CitaUsuarioValidatorPort}
  * y consulta el microservicio MicroUsuarios-service para obtener el tipo de usuario.
  * <p>
  * Permite validar el rol de un usuario (paciente, médico, admin o desconocido)
- * consultando el microservicio externo de usuarios.
+ * consultando el microservicio externo de usuarios. Las consultas se hacen de
+ * forma no bloqueante sobre el {@link WebClient}, de modo que varias pueden
+ * estar en curso al mismo tiempo. La agrupación de consultas concurrentes la hace
+ * {@link CitaUsuarioResilienteAdapter}, de modo que el circuit breaker cuenta cada
+ * llamada HTTP una sola vez.
  * </p>
  *
  * <ul>
@@ -32,42 +42,96 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CitaUsuarioValidatorAdapter implements CitaUsuarioValidatorPort {
 
+    /** Número máximo de IDs que usuarios-service acepta en cada consulta por lotes. */
+    static final int MAXIMO_IDS_POR_CONSULTA = 1000;
+
     private final WebClient webClientUsuarios;
 
     /**
      * Consulta el microservicio MicroUsuarios-service para obtener el tipo de usuario.
      *
      * @param usuarioId ID del usuario
-     * @return tipo de usuario si se encuentra, DESCONOCIDO si no
-     * @throws MicroUsuariosServiceNoDisponibleException si el microservicio no está disponible
+     * @return resultado futuro con el tipo de usuario si se encuentra, DESCONOCIDO si no;
+     *         se completa con {@link MicroUsuariosServiceNoDisponibleException} si el
+     *         microservicio no está disponible
      */
     @Override
-    public UsuarioTipo obtenerTipoUsuario(Integer usuarioId) {
-        try {
-            Map<String, Object> usuario = webClientUsuarios
-                    .get()
-                    .uri("/api/usuarios/{id}", usuarioId)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
-                    })
-                    .block();
-
-            if (usuario == null || !usuario.containsKey("tipo")) {
-                return UsuarioTipo.DESCONOCIDO;
-            }
+    public CompletableFuture<UsuarioTipo> obtenerTipoUsuarioAsync(Integer usuarioId) {
+        return webClientUsuarios
+                .get()
+                .uri("/api/usuarios/{id}", usuarioId)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+                })
+                .map(CitaUsuarioValidatorAdapter::aTipoUsuario)
+                .defaultIfEmpty(UsuarioTipo.DESCONOCIDO)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(UsuarioTipo.DESCONOCIDO))
+                // Si ocurre cualquier otro error (como conexión rechazada), se usa la excepción personalizada
+                .onErrorMap(e -> !(e instanceof MicroUsuariosServiceNoDisponibleException),
+                        e -> new MicroUsuariosServiceNoDisponibleException())
+                .toFuture();
+    }
 
-            String tipo = usuario.get("tipo").toString().toUpperCase();
-            return switch (tipo) {
-                case "PACIENTE" -> UsuarioTipo.PACIENTE;
-                case "MEDICO" -> UsuarioTipo.MEDICO;
-                case "ADMIN" -> UsuarioTipo.ADMIN;
-                default -> UsuarioTipo.DESCONOCIDO;
-            };
-        } catch (WebClientResponseException.NotFound e) {
-            return UsuarioTipo.DESCONOCIDO;
-        } catch (Exception e) {
-            // Si ocurre cualquier otro error (como conexión rechazada), lanza la excepción personalizada
-            throw new MicroUsuariosServiceNoDisponibleException();
+    /**
+     * Consulta el tipo de varios usuarios con llamadas a <code>POST /api/usuarios/tipos</code>
+     * de como máximo {@value #MAXIMO_IDS_POR_CONSULTA} IDs, lanzadas en paralelo.
+     *
+     * @param usuarioIds IDs de los usuarios
+     * @return resultado futuro con el tipo de cada usuario; los que no existen se
+     *         resuelven como DESCONOCIDO
+     */
+    @Override
+    public CompletableFuture<Map<Integer, UsuarioTipo>> obtenerTiposUsuarioAsync(Set<Integer> usuarioIds) {
+        if (usuarioIds.size() <= MAXIMO_IDS_POR_CONSULTA) {
+            return consultarTipos(usuarioIds);
         }
+        List<Integer> ids = new ArrayList<>(usuarioIds);
+        List<CompletableFuture<Map<Integer, UsuarioTipo>>> consultas = new ArrayList<>();
+        for (int inicio = 0; inicio < ids.size(); inicio += MAXIMO_IDS_POR_CONSULTA) {
+            consultas.add(consultarTipos(Set.copyOf(ids.subList(inicio, Math.min(inicio + MAXIMO_IDS_POR_CONSULTA, ids.size())))));
+        }
+        return CompletableFuture.allOf(consultas.toArray(CompletableFuture[]::new))
+                .thenApply(ignorado -> {
+                    Map<Integer, UsuarioTipo> tipos = new HashMap<>();
+                    consultas.forEach(consulta -> tipos.putAll(consulta.join()));
+                    return tipos;
+                });
+    }
+
+    /**
+     * Consulta el tipo de varios usuarios con una sola llamada a <code>POST /api/usuarios/tipos</code>.
+     *
+     * @param usuarioIds IDs de los usuarios
+     * @return resultado futuro con el tipo de cada usuario
+     */
+    private CompletableFuture<Map<Integer, UsuarioTipo>> consultarTipos(Set<Integer> usuarioIds) {
+        return webClientUsuarios
+                .post()
+                .uri("/api/usuarios/tipos")
+                .bodyValue(usuarioIds)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                })
+                .defaultIfEmpty(List.of())
+                .map(usuarios -> {
+                    Map<Integer, UsuarioTipo> tipos = new HashMap<>();
+                    usuarioIds.forEach(id -> tipos.put(id, UsuarioTipo.DESCONOCIDO));
+                    usuarios.forEach(usuario -> tipos.put(((Number) usuario.get("id")).intValue(), aTipoUsuario(usuario)));
+                    return tipos;
+                })
+                .onErrorMap(e -> !(e instanceof MicroUsuariosServiceNoDisponibleException),
+                        e -> new MicroUsuariosServiceNoDisponibleException())
+                .toFuture();
+    }
+
+    /**
+     * Convierte la respuesta de usuarios-service en un {@link UsuarioTipo}.
+     *
+     * @param usuario cuerpo de la respuesta
+     * @return tipo de usuario, DESCONOCIDO si no tiene tipo o no es reconocido
+     */
+    static UsuarioTipo aTipoUsuario(Map<String, Object> usuario) {
+        Object tipo = usuario.get("tipo");
+        return UsuarioTipo.de(tipo == null ? null : tipo.toString());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package com.medicagenda.citas_service.infraestructura.adapter;
+
+import com.medicagenda.citas_service.dominio.excepciones.MicroUsuariosServiceNoDisponibleException;
+import com.medicagenda.citas_service.dominio.model.UsuarioEvento;
+import com.medicagenda.citas_service.dominio.model.UsuarioEventoPagina;
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.dominio.model.UsuarioTiposInstantanea;
+import com.medicagenda.citas_service.dominio.port.out.UsuarioEventoFuentePort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptador que implementa {@link UsuarioEventoFuentePort} consultando
+ * periódicamente por HTTP la tabla de eventos de usuarios-service.
+ * <p>
+ * Lee <code>GET /api/usuarios/eventos</code> y <code>GET /api/usuarios/tipos</code>
+ * con el mismo {@link WebClient} que el resto de la integración, de modo que
+ * comparte su pool de conexiones y su tiempo máximo de respuesta. Se usa desde
+ * la tarea programada que mantiene la proyección local, por lo que espera la
+ * respuesta de forma bloqueante.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@RequiredArgsConstructor
+public class UsuarioEventoHttpAdapter implements UsuarioEventoFuentePort {
+
+    private final WebClient webClientUsuarios;
+
+    /**
+     * Lee los eventos posteriores a un ID con <code>GET /api/usuarios/eventos</code>.
+     *
+     * @param despuesDe ID del último evento ya leído
+     * @param limite    número máximo de eventos
+     * @return página de eventos
+     * @throws MicroUsuariosServiceNoDisponibleException si usuarios-service no responde correctamente
+     */
+    @Override
+    public UsuarioEventoPagina leerEventos(long despuesDe, int limite) {
+        EventosRespuesta respuesta = consultar("/api/usuarios/eventos?despuesDe={despuesDe}&limite={limite}",
+                EventosRespuesta.class, despuesDe, limite);
+        List<UsuarioEvento> eventos = respuesta.eventos() == null ? List.of() : respuesta.eventos().stream()
+                .map(evento -> new UsuarioEvento(evento.id(), evento.usuarioId(),
+                        UsuarioTipo.de(evento.tipo()), evento.fecha()))
+                .toList();
+        return new UsuarioEventoPagina(eventos, respuesta.ultimoEventoId() == null ? 0 : respuesta.ultimoEventoId());
+    }
+
+    /**
+     * Lee una página de la instantánea de tipos con <code>GET /api/usuarios/tipos</code>.
+     *
+     * @param despuesDeUsuarioId ID del último usuario ya leído
+     * @param limite             número máximo de usuarios
+     * @return página de la instantánea
+     * @throws MicroUsuariosServiceNoDisponibleException si usuarios-service no responde correctamente
+     */
+    @Override
+    public UsuarioTiposInstantanea leerInstantanea(int despuesDeUsuarioId, int limite) {
+        InstantaneaRespuesta respuesta = consultar("/api/usuarios/tipos?despuesDe={despuesDe}&limite={limite}",
+                InstantaneaRespuesta.class, despuesDeUsuarioId, limite);
+        Map<Integer, UsuarioTipo> tipos = new HashMap<>();
+        if (respuesta.tipos() != null) {
+            respuesta.tipos().forEach(usuario -> tipos.put(usuario.id(), UsuarioTipo.de(usuario.tipo())));
+        }
+        return new UsuarioTiposInstantanea(respuesta.ultimoEventoId() == null ? 0 : respuesta.ultimoEventoId(), tipos);
+    }
+
+    /**
+     * Hace una consulta GET y espera su respuesta.
+     *
+     * @param uri       plantilla de la URI relativa
+     * @param tipo      clase de la respuesta
+     * @param variables valores de la plantilla
+     * @param <T>       tipo de la respuesta
+     * @return cuerpo de la respuesta
+     */
+    private <T> T consultar(String uri, Class<T> tipo, Object... variables) {
+        T respuesta;
+        try {
+            respuesta = webClientUsuarios
+                    .get()
+                    .uri(uri, variables)
+                    .retrieve()
+                    .bodyToMono(tipo)
+                    .block();
+        } catch (RuntimeException e) {
+            throw new MicroUsuariosServiceNoDisponibleException(
+                    "No se pudo consultar " + uri.substring(0, uri.indexOf('?')) + " en usuarios-service: " + e.getMessage());
+        }
+        if (respuesta == null) {
+            throw new MicroUsuariosServiceNoDisponibleException("usuarios-service devolvió una respuesta vacía.");
+        }
+        return respuesta;
+    }
+
+    /** Cuerpo de <code>GET /api/usuarios/eventos</code>. */
+    private record EventosRespuesta(List<EventoRespuesta> eventos, Long ultimoEventoId) {
+    }
+
+    /** Evento dentro de {@link EventosRespuesta}. */
+    private record EventoRespuesta(long id, Integer usuarioId, String tipo, String operacion, LocalDateTime fecha) {
+    }
+
+    /** Cuerpo de <code>GET /api/usuarios/tipos</code>. */
+    private record InstantaneaRespuesta(Long ultimoEventoId, List<TipoRespuesta> tipos) {
+    }
+
+    /** Usuario dentro de {@link InstantaneaRespuesta}. */
+    private record TipoRespuesta(Integer id, String tipo) {
+    }
+}
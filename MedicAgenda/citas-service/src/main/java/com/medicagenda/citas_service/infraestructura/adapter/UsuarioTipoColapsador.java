@@ -0,0 +1,130 @@
+package com.medicagenda.citas_service.infraestructura.adapter;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Agrupa las consultas de tipo de usuario que llegan desde distintos hilos en
+ * una sola consulta por lotes.
+ * <p>
+ * La primera consulta de un lote abre una ventana de espera; todas las que
+ * llegan durante esa ventana se añaden al mismo lote, que se envía al cerrarse
+ * la ventana o al alcanzar el tamaño máximo. Las consultas repetidas de un mismo
+ * usuario dentro del lote comparten el mismo resultado.
+ * </p>
+ *
+ * <ul>
+ *     <li>Los usuarios que no aparecen en la respuesta del lote se resuelven como DESCONOCIDO.</li>
+ *     <li>Si la consulta del lote falla, todas las consultas del lote fallan con el mismo error.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+class UsuarioTipoColapsador {
+
+    private final Function<Set<Integer>, CompletableFuture<Map<Integer, UsuarioTipo>>> consultaLote;
+    private final long ventanaNanos;
+    private final int maximoLote;
+    private final ScheduledExecutorService planificador;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Map<Integer, CompletableFuture<UsuarioTipo>> pendientes = new HashMap<>();
+
+    /**
+     * Crea un agrupador de consultas.
+     *
+     * @param consultaLote función que consulta los tipos de un conjunto de usuarios
+     * @param ventana      tiempo máximo de espera antes de enviar un lote
+     * @param maximoLote   tamaño a partir del cual el lote se envía inmediatamente
+     */
+    UsuarioTipoColapsador(Function<Set<Integer>, CompletableFuture<Map<Integer, UsuarioTipo>>> consultaLote,
+                          Duration ventana, int maximoLote) {
+        this.consultaLote = consultaLote;
+        this.ventanaNanos = ventana.toNanos();
+        this.maximoLote = maximoLote;
+        this.planificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "usuarios-colapsador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Añade la consulta de un usuario al lote en formación.
+     *
+     * @param usuarioId ID del usuario
+     * @return resultado futuro con el tipo del usuario
+     */
+    CompletableFuture<UsuarioTipo> obtener(Integer usuarioId) {
+        CompletableFuture<UsuarioTipo> resultado;
+        boolean lleno;
+        lock.lock();
+        try {
+            resultado = pendientes.get(usuarioId);
+            if (resultado != null) {
+                return resultado;
+            }
+            resultado = new CompletableFuture<>();
+            pendientes.put(usuarioId, resultado);
+            if (pendientes.size() == 1) {
+                planificador.schedule(this::despachar, ventanaNanos, TimeUnit.NANOSECONDS);
+            }
+            lleno = pendientes.size() >= maximoLote;
+        } finally {
+            lock.unlock();
+        }
+        if (lleno) {
+            despachar();
+        }
+        return resultado;
+    }
+
+    /**
+     * Envía el lote en formación, si lo hay, y completa sus consultas con la respuesta.
+     */
+    private void despachar() {
+        Map<Integer, CompletableFuture<UsuarioTipo>> lote;
+        lock.lock();
+        try {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            lote = pendientes;
+            pendientes = new HashMap<>();
+        } finally {
+            lock.unlock();
+        }
+
+        CompletableFuture<Map<Integer, UsuarioTipo>> respuesta;
+        try {
+            respuesta = consultaLote.apply(lote.keySet());
+        } catch (RuntimeException e) {
+            respuesta = CompletableFuture.failedFuture(e);
+        }
+        respuesta.whenComplete((tipos, error) -> lote.forEach((id, consulta) -> {
+            if (error != null) {
+                consulta.completeExceptionally(error);
+            } else {
+                consulta.complete(tipos.getOrDefault(id, UsuarioTipo.DESCONOCIDO));
+            }
+        }));
+    }
+
+    /**
+     * Detiene el hilo planificador, enviando antes el lote pendiente.
+     */
+    void cerrar() {
+        despachar();
+        planificador.shutdown();
+    }
+}
@@ -0,0 +1,197 @@
+package com.medicagenda.citas_service.infraestructura.archivo;
+
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.infraestructura.config.ArchivoProperties;
+import com.medicagenda.citas_service.infraestructura.evento.CitasArchivadasEvent;
+import com.medicagenda.citas_service.infraestructura.repository.CitaArchivadaRepository;
+import com.medicagenda.citas_service.infraestructura.repository.CitaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traslada las citas pasadas de la tabla <code>cita</code> a <code>cita_archivo</code>.
+ * <p>
+ * Una tarea programada según <code>citas.archivo.cron</code> mueve las citas con una
+ * fecha anterior a <code>citas.archivo.meses-retencion</code> meses, de la más
+ * antigua a la más reciente, en lotes de <code>citas.archivo.tamano-lote</code>
+ * citas. Cada lote es una transacción con tres sentencias que no cargan entidades:
+ * la copia INSERT ... SELECT, el borrado de las citas copiadas y la lectura de sus
+ * datos de agenda para el {@link CitasArchivadasEvent}. Así la tabla <code>cita</code>
+ * y sus índices solo contienen las citas recientes y futuras.
+ * </p>
+ *
+ * <ul>
+ *     <li>Una cita solo se borra si su versión coincide con la de su copia; si se modificó
+ *     mientras se archivaba, su copia se descarta y sigue en la tabla <code>cita</code>.</li>
+ *     <li>Una cita que se intenta modificar después de archivarse ya no existe en la tabla
+ *     <code>cita</code>: las citas archivadas son de solo lectura.</li>
+ *     <li>Antes de confirmar cada lote se adelanta el {@link LimiteArchivo}, para que las
+ *     lecturas nunca dejen de consultar el archivo cuando ya contiene las citas.</li>
+ * </ul>
+ *
+ * Publica la métrica <code>citas.archivo.trasladadas</code>.
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class ArchivadorCitas {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivadorCitas.class);
+
+    private final CitaRepository citaRepository;
+    private final CitaArchivadaRepository archivadaRepository;
+    private final LimiteArchivo limiteArchivo;
+    private final ArchivoProperties config;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate escrituraTemplate;
+    private final Counter trasladadas;
+    private volatile Map<String, Object> ultimaEjecucion;
+
+    /**
+     * Crea el archivador y registra sus métricas.
+     *
+     * @param citaRepository      repositorio de la tabla <code>cita</code>
+     * @param archivadaRepository repositorio de la tabla <code>cita_archivo</code>
+     * @param limiteArchivo       límite de las citas archivadas
+     * @param config              configuración del archivo de citas
+     * @param eventPublisher      publicador de eventos de citas archivadas
+     * @param transactionManager  gestor de transacciones para los lotes
+     * @param registry            registro de métricas de Micrometer
+     */
+    public ArchivadorCitas(CitaRepository citaRepository, CitaArchivadaRepository archivadaRepository,
+                           LimiteArchivo limiteArchivo, ArchivoProperties config,
+                           ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                           MeterRegistry registry) {
+        this.citaRepository = citaRepository;
+        this.archivadaRepository = archivadaRepository;
+        this.limiteArchivo = limiteArchivo;
+        this.config = config;
+        this.eventPublisher = eventPublisher;
+        this.escrituraTemplate = new TransactionTemplate(transactionManager);
+        this.trasladadas = Counter.builder("citas.archivo.trasladadas")
+                .description("Citas trasladadas de la tabla cita a cita_archivo")
+                .register(registry);
+    }
+
+    /**
+     * Archiva las citas pasadas según la programación configurada.
+     */
+    @Scheduled(cron = "${citas.archivo.cron:0 30 3 * * *}")
+    public void archivarProgramado() {
+        if (!config.isHabilitado()) {
+            return;
+        }
+        try {
+            archivar();
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron archivar las citas pasadas; se reintentará en la siguiente ejecución", e);
+        }
+    }
+
+    /**
+     * Traslada al archivo, lote a lote, todas las citas anteriores a la fecha de corte.
+     *
+     * @return resumen con la fecha de corte, los lotes y las citas trasladadas y conservadas
+     */
+    public synchronized Map<String, Object> archivar() {
+        long inicio = System.nanoTime();
+        LocalDate corte = limiteArchivo.corte(LocalDate.now());
+        Instant archivada = Instant.now();
+        int lotes = 0;
+        long movidas = 0;
+        long conservadas = 0;
+        while (true) {
+            Lote lote = escrituraTemplate.execute(estado -> trasladarLote(corte, archivada));
+            if (lote == null || lote.leidas() == 0) {
+                break;
+            }
+            lotes++;
+            movidas += lote.horarios().size();
+            conservadas += lote.leidas() - lote.horarios().size();
+            if (!lote.horarios().isEmpty()) {
+                trasladadas.increment(lote.horarios().size());
+                eventPublisher.publishEvent(new CitasArchivadasEvent(lote.horarios()));
+            }
+            // Un lote sin traslados volvería a leer las mismas citas
+            if (lote.horarios().isEmpty() || lote.leidas() < config.getTamanoLote()) {
+                break;
+            }
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("corte", corte);
+        resultado.put("lotes", lotes);
+        resultado.put("trasladadas", movidas);
+        resultado.put("conservadas", conservadas);
+        resultado.put("duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+        resultado.put("ejecutada", archivada);
+        ultimaEjecucion = resultado;
+        if (movidas > 0 || conservadas > 0) {
+            log.info("Citas anteriores a {} archivadas: {}", corte, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Resume el estado del archivo.
+     *
+     * @return límite de las citas archivadas, configuración y resultado de la última ejecución
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitado", config.isHabilitado());
+        estado.put("mesesRetencion", config.getMesesRetencion());
+        estado.put("limite", limiteArchivo.obtener());
+        estado.put("ultimaEjecucion", ultimaEjecucion);
+        return estado;
+    }
+
+    /**
+     * Traslada el siguiente lote de citas anteriores a la fecha de corte. Debe
+     * ejecutarse dentro de una transacción.
+     *
+     * @param corte     fecha a partir de la cual se conservan las citas
+     * @param archivada momento del traslado
+     * @return número de citas leídas y datos de agenda de las trasladadas
+     */
+    private Lote trasladarLote(LocalDate corte, Instant archivada) {
+        List<Integer> ids = citaRepository.findIdsAnterioresA(corte, Limit.of(config.getTamanoLote()));
+        if (ids.isEmpty()) {
+            return new Lote(0, List.of());
+        }
+        int copiadas = archivadaRepository.copiarDesdeCitas(ids, corte, archivada);
+        int eliminadas = citaRepository.deleteArchivadas(ids);
+        if (eliminadas < copiadas) {
+            // Citas modificadas entre la copia y el borrado: se quedan en la tabla cita
+            archivadaRepository.deleteNoTrasladadas(ids);
+        }
+        List<CitaHorario> horarios = archivadaRepository.findHorariosByIds(ids);
+        horarios.stream()
+                .map(CitaHorario::fecha)
+                .max(LocalDate::compareTo)
+                .ifPresent(limiteArchivo::avanzar);
+        return new Lote(ids.size(), horarios);
+    }
+
+    /**
+     * Resultado de un lote: citas leídas de la tabla <code>cita</code> y datos de agenda
+     * de las que se trasladaron.
+     */
+    private record Lote(int leidas, List<CitaHorario> horarios) {
+    }
+}
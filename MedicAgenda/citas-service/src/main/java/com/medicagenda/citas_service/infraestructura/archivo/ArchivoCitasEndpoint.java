@@ -0,0 +1,47 @@
+package com.medicagenda.citas_service.infraestructura.archivo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator del {@link ArchivadorCitas}.
+ * <p>
+ * Disponible en <code>/actuator/archivocitas</code>. Con GET devuelve el límite de las
+ * citas archivadas y el resultado de la última ejecución; con POST archiva en ese
+ * momento las citas pasadas, sin esperar a la tarea programada.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@Endpoint(id = "archivocitas")
+@RequiredArgsConstructor
+public class ArchivoCitasEndpoint {
+
+    private final ArchivadorCitas archivadorCitas;
+
+    /**
+     * Resume el estado del archivo de citas.
+     *
+     * @return límite, configuración y última ejecución
+     */
+    @ReadOperation
+    public Map<String, Object> estado() {
+        return archivadorCitas.estado();
+    }
+
+    /**
+     * Archiva las citas pasadas.
+     *
+     * @return resumen de la ejecución
+     */
+    @WriteOperation
+    public Map<String, Object> archivar() {
+        return archivadorCitas.archivar();
+    }
+}
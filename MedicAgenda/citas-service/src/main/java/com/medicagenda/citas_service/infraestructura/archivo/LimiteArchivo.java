@@ -0,0 +1,88 @@
+package com.medicagenda.citas_service.infraestructura.archivo;
+
+import com.medicagenda.citas_service.infraestructura.config.ArchivoProperties;
+import com.medicagenda.citas_service.infraestructura.repository.CitaArchivadaRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Fecha a partir de la cual no hay citas archivadas.
+ * <p>
+ * Las lecturas de citas solo consultan la tabla <code>cita_archivo</code> si su rango
+ * de fechas empieza antes de este límite. El límite es el mayor de dos valores:
+ * </p>
+ *
+ * <ul>
+ *     <li>el día siguiente a la cita archivada más reciente, leído al arrancar y
+ *     adelantado con cada lote que se archiva;</li>
+ *     <li>si el archivado está habilitado, la fecha de corte de la retención
+ *     configurada, de modo que también se cubren los lotes archivados por otras instancias.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class LimiteArchivo {
+
+    private final ArchivoProperties config;
+    private volatile LocalDate archivadoHasta;
+
+    /**
+     * Crea el límite a partir de la cita archivada más reciente.
+     *
+     * @param config     configuración del archivo de citas
+     * @param repository repositorio de citas archivadas
+     */
+    public LimiteArchivo(ArchivoProperties config, CitaArchivadaRepository repository) {
+        this.config = config;
+        this.archivadoHasta = repository.findFechaMaxima().map(fecha -> fecha.plusDays(1)).orElse(null);
+    }
+
+    /**
+     * Obtiene la fecha de corte de la retención: las citas anteriores pueden archivarse.
+     *
+     * @param hoy fecha actual
+     * @return primera fecha que se conserva en la tabla <code>cita</code>
+     */
+    public LocalDate corte(LocalDate hoy) {
+        return hoy.minusMonths(config.getMesesRetencion());
+    }
+
+    /**
+     * Obtiene el límite actual.
+     *
+     * @return primera fecha sin citas archivadas, o nula si no puede haber ninguna
+     */
+    public LocalDate obtener() {
+        LocalDate archivado = archivadoHasta;
+        if (!config.isHabilitado()) {
+            return archivado;
+        }
+        LocalDate corte = corte(LocalDate.now());
+        return archivado == null || corte.isAfter(archivado) ? corte : archivado;
+    }
+
+    /**
+     * Indica si un rango de fechas puede incluir citas archivadas.
+     *
+     * @param desde fecha inicial del rango, o nula si no tiene
+     * @return true si hay que consultar también el archivo
+     */
+    public boolean alcanza(LocalDate desde) {
+        LocalDate limite = obtener();
+        return limite != null && (desde == null || desde.isBefore(limite));
+    }
+
+    /**
+     * Adelanta el límite tras archivar citas hasta una fecha.
+     *
+     * @param fecha fecha de la cita archivada más reciente
+     */
+    synchronized void avanzar(LocalDate fecha) {
+        LocalDate siguiente = fecha.plusDays(1);
+        if (archivadoHasta == null || siguiente.isAfter(archivadoHasta)) {
+            archivadoHasta = siguiente;
+        }
+    }
+}
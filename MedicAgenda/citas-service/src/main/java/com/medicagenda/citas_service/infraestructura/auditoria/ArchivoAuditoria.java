@@ -0,0 +1,410 @@
+package com.medicagenda.citas_service.infraestructura.auditoria;
+
+import com.medicagenda.citas_service.entity.Cita;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato y operaciones sobre los ficheros del registro de auditoría.
+ * <p>
+ * El registro es una serie de segmentos <code>citas-&lt;primera secuencia&gt;.audit</code>
+ * que solo se amplían por el final. Cada registro se guarda como:
+ * </p>
+ * <pre>
+ * int longitud | int crc32c | carga
+ * carga: long secuencia | long instante (ms) | byte operación | int cita | int médico | int paciente
+ *        | byte estado anterior | byte estado nuevo | int fecha anterior (día) | int hora anterior (s)
+ *        | int fecha nueva (día) | int hora nueva (s) | short longitud usuario | usuario (UTF-8)
+ * </pre>
+ * <p>
+ * Una longitud cero o un CRC que no coincide marcan el final de los datos válidos
+ * del segmento, lo que descarta un registro escrito a medias en una caída.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+final class ArchivoAuditoria {
+
+    /** Bytes de la longitud y el CRC que preceden a cada registro. */
+    static final int CABECERA = 8;
+
+    /** Longitud máxima del usuario en bytes; los más largos se recortan. */
+    static final int MAXIMO_USUARIO = 128;
+
+    private static final int CARGA_FIJA = 8 + 8 + 1 + 4 + 4 + 4 + 1 + 1 + 4 + 4 + 4 + 4 + 2;
+    private static final String PREFIJO = "citas-";
+    private static final String EXTENSION = ".audit";
+    private static final String TEMPORAL = ".tmp";
+    private static final int NULO = Integer.MIN_VALUE;
+    private static final Cita.Estado[] ESTADOS = Cita.Estado.values();
+    private static final RegistroAuditoria.Operacion[] OPERACIONES = RegistroAuditoria.Operacion.values();
+
+    private ArchivoAuditoria() {
+    }
+
+    /**
+     * Obtiene la ruta del segmento que empieza en una secuencia.
+     *
+     * @param directorio       directorio del registro
+     * @param primeraSecuencia secuencia del primer registro del segmento
+     * @return ruta del segmento
+     */
+    static Path segmento(Path directorio, long primeraSecuencia) {
+        return directorio.resolve(PREFIJO + String.format("%020d", primeraSecuencia) + EXTENSION);
+    }
+
+    /**
+     * Lista los segmentos de un directorio ordenados por su primera secuencia.
+     *
+     * @param directorio directorio del registro
+     * @return rutas de los segmentos
+     * @throws IOException si no se puede leer el directorio
+     */
+    static List<Path> segmentos(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(archivo -> {
+                        String nombre = archivo.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Obtiene la primera secuencia de un segmento a partir de su nombre.
+     *
+     * @param segmento ruta del segmento
+     * @return primera secuencia
+     */
+    static long primeraSecuencia(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    /**
+     * Codifica el usuario en UTF-8, recortado a {@value #MAXIMO_USUARIO} bytes.
+     *
+     * @param usuario usuario
+     * @return bytes del usuario
+     */
+    static byte[] usuario(String usuario) {
+        byte[] bytes = usuario.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAXIMO_USUARIO) {
+            return bytes;
+        }
+        // Recorta sin partir un carácter multibyte
+        int fin = MAXIMO_USUARIO;
+        while (fin > 0 && (bytes[fin] & 0xC0) == 0x80) {
+            fin--;
+        }
+        byte[] recortado = new byte[fin];
+        System.arraycopy(bytes, 0, recortado, 0, fin);
+        return recortado;
+    }
+
+    /**
+     * Calcula los bytes que ocupa un registro, cabecera incluida.
+     *
+     * @param usuario usuario codificado con {@link #usuario(String)}
+     * @return tamaño del registro
+     */
+    static int tamano(byte[] usuario) {
+        return CABECERA + CARGA_FIJA + usuario.length;
+    }
+
+    /**
+     * Escribe un registro en la posición actual del buffer y la avanza.
+     *
+     * @param destino buffer con al menos {@link #tamano(byte[])} bytes libres
+     * @param r       registro
+     * @param usuario usuario codificado con {@link #usuario(String)}
+     */
+    static void escribir(ByteBuffer destino, RegistroAuditoria r, byte[] usuario) {
+        int inicio = destino.position();
+        int longitud = CARGA_FIJA + usuario.length;
+        destino.position(inicio + CABECERA);
+        destino.putLong(r.secuencia())
+                .putLong(r.instante().toEpochMilli())
+                .put((byte) r.operacion().ordinal())
+                .putInt(r.citaId())
+                .putInt(r.medicoId())
+                .putInt(r.pacienteId())
+                .put(r.estadoAnterior() == null ? -1 : (byte) r.estadoAnterior().ordinal())
+                .put(r.estadoNuevo() == null ? -1 : (byte) r.estadoNuevo().ordinal())
+                .putInt(r.fechaAnterior() == null ? NULO : (int) r.fechaAnterior().toEpochDay())
+                .putInt(r.horaAnterior() == null ? NULO : r.horaAnterior().toSecondOfDay())
+                .putInt(r.fechaNueva() == null ? NULO : (int) r.fechaNueva().toEpochDay())
+                .putInt(r.horaNueva() == null ? NULO : r.horaNueva().toSecondOfDay())
+                .putShort((short) usuario.length)
+                .put(usuario);
+        CRC32C crc = new CRC32C();
+        crc.update(destino.slice(inicio + CABECERA, longitud));
+        destino.putInt(inicio + 4, (int) crc.getValue());
+        destino.putInt(inicio, longitud);
+    }
+
+    /**
+     * Lee la carga de un registro.
+     *
+     * @param carga buffer posicionado al principio de la carga
+     * @return registro
+     */
+    static RegistroAuditoria leer(ByteBuffer carga) {
+        long secuencia = carga.getLong();
+        Instant instante = Instant.ofEpochMilli(carga.getLong());
+        RegistroAuditoria.Operacion operacion = OPERACIONES[carga.get()];
+        int citaId = carga.getInt();
+        int medicoId = carga.getInt();
+        int pacienteId = carga.getInt();
+        byte estadoAnterior = carga.get();
+        byte estadoNuevo = carga.get();
+        int fechaAnterior = carga.getInt();
+        int horaAnterior = carga.getInt();
+        int fechaNueva = carga.getInt();
+        int horaNueva = carga.getInt();
+        byte[] usuario = new byte[carga.getShort()];
+        carga.get(usuario);
+        return new RegistroAuditoria(secuencia, instante, operacion, citaId,
+                new String(usuario, StandardCharsets.UTF_8), medicoId, pacienteId,
+                estadoAnterior < 0 ? null : ESTADOS[estadoAnterior],
+                estadoNuevo < 0 ? null : ESTADOS[estadoNuevo],
+                fechaAnterior == NULO ? null : LocalDate.ofEpochDay(fechaAnterior),
+                horaAnterior == NULO ? null : LocalTime.ofSecondOfDay(horaAnterior),
+                fechaNueva == NULO ? null : LocalDate.ofEpochDay(fechaNueva),
+                horaNueva == NULO ? null : LocalTime.ofSecondOfDay(horaNueva));
+    }
+
+    /**
+     * Lee el registro que empieza en una posición de un segmento.
+     *
+     * @param canal          canal abierto sobre el segmento
+     * @param desplazamiento posición del registro
+     * @return registro
+     * @throws IOException si no se puede leer o el registro no es válido
+     */
+    static RegistroAuditoria leerEn(FileChannel canal, long desplazamiento) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+        leerCompleto(canal, cabecera, desplazamiento);
+        int longitud = cabecera.getInt(0);
+        if (longitud < CARGA_FIJA || longitud > CARGA_FIJA + MAXIMO_USUARIO) {
+            throw new IOException("Registro de auditoría no válido en la posición " + desplazamiento);
+        }
+        ByteBuffer carga = ByteBuffer.allocate(longitud);
+        leerCompleto(canal, carga, desplazamiento + CABECERA);
+        return leer(carga.flip());
+    }
+
+    /**
+     * Recorre los registros válidos de un segmento en orden.
+     *
+     * @param segmento ruta del segmento
+     * @param visitante función que recibe cada registro y su posición
+     * @return posición siguiente al último registro válido
+     * @throws IOException si no se puede leer el segmento
+     */
+    static long recorrer(Path segmento, Visitante visitante) throws IOException {
+        long posicion = 0;
+        CRC32C crc = new CRC32C();
+        byte[] carga = new byte[CARGA_FIJA + MAXIMO_USUARIO];
+        try (InputStream archivo = Files.newInputStream(segmento);
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(archivo, 1 << 16))) {
+            while (true) {
+                int longitud;
+                int suma;
+                try {
+                    longitud = entrada.readInt();
+                    if (longitud < CARGA_FIJA || longitud > carga.length) {
+                        return posicion;
+                    }
+                    suma = entrada.readInt();
+                    entrada.readFully(carga, 0, longitud);
+                } catch (EOFException fin) {
+                    return posicion;
+                }
+                crc.reset();
+                crc.update(carga, 0, longitud);
+                if ((int) crc.getValue() != suma) {
+                    return posicion;
+                }
+                visitante.visitar(leer(ByteBuffer.wrap(carga, 0, longitud)), posicion);
+                posicion += CABECERA + longitud;
+            }
+        }
+    }
+
+    /**
+     * Reescribe un conjunto de segmentos cerrados sin los registros anteriores a un
+     * instante, agrupando los que quedan en segmentos del tamaño indicado.
+     * <p>
+     * Los segmentos nuevos se escriben con extensión temporal; no sustituyen a los
+     * originales hasta llamar a {@link Compactacion#confirmar()}. Si el proceso se
+     * interrumpe entre ambos pasos pueden quedar registros repetidos, que la lectura
+     * descarta por su secuencia.
+     * </p>
+     *
+     * @param directorio     directorio del registro
+     * @param origen         segmentos a compactar, ordenados
+     * @param tamanoSegmento tamaño máximo de los segmentos nuevos
+     * @param corte          instante a partir del cual se conservan los registros
+     * @return resultado pendiente de confirmar
+     * @throws IOException si no se puede leer o escribir algún segmento
+     */
+    static Compactacion compactar(Path directorio, List<Path> origen, long tamanoSegmento, Instant corte)
+            throws IOException {
+        Compactacion compactacion = new Compactacion(origen);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        long[] ultima = {-1};
+        FileChannel[] canal = {null};
+        long[] escritos = {0};
+        try {
+            for (Path segmento : origen) {
+                recorrer(segmento, (registro, posicion) -> {
+                    if (registro.secuencia() <= ultima[0]) {
+                        return;
+                    }
+                    ultima[0] = registro.secuencia();
+                    if (registro.instante().isBefore(corte)) {
+                        compactacion.descartados.add(registro);
+                        return;
+                    }
+                    byte[] usuario = usuario(registro.usuario());
+                    int tamano = tamano(usuario);
+                    if (canal[0] == null || escritos[0] + buffer.position() + tamano > tamanoSegmento) {
+                        if (canal[0] != null) {
+                            volcar(canal[0], buffer);
+                            canal[0].force(true);
+                            canal[0].close();
+                        }
+                        Path destino = segmento(directorio, registro.secuencia());
+                        Path temporal = destino.resolveSibling(destino.getFileName() + TEMPORAL);
+                        canal[0] = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                        compactacion.nuevos.add(new SegmentoAuditoria(destino, registro.secuencia()));
+                        escritos[0] = 0;
+                    }
+                    if (buffer.remaining() < tamano) {
+                        escritos[0] += buffer.position();
+                        volcar(canal[0], buffer);
+                    }
+                    compactacion.nuevos.getLast().agregar(registro.secuencia(), (int) (escritos[0] + buffer.position()));
+                    escribir(buffer, registro, usuario);
+                    compactacion.conservados++;
+                });
+            }
+            if (canal[0] != null) {
+                volcar(canal[0], buffer);
+                canal[0].force(true);
+            }
+        } finally {
+            if (canal[0] != null) {
+                canal[0].close();
+            }
+        }
+        return compactacion;
+    }
+
+    private static void volcar(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            int leidos = canal.read(destino, posicion + destino.position());
+            if (leidos < 0) {
+                throw new EOFException("Fin inesperado del segmento de auditoría en la posición " + posicion);
+            }
+        }
+    }
+
+    /**
+     * Función que recibe los registros de un segmento.
+     */
+    @FunctionalInterface
+    interface Visitante {
+
+        /**
+         * Procesa un registro.
+         *
+         * @param registro       registro leído
+         * @param desplazamiento posición del registro en el segmento
+         * @throws IOException si falla el procesamiento
+         */
+        void visitar(RegistroAuditoria registro, long desplazamiento) throws IOException;
+    }
+
+    /**
+     * Resultado de una compactación pendiente de confirmar.
+     */
+    static final class Compactacion {
+
+        private final List<Path> origen;
+        private final List<SegmentoAuditoria> nuevos = new ArrayList<>();
+        private final List<RegistroAuditoria> descartados = new ArrayList<>();
+        private long conservados;
+
+        private Compactacion(List<Path> origen) {
+            this.origen = origen;
+        }
+
+        /** @return segmentos nuevos, con sus rutas definitivas */
+        List<SegmentoAuditoria> nuevos() {
+            return nuevos;
+        }
+
+        /** @return registros eliminados por ser anteriores al corte */
+        List<RegistroAuditoria> descartados() {
+            return descartados;
+        }
+
+        /** @return número de registros conservados */
+        long conservados() {
+            return conservados;
+        }
+
+        /**
+         * Sustituye los segmentos originales por los nuevos.
+         *
+         * @throws IOException si no se puede renombrar o borrar algún fichero
+         */
+        void confirmar() throws IOException {
+            List<Path> destinos = new ArrayList<>();
+            for (SegmentoAuditoria nuevo : nuevos) {
+                Path destino = nuevo.archivo();
+                Files.move(destino.resolveSibling(destino.getFileName() + TEMPORAL), destino,
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                destinos.add(destino);
+            }
+            for (Path anterior : origen) {
+                if (!destinos.contains(anterior)) {
+                    Files.deleteIfExists(anterior);
+                }
+            }
+        }
+    }
+}
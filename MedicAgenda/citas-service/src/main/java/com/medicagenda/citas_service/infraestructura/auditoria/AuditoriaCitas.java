@@ -0,0 +1,641 @@
+package com.medicagenda.citas_service.infraestructura.auditoria;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.infraestructura.config.AuditoriaProperties;
+import com.medicagenda.citas_service.infraestructura.config.AuditoriaProperties.Sincronizacion;
+import com.medicagenda.citas_service.infraestructura.evento.CitaModificadaEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Registro de auditoría de los cambios en las citas.
+ * <p>
+ * Cada {@link CitaModificadaEvent} se convierte en un {@link RegistroAuditoria} con el
+ * usuario de la cabecera <code>citas.auditoria.cabecera-usuario</code> de la petición en
+ * curso. El hilo que publica el evento solo lo añade a una cola acotada; un único
+ * hilo escritor la vacía y escribe los registros, en el formato de {@link ArchivoAuditoria},
+ * sobre el segmento activo proyectado en memoria. Cuando el segmento se llena se trunca a
+ * su tamaño real y se abre otro. Los registros escritos se fuerzan a disco según la
+ * política <code>citas.auditoria.sincronizacion</code>: tras cada lote, como mucho una
+ * vez por intervalo o solo al cambiar de segmento.
+ * </p>
+ *
+ * <ul>
+ *     <li>Si la cola alcanza <code>citas.auditoria.capacidad-cola</code>, quien modifica la cita
+ *     espera a que el escritor libere hueco, como mucho <code>citas.auditoria.espera-cola-llena</code>.
+ *     Solo si el escritor no avanza en ese tiempo el cambio se descarta; se cuenta en la métrica
+ *     <code>citas.auditoria.descartados</code> y {@link AuditoriaCitasHealthIndicator} pasa a
+ *     <code>DOWN</code>.</li>
+ *     <li>Al arrancar recorre los segmentos existentes y continúa la secuencia. El índice de
+ *     registros por cita que usa {@link #consultar(Integer)} guarda como mucho
+ *     <code>citas.auditoria.maximo-citas-indexadas</code> citas; el historial de las demás se
+ *     reconstruye recorriendo los segmentos.</li>
+ *     <li>El traslado de citas al archivo no se registra: se publica como
+ *     <code>CitasArchivadasEvent</code>, no como {@link CitaModificadaEvent}, porque los datos de la
+ *     cita no cambian y su historial sigue consultándose por el mismo ID.</li>
+ *     <li>{@link #compactar(int)} elimina de los segmentos cerrados los registros más antiguos
+ *     que la retención indicada.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class AuditoriaCitas implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaCitas.class);
+
+    /** Número máximo de registros escritos entre dos sincronizaciones con la política LOTE. */
+    private static final int MAXIMO_LOTE = 1024;
+
+    /** Espera máxima del hilo escritor cuando no hay cambios pendientes. */
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AuditoriaProperties config;
+    private final Path directorio;
+    private final long tamanoSegmento;
+    private final ConcurrentLinkedQueue<Pendiente> cola = new ConcurrentLinkedQueue<>();
+    private final Semaphore huecos;
+    private final ConcurrentSkipListMap<Long, SegmentoAuditoria> segmentos = new ConcurrentSkipListMap<>();
+    private final Cache<Integer, long[]> porCita;
+    private final ReentrantReadWriteLock archivos = new ReentrantReadWriteLock();
+    private final Counter registrados;
+    private final Counter descartados;
+    private final Counter errores;
+    private final Timer sincronizaciones;
+
+    private volatile Thread escritor;
+    private volatile boolean activa;
+    private volatile boolean esperando;
+
+    // Estado propiedad del hilo escritor
+    private SegmentoAuditoria activo;
+    private FileChannel canalActivo;
+    private MappedByteBuffer mapa;
+    private long siguienteSecuencia = 1;
+    private long finUltimoSegmento;
+    private int sincronizadoHasta;
+    private long ultimaSincronizacion;
+    private int sinSincronizar;
+
+    /**
+     * Crea el registro de auditoría y sus métricas.
+     *
+     * @param config   configuración del registro
+     * @param registry registro de métricas de Micrometer
+     */
+    public AuditoriaCitas(AuditoriaProperties config, MeterRegistry registry) {
+        this.config = config;
+        this.directorio = Path.of(config.getDirectorio()).toAbsolutePath();
+        this.tamanoSegmento = config.getTamanoSegmento().toBytes();
+        if (tamanoSegmento > Integer.MAX_VALUE || tamanoSegmento < 4096) {
+            throw new IllegalArgumentException("citas.auditoria.tamano-segmento debe estar entre 4KB y 2GB.");
+        }
+        if (config.getCapacidadCola() < 1) {
+            throw new IllegalArgumentException("citas.auditoria.capacidad-cola debe ser al menos 1.");
+        }
+        this.huecos = new Semaphore(config.getCapacidadCola());
+        this.porCita = Caffeine.newBuilder().maximumSize(config.getMaximoCitasIndexadas()).build();
+        this.registrados = Counter.builder("citas.auditoria.registros")
+                .description("Cambios de citas escritos en el registro de auditoría")
+                .register(registry);
+        this.descartados = Counter.builder("citas.auditoria.descartados")
+                .description("Cambios de citas descartados por seguir llena la cola de auditoría tras la espera")
+                .register(registry);
+        this.errores = Counter.builder("citas.auditoria.errores")
+                .description("Errores de escritura en el registro de auditoría")
+                .register(registry);
+        this.sincronizaciones = Timer.builder("citas.auditoria.sincronizacion")
+                .description("Duración de cada sincronización con el disco del registro de auditoría")
+                .register(registry);
+        Gauge.builder("citas.auditoria.pendientes", this, AuditoriaCitas::pendientes)
+                .description("Cambios de citas pendientes de escribir en el registro de auditoría")
+                .register(registry);
+    }
+
+    /**
+     * Recupera los segmentos existentes y arranca el hilo escritor.
+     */
+    @Override
+    public void start() {
+        if (!config.isHabilitada()) {
+            return;
+        }
+        try {
+            Files.createDirectories(directorio);
+            long inicio = System.nanoTime();
+            long registros = recuperar();
+            abrirSegmentoActivo(finUltimoSegmento + 1024 < tamanoSegmento);
+            log.info("Registro de auditoría en {}: {} registros en {} segmentos recuperados en {} ms",
+                    directorio, registros, segmentos.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede abrir el registro de auditoría en " + directorio, e);
+        }
+        activa = true;
+        escritor = Thread.ofPlatform().name("auditoria-citas").daemon().start(this::escribirEnBucle);
+    }
+
+    /**
+     * Detiene el hilo escritor tras escribir los cambios pendientes.
+     */
+    @Override
+    public void stop() {
+        Thread hilo = escritor;
+        if (hilo == null) {
+            return;
+        }
+        activa = false;
+        LockSupport.unpark(hilo);
+        try {
+            hilo.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        escritor = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return escritor != null;
+    }
+
+    /**
+     * Añade a la cola de escritura el cambio realizado en una cita. Si la cola está llena
+     * espera a que haya hueco durante <code>citas.auditoria.espera-cola-llena</code> como
+     * mucho, frenando así a quien modifica citas más deprisa de lo que se escriben.
+     *
+     * @param evento cambio realizado
+     */
+    @EventListener
+    public void alModificarCita(CitaModificadaEvent evento) {
+        if (!activa) {
+            return;
+        }
+        if (!reservarHueco()) {
+            descartados.increment();
+            log.error("Cola del registro de auditoría llena tras {}: se descarta el cambio de la cita {}",
+                    config.getEsperaColaLlena(), (evento.actual() != null ? evento.actual() : evento.anterior()).id());
+            return;
+        }
+        cola.offer(new Pendiente(Instant.now(), evento.anterior(), evento.actual(), usuarioActual()));
+        if (esperando) {
+            LockSupport.unpark(escritor);
+        }
+    }
+
+    /**
+     * Obtiene los registros de una cita en orden de secuencia.
+     * <p>
+     * Si la cita no está en el índice en memoria se recorren todos los segmentos; el
+     * resultado no se añade al índice, porque el escritor puede haber escrito otro registro
+     * de la cita mientras tanto.
+     * </p>
+     *
+     * @param citaId ID de la cita
+     * @return registros de la cita; vacío si no tiene ninguno
+     */
+    public List<RegistroAuditoria> consultar(Integer citaId) {
+        long[] secuencias = porCita.getIfPresent(citaId);
+        if (secuencias == null) {
+            return recorrerSegmentos(citaId);
+        }
+        List<RegistroAuditoria> registros = new ArrayList<>(secuencias.length);
+        Map<SegmentoAuditoria, FileChannel> canales = new HashMap<>();
+        archivos.readLock().lock();
+        try {
+            for (long secuencia : secuencias) {
+                Map.Entry<Long, SegmentoAuditoria> entrada = segmentos.floorEntry(secuencia);
+                if (entrada == null) {
+                    continue;
+                }
+                int desplazamiento = entrada.getValue().buscar(secuencia);
+                if (desplazamiento < 0) {
+                    continue;
+                }
+                FileChannel canal = canales.get(entrada.getValue());
+                if (canal == null) {
+                    canal = FileChannel.open(entrada.getValue().archivo(), StandardOpenOption.READ);
+                    canales.put(entrada.getValue(), canal);
+                }
+                registros.add(ArchivoAuditoria.leerEn(canal, desplazamiento));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede leer el registro de auditoría", e);
+        } finally {
+            archivos.readLock().unlock();
+            canales.values().forEach(AuditoriaCitas::cerrar);
+        }
+        return registros;
+    }
+
+    /**
+     * Elimina de los segmentos cerrados los registros anteriores al periodo de retención.
+     * <p>
+     * Los segmentos se reescriben sin bloquear el registro; solo la sustitución de los
+     * ficheros impide las consultas durante un instante. El segmento activo no se modifica.
+     * </p>
+     *
+     * @param diasRetencion número de días de registros que se conservan
+     * @return resumen con los segmentos y registros antes y después
+     * @throws IllegalArgumentException si la retención es negativa
+     */
+    public synchronized Map<String, Object> compactar(int diasRetencion) {
+        if (diasRetencion < 0) {
+            throw new IllegalArgumentException("La retención no puede ser negativa.");
+        }
+        if (!activa) {
+            throw new IllegalStateException("El registro de auditoría no está activo.");
+        }
+        long inicio = System.nanoTime();
+        Instant corte = Instant.now().minus(diasRetencion, ChronoUnit.DAYS);
+        // El último segmento es el activo, o lo será en cuanto el escritor lo abra
+        List<SegmentoAuditoria> cerrados = new ArrayList<>(segmentos.headMap(segmentos.lastKey()).values());
+        List<Path> origen = cerrados.stream().map(SegmentoAuditoria::archivo).toList();
+        try {
+            ArchivoAuditoria.Compactacion compactacion =
+                    ArchivoAuditoria.compactar(directorio, origen, tamanoSegmento, corte);
+            archivos.writeLock().lock();
+            try {
+                compactacion.confirmar();
+                cerrados.forEach(segmento -> segmentos.remove(segmento.primeraSecuencia()));
+                compactacion.nuevos().forEach(segmento -> segmentos.put(segmento.primeraSecuencia(), segmento));
+            } finally {
+                archivos.writeLock().unlock();
+            }
+            compactacion.descartados().forEach(registro -> porCita.asMap().computeIfPresent(registro.citaId(),
+                    (id, secuencias) -> quitar(secuencias, registro.secuencia())));
+
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("corte", corte);
+            resultado.put("segmentosAntes", cerrados.size());
+            resultado.put("segmentosDespues", compactacion.nuevos().size());
+            resultado.put("registrosConservados", compactacion.conservados());
+            resultado.put("registrosEliminados", compactacion.descartados().size());
+            resultado.put("duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+            log.info("Registro de auditoría compactado: {}", resultado);
+            return resultado;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede compactar el registro de auditoría", e);
+        }
+    }
+
+    /**
+     * Resume el estado del registro.
+     *
+     * @return configuración, segmentos, citas indexadas y cambios pendientes
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitada", config.isHabilitada());
+        estado.put("activa", activa);
+        estado.put("directorio", directorio.toString());
+        estado.put("sincronizacion", config.getSincronizacion());
+        estado.put("segmentos", segmentos.size());
+        estado.put("registros", segmentos.values().stream().mapToLong(SegmentoAuditoria::registros).sum());
+        estado.put("citasIndexadas", porCita.estimatedSize());
+        estado.put("pendientes", pendientes());
+        estado.put("descartados", (long) descartados.count());
+        estado.put("errores", (long) errores.count());
+        return estado;
+    }
+
+    /**
+     * Recorre todos los segmentos en busca de los registros de una cita.
+     * <p>
+     * Solo se aceptan los registros que figuran en la posición indexada de su segmento, lo
+     * que descarta los datos antiguos que queden tras la marca de fin del segmento activo.
+     * La lectura se hace bajo el mismo cerrojo que impide sustituir los ficheros al compactar.
+     * </p>
+     *
+     * @param citaId ID de la cita
+     * @return registros de la cita en orden de secuencia
+     */
+    private List<RegistroAuditoria> recorrerSegmentos(Integer citaId) {
+        List<RegistroAuditoria> registros = new ArrayList<>();
+        archivos.readLock().lock();
+        try {
+            for (SegmentoAuditoria segmento : segmentos.values()) {
+                ArchivoAuditoria.recorrer(segmento.archivo(), (registro, desplazamiento) -> {
+                    if (citaId.equals(registro.citaId()) && segmento.buscar(registro.secuencia()) == desplazamiento) {
+                        registros.add(registro);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede leer el registro de auditoría", e);
+        } finally {
+            archivos.readLock().unlock();
+        }
+        return registros;
+    }
+
+    /**
+     * Reserva un hueco en la cola de escritura, esperando si está llena.
+     *
+     * @return true si se ha reservado; false si la cola sigue llena tras la espera máxima
+     */
+    private boolean reservarHueco() {
+        if (huecos.tryAcquire()) {
+            return true;
+        }
+        Thread hilo = escritor;
+        if (hilo != null) {
+            LockSupport.unpark(hilo);
+        }
+        try {
+            return huecos.tryAcquire(config.getEsperaColaLlena().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int pendientes() {
+        return config.getCapacidadCola() - huecos.availablePermits();
+    }
+
+    /**
+     * Bucle del hilo escritor: vacía la cola, escribe los registros y sincroniza con el
+     * disco según la política configurada. Al detenerse escribe lo pendiente y cierra el
+     * segmento activo.
+     */
+    private void escribirEnBucle() {
+        ultimaSincronizacion = System.nanoTime();
+        long intervalo = config.getIntervaloSincronizacion().toNanos();
+        while (activa || !cola.isEmpty()) {
+            Pendiente pendiente = cola.poll();
+            if (pendiente == null) {
+                if (sinSincronizar > 0 && (config.getSincronizacion() == Sincronizacion.LOTE
+                        || (config.getSincronizacion() == Sincronizacion.INTERVALO
+                        && System.nanoTime() - ultimaSincronizacion >= intervalo))) {
+                    sincronizar();
+                }
+                esperando = true;
+                if (cola.isEmpty() && activa) {
+                    LockSupport.parkNanos(this, sinSincronizar > 0 ? Math.min(intervalo, ESPERA_MAXIMA_NANOS)
+                            : ESPERA_MAXIMA_NANOS);
+                }
+                esperando = false;
+                continue;
+            }
+            huecos.release();
+            try {
+                escribir(pendiente);
+            } catch (IOException | RuntimeException e) {
+                errores.increment();
+                log.error("No se pudo escribir un cambio de cita en el registro de auditoría", e);
+                continue;
+            }
+            if ((config.getSincronizacion() == Sincronizacion.LOTE && sinSincronizar >= MAXIMO_LOTE)
+                    || (config.getSincronizacion() == Sincronizacion.INTERVALO
+                    && System.nanoTime() - ultimaSincronizacion >= intervalo)) {
+                sincronizar();
+            }
+        }
+        cerrarSegmentoActivo();
+        descartarSegmentoVacio();
+    }
+
+    /**
+     * Borra el último segmento si se cerró sin registros, para no dejar ficheros vacíos
+     * en cada parada.
+     */
+    private void descartarSegmentoVacio() {
+        Map.Entry<Long, SegmentoAuditoria> ultimo = segmentos.lastEntry();
+        if (ultimo == null || ultimo.getValue().registros() > 0) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(ultimo.getValue().archivo());
+            segmentos.remove(ultimo.getKey());
+        } catch (IOException e) {
+            log.debug("No se pudo borrar el segmento de auditoría vacío {}", ultimo.getValue().archivo(), e);
+        }
+    }
+
+    /**
+     * Escribe un cambio en el segmento activo, abriendo otro si no cabe.
+     *
+     * @param pendiente cambio a escribir
+     * @throws IOException si no se puede abrir un segmento nuevo
+     */
+    private void escribir(Pendiente pendiente) throws IOException {
+        RegistroAuditoria registro = pendiente.registro(siguienteSecuencia);
+        byte[] usuario = ArchivoAuditoria.usuario(registro.usuario());
+        int tamano = ArchivoAuditoria.tamano(usuario);
+        if (mapa.remaining() < tamano + Integer.BYTES) {
+            cerrarSegmentoActivo();
+            abrirSegmentoActivo(false);
+        }
+        int desplazamiento = mapa.position();
+        ArchivoAuditoria.escribir(mapa, registro, usuario);
+        // Marca de fin: la lectura se detiene aquí aunque el resto del fichero tenga datos antiguos
+        mapa.putInt(mapa.position(), 0);
+        siguienteSecuencia++;
+        sinSincronizar++;
+        activo.agregar(registro.secuencia(), desplazamiento);
+        indexar(registro);
+        registrados.increment();
+    }
+
+    /**
+     * Añade un registro al índice por cita.
+     * <p>
+     * Una cita entra en el índice con su alta; sus cambios posteriores solo se añaden si
+     * sigue en él. Así una cita expulsada del índice no vuelve con un historial incompleto y
+     * sus consultas recorren los segmentos.
+     * </p>
+     *
+     * @param registro registro escrito
+     */
+    private void indexar(RegistroAuditoria registro) {
+        if (registro.operacion() == RegistroAuditoria.Operacion.CREADA) {
+            porCita.asMap().compute(registro.citaId(), (id, secuencias) -> agregar(secuencias, registro.secuencia()));
+        } else {
+            porCita.asMap().computeIfPresent(registro.citaId(),
+                    (id, secuencias) -> agregar(secuencias, registro.secuencia()));
+        }
+    }
+
+    /**
+     * Fuerza a disco los registros escritos desde la última sincronización.
+     */
+    private void sincronizar() {
+        int hasta = mapa.position();
+        if (hasta > sincronizadoHasta) {
+            sincronizaciones.record(() -> mapa.force(sincronizadoHasta, hasta - sincronizadoHasta));
+            sincronizadoHasta = hasta;
+        }
+        sinSincronizar = 0;
+        ultimaSincronizacion = System.nanoTime();
+    }
+
+    /**
+     * Recorre los segmentos existentes para continuar la secuencia y reconstruir el índice por cita.
+     *
+     * @return número de registros recuperados
+     * @throws IOException si no se puede leer algún segmento
+     */
+    private long recuperar() throws IOException {
+        long[] registros = {0};
+        for (Path archivo : ArchivoAuditoria.segmentos(directorio)) {
+            SegmentoAuditoria segmento = new SegmentoAuditoria(archivo, ArchivoAuditoria.primeraSecuencia(archivo));
+            finUltimoSegmento = ArchivoAuditoria.recorrer(archivo, (registro, desplazamiento) -> {
+                // Tras una compactación interrumpida puede haber registros repetidos
+                if (registro.secuencia() < siguienteSecuencia) {
+                    return;
+                }
+                segmento.agregar(registro.secuencia(), (int) desplazamiento);
+                indexar(registro);
+                siguienteSecuencia = registro.secuencia() + 1;
+                registros[0]++;
+            });
+            segmentos.put(segmento.primeraSecuencia(), segmento);
+        }
+        return registros[0];
+    }
+
+    /**
+     * Abre para escritura el último segmento recuperado o uno nuevo.
+     *
+     * @param continuarUltimo true para seguir escribiendo al final del último segmento recuperado
+     * @throws IOException si no se puede abrir o proyectar el fichero
+     */
+    private void abrirSegmentoActivo(boolean continuarUltimo) throws IOException {
+        Map.Entry<Long, SegmentoAuditoria> ultimo = segmentos.lastEntry();
+        long posicion;
+        SegmentoAuditoria segmento;
+        if (continuarUltimo && ultimo != null) {
+            posicion = finUltimoSegmento;
+            segmento = ultimo.getValue();
+        } else {
+            posicion = 0;
+            segmento = new SegmentoAuditoria(
+                    ArchivoAuditoria.segmento(directorio, siguienteSecuencia), siguienteSecuencia);
+        }
+        try (RandomAccessFile archivo = new RandomAccessFile(segmento.archivo().toFile(), "rw")) {
+            archivo.setLength(tamanoSegmento);
+        }
+        canalActivo = FileChannel.open(segmento.archivo(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapa = canalActivo.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        mapa.position((int) posicion);
+        mapa.putInt((int) posicion, 0);
+        sincronizadoHasta = (int) posicion;
+        activo = segmento;
+        segmentos.put(segmento.primeraSecuencia(), segmento);
+    }
+
+    /**
+     * Sincroniza el segmento activo, lo trunca a su tamaño real y lo cierra.
+     */
+    private void cerrarSegmentoActivo() {
+        if (canalActivo == null) {
+            return;
+        }
+        sincronizar();
+        try {
+            canalActivo.truncate(mapa.position());
+        } catch (IOException e) {
+            // En algunos sistemas no se puede truncar un fichero proyectado; la marca de fin basta
+            log.debug("No se pudo truncar el segmento de auditoría {}", activo.archivo(), e);
+        }
+        cerrar(canalActivo);
+        canalActivo = null;
+        mapa = null;
+    }
+
+    /**
+     * Obtiene el usuario que hace el cambio a partir de la petición HTTP en curso.
+     *
+     * @return usuario de la cabecera, <code>anonimo</code> si no viene o <code>sistema</code>
+     *         si el cambio no procede de una petición
+     */
+    private String usuarioActual() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            String usuario = atributos.getRequest().getHeader(config.getCabeceraUsuario());
+            return usuario == null || usuario.isBlank() ? "anonimo" : usuario;
+        }
+        return "sistema";
+    }
+
+    private static long[] agregar(long[] secuencias, long secuencia) {
+        if (secuencias == null) {
+            return new long[]{secuencia};
+        }
+        long[] nuevas = Arrays.copyOf(secuencias, secuencias.length + 1);
+        nuevas[secuencias.length] = secuencia;
+        return nuevas;
+    }
+
+    private static long[] quitar(long[] secuencias, long secuencia) {
+        int posicion = Arrays.binarySearch(secuencias, secuencia);
+        if (posicion < 0) {
+            return secuencias;
+        }
+        if (secuencias.length == 1) {
+            return null;
+        }
+        long[] nuevas = new long[secuencias.length - 1];
+        System.arraycopy(secuencias, 0, nuevas, 0, posicion);
+        System.arraycopy(secuencias, posicion + 1, nuevas, posicion, secuencias.length - posicion - 1);
+        return nuevas;
+    }
+
+    private static void cerrar(FileChannel canal) {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            log.debug("No se pudo cerrar un segmento de auditoría", e);
+        }
+    }
+
+    /**
+     * Cambio pendiente de escribir, sin secuencia asignada.
+     */
+    private record Pendiente(Instant instante, CitaHorario anterior, CitaHorario actual, String usuario) {
+
+        RegistroAuditoria registro(long secuencia) {
+            CitaHorario referencia = actual != null ? actual : anterior;
+            RegistroAuditoria.Operacion operacion = anterior == null ? RegistroAuditoria.Operacion.CREADA
+                    : actual == null ? RegistroAuditoria.Operacion.ELIMINADA : RegistroAuditoria.Operacion.MODIFICADA;
+            return new RegistroAuditoria(secuencia, instante, operacion, referencia.id(), usuario,
+                    referencia.medicoId(), referencia.pacienteId(),
+                    anterior == null ? null : anterior.estado(), actual == null ? null : actual.estado(),
+                    anterior == null ? null : anterior.fecha(), anterior == null ? null : anterior.hora(),
+                    actual == null ? null : actual.fecha(), actual == null ? null : actual.hora());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.medicagenda.citas_service.infraestructura.auditoria;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator del registro de auditoría de citas.
+ * <p>
+ * Disponible en <code>/actuator/auditoriacitas</code>:
+ * </p>
+ *
+ * <ul>
+ *     <li><code>GET /actuator/auditoriacitas</code>: estado del registro.</li>
+ *     <li><code>GET /actuator/auditoriacitas/{citaId}</code>: historial de cambios de una cita.</li>
+ *     <li><code>POST /actuator/auditoriacitas</code> con <code>{"diasRetencion": N}</code>: elimina de
+ *     los segmentos cerrados los registros de más de N días.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@Endpoint(id = "auditoriacitas")
+@RequiredArgsConstructor
+public class AuditoriaCitasEndpoint {
+
+    private final AuditoriaCitas auditoriaCitas;
+
+    /**
+     * Resume el estado del registro de auditoría.
+     *
+     * @return segmentos, registros y cambios pendientes
+     */
+    @ReadOperation
+    public Map<String, Object> estado() {
+        return auditoriaCitas.estado();
+    }
+
+    /**
+     * Obtiene el historial de cambios de una cita.
+     *
+     * @param citaId ID de la cita
+     * @return registros de la cita en orden
+     */
+    @ReadOperation
+    public List<RegistroAuditoria> registros(@Selector Integer citaId) {
+        return auditoriaCitas.consultar(citaId);
+    }
+
+    /**
+     * Compacta los segmentos cerrados del registro.
+     *
+     * @param diasRetencion número de días de registros que se conservan
+     * @return resumen de la compactación
+     */
+    @WriteOperation
+    public Map<String, Object> compactar(int diasRetencion) {
+        return auditoriaCitas.compactar(diasRetencion);
+    }
+}
@@ -0,0 +1,36 @@
+package com.medicagenda.citas_service.infraestructura.auditoria;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Indicador de salud del registro de auditoría de citas.
+ * <p>
+ * Aparece como <code>auditoriaCitas</code> en <code>/actuator/health</code> y pasa a
+ * <code>DOWN</code> en cuanto falta algún cambio en el registro: porque se descartó con la
+ * cola llena, porque no se pudo escribir o porque el registro está habilitado pero no
+ * activo. El estado se mantiene hasta reiniciar, ya que el historial perdido no se recupera.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditoriaCitasHealthIndicator implements HealthIndicator {
+
+    private final AuditoriaCitas auditoriaCitas;
+
+    @Override
+    public Health health() {
+        Map<String, Object> estado = auditoriaCitas.estado();
+        boolean habilitada = (boolean) estado.get("habilitada");
+        boolean incompleto = (long) estado.get("descartados") > 0 || (long) estado.get("errores") > 0;
+        Health.Builder salud = !habilitada ? Health.unknown()
+                : incompleto || !auditoriaCitas.isRunning() ? Health.down() : Health.up();
+        return salud.withDetails(estado).build();
+    }
+}
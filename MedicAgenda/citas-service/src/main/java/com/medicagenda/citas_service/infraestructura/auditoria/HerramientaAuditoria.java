@@ -0,0 +1,122 @@
+package com.medicagenda.citas_service.infraestructura.auditoria;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Herramienta de línea de comandos para leer y compactar el registro de auditoría
+ * sin arrancar la aplicación.
+ * <p>
+ * Se ejecuta desde el jar de la aplicación:
+ * </p>
+ * <pre>
+ * java -cp citas-service.jar -Dloader.main=com.medicagenda.citas_service.infraestructura.auditoria.HerramientaAuditoria \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher &lt;orden&gt; &lt;directorio&gt; [argumento]
+ * </pre>
+ *
+ * <ul>
+ *     <li><code>leer &lt;directorio&gt; [citaId]</code>: escribe los registros, uno por línea,
+ *     opcionalmente solo los de una cita.</li>
+ *     <li><code>compactar &lt;directorio&gt; &lt;dias&gt;</code>: elimina los registros de más de
+ *     <code>dias</code> días de todos los segmentos salvo el último. Solo debe usarse con la
+ *     aplicación detenida; con ella en marcha se usa <code>POST /actuator/auditoriacitas</code>.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+public final class HerramientaAuditoria {
+
+    private HerramientaAuditoria() {
+    }
+
+    /**
+     * Punto de entrada de la herramienta.
+     *
+     * @param args orden, directorio y argumento opcional
+     * @throws IOException si no se pueden leer o escribir los segmentos
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: leer <directorio> [citaId] | compactar <directorio> <dias>");
+            System.exit(2);
+        }
+        Path directorio = Path.of(args[1]);
+        switch (args[0]) {
+            case "leer" -> leer(directorio, args.length > 2 ? Integer.valueOf(args[2]) : null, System.out);
+            case "compactar" -> {
+                if (args.length < 3) {
+                    System.err.println("Uso: compactar <directorio> <dias>");
+                    System.exit(2);
+                }
+                compactar(directorio, Integer.parseInt(args[2]), System.out);
+            }
+            default -> {
+                System.err.println("Orden desconocida: " + args[0]);
+                System.exit(2);
+            }
+        }
+    }
+
+    /**
+     * Escribe los registros del directorio, uno por línea, en orden de secuencia.
+     *
+     * @param directorio directorio del registro
+     * @param citaId     ID de la cita cuyos registros se escriben, o nulo para todos
+     * @param salida     destino de las líneas
+     * @throws IOException si no se puede leer algún segmento
+     */
+    static void leer(Path directorio, Integer citaId, PrintStream salida) throws IOException {
+        long[] ultima = {0};
+        for (Path segmento : ArchivoAuditoria.segmentos(directorio)) {
+            ArchivoAuditoria.recorrer(segmento, (registro, desplazamiento) -> {
+                if (registro.secuencia() <= ultima[0]) {
+                    return;
+                }
+                ultima[0] = registro.secuencia();
+                if (citaId == null || citaId.equals(registro.citaId())) {
+                    salida.println(linea(registro));
+                }
+            });
+        }
+    }
+
+    /**
+     * Compacta todos los segmentos del directorio salvo el último.
+     *
+     * @param directorio    directorio del registro
+     * @param diasRetencion número de días de registros que se conservan
+     * @param salida        destino del resumen
+     * @throws IOException si no se pueden leer o escribir los segmentos
+     */
+    static void compactar(Path directorio, int diasRetencion, PrintStream salida) throws IOException {
+        List<Path> segmentos = ArchivoAuditoria.segmentos(directorio);
+        if (segmentos.size() < 2) {
+            salida.println("No hay segmentos cerrados que compactar.");
+            return;
+        }
+        List<Path> cerrados = segmentos.subList(0, segmentos.size() - 1);
+        long tamano = 0;
+        for (Path segmento : cerrados) {
+            tamano = Math.max(tamano, java.nio.file.Files.size(segmento));
+        }
+        ArchivoAuditoria.Compactacion compactacion = ArchivoAuditoria.compactar(directorio, cerrados,
+                tamano, Instant.now().minus(diasRetencion, ChronoUnit.DAYS));
+        compactacion.confirmar();
+        salida.printf("Segmentos: %d -> %d; registros conservados: %d; eliminados: %d%n",
+                cerrados.size(), compactacion.nuevos().size(), compactacion.conservados(),
+                compactacion.descartados().size());
+    }
+
+    private static String linea(RegistroAuditoria r) {
+        return r.secuencia() + " " + r.instante() + " " + r.operacion()
+                + " cita=" + r.citaId() + " usuario=" + r.usuario()
+                + " medico=" + r.medicoId() + " paciente=" + r.pacienteId()
+                + " estado=" + r.estadoAnterior() + "->" + r.estadoNuevo()
+                + " fecha=" + r.fechaAnterior() + " " + r.horaAnterior()
+                + "->" + r.fechaNueva() + " " + r.horaNueva();
+    }
+}
@@ -0,0 +1,46 @@
+package com.medicagenda.citas_service.infraestructura.auditoria;
+
+import com.medicagenda.citas_service.entity.Cita;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Cambio registrado en una cita: quién lo hizo, cuándo y qué datos cambiaron.
+ * <p>
+ * Los campos <code>*Anterior</code> son nulos en las creaciones y los
+ * <code>*Nuevo</code>/<code>*Nueva</code> en las eliminaciones.
+ * </p>
+ *
+ * @param secuencia      número de orden del registro, único y creciente
+ * @param instante       momento en que se publicó el cambio
+ * @param operacion      tipo de cambio
+ * @param citaId         ID de la cita
+ * @param usuario        usuario que hizo el cambio, <code>anonimo</code> si la petición no lo indica
+ *                       o <code>sistema</code> si no viene de una petición HTTP
+ * @param medicoId       ID del médico después del cambio, o antes si se eliminó
+ * @param pacienteId     ID del paciente después del cambio, o antes si se eliminó
+ * @param estadoAnterior estado antes del cambio
+ * @param estadoNuevo    estado después del cambio
+ * @param fechaAnterior  fecha antes del cambio
+ * @param horaAnterior   hora antes del cambio
+ * @param fechaNueva     fecha después del cambio
+ * @param horaNueva      hora después del cambio
+ * @since 2025-06-19
+ */
+public record RegistroAuditoria(long secuencia, Instant instante, Operacion operacion, Integer citaId,
+                                String usuario, Integer medicoId, Integer pacienteId,
+                                Cita.Estado estadoAnterior, Cita.Estado estadoNuevo,
+                                LocalDate fechaAnterior, LocalTime horaAnterior,
+                                LocalDate fechaNueva, LocalTime horaNueva) {
+
+    /**
+     * Tipo de cambio registrado.
+     */
+    public enum Operacion {
+        CREADA,
+        MODIFICADA,
+        ELIMINADA
+    }
+}
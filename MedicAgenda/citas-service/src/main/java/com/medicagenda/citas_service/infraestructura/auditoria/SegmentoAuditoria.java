@@ -0,0 +1,89 @@
+package com.medicagenda.citas_service.infraestructura.auditoria;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Posición de los registros dentro de un segmento del registro de auditoría.
+ * <p>
+ * Guarda, ordenadas por secuencia, la secuencia relativa a la primera del segmento y
+ * el desplazamiento de cada registro en el fichero, empaquetados en un <code>long</code>.
+ * Solo el hilo escritor añade posiciones; las lecturas concurrentes ven siempre un
+ * prefijo completo.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+final class SegmentoAuditoria {
+
+    private final Path archivo;
+    private final long primeraSecuencia;
+    private volatile long[] posiciones = new long[1024];
+    private volatile int cuenta;
+
+    /**
+     * Crea un segmento sin registros.
+     *
+     * @param archivo          fichero del segmento
+     * @param primeraSecuencia secuencia del primer registro que contendrá
+     */
+    SegmentoAuditoria(Path archivo, long primeraSecuencia) {
+        this.archivo = archivo;
+        this.primeraSecuencia = primeraSecuencia;
+    }
+
+    Path archivo() {
+        return archivo;
+    }
+
+    long primeraSecuencia() {
+        return primeraSecuencia;
+    }
+
+    int registros() {
+        return cuenta;
+    }
+
+    /**
+     * Añade la posición de un registro. Las secuencias deben llegar en orden creciente.
+     *
+     * @param secuencia     secuencia del registro
+     * @param desplazamiento posición del registro en el fichero
+     */
+    void agregar(long secuencia, int desplazamiento) {
+        long[] actuales = posiciones;
+        int n = cuenta;
+        if (n == actuales.length) {
+            actuales = Arrays.copyOf(actuales, n * 2);
+            posiciones = actuales;
+        }
+        actuales[n] = ((secuencia - primeraSecuencia) << 32) | (desplazamiento & 0xFFFF_FFFFL);
+        cuenta = n + 1;
+    }
+
+    /**
+     * Busca la posición de un registro.
+     *
+     * @param secuencia secuencia del registro
+     * @return desplazamiento en el fichero, o -1 si el segmento no lo contiene
+     */
+    int buscar(long secuencia) {
+        int n = cuenta;
+        long[] actuales = posiciones;
+        long relativa = secuencia - primeraSecuencia;
+        int bajo = 0;
+        int alto = n - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            long valor = actuales[medio] >>> 32;
+            if (valor < relativa) {
+                bajo = medio + 1;
+            } else if (valor > relativa) {
+                alto = medio - 1;
+            } else {
+                return (int) actuales[medio];
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,37 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * Propiedades de configuración de la agenda de los médicos.
+ * <p>
+ * Se cargan desde <code>application.properties</code> con el prefijo
+ * <code>citas.agenda</code> y definen la jornada sobre la que se calculan
+ * los horarios libres.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@ConfigurationProperties(prefix = "citas.agenda")
+public class AgendaProperties {
+
+    /** Hora de inicio de la jornada de atención. */
+    private LocalTime horaInicio = LocalTime.of(8, 0);
+
+    /** Hora de fin de la jornada de atención. */
+    private LocalTime horaFin = LocalTime.of(18, 0);
+
+    /** Duración que ocupa cada cita en la agenda del médico. */
+    private Duration duracionCita = Duration.ofMinutes(30);
+
+    /** Número máximo de días que se pueden consultar en una búsqueda de disponibilidad. */
+    private int maximoDiasConsulta = 92;
+
+    /** Número máximo de agendas diarias (médico y día) que se mantienen en memoria. */
+    private long agendasEnMemoria = 20_000;
+}
@@ -0,0 +1,110 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Detecta los hilos virtuales que quedan anclados a su hilo portador.
+ * <p>
+ * Solo se activa cuando la aplicación se ejecuta con hilos virtuales
+ * (<code>spring.threads.virtual.enabled=true</code>, perfil <code>virtual</code>).
+ * Escucha el evento JFR <code>jdk.VirtualThreadPinned</code>, que la JVM emite cuando
+ * un hilo virtual se bloquea dentro de un bloque <code>synchronized</code> o de código
+ * nativo durante más de {@link #UMBRAL}. Cada anclaje incrementa la métrica
+ * <code>jvm.hilos.virtuales.anclados</code> y se registra con el método que lo provocó.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class AnclajeHilosVirtualesMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AnclajeHilosVirtualesMonitor.class);
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+
+    /** Duración mínima de un anclaje para que se notifique. */
+    private static final Duration UMBRAL = Duration.ofMillis(20);
+
+    private final Counter anclajes;
+    private RecordingStream grabacion;
+
+    /**
+     * Crea el monitor y registra su métrica.
+     *
+     * @param registry registro de métricas de Micrometer
+     */
+    public AnclajeHilosVirtualesMonitor(MeterRegistry registry) {
+        this.anclajes = Counter.builder("jvm.hilos.virtuales.anclados")
+                .description("Hilos virtuales anclados a su hilo portador más de " + UMBRAL.toMillis() + " ms")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        grabacion = new RecordingStream();
+        grabacion.enable(EVENTO).withThreshold(UMBRAL).withStackTrace();
+        grabacion.onEvent(EVENTO, this::registrar);
+        grabacion.startAsync();
+        log.info("Monitor de anclaje de hilos virtuales activo (umbral {} ms)", UMBRAL.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        if (grabacion != null) {
+            grabacion.close();
+            grabacion = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return grabacion != null;
+    }
+
+    /**
+     * Registra un anclaje detectado.
+     *
+     * @param evento evento JFR del anclaje
+     */
+    private void registrar(RecordedEvent evento) {
+        anclajes.increment();
+        log.warn("Hilo virtual anclado {} ms en {}", evento.getDuration().toMillis(), origen(evento));
+    }
+
+    /**
+     * Obtiene el primer método de la pila que no pertenece a la JDK.
+     *
+     * @param evento evento JFR con pila
+     * @return método y línea, o "desconocido" si no hay pila
+     */
+    private static String origen(RecordedEvent evento) {
+        if (evento.getStackTrace() == null) {
+            return "desconocido";
+        }
+        RecordedFrame primero = null;
+        for (RecordedFrame marco : evento.getStackTrace().getFrames()) {
+            String clase = marco.getMethod().getType().getName();
+            if (primero == null) {
+                primero = marco;
+            }
+            if (!clase.startsWith("java.") && !clase.startsWith("jdk.") && !clase.startsWith("sun.")) {
+                return clase + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+            }
+        }
+        return primero == null ? "desconocido"
+                : primero.getMethod().getType().getName() + "." + primero.getMethod().getName();
+    }
+}
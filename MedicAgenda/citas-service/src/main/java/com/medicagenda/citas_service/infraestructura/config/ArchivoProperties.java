@@ -0,0 +1,34 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración del archivo de citas pasadas.
+ * <p>
+ * Se cargan desde <code>application.properties</code> con el prefijo
+ * <code>citas.archivo</code>. La tarea programada se ejecuta según la expresión
+ * <code>citas.archivo.cron</code>.
+ * </p>
+ *
+ * <p>
+ * Con varias instancias, el archivado puede quedar habilitado en todas: una copia
+ * simultánea del mismo lote falla por la clave primaria de <code>cita_archivo</code>
+ * y se reintenta en la siguiente ejecución. Todas deben usar la misma retención.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@ConfigurationProperties(prefix = "citas.archivo")
+public class ArchivoProperties {
+
+    /** Indica si las citas pasadas se trasladan a la tabla <code>cita_archivo</code>. */
+    private boolean habilitado = true;
+
+    /** Meses que una cita pasada permanece en la tabla <code>cita</code> antes de archivarse. */
+    private int mesesRetencion = 12;
+
+    /** Número de citas que se trasladan en cada transacción. */
+    private int tamanoLote = 1000;
+}
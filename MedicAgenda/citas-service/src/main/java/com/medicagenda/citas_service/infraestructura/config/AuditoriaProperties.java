@@ -0,0 +1,66 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de configuración del registro de auditoría de citas.
+ * <p>
+ * Se cargan desde <code>application.properties</code> con el prefijo
+ * <code>citas.auditoria</code>.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@ConfigurationProperties(prefix = "citas.auditoria")
+public class AuditoriaProperties {
+
+    /** Indica si se registran los cambios en las citas. */
+    private boolean habilitada = true;
+
+    /** Directorio donde se guardan los segmentos del registro. */
+    private String directorio = "auditoria";
+
+    /** Tamaño de cada segmento; al llenarse se abre uno nuevo. */
+    private DataSize tamanoSegmento = DataSize.ofMegabytes(64);
+
+    /** Momento en que los registros escritos se fuerzan a disco. */
+    private Sincronizacion sincronizacion = Sincronizacion.INTERVALO;
+
+    /** Tiempo máximo entre dos sincronizaciones con la política INTERVALO. */
+    private Duration intervaloSincronizacion = Duration.ofMillis(100);
+
+    /** Número máximo de cambios pendientes de escribir. */
+    private int capacidadCola = 100_000;
+
+    /**
+     * Tiempo máximo que espera quien modifica una cita a que haya hueco en la cola llena;
+     * pasado este tiempo el cambio se descarta.
+     */
+    private Duration esperaColaLlena = Duration.ofSeconds(1);
+
+    /**
+     * Número máximo de citas cuyo historial se mantiene indexado en memoria; el de las
+     * demás se reconstruye leyendo los segmentos al consultarlo.
+     */
+    private int maximoCitasIndexadas = 100_000;
+
+    /** Cabecera HTTP con el usuario que realiza el cambio. */
+    private String cabeceraUsuario = "X-Usuario-Id";
+
+    /**
+     * Política de sincronización con el disco de los registros escritos.
+     */
+    public enum Sincronizacion {
+        /** Tras escribir cada lote de cambios pendientes (commit agrupado). */
+        LOTE,
+        /** Como mucho una vez por intervalo de sincronización. */
+        INTERVALO,
+        /** Solo al cambiar de segmento y al detener la aplicación; el sistema operativo decide el resto. */
+        NINGUNA
+    }
+}
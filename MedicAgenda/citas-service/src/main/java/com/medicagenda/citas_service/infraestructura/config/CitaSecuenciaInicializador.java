@@ -0,0 +1,76 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import com.medicagenda.citas_service.entity.Cita;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Alinea el generador de IDs de {@link Cita} con las citas ya existentes.
+ * <p>
+ * Las citas usaban IDs autoincrementales; al pasar a un generador de secuencia
+ * (<code>cita_seq</code>), la secuencia nace con valor 1 y chocaría con los IDs
+ * existentes. Al arrancar, antes de atender peticiones, se adelanta la secuencia
+ * para que el siguiente bloque de IDs quede por encima del mayor ID de la tabla
+ * <code>cita</code> y de la tabla de citas archivadas <code>cita_archivo</code>, que
+ * conservan su ID original.
+ * </p>
+ *
+ * <p>
+ * La secuencia solo se adelanta, nunca se retrocede, por lo que es seguro arrancar
+ * varias instancias mientras otras insertan citas:
+ * </p>
+ *
+ * <ul>
+ *     <li>En MySQL la secuencia se emula con la tabla <code>cita_seq(next_val)</code>,
+ *     que se actualiza con <code>GREATEST</code> en una sola sentencia.</li>
+ *     <li>En bases con secuencias nativas (H2) se obtiene el siguiente valor y la
+ *     secuencia solo se reinicia si ese valor queda por debajo de los IDs existentes,
+ *     es decir, si todavía no se ha alineado nunca.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@RequiredArgsConstructor
+public class CitaSecuenciaInicializador implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CitaSecuenciaInicializador.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Adelanta la secuencia de IDs si hay citas, activas o archivadas, con un ID igual o mayor.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long activas = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cita", Long.class);
+        Long archivadas = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cita_archivo", Long.class);
+        if (activas == null && archivadas == null) {
+            return;
+        }
+        long maximo = Math.max(activas == null ? 0 : activas, archivadas == null ? 0 : archivadas);
+        long siguiente = maximo + Cita.TAMANO_ASIGNACION_ID + 1;
+        String producto = jdbcTemplate.execute(
+                (ConnectionCallback<String>) conexion -> conexion.getMetaData().getDatabaseProductName());
+        if ("MySQL".equalsIgnoreCase(producto)) {
+            jdbcTemplate.update("UPDATE cita_seq SET next_val = GREATEST(next_val, ?)", siguiente);
+        } else {
+            String consulta = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString("cita_seq");
+            Long actual = jdbcTemplate.queryForObject(consulta, Long.class);
+            if (actual != null && actual >= siguiente) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER SEQUENCE cita_seq RESTART WITH " + siguiente);
+        }
+        log.info("Secuencia cita_seq alineada con el ID máximo {}", maximo);
+    }
+}
@@ -0,0 +1,38 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de configuración de las claves de idempotencia de la creación de citas.
+ * <p>
+ * Se cargan desde <code>application.properties</code> con el prefijo
+ * <code>citas.idempotencia</code>.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@ConfigurationProperties(prefix = "citas.idempotencia")
+public class IdempotenciaProperties {
+
+    /** Indica si se atiende la cabecera Idempotency-Key. */
+    private boolean habilitada = true;
+
+    /** Número máximo de claves que se recuerdan en memoria. */
+    private long maximoClaves = 100_000;
+
+    /** Tiempo durante el que se recuerda la respuesta de cada clave. */
+    private Duration ttl = Duration.ofHours(24);
+
+    /** Tiempo máximo que espera una petición repetida a que termine la original. */
+    private Duration esperaMaxima = Duration.ofSeconds(10);
+
+    /**
+     * Indica si las respuestas también se guardan en la base de datos, para repetirlas
+     * tras un reinicio o desde otra instancia.
+     */
+    private boolean persistente = false;
+}
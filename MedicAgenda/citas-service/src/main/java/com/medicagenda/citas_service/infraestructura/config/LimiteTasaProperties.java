@@ -0,0 +1,63 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Set;
+
+/**
+ * Propiedades de configuración del límite de peticiones por cliente de la API de citas.
+ * <p>
+ * Se cargan desde <code>application.properties</code> con el prefijo
+ * <code>citas.limite-tasa</code>. Cada cliente tiene una cubeta de lecturas y otra
+ * de escrituras, con su capacidad (ráfaga máxima) y su ritmo de reposición.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@ConfigurationProperties(prefix = "citas.limite-tasa")
+public class LimiteTasaProperties {
+
+    /** Indica si se limitan las peticiones a <code>/api/</code>. */
+    private boolean habilitado = true;
+
+    /**
+     * Cabecera que identifica al cliente de la API. Solo se tiene en cuenta si su valor
+     * está en {@link #clavesConocidas}; en otro caso se usa la dirección IP de la petición.
+     */
+    private String cabeceraCliente = "X-Api-Key";
+
+    /**
+     * Claves de cliente que reciben cubetas propias. La cabecera no se autentica, así que
+     * aceptar cualquier valor permitiría saltarse el límite cambiando de clave en cada
+     * petición y expulsar de la caché las cubetas de los clientes reales.
+     */
+    private Set<String> clavesConocidas = Set.of();
+
+    /** Número máximo de clientes con cubetas en memoria. */
+    private long maximoClientes = 100_000;
+
+    /** Límite de las lecturas (GET, HEAD y OPTIONS). */
+    private Limite lecturas = new Limite(400, 200);
+
+    /** Límite de las escrituras (POST, PUT, PATCH y DELETE). */
+    private Limite escrituras = new Limite(100, 50);
+
+    /**
+     * Límite de una clase de peticiones.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limite {
+
+        /** Número máximo de peticiones seguidas que se admiten con la cubeta llena. */
+        private int capacidad;
+
+        /** Peticiones por segundo que se reponen en la cubeta. */
+        private double porSegundo;
+    }
+}
@@ -0,0 +1,159 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de configuración para la integración con usuarios-service.
+ * <p>
+ * Se cargan desde <code>application.properties</code> con el prefijo
+ * <code>usuarios-service</code>.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Data
+@ConfigurationProperties(prefix = "usuarios-service")
+public class UsuariosServiceProperties {
+
+    /** URL base de usuarios-service. */
+    private String url = "http://localhost:8082";
+
+    /** Configuración del cliente HTTP y su pool de conexiones. */
+    private Http http = new Http();
+
+    /** Configuración de la caché local de tipos de usuario. */
+    private Cache cache = new Cache();
+
+    /** Configuración del agrupador de consultas de tipos de usuario. */
+    private Colapsador colapsador = new Colapsador();
+
+    /** Configuración del respaldo usado cuando usuarios-service no responde. */
+    private Respaldo respaldo = new Respaldo();
+
+    /** Configuración de la copia local de tipos de usuario mantenida con eventos. */
+    private Proyeccion proyeccion = new Proyeccion();
+
+    /**
+     * Parámetros del cliente HTTP de Reactor Netty usado para llamar a usuarios-service.
+     */
+    @Data
+    public static class Http {
+
+        /** Número máximo de conexiones abiertas con usuarios-service. */
+        private int maximoConexiones = 50;
+
+        /** Número máximo de peticiones esperando una conexión libre; el resto falla de inmediato. */
+        private int maximoPendientes = 200;
+
+        /** Tiempo máximo que una petición espera una conexión libre. */
+        private Duration esperaConexion = Duration.ofSeconds(1);
+
+        /** Tiempo tras el cual se cierra una conexión sin uso. */
+        private Duration maximoInactividad = Duration.ofSeconds(30);
+
+        /** Tiempo de vida máximo de una conexión, aunque esté en uso frecuente. */
+        private Duration vidaMaxima = Duration.ofMinutes(5);
+
+        /** Intervalo con el que se cierran en segundo plano las conexiones inactivas o caducadas. */
+        private Duration intervaloDesalojo = Duration.ofSeconds(30);
+
+        /** Tiempo máximo para establecer una conexión TCP. */
+        private Duration timeoutConexion = Duration.ofSeconds(1);
+
+        /** Tiempo máximo de espera de la respuesta completa. */
+        private Duration timeoutRespuesta = Duration.ofSeconds(2);
+
+        /** Indica si se mantienen las conexiones abiertas entre peticiones (HTTP keep-alive y SO_KEEPALIVE). */
+        private boolean keepAlive = true;
+
+        /** Indica si se usa HTTP/2 sin TLS (h2c), con HTTP/1.1 como alternativa. */
+        private boolean http2 = false;
+
+        /** Tamaño máximo de un cuerpo de respuesta que se carga en memoria. */
+        private DataSize maximoTamanoRespuesta = DataSize.ofMegabytes(1);
+    }
+
+    /**
+     * Parámetros de la caché de tipos de usuario.
+     */
+    @Data
+    public static class Cache {
+
+        /** Número máximo de usuarios almacenados en la caché. */
+        private long maximoEntradas = 10_000;
+
+        /** Tiempo de vida de un tipo de usuario conocido (PACIENTE, MEDICO, ADMIN). */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /** Tiempo de vida de un resultado DESCONOCIDO, normalmente más corto. */
+        private Duration ttlDesconocido = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Parámetros del agrupador que combina consultas concurrentes en una sola
+     * llamada a <code>POST /api/usuarios/tipos</code>.
+     */
+    @Data
+    public static class Colapsador {
+
+        /** Indica si las consultas individuales se agrupan en lotes. */
+        private boolean habilitado = true;
+
+        /** Tiempo máximo que una consulta espera a que se forme su lote. */
+        private Duration ventana = Duration.ofMillis(5);
+
+        /** Número de IDs a partir del cual el lote se envía sin esperar la ventana. */
+        private int maximoLote = 200;
+    }
+
+    /**
+     * Parámetros del almacén de últimos tipos conocidos, usado cuando el circuito
+     * hacia usuarios-service está abierto o la llamada falla.
+     */
+    @Data
+    public static class Respaldo {
+
+        /** Indica si se responde con el último tipo conocido en lugar de fallar. */
+        private boolean habilitado = true;
+
+        /** Número máximo de usuarios guardados. */
+        private long maximoEntradas = 50_000;
+
+        /** Tiempo durante el cual un tipo conocido puede usarse como respaldo. */
+        private Duration antiguedadMaxima = Duration.ofHours(24);
+    }
+
+    /**
+     * Parámetros de la copia local de tipos de usuario, alimentada por los eventos
+     * que publica usuarios-service.
+     */
+    @Data
+    public static class Proyeccion {
+
+        /** Indica si se mantiene la copia local y se valida contra ella. */
+        private boolean habilitada = true;
+
+        /** Tiempo entre el final de una lectura de eventos y el inicio de la siguiente. */
+        private Duration intervalo = Duration.ofSeconds(1);
+
+        /** Número máximo de eventos leídos en cada consulta. */
+        private int tamanoLote = 500;
+
+        /** Número de usuarios leídos en cada página de la instantánea completa. */
+        private int tamanoInstantanea = 5000;
+
+        /**
+         * Número de eventos anteriores al último aplicado que se vuelven a leer, para
+         * recoger los que usuarios-service confirmó fuera de orden. Debe ser menor que
+         * {@link #tamanoLote}.
+         */
+        private int solape = 50;
+
+        /** Indica si los usuarios que no están en la copia local se consultan a usuarios-service. */
+        private boolean respaldoRemoto = true;
+    }
+}
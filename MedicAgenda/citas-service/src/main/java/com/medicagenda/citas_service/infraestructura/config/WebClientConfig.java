@@ -1,31 +1,85 @@
 package com.medicagenda.citas_service.infraestructura.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 /**
  * Configuración de WebClient para llamadas a usuarios-service.
  * <p>
  * Define el bean {@link WebClient} que será utilizado por los adaptadores
- * para comunicarse con el microservicio de usuarios.
+ * para comunicarse con el microservicio de usuarios. La URL, el pool de
+ * conexiones y los tiempos máximos se leen de {@link UsuariosServiceProperties}
+ * (prefijo <code>usuarios-service.http</code>).
  * </p>
  *
+ * <ul>
+ *     <li>Las peticiones que no obtienen conexión en el tiempo configurado, o que superan
+ *     el máximo de pendientes, fallan en lugar de acumularse.</li>
+ *     <li>Toda petición tiene un tiempo máximo de conexión y de respuesta.</li>
+ *     <li>Las métricas del pool (conexiones activas, inactivas y peticiones pendientes) se
+ *     publican en Actuator con el prefijo <code>reactor.netty.connection.provider</code>.</li>
+ * </ul>
+ *
  * @author Ander
  * @since 2025-06-19
  */
 @Configuration
 public class WebClientConfig {
 
+    /** Nombre del pool de conexiones, usado como etiqueta en sus métricas. */
+    private static final String POOL = "usuarios-service";
+
+    /**
+     * Pool de conexiones con usuarios-service.
+     *
+     * @param properties configuración de la integración con usuarios-service
+     * @return proveedor de conexiones acotado
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider usuariosConnectionProvider(UsuariosServiceProperties properties) {
+        UsuariosServiceProperties.Http http = properties.getHttp();
+        return ConnectionProvider.builder(POOL)
+                .maxConnections(http.getMaximoConexiones())
+                .pendingAcquireMaxCount(http.getMaximoPendientes())
+                .pendingAcquireTimeout(http.getEsperaConexion())
+                .maxIdleTime(http.getMaximoInactividad())
+                .maxLifeTime(http.getVidaMaxima())
+                .evictInBackground(http.getIntervaloDesalojo())
+                .metrics(true)
+                .build();
+    }
+
     /**
      * Bean de WebClient configurado con la URL base del microservicio usuarios.
      *
+     * @param builder            constructor de WebClient de Spring Boot, con sus códecs y observaciones
+     * @param connectionProvider pool de conexiones con usuarios-service
+     * @param properties         configuración de la integración con usuarios-service
      * @return instancia de WebClient para usuarios-service
      */
     @Bean
-    public WebClient webClientUsuarios() {
-        return WebClient.builder()
-            .baseUrl("http://localhost:8082") // Cambiar por la URL real del microservicio usuarios
-            .build();
+    public WebClient webClientUsuarios(WebClient.Builder builder, ConnectionProvider connectionProvider,
+                                       UsuariosServiceProperties properties) {
+        UsuariosServiceProperties.Http http = properties.getHttp();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getTimeoutConexion().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, http.isKeepAlive())
+                .keepAlive(http.isKeepAlive())
+                .responseTimeout(http.getTimeoutRespuesta())
+                .protocol(http.isHttp2()
+                        ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11});
+        return builder
+                .baseUrl(properties.getUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize((int) http.getMaximoTamanoRespuesta().toBytes()))
+                .build();
     }
 }
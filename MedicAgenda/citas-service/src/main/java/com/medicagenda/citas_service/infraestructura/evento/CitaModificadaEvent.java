@@ -0,0 +1,23 @@
+package com.medicagenda.citas_service.infraestructura.evento;
+
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+
+/**
+ * Evento publicado por {@link com.medicagenda.citas_service.infraestructura.adapter.CitaAdapter}
+ * después de crear, actualizar o eliminar una cita en la base de datos.
+ * <p>
+ * Permite a los índices y modelos de lectura en memoria mantenerse al día sin
+ * volver a consultar la tabla de citas.
+ * </p>
+ *
+ * <ul>
+ *     <li>Creación: <code>anterior</code> es nulo.</li>
+ *     <li>Eliminación: <code>actual</code> es nulo.</li>
+ * </ul>
+ *
+ * @param anterior datos de la cita antes del cambio, o nulo si se acaba de crear
+ * @param actual   datos de la cita después del cambio, o nulo si se eliminó
+ * @since 2025-06-19
+ */
+public record CitaModificadaEvent(CitaHorario anterior, CitaHorario actual) {
+}
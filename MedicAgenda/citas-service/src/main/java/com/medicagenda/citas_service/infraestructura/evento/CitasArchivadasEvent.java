@@ -0,0 +1,19 @@
+package com.medicagenda.citas_service.infraestructura.evento;
+
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+
+import java.util.List;
+
+/**
+ * Evento publicado por {@link com.medicagenda.citas_service.infraestructura.archivo.ArchivadorCitas}
+ * después de trasladar un lote de citas de la tabla <code>cita</code> a <code>cita_archivo</code>.
+ * <p>
+ * Las citas no cambian, pero dejan de estar en la tabla que reflejan los índices
+ * de ocupación y los contadores, que las descartan para no crecer con el histórico.
+ * </p>
+ *
+ * @param horarios datos de agenda de las citas trasladadas
+ * @since 2025-06-19
+ */
+public record CitasArchivadasEvent(List<CitaHorario> horarios) {
+}
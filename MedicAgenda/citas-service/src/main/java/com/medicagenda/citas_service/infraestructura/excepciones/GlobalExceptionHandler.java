@@ -1,14 +1,19 @@
 package com.medicagenda.citas_service.infraestructura.excepciones;
 
+import com.medicagenda.citas_service.dominio.excepciones.CitaArchivadaException;
 import com.medicagenda.citas_service.dominio.excepciones.CitaNoEncontradaException;
 import com.medicagenda.citas_service.dominio.excepciones.PacienteNoValidoException;
 import com.medicagenda.citas_service.dominio.excepciones.MedicoNoValidoException;
 import com.medicagenda.citas_service.dominio.excepciones.CitaDuplicadaException;
+import com.medicagenda.citas_service.dominio.excepciones.CitaVersionNoCoincideException;
+import com.medicagenda.citas_service.dominio.excepciones.ClaveIdempotenciaReutilizadaException;
+import com.medicagenda.citas_service.dominio.excepciones.PeticionIdempotenteEnCursoException;
 import com.medicagenda.citas_service.dominio.excepciones.MicroUsuariosServiceNoDisponibleException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -48,6 +53,22 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja parámetros de la solicitud con un formato o valor no válido,
+     * como un estado o una fecha mal escritos.
+     *
+     * @param ex excepción lanzada
+     * @return respuesta con mensaje y código 400
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("mensaje", "Valor no válido para el parámetro '" + ex.getName() + "'.");
+        error.put("codigo", HttpStatus.BAD_REQUEST.value());
+        error.put("timestamp", LocalDateTime.now());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Maneja excepción cuando no se encuentra una cita.
      *
@@ -108,6 +129,66 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Maneja excepción cuando se intenta modificar o eliminar una cita archivada.
+     *
+     * @param ex excepción lanzada
+     * @return respuesta con mensaje y código 409
+     */
+    @ExceptionHandler(CitaArchivadaException.class)
+    public ResponseEntity<Map<String, Object>> handleCitaArchivada(CitaArchivadaException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("mensaje", ex.getMessage());
+        error.put("codigo", HttpStatus.CONFLICT.value());
+        error.put("timestamp", LocalDateTime.now());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja excepción cuando la cita ha cambiado desde que el cliente la leyó.
+     *
+     * @param ex excepción lanzada
+     * @return respuesta con mensaje y código 412
+     */
+    @ExceptionHandler(CitaVersionNoCoincideException.class)
+    public ResponseEntity<Map<String, Object>> handleCitaVersionNoCoincide(CitaVersionNoCoincideException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("mensaje", ex.getMessage());
+        error.put("codigo", HttpStatus.PRECONDITION_FAILED.value());
+        error.put("timestamp", LocalDateTime.now());
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Maneja excepción cuando una clave de idempotencia se reutiliza con otros datos.
+     *
+     * @param ex excepción lanzada
+     * @return respuesta con mensaje y código 422
+     */
+    @ExceptionHandler(ClaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<Map<String, Object>> handleClaveIdempotenciaReutilizada(ClaveIdempotenciaReutilizadaException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("mensaje", ex.getMessage());
+        error.put("codigo", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        error.put("timestamp", LocalDateTime.now());
+        return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    /**
+     * Maneja excepción cuando la petición original de una clave de idempotencia sigue en curso.
+     *
+     * @param ex excepción lanzada
+     * @return respuesta con mensaje y código 409
+     */
+    @ExceptionHandler(PeticionIdempotenteEnCursoException.class)
+    public ResponseEntity<Map<String, Object>> handlePeticionIdempotenteEnCurso(PeticionIdempotenteEnCursoException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("mensaje", ex.getMessage());
+        error.put("codigo", HttpStatus.CONFLICT.value());
+        error.put("timestamp", LocalDateTime.now());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
     /**
      * Maneja excepción cuando el MicroUsuarios-service no está disponible.
      *
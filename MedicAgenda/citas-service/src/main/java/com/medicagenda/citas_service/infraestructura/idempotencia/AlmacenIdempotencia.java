@@ -0,0 +1,306 @@
+package com.medicagenda.citas_service.infraestructura.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicagenda.citas_service.dominio.excepciones.ClaveIdempotenciaReutilizadaException;
+import com.medicagenda.citas_service.dominio.excepciones.PeticionIdempotenteEnCursoException;
+import com.medicagenda.citas_service.entity.RespuestaIdempotente;
+import com.medicagenda.citas_service.infraestructura.config.IdempotenciaProperties;
+import com.medicagenda.citas_service.infraestructura.repository.RespuestaIdempotenteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Almacén de respuestas de las peticiones con clave de idempotencia.
+ * <p>
+ * La primera petición con una clave se ejecuta y su respuesta se recuerda durante
+ * el tiempo configurado. Las repeticiones con la misma clave y los mismos datos
+ * reciben esa respuesta sin volver a ejecutarse, con la cabecera
+ * {@value #CABECERA_REPETIDA}. Si la original sigue en curso, esperan a su
+ * resultado en lugar de lanzar otra reserva.
+ * </p>
+ *
+ * <ul>
+ *     <li>Las claves se guardan en memoria, con un máximo de entradas y caducidad.</li>
+ *     <li>Si la petición original falla, la clave se libera: las que esperaban reciben
+ *     el mismo error y la siguiente repetición se ejecuta de nuevo.</li>
+ *     <li>Una clave repetida con datos distintos se rechaza con
+ *     {@link ClaveIdempotenciaReutilizadaException}.</li>
+ *     <li>Opcionalmente las respuestas se guardan también en la tabla
+ *     <code>idempotencia_respuesta</code>, de modo que se repiten tras un reinicio o
+ *     desde otra instancia una vez terminadas.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class AlmacenIdempotencia {
+
+    /** Cabecera con la clave de idempotencia de la petición. */
+    public static final String CABECERA = "Idempotency-Key";
+
+    /** Cabecera que marca una respuesta repetida. */
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    /** Longitud máxima de una clave de idempotencia. */
+    static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenIdempotencia.class);
+    private static final TypeReference<Map<String, Object>> TIPO_CUERPO = new TypeReference<>() {
+    };
+
+    private final IdempotenciaProperties config;
+    private final RespuestaIdempotenteRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entrada> entradas;
+    private final Counter nuevas;
+    private final Counter repetidas;
+    private final Counter esperas;
+    private final Counter rechazadas;
+
+    /**
+     * Crea el almacén.
+     *
+     * @param config       configuración de las claves de idempotencia
+     * @param repository   repositorio de las respuestas guardadas
+     * @param objectMapper conversor JSON de la aplicación
+     * @param registry     registro de métricas de Micrometer
+     */
+    public AlmacenIdempotencia(IdempotenciaProperties config, RespuestaIdempotenteRepository repository,
+                               ObjectMapper objectMapper, MeterRegistry registry) {
+        this.config = config;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.entradas = Caffeine.newBuilder()
+                .maximumSize(config.getMaximoClaves())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, entradas, "citas.idempotencia");
+        this.nuevas = contador(registry, "nueva");
+        this.repetidas = contador(registry, "repetida");
+        this.esperas = contador(registry, "espera");
+        this.rechazadas = contador(registry, "rechazada");
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("citas.idempotencia.peticiones")
+                .description("Peticiones con clave de idempotencia por resultado")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Ejecuta una petición con clave de idempotencia, o repite la respuesta de la
+     * original si la clave ya se usó.
+     *
+     * @param clave    clave de idempotencia enviada por el cliente
+     * @param peticion datos de la petición, para comprobar que la repetición es idéntica
+     * @param accion   ejecución de la petición
+     * @return respuesta de la petición original
+     * @throws IllegalArgumentException              si la clave está vacía o es demasiado larga
+     * @throws ClaveIdempotenciaReutilizadaException si la clave se usó con otros datos
+     * @throws PeticionIdempotenteEnCursoException   si la original no termina dentro de la espera máxima
+     */
+    public ResponseEntity<Map<String, Object>> ejecutar(String clave, Object peticion,
+                                                        Supplier<ResponseEntity<Map<String, Object>>> accion) {
+        if (!config.isHabilitada()) {
+            return accion.get();
+        }
+        if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException("La cabecera " + CABECERA + " debe tener entre 1 y "
+                    + LONGITUD_MAXIMA_CLAVE + " caracteres.");
+        }
+        String huella = huella(peticion);
+
+        Entrada existente = entradas.getIfPresent(clave);
+        if (existente == null && config.isPersistente()) {
+            Entrada guardada = cargar(clave);
+            if (guardada != null) {
+                existente = entradas.asMap().putIfAbsent(clave, guardada);
+                existente = existente == null ? guardada : existente;
+            }
+        }
+        Entrada nueva = new Entrada(huella, new CompletableFuture<>());
+        if (existente == null) {
+            existente = entradas.asMap().putIfAbsent(clave, nueva);
+        }
+        if (existente != null) {
+            return repetir(clave, huella, existente);
+        }
+
+        ResponseEntity<Map<String, Object>> respuesta;
+        try {
+            respuesta = accion.get();
+        } catch (RuntimeException e) {
+            entradas.asMap().remove(clave, nueva);
+            nueva.resultado().completeExceptionally(e);
+            throw e;
+        }
+        RespuestaGuardada guardada = new RespuestaGuardada(respuesta.getStatusCode().value(), respuesta.getBody());
+        nueva.resultado().complete(guardada);
+        nuevas.increment();
+        if (config.isPersistente()) {
+            guardar(clave, huella, guardada);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Devuelve la respuesta de una petición anterior con la misma clave, esperando
+     * a que termine si sigue en curso.
+     *
+     * @param clave   clave de idempotencia
+     * @param huella  huella de la petición repetida
+     * @param entrada entrada de la petición original
+     * @return respuesta de la petición original
+     */
+    private ResponseEntity<Map<String, Object>> repetir(String clave, String huella, Entrada entrada) {
+        if (!entrada.huella().equals(huella)) {
+            rechazadas.increment();
+            throw new ClaveIdempotenciaReutilizadaException(clave);
+        }
+        if (!entrada.resultado().isDone()) {
+            esperas.increment();
+        }
+        RespuestaGuardada respuesta;
+        try {
+            respuesta = entrada.resultado().get(config.getEsperaMaxima().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new PeticionIdempotenteEnCursoException(clave);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PeticionIdempotenteEnCursoException(clave);
+        } catch (ExecutionException e) {
+            // La petición original falló: se devuelve el mismo error
+            if (e.getCause() instanceof RuntimeException error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        repetidas.increment();
+        return ResponseEntity.status(respuesta.estado())
+                .header(CABECERA_REPETIDA, "true")
+                .body(respuesta.cuerpo());
+    }
+
+    /**
+     * Busca en la base de datos la respuesta guardada de una clave que no está en memoria.
+     *
+     * @param clave clave de idempotencia
+     * @return entrada terminada con la respuesta guardada, o nula si no hay o ha caducado
+     */
+    private Entrada cargar(String clave) {
+        try {
+            return repository.findById(clave)
+                    .filter(fila -> fila.getCreada().isAfter(Instant.now().minus(config.getTtl())))
+                    .map(fila -> new Entrada(fila.getHuella(), CompletableFuture.completedFuture(
+                            new RespuestaGuardada(fila.getEstado(), leerCuerpo(fila.getCuerpo())))))
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("No se pudo leer la respuesta guardada de la clave de idempotencia {}", clave, e);
+            return null;
+        }
+    }
+
+    /**
+     * Guarda en la base de datos la respuesta de una clave. Un fallo no afecta a la
+     * petición: la respuesta sigue disponible en memoria.
+     *
+     * @param clave     clave de idempotencia
+     * @param huella    huella de la petición
+     * @param respuesta respuesta de la petición
+     */
+    private void guardar(String clave, String huella, RespuestaGuardada respuesta) {
+        try {
+            repository.save(new RespuestaIdempotente(clave, huella, respuesta.estado(),
+                    objectMapper.writeValueAsString(respuesta.cuerpo()), Instant.now()));
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("No se pudo guardar la respuesta de la clave de idempotencia {}", clave, e);
+        }
+    }
+
+    /**
+     * Elimina de la base de datos las respuestas caducadas.
+     */
+    @Scheduled(fixedDelayString = "${citas.idempotencia.intervalo-limpieza:10m}")
+    public void limpiar() {
+        if (!config.isHabilitada() || !config.isPersistente()) {
+            return;
+        }
+        try {
+            int eliminadas = repository.deleteCreadasAntesDe(Instant.now().minus(config.getTtl()));
+            if (eliminadas > 0) {
+                log.debug("Eliminadas {} respuestas de idempotencia caducadas", eliminadas);
+            }
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron eliminar las respuestas de idempotencia caducadas", e);
+        }
+    }
+
+    private Map<String, Object> leerCuerpo(String cuerpo) {
+        if (cuerpo == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(cuerpo, TIPO_CUERPO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Respuesta de idempotencia guardada no válida", e);
+        }
+    }
+
+    /**
+     * Calcula la huella SHA-256 de los datos de una petición en su forma JSON.
+     *
+     * @param peticion datos de la petición
+     * @return huella en hexadecimal
+     */
+    private String huella(Object peticion) {
+        byte[] datos;
+        try {
+            datos = objectMapper.writeValueAsBytes(peticion);
+        } catch (JsonProcessingException e) {
+            // Sin forma JSON se usa su representación de texto
+            datos = String.valueOf(peticion).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Petición conocida: huella de sus datos y respuesta, futura si sigue en curso.
+     */
+    private record Entrada(String huella, CompletableFuture<RespuestaGuardada> resultado) {
+    }
+
+    /**
+     * Respuesta de una petición: código HTTP y cuerpo.
+     */
+    private record RespuestaGuardada(int estado, Map<String, Object> cuerpo) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.medicagenda.citas_service.infraestructura.indice;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator del {@link AgendaDiariaIndex}.
+ * <p>
+ * Disponible en <code>/actuator/agendadiaria</code>. Con GET devuelve el número de
+ * agendas en memoria; con POST y un cuerpo <code>{"desde": "YYYY-MM-DD", "hasta": "YYYY-MM-DD"}</code>
+ * las reconstruye desde la base de datos para ese rango de fechas.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@Endpoint(id = "agendadiaria")
+@RequiredArgsConstructor
+public class AgendaDiariaEndpoint {
+
+    private final AgendaDiariaIndex agendaDiariaIndex;
+
+    /**
+     * Resume el contenido del modelo de lectura de agendas.
+     *
+     * @return número de agendas en memoria y estadísticas de la caché
+     */
+    @ReadOperation
+    public Map<String, Object> estado() {
+        return agendaDiariaIndex.estado();
+    }
+
+    /**
+     * Reconstruye las agendas de un rango de fechas.
+     *
+     * @param desde fecha inicial (YYYY-MM-DD, inclusive)
+     * @param hasta fecha final (YYYY-MM-DD, inclusive)
+     * @return resumen de la reconstrucción
+     */
+    @WriteOperation
+    public Map<String, Object> reconstruir(String desde, String hasta) {
+        return agendaDiariaIndex.reconstruir(LocalDate.parse(desde), LocalDate.parse(hasta));
+    }
+}
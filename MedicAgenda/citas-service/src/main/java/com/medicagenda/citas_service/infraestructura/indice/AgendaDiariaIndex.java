@@ -0,0 +1,287 @@
+package com.medicagenda.citas_service.infraestructura.indice;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicagenda.citas_service.dominio.model.AgendaCitaDTO;
+import com.medicagenda.citas_service.dominio.model.AgendaDiaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.infraestructura.archivo.LimiteArchivo;
+import com.medicagenda.citas_service.infraestructura.config.AgendaProperties;
+import com.medicagenda.citas_service.infraestructura.evento.CitaModificadaEvent;
+import com.medicagenda.citas_service.infraestructura.repository.CitaArchivadaRepository;
+import com.medicagenda.citas_service.infraestructura.repository.CitaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Modelo de lectura con la agenda diaria de cada médico.
+ * <p>
+ * Guarda un {@link AgendaDiaDTO} por par (médico, día) en una caché acotada a
+ * <code>citas.agenda.agendas-en-memoria</code> documentos. Un documento que no está
+ * en memoria se carga con una sola consulta sobre el índice único
+ * (medico_id, fecha, hora); los que están en memoria se mantienen con los
+ * {@link CitaModificadaEvent} que publica el adaptador de citas, sin volver a
+ * consultar la tabla. Publica sus métricas en Actuator con el nombre <code>citas.agenda</code>.
+ * </p>
+ *
+ * <ul>
+ *     <li>Los documentos no se modifican: cada cambio crea uno nuevo con otra versión.</li>
+ *     <li>La versión se calcula a partir del contenido, por lo que un documento recargado
+ *     conserva la versión si sus citas no han cambiado.</li>
+ *     <li>Una carga y un evento del mismo día no se pisan: la caché aplica el evento
+ *     cuando la carga termina, y aplicar un evento ya reflejado no cambia el documento.</li>
+ *     <li>Los días anteriores al {@link LimiteArchivo} se cargan también desde la tabla
+ *     <code>cita_archivo</code>. Archivar una cita no cambia su agenda, por lo que los
+ *     documentos en memoria siguen siendo válidos.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class AgendaDiariaIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AgendaDiariaIndex.class);
+
+    private static final Comparator<AgendaCitaDTO> POR_HORA =
+            Comparator.comparing(AgendaCitaDTO::getHora).thenComparing(AgendaCitaDTO::getId);
+
+    private final CitaRepository citaRepository;
+    private final CitaArchivadaRepository archivadaRepository;
+    private final LimiteArchivo limiteArchivo;
+    private final TransactionTemplate lecturaTemplate;
+    private final Cache<Clave, AgendaDiaDTO> agendas;
+    private final AtomicInteger reconstrucciones = new AtomicInteger();
+    private final Set<Clave> modificadasDuranteReconstruccion = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Crea el modelo de lectura vacío y registra sus métricas.
+     *
+     * @param citaRepository      repositorio de citas usado para cargar los documentos
+     * @param archivadaRepository repositorio de citas archivadas, para los días archivados
+     * @param limiteArchivo       límite de las citas archivadas
+     * @param transactionManager  gestor de transacciones para las reconstrucciones
+     * @param agenda              configuración de la agenda
+     * @param registry            registro de métricas de Micrometer
+     */
+    public AgendaDiariaIndex(CitaRepository citaRepository, CitaArchivadaRepository archivadaRepository,
+                             LimiteArchivo limiteArchivo, PlatformTransactionManager transactionManager,
+                             AgendaProperties agenda, MeterRegistry registry) {
+        this.citaRepository = citaRepository;
+        this.archivadaRepository = archivadaRepository;
+        this.limiteArchivo = limiteArchivo;
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.agendas = Caffeine.newBuilder()
+                .maximumSize(agenda.getAgendasEnMemoria())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, agendas, "citas.agenda");
+    }
+
+    /**
+     * Obtiene la agenda de un médico en un día desde memoria o, si no está, desde la base de datos.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día de la agenda
+     * @return agenda del día
+     */
+    public AgendaDiaDTO obtener(Integer medicoId, LocalDate fecha) {
+        return agendas.get(new Clave(medicoId, fecha), this::cargar);
+    }
+
+    /**
+     * Actualiza los documentos en memoria afectados por un cambio en una cita.
+     * Los días que no están en memoria se ignoran: se cargarán ya actualizados.
+     *
+     * @param evento cambio realizado
+     */
+    @EventListener
+    public void alModificarCita(CitaModificadaEvent evento) {
+        CitaHorario anterior = evento.anterior();
+        if (anterior != null) {
+            Clave clave = new Clave(anterior.medicoId(), anterior.fecha());
+            agendas.asMap().computeIfPresent(clave, (k, agenda) -> quitar(agenda, anterior.id()));
+            anotarDuranteReconstruccion(clave);
+        }
+        CitaHorario actual = evento.actual();
+        if (actual != null) {
+            Clave clave = new Clave(actual.medicoId(), actual.fecha());
+            agendas.asMap().computeIfPresent(clave, (k, agenda) -> poner(quitar(agenda, actual.id()), actual));
+            anotarDuranteReconstruccion(clave);
+        }
+    }
+
+    /**
+     * Vuelve a construir desde la base de datos las agendas de todos los médicos en
+     * un rango de fechas y las deja en memoria.
+     * <p>
+     * Los días del rango que ya estaban en memoria se descartan antes de leer. Los que
+     * cambian mientras dura la lectura se descartan de nuevo al final, para que la
+     * siguiente consulta los cargue con su contenido actual.
+     * </p>
+     *
+     * @param desde fecha inicial (inclusive)
+     * @param hasta fecha final (inclusive)
+     * @return resumen con el número de documentos y citas leídos
+     * @throws IllegalArgumentException si la fecha final es anterior a la inicial
+     */
+    public synchronized Map<String, Object> reconstruir(LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial.");
+        }
+        long inicio = System.nanoTime();
+        reconstrucciones.incrementAndGet();
+        try {
+            agendas.asMap().keySet().removeIf(clave -> !clave.fecha().isBefore(desde) && !clave.fecha().isAfter(hasta));
+            Map<Clave, List<CitaHorario>> leidas = new HashMap<>();
+            Long citas = lecturaTemplate.execute(estado -> {
+                long[] contador = {0};
+                try (Stream<CitaHorario> horarios = citaRepository.streamHorariosEntre(desde, hasta)) {
+                    horarios.forEach(horario -> {
+                        leidas.computeIfAbsent(new Clave(horario.medicoId(), horario.fecha()), k -> new ArrayList<>())
+                                .add(horario);
+                        contador[0]++;
+                    });
+                }
+                if (limiteArchivo.alcanza(desde)) {
+                    try (Stream<CitaHorario> horarios = archivadaRepository.streamHorariosEntre(desde, hasta)) {
+                        horarios.forEach(horario -> {
+                            leidas.computeIfAbsent(new Clave(horario.medicoId(), horario.fecha()), k -> new ArrayList<>())
+                                    .add(horario);
+                            contador[0]++;
+                        });
+                    }
+                }
+                return contador[0];
+            });
+            leidas.forEach((clave, horarios) -> agendas.asMap().putIfAbsent(clave, documento(clave, horarios)));
+            agendas.invalidateAll(modificadasDuranteReconstruccion);
+
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("desde", desde);
+            resultado.put("hasta", hasta);
+            resultado.put("documentos", leidas.size());
+            resultado.put("citas", citas == null ? 0 : citas);
+            resultado.put("descartadosPorCambios", modificadasDuranteReconstruccion.size());
+            resultado.put("duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+            log.info("Agendas diarias reconstruidas entre {} y {}: {}", desde, hasta, resultado);
+            return resultado;
+        } finally {
+            modificadasDuranteReconstruccion.clear();
+            reconstrucciones.decrementAndGet();
+        }
+    }
+
+    /**
+     * Resume el contenido del modelo de lectura.
+     *
+     * @return número de documentos en memoria, consultas servidas desde memoria (aciertos),
+     *         consultas que leyeron la base de datos (fallos) y documentos desalojados
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("documentos", agendas.estimatedSize());
+        estado.put("aciertos", agendas.stats().hitCount());
+        estado.put("fallos", agendas.stats().missCount());
+        estado.put("desalojos", agendas.stats().evictionCount());
+        return estado;
+    }
+
+    /**
+     * Carga la agenda de un día desde la base de datos.
+     *
+     * @param clave médico y día
+     * @return agenda del día
+     */
+    private AgendaDiaDTO cargar(Clave clave) {
+        // La tabla activa se lee antes de mirar el límite: si un lote archiva el día entre ambas
+        // lecturas, el límite ya lo alcanza y sus citas se leen del archivo
+        List<CitaHorario> horarios = citaRepository.findHorariosMedico(clave.medicoId(), clave.fecha(), clave.fecha());
+        if (limiteArchivo.alcanza(clave.fecha())) {
+            horarios = new ArrayList<>(horarios);
+            horarios.addAll(archivadaRepository.findHorariosMedico(clave.medicoId(), clave.fecha(), clave.fecha()));
+        }
+        return documento(clave, horarios);
+    }
+
+    private void anotarDuranteReconstruccion(Clave clave) {
+        if (reconstrucciones.get() > 0) {
+            modificadasDuranteReconstruccion.add(clave);
+        }
+    }
+
+    private static AgendaDiaDTO documento(Clave clave, List<CitaHorario> horarios) {
+        List<AgendaCitaDTO> citas = new ArrayList<>(horarios.size());
+        // Una cita que se archiva entre las dos lecturas aparece en ambas tablas
+        Set<Integer> ids = new HashSet<>();
+        horarios.stream().filter(horario -> ids.add(horario.id())).forEach(horario -> citas.add(aCita(horario)));
+        citas.sort(POR_HORA);
+        return crear(clave.medicoId(), clave.fecha(), citas);
+    }
+
+    private static AgendaDiaDTO quitar(AgendaDiaDTO agenda, Integer citaId) {
+        if (agenda.getCitas().stream().noneMatch(cita -> cita.getId().equals(citaId))) {
+            return agenda;
+        }
+        List<AgendaCitaDTO> citas = new ArrayList<>(agenda.getCitas());
+        citas.removeIf(cita -> cita.getId().equals(citaId));
+        return crear(agenda.getMedicoId(), agenda.getFecha(), citas);
+    }
+
+    private static AgendaDiaDTO poner(AgendaDiaDTO agenda, CitaHorario horario) {
+        List<AgendaCitaDTO> citas = new ArrayList<>(agenda.getCitas().size() + 1);
+        citas.addAll(agenda.getCitas());
+        citas.add(aCita(horario));
+        citas.sort(POR_HORA);
+        return crear(agenda.getMedicoId(), agenda.getFecha(), citas);
+    }
+
+    private static AgendaCitaDTO aCita(CitaHorario horario) {
+        return new AgendaCitaDTO(horario.id(), horario.hora(), horario.estado(), horario.pacienteId());
+    }
+
+    /**
+     * Crea un documento inmutable calculando su versión a partir de las citas.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día de la agenda
+     * @param citas    citas ordenadas por hora
+     * @return documento de la agenda
+     */
+    private static AgendaDiaDTO crear(Integer medicoId, LocalDate fecha, List<AgendaCitaDTO> citas) {
+        long hash = 1125899906842597L;
+        for (AgendaCitaDTO cita : citas) {
+            hash = 31 * hash + cita.getId();
+            hash = 31 * hash + cita.getHora().toSecondOfDay();
+            hash = 31 * hash + cita.getEstado().ordinal();
+            hash = 31 * hash + (cita.getPacienteId() == null ? 0 : cita.getPacienteId());
+        }
+        String version = Long.toHexString((hash ^ (hash >>> 29)) * 0x9E3779B97F4A7C15L);
+        return new AgendaDiaDTO(medicoId, fecha, version, List.copyOf(citas));
+    }
+
+    /**
+     * Médico y día de una agenda.
+     */
+    private record Clave(Integer medicoId, LocalDate fecha) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.medicagenda.citas_service.infraestructura.indice;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator del {@link ContadorCitasIndex}.
+ * <p>
+ * Disponible en <code>/actuator/contadorcitas</code>. Con GET indica si los contadores
+ * están cargados; con POST los vuelve a calcular con una consulta agrupada sobre la
+ * tabla de citas.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@Endpoint(id = "contadorcitas")
+@RequiredArgsConstructor
+public class ContadorCitasEndpoint {
+
+    private final ContadorCitasIndex contadorCitasIndex;
+
+    /**
+     * Resume el estado de los contadores.
+     *
+     * @return si la carga ha terminado y el número de días contados
+     */
+    @ReadOperation
+    public Map<String, Object> estado() {
+        return contadorCitasIndex.estado();
+    }
+
+    /**
+     * Vuelve a calcular los contadores desde la base de datos.
+     *
+     * @return resumen de la recarga
+     */
+    @WriteOperation
+    public Map<String, Object> recargar() {
+        return contadorCitasIndex.recargar();
+    }
+}
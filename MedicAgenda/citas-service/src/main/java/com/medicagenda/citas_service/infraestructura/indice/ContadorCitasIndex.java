@@ -0,0 +1,332 @@
+package com.medicagenda.citas_service.infraestructura.indice;
+
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.dominio.model.ConteoCitas;
+import com.medicagenda.citas_service.dominio.model.EstadisticaDiaDTO;
+import com.medicagenda.citas_service.dominio.model.EstadisticasCitasDTO;
+import com.medicagenda.citas_service.entity.Cita;
+import com.medicagenda.citas_service.infraestructura.archivo.LimiteArchivo;
+import com.medicagenda.citas_service.infraestructura.evento.CitaModificadaEvent;
+import com.medicagenda.citas_service.infraestructura.evento.CitasArchivadasEvent;
+import com.medicagenda.citas_service.infraestructura.repository.CitaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Contadores en memoria del número de citas por médico, día y estado.
+ * <p>
+ * Se inicializan al arrancar con una única consulta agrupada y se mantienen con
+ * los {@link CitaModificadaEvent} que publica el adaptador de citas: cada evento
+ * resta uno al médico, día y estado anteriores de la cita y suma uno a los
+ * actuales, de modo que los cambios de estado, de fecha o de médico y las
+ * eliminaciones quedan reflejados. Los contadores son {@link LongAdder}, por lo que
+ * las escrituras concurrentes no se bloquean entre sí.
+ * </p>
+ *
+ * <ul>
+ *     <li>Además de los contadores por médico y día, mantiene los totales por día de
+ *     todos los médicos, para responder sin recorrer los médicos.</li>
+ *     <li>Los días modificados mientras dura la carga se vuelven a contar al terminar.</li>
+ *     <li>Hasta que termina la carga inicial, las consultas devuelven los contadores vacíos.</li>
+ *     <li>Solo cuentan las citas de la tabla <code>cita</code>: las archivadas se restan con los
+ *     {@link CitasArchivadasEvent} y los días que quedan a cero se eliminan. Los días anteriores al
+ *     {@link LimiteArchivo} no se responden desde memoria sino con los conteos de ambas tablas que
+ *     recibe la consulta, ya que entre que se confirma un lote y llega su evento la cita estaría
+ *     en el archivo y también en los contadores.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class ContadorCitasIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadorCitasIndex.class);
+
+    private static final Cita.Estado[] ESTADOS = Cita.Estado.values();
+
+    private final CitaRepository citaRepository;
+    private final LimiteArchivo limiteArchivo;
+    private final TransactionTemplate lecturaTemplate;
+    private final Set<Long> modificadosDuranteCarga = ConcurrentHashMap.newKeySet();
+    private volatile Contadores contadores = new Contadores();
+    private volatile boolean cargando;
+    private volatile boolean listo;
+
+    /**
+     * Crea los contadores vacíos.
+     *
+     * @param citaRepository     repositorio de citas usado para la carga
+     * @param limiteArchivo      límite de las citas archivadas
+     * @param transactionManager gestor de transacciones para leer los conteos
+     */
+    public ContadorCitasIndex(CitaRepository citaRepository, LimiteArchivo limiteArchivo,
+                              PlatformTransactionManager transactionManager) {
+        this.citaRepository = citaRepository;
+        this.limiteArchivo = limiteArchivo;
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Carga los contadores al terminar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        recargar();
+    }
+
+    /**
+     * Vuelve a contar todas las citas con una consulta agrupada por médico, día y estado
+     * y sustituye los contadores actuales.
+     *
+     * @return resumen con el número de grupos y de citas contados
+     */
+    public synchronized Map<String, Object> recargar() {
+        long inicio = System.nanoTime();
+        cargando = true;
+        try {
+            List<ConteoCitas> conteos = lecturaTemplate.execute(estado -> citaRepository.contarPorMedicoFechaEstado());
+            Contadores nuevos = new Contadores();
+            long citas = 0;
+            for (ConteoCitas conteo : conteos == null ? List.<ConteoCitas>of() : conteos) {
+                nuevos.sumar(conteo.medicoId(), conteo.fecha(), conteo.estado(), conteo.total());
+                citas += conteo.total();
+            }
+            contadores = nuevos;
+            for (Long clave : modificadosDuranteCarga) {
+                recontar(medico(clave), LocalDate.ofEpochDay(dia(clave)));
+            }
+            listo = true;
+
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("grupos", conteos == null ? 0 : conteos.size());
+            resultado.put("citas", citas);
+            resultado.put("recontados", modificadosDuranteCarga.size());
+            resultado.put("duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+            log.info("Contadores de citas cargados: {}", resultado);
+            return resultado;
+        } finally {
+            cargando = false;
+            modificadosDuranteCarga.clear();
+        }
+    }
+
+    /**
+     * Actualiza los contadores tras un cambio en una cita.
+     *
+     * @param evento cambio realizado
+     */
+    @EventListener
+    public void alModificarCita(CitaModificadaEvent evento) {
+        Contadores actuales = contadores;
+        CitaHorario anterior = evento.anterior();
+        if (anterior != null) {
+            actuales.sumar(anterior.medicoId(), anterior.fecha(), anterior.estado(), -1);
+            anotarDuranteCarga(anterior.medicoId(), anterior.fecha());
+        }
+        CitaHorario actual = evento.actual();
+        if (actual != null) {
+            actuales.sumar(actual.medicoId(), actual.fecha(), actual.estado(), 1);
+            anotarDuranteCarga(actual.medicoId(), actual.fecha());
+        }
+    }
+
+    /**
+     * Descuenta las citas trasladadas al archivo y elimina los días que quedan sin citas.
+     *
+     * @param evento lote de citas archivadas
+     */
+    @EventListener
+    public void alArchivarCitas(CitasArchivadasEvent evento) {
+        Contadores actuales = contadores;
+        for (CitaHorario horario : evento.horarios()) {
+            actuales.sumar(horario.medicoId(), horario.fecha(), horario.estado(), -1);
+            anotarDuranteCarga(horario.medicoId(), horario.fecha());
+        }
+        for (CitaHorario horario : evento.horarios()) {
+            long dia = horario.fecha().toEpochDay();
+            actuales.porMedicoDia.computeIfPresent(clave(horario.medicoId(), dia), (k, fila) -> vacia(fila) ? null : fila);
+            actuales.porDia.computeIfPresent(dia, (k, fila) -> vacia(fila) ? null : fila);
+        }
+    }
+
+    /**
+     * Obtiene el número de citas por día y estado en un rango de fechas.
+     * <p>
+     * Primero se leen los contadores y después el {@link LimiteArchivo}. Como el límite
+     * avanza antes de confirmar cada lote archivado y los contadores se descuentan
+     * después, un día posterior al límite leído no puede haber perdido todavía ninguna
+     * cita de los contadores. Los días anteriores se piden a <code>archivados</code>.
+     * </p>
+     *
+     * @param medicoId  ID del médico, o nulo para contar todos los médicos
+     * @param desde     fecha inicial (inclusive)
+     * @param hasta     fecha final (inclusive)
+     * @param archivados función que cuenta, en activas y archivadas, las citas entre dos fechas
+     * @return estadísticas del rango; solo incluye los días con alguna cita
+     */
+    public EstadisticasCitasDTO consultar(Integer medicoId, LocalDate desde, LocalDate hasta,
+                                          BiFunction<LocalDate, LocalDate, List<ConteoCitas>> archivados) {
+        Contadores actuales = contadores;
+        Map<Long, long[]> porDia = new HashMap<>();
+        for (long dia = desde.toEpochDay(); dia <= hasta.toEpochDay(); dia++) {
+            LongAdder[] fila = medicoId == null ? actuales.porDia.get(dia) : actuales.porMedicoDia.get(clave(medicoId, dia));
+            if (fila != null) {
+                long[] valores = new long[ESTADOS.length];
+                for (int i = 0; i < ESTADOS.length; i++) {
+                    valores[i] = fila[i].sum();
+                }
+                porDia.put(dia, valores);
+            }
+        }
+        LocalDate limite = limiteArchivo.obtener();
+        if (limite != null && desde.isBefore(limite)) {
+            LocalDate hastaArchivo = hasta.isBefore(limite) ? hasta : limite.minusDays(1);
+            porDia.keySet().removeIf(dia -> dia <= hastaArchivo.toEpochDay());
+            for (ConteoCitas conteo : archivados.apply(desde, hastaArchivo)) {
+                porDia.computeIfAbsent(conteo.fecha().toEpochDay(), k -> new long[ESTADOS.length])
+                        [conteo.estado().ordinal()] += conteo.total();
+            }
+        }
+
+        long[] totales = new long[ESTADOS.length];
+        List<EstadisticaDiaDTO> dias = new ArrayList<>();
+        for (long dia = desde.toEpochDay(); dia <= hasta.toEpochDay(); dia++) {
+            long[] valores = porDia.get(dia);
+            if (valores == null) {
+                continue;
+            }
+            long total = 0;
+            for (int i = 0; i < ESTADOS.length; i++) {
+                totales[i] += valores[i];
+                total += valores[i];
+            }
+            if (total > 0) {
+                dias.add(new EstadisticaDiaDTO(LocalDate.ofEpochDay(dia), porEstado(valores), total));
+            }
+        }
+        return new EstadisticasCitasDTO(medicoId, desde, hasta, porEstado(totales), dias);
+    }
+
+    /**
+     * Resume el estado de los contadores.
+     *
+     * @return si la carga ha terminado y el número de días contados
+     */
+    public Map<String, Object> estado() {
+        Contadores actuales = contadores;
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("listo", listo);
+        estado.put("diasMedico", actuales.porMedicoDia.size());
+        estado.put("dias", actuales.porDia.size());
+        return estado;
+    }
+
+    /**
+     * Sustituye los contadores de un médico y un día por el conteo actual de la base de datos.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día
+     */
+    private void recontar(Integer medicoId, LocalDate fecha) {
+        List<ConteoCitas> conteos = lecturaTemplate.execute(estado -> citaRepository.contarPorEstado(medicoId, fecha));
+        long[] deseados = new long[ESTADOS.length];
+        if (conteos != null) {
+            conteos.forEach(conteo -> deseados[conteo.estado().ordinal()] = conteo.total());
+        }
+        Contadores actuales = contadores;
+        LongAdder[] fila = actuales.porMedicoDia.get(clave(medicoId, fecha.toEpochDay()));
+        for (int i = 0; i < ESTADOS.length; i++) {
+            long diferencia = deseados[i] - (fila == null ? 0 : fila[i].sum());
+            if (diferencia != 0) {
+                actuales.sumar(medicoId, fecha, ESTADOS[i], diferencia);
+            }
+        }
+    }
+
+    private void anotarDuranteCarga(Integer medicoId, LocalDate fecha) {
+        if (cargando) {
+            modificadosDuranteCarga.add(clave(medicoId, fecha.toEpochDay()));
+        }
+    }
+
+    private static Map<Cita.Estado, Long> porEstado(long[] valores) {
+        Map<Cita.Estado, Long> mapa = new EnumMap<>(Cita.Estado.class);
+        for (int i = 0; i < ESTADOS.length; i++) {
+            mapa.put(ESTADOS[i], valores[i]);
+        }
+        return mapa;
+    }
+
+    private static boolean vacia(LongAdder[] fila) {
+        for (LongAdder contador : fila) {
+            if (contador.sum() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long clave(Integer medicoId, long dia) {
+        return ((long) medicoId << 32) | (dia & 0xFFFF_FFFFL);
+    }
+
+    private static Integer medico(long clave) {
+        return (int) (clave >>> 32);
+    }
+
+    private static long dia(long clave) {
+        return (int) clave;
+    }
+
+    /**
+     * Contadores por (médico, día) y por día, con un {@link LongAdder} por estado.
+     */
+    private static final class Contadores {
+
+        private final ConcurrentHashMap<Long, LongAdder[]> porMedicoDia = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, LongAdder[]> porDia = new ConcurrentHashMap<>();
+
+        /**
+         * Suma una cantidad a los contadores de un médico, día y estado. La suma se hace
+         * dentro de <code>compute</code> para que no se pierda si a la vez se elimina la
+         * fila por quedar a cero tras archivar.
+         */
+        void sumar(Integer medicoId, LocalDate fecha, Cita.Estado estado, long cantidad) {
+            long dia = fecha.toEpochDay();
+            porMedicoDia.compute(clave(medicoId, dia), (k, fila) -> sumar(fila, estado, cantidad));
+            porDia.compute(dia, (k, fila) -> sumar(fila, estado, cantidad));
+        }
+
+        private static LongAdder[] sumar(LongAdder[] fila, Cita.Estado estado, long cantidad) {
+            LongAdder[] destino = fila == null ? nuevaFila() : fila;
+            destino[estado.ordinal()].add(cantidad);
+            return destino;
+        }
+
+        private static LongAdder[] nuevaFila() {
+            LongAdder[] fila = new LongAdder[ESTADOS.length];
+            for (int i = 0; i < fila.length; i++) {
+                fila[i] = new LongAdder();
+            }
+            return fila;
+        }
+    }
+}
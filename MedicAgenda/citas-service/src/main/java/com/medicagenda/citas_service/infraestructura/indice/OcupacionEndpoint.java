@@ -0,0 +1,35 @@
+package com.medicagenda.citas_service.infraestructura.indice;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator que compara el {@link OcupacionIndex} con la base de datos.
+ * <p>
+ * Disponible en <code>/actuator/ocupacion</code>. Recorre la tabla de citas
+ * completa, por lo que está pensado para verificaciones puntuales.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@Endpoint(id = "ocupacion")
+@RequiredArgsConstructor
+public class OcupacionEndpoint {
+
+    private final OcupacionIndex ocupacionIndex;
+
+    /**
+     * Verifica la consistencia del índice de ocupación.
+     *
+     * @return resumen de la verificación
+     */
+    @ReadOperation
+    public Map<String, Object> verificar() {
+        return ocupacionIndex.verificar();
+    }
+}
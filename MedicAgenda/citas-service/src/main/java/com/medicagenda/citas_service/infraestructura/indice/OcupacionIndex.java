@@ -0,0 +1,316 @@
+package com.medicagenda.citas_service.infraestructura.indice;
+
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.infraestructura.evento.CitaModificadaEvent;
+import com.medicagenda.citas_service.infraestructura.evento.CitasArchivadasEvent;
+import com.medicagenda.citas_service.infraestructura.repository.CitaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria de los minutos ocupados por cada médico y cada paciente.
+ * <p>
+ * Para cada par (usuario, día) guarda un mapa de bits de 1440 posiciones, una por
+ * minuto del día (23 palabras de 64 bits), y cuenta aparte las citas adicionales de
+ * los minutos que comparten varias citas. Se construye al arrancar a partir de
+ * {@link CitaRepository} y se mantiene con los {@link CitaModificadaEvent} que
+ * publica el adaptador de citas. Solo se almacenan los días con citas de la tabla
+ * <code>cita</code>: las citas archivadas se descartan con los {@link CitasArchivadasEvent}.
+ * </p>
+ *
+ * <ul>
+ *     <li>Si el bit de un minuto está a cero, el horario está libre con seguridad.</li>
+ *     <li>Si está a uno, el horario puede estar ocupado y debe confirmarse en la base de datos
+ *     (dos citas pueden compartir minuto con distinto segundo).</li>
+ *     <li>Un minuto compartido sigue ocupado hasta que se libera su última cita.</li>
+ *     <li>Mientras el índice se carga, todos los horarios se consideran posiblemente ocupados.</li>
+ * </ul>
+ *
+ * Las restricciones únicas de la tabla siguen siendo la garantía final contra duplicados.
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class OcupacionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(OcupacionIndex.class);
+
+    private final CitaRepository citaRepository;
+    private final TransactionTemplate lecturaTemplate;
+    private final MapaOcupacion medicos = new MapaOcupacion();
+    private final MapaOcupacion pacientes = new MapaOcupacion();
+    private volatile boolean listo;
+
+    /**
+     * Crea el índice vacío.
+     *
+     * @param citaRepository     repositorio de citas usado para la carga inicial
+     * @param transactionManager gestor de transacciones para leer las citas
+     */
+    public OcupacionIndex(CitaRepository citaRepository, PlatformTransactionManager transactionManager) {
+        this.citaRepository = citaRepository;
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Carga el índice con todas las citas existentes al terminar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.nanoTime();
+        long citas = recorrerHorarios(horario -> {
+            medicos.ocupar(horario.medicoId(), horario.fecha(), horario.hora());
+            pacientes.ocupar(horario.pacienteId(), horario.fecha(), horario.hora());
+        });
+        listo = true;
+        log.info("Índice de ocupación cargado con {} citas en {} ms", citas, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Actualiza el índice tras un cambio en una cita.
+     *
+     * @param evento cambio realizado
+     */
+    @EventListener
+    public void alModificarCita(CitaModificadaEvent evento) {
+        CitaHorario anterior = evento.anterior();
+        if (anterior != null) {
+            medicos.liberar(anterior.medicoId(), anterior.fecha(), anterior.hora());
+            pacientes.liberar(anterior.pacienteId(), anterior.fecha(), anterior.hora());
+        }
+        CitaHorario actual = evento.actual();
+        if (actual != null) {
+            medicos.ocupar(actual.medicoId(), actual.fecha(), actual.hora());
+            pacientes.ocupar(actual.pacienteId(), actual.fecha(), actual.hora());
+        }
+    }
+
+    /**
+     * Libera los minutos de las citas trasladadas al archivo.
+     *
+     * @param evento lote de citas archivadas
+     */
+    @EventListener
+    public void alArchivarCitas(CitasArchivadasEvent evento) {
+        for (CitaHorario horario : evento.horarios()) {
+            medicos.liberar(horario.medicoId(), horario.fecha(), horario.hora());
+            pacientes.liberar(horario.pacienteId(), horario.fecha(), horario.hora());
+        }
+    }
+
+    /**
+     * Indica si el médico puede tener una cita en la fecha y hora indicadas.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    fecha
+     * @param hora     hora
+     * @return false si el horario está libre con seguridad; true si hay que confirmarlo
+     */
+    public boolean medicoPosiblementeOcupado(Integer medicoId, LocalDate fecha, LocalTime hora) {
+        return !listo || medicos.ocupado(medicoId, fecha, hora);
+    }
+
+    /**
+     * Indica si el paciente puede tener una cita en la fecha y hora indicadas.
+     *
+     * @param pacienteId ID del paciente
+     * @param fecha      fecha
+     * @param hora       hora
+     * @return false si el horario está libre con seguridad; true si hay que confirmarlo
+     */
+    public boolean pacientePosiblementeOcupado(Integer pacienteId, LocalDate fecha, LocalTime hora) {
+        return !listo || pacientes.ocupado(pacienteId, fecha, hora);
+    }
+
+    /**
+     * Compara el índice con el contenido actual de la base de datos.
+     *
+     * @return resumen con el número de días indexados y de días con diferencias
+     */
+    public Map<String, Object> verificar() {
+        MapaOcupacion medicosBd = new MapaOcupacion();
+        MapaOcupacion pacientesBd = new MapaOcupacion();
+        long citas = recorrerHorarios(horario -> {
+            medicosBd.ocupar(horario.medicoId(), horario.fecha(), horario.hora());
+            pacientesBd.ocupar(horario.pacienteId(), horario.fecha(), horario.hora());
+        });
+        long diferenciasMedicos = medicos.diferencias(medicosBd);
+        long diferenciasPacientes = pacientes.diferencias(pacientesBd);
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("listo", listo);
+        resultado.put("citas", citas);
+        resultado.put("diasMedico", medicos.tamano());
+        resultado.put("diasPaciente", pacientes.tamano());
+        resultado.put("diferenciasMedico", diferenciasMedicos);
+        resultado.put("diferenciasPaciente", diferenciasPacientes);
+        resultado.put("consistente", diferenciasMedicos == 0 && diferenciasPacientes == 0);
+        return resultado;
+    }
+
+    /**
+     * Recorre los datos de agenda de todas las citas en una transacción de solo lectura.
+     *
+     * @param consumidor función que recibe cada horario
+     * @return número de citas recorridas
+     */
+    private long recorrerHorarios(Consumer<CitaHorario> consumidor) {
+        Long total = lecturaTemplate.execute(estado -> {
+            long[] contador = {0};
+            try (Stream<CitaHorario> horarios = citaRepository.streamHorarios()) {
+                horarios.forEach(horario -> {
+                    consumidor.accept(horario);
+                    contador[0]++;
+                });
+            }
+            return contador[0];
+        });
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Mapa de (usuario, día) a los minutos ocupados de ese día.
+     * <p>
+     * Cada día se modifica dentro de {@link ConcurrentHashMap#compute}, de modo que
+     * ocupar y liberar minutos del mismo día no se pisan y un día se elimina en cuanto
+     * no le queda ningún minuto ocupado. Las consultas leen los bits sin bloquear.
+     * </p>
+     */
+    static final class MapaOcupacion {
+
+        private static final int MINUTOS_DIA = 24 * 60;
+        private static final int PALABRAS = (MINUTOS_DIA + 63) / 64;
+
+        private final ConcurrentHashMap<Long, Dia> dias = new ConcurrentHashMap<>();
+
+        void ocupar(Integer usuarioId, LocalDate fecha, LocalTime hora) {
+            int minuto = minuto(hora);
+            dias.compute(clave(usuarioId, fecha), (clave, dia) -> {
+                Dia ocupado = dia == null ? new Dia() : dia;
+                ocupado.ocupar(minuto);
+                return ocupado;
+            });
+        }
+
+        void liberar(Integer usuarioId, LocalDate fecha, LocalTime hora) {
+            int minuto = minuto(hora);
+            dias.computeIfPresent(clave(usuarioId, fecha), (clave, dia) -> dia.liberar(minuto) ? null : dia);
+        }
+
+        boolean ocupado(Integer usuarioId, LocalDate fecha, LocalTime hora) {
+            Dia dia = dias.get(clave(usuarioId, fecha));
+            return dia != null && dia.ocupado(minuto(hora));
+        }
+
+        int tamano() {
+            return dias.size();
+        }
+
+        /**
+         * Cuenta los días cuyos minutos ocupados difieren de los de otro mapa.
+         */
+        long diferencias(MapaOcupacion otro) {
+            long diferencias = 0;
+            for (Map.Entry<Long, Dia> dia : dias.entrySet()) {
+                if (!dia.getValue().igual(otro.dias.get(dia.getKey()))) {
+                    diferencias++;
+                }
+            }
+            for (Long clave : otro.dias.keySet()) {
+                if (!dias.containsKey(clave)) {
+                    diferencias++;
+                }
+            }
+            return diferencias;
+        }
+
+        private static long clave(Integer usuarioId, LocalDate fecha) {
+            return ((long) usuarioId << 32) | (fecha.toEpochDay() & 0xFFFF_FFFFL);
+        }
+
+        private static int minuto(LocalTime hora) {
+            return hora.getHour() * 60 + hora.getMinute();
+        }
+
+        /**
+         * Minutos ocupados de un día. El bit de un minuto está a uno mientras tenga alguna
+         * cita; las citas adicionales de un minuto se cuentan en <code>repetidos</code>,
+         * que solo existe mientras dos citas comparten minuto.
+         */
+        private static final class Dia {
+
+            private final AtomicLongArray bits = new AtomicLongArray(PALABRAS);
+            private volatile Map<Integer, Integer> repetidos;
+            private int minutos;
+
+            void ocupar(int minuto) {
+                if (ocupado(minuto)) {
+                    if (repetidos == null) {
+                        repetidos = new ConcurrentHashMap<>();
+                    }
+                    repetidos.merge(minuto, 1, Integer::sum);
+                    return;
+                }
+                bits.set(minuto >>> 6, bits.get(minuto >>> 6) | (1L << (minuto & 63)));
+                minutos++;
+            }
+
+            /**
+             * Libera una cita de un minuto.
+             *
+             * @return true si el día queda sin minutos ocupados
+             */
+            boolean liberar(int minuto) {
+                if (!ocupado(minuto)) {
+                    return minutos == 0;
+                }
+                Integer adicionales = repetidos == null ? null : repetidos.get(minuto);
+                if (adicionales != null) {
+                    if (adicionales > 1) {
+                        repetidos.put(minuto, adicionales - 1);
+                    } else {
+                        repetidos.remove(minuto);
+                        if (repetidos.isEmpty()) {
+                            repetidos = null;
+                        }
+                    }
+                    return false;
+                }
+                bits.set(minuto >>> 6, bits.get(minuto >>> 6) & ~(1L << (minuto & 63)));
+                return --minutos == 0;
+            }
+
+            boolean ocupado(int minuto) {
+                return (bits.get(minuto >>> 6) & (1L << (minuto & 63))) != 0;
+            }
+
+            boolean igual(Dia otro) {
+                if (otro == null) {
+                    return false;
+                }
+                for (int i = 0; i < PALABRAS; i++) {
+                    if (bits.get(i) != otro.bits.get(i)) {
+                        return false;
+                    }
+                }
+                return Objects.equals(repetidos, otro.repetidos);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.medicagenda.citas_service.infraestructura.limite;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicagenda.citas_service.infraestructura.config.LimiteTasaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador de peticiones por cliente con cubetas de fichas (token bucket).
+ * <p>
+ * Cada cliente tiene una cubeta por clase de petición (lecturas y escrituras). La
+ * cubeta se representa con un único {@link AtomicLong}: el instante teórico en que
+ * la cubeta volvería a estar vacía si no se repusiera (algoritmo GCRA). Admitir una
+ * petición es avanzarlo un intervalo con compareAndSet, sin bloqueos, y se rechaza
+ * si quedaría más de una capacidad por delante del instante actual.
+ * </p>
+ *
+ * <ul>
+ *     <li>Las cubetas se guardan en una caché con un máximo de clientes.</li>
+ *     <li>Una cubeta sin uso se descarta cuando ha tenido tiempo de llenarse, momento
+ *     en que equivale a una nueva, por lo que descartarla no cambia el límite.</li>
+ * </ul>
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class LimitadorTasa {
+
+    private final Map<Clase, Cubetas> cubetas = new EnumMap<>(Clase.class);
+
+    /**
+     * Crea el limitador con las cubetas de cada clase de petición.
+     *
+     * @param config   configuración de los límites
+     * @param registry registro de métricas de Micrometer
+     */
+    public LimitadorTasa(LimiteTasaProperties config, MeterRegistry registry) {
+        cubetas.put(Clase.LECTURA, new Cubetas(Clase.LECTURA, config.getLecturas(), config.getMaximoClientes(), registry));
+        cubetas.put(Clase.ESCRITURA, new Cubetas(Clase.ESCRITURA, config.getEscrituras(), config.getMaximoClientes(), registry));
+    }
+
+    /**
+     * Intenta admitir una petición de un cliente.
+     *
+     * @param clase   clase de la petición
+     * @param cliente identificador del cliente
+     * @return 0 si se admite, o nanosegundos que faltan para que se admitiría
+     */
+    public long intentar(Clase clase, String cliente) {
+        return cubetas.get(clase).intentar(cliente);
+    }
+
+    /**
+     * Clase de petición, cada una con su propio límite.
+     */
+    public enum Clase {
+        LECTURA,
+        ESCRITURA
+    }
+
+    /**
+     * Cubetas de todos los clientes para una clase de petición.
+     */
+    private static final class Cubetas {
+
+        private final long intervalo;
+        private final long tolerancia;
+        private final Cache<String, AtomicLong> porCliente;
+        private final Counter rechazadas;
+
+        Cubetas(Clase clase, LimiteTasaProperties.Limite limite, long maximoClientes, MeterRegistry registry) {
+            if (limite.getCapacidad() < 1 || limite.getPorSegundo() <= 0) {
+                throw new IllegalArgumentException("El límite de " + clase + " necesita capacidad y ritmo positivos");
+            }
+            this.intervalo = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / limite.getPorSegundo()));
+            // Con la cubeta llena caben «capacidad» peticiones seguidas: la primera no avanza
+            // el instante por encima del actual y las demás gastan la tolerancia
+            this.tolerancia = (limite.getCapacidad() - 1) * intervalo;
+            this.porCliente = Caffeine.newBuilder()
+                    .maximumSize(maximoClientes)
+                    .expireAfterAccess(Duration.ofNanos(Math.max(tolerancia + intervalo, TimeUnit.SECONDS.toNanos(1))))
+                    .build();
+            String etiqueta = clase.name().toLowerCase();
+            this.rechazadas = Counter.builder("citas.limite.rechazadas")
+                    .description("Peticiones rechazadas por superar el límite del cliente")
+                    .tag("clase", etiqueta)
+                    .register(registry);
+            Gauge.builder("citas.limite.clientes", porCliente, Cache::estimatedSize)
+                    .description("Clientes con cubeta en memoria")
+                    .tag("clase", etiqueta)
+                    .register(registry);
+        }
+
+        long intentar(String cliente) {
+            long ahora = System.nanoTime();
+            AtomicLong vacia = porCliente.get(cliente, clave -> new AtomicLong(ahora - intervalo));
+            while (true) {
+                long actual = vacia.get();
+                long siguiente = Math.max(actual, ahora - intervalo) + intervalo;
+                long exceso = siguiente - ahora - tolerancia;
+                if (exceso > 0) {
+                    rechazadas.increment();
+                    return exceso;
+                }
+                if (vacia.compareAndSet(actual, siguiente)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
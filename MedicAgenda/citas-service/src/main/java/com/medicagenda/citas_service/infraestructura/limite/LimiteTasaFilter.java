@@ -0,0 +1,96 @@
+package com.medicagenda.citas_service.infraestructura.limite;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicagenda.citas_service.infraestructura.config.LimiteTasaProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro que aplica el límite de peticiones por cliente antes de llegar a los controladores.
+ * <p>
+ * Se aplica a las rutas <code>/api/</code>; Actuator y la documentación quedan fuera.
+ * El cliente se identifica por la cabecera configurada solo si trae una de las claves
+ * conocidas; con cualquier otro valor, o sin ella, se identifica por su dirección IP.
+ * Las peticiones que superan el límite se responden con <code>429 Too Many Requests</code>
+ * y la cabecera <code>Retry-After</code>, sin ocupar la conexión a la base de datos ni
+ * consultar usuarios-service.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    private final LimitadorTasa limitador;
+    private final LimiteTasaProperties config;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isHabilitado() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long espera = limitador.intentar(clase(request.getMethod()), cliente(request));
+        if (espera == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + TimeUnit.SECONDS.toNanos(1) - 1));
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("mensaje", "Demasiadas peticiones; vuelva a intentarlo en " + segundos + " s.");
+        error.put("codigo", HttpStatus.TOO_MANY_REQUESTS.value());
+        error.put("timestamp", LocalDateTime.now());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    /**
+     * Obtiene la clase de una petición según su método HTTP.
+     *
+     * @param metodo método HTTP
+     * @return LECTURA para GET, HEAD y OPTIONS; ESCRITURA para el resto
+     */
+    static LimitadorTasa.Clase clase(String metodo) {
+        return switch (metodo) {
+            case "GET", "HEAD", "OPTIONS" -> LimitadorTasa.Clase.LECTURA;
+            default -> LimitadorTasa.Clase.ESCRITURA;
+        };
+    }
+
+    /**
+     * Identifica al cliente de una petición.
+     *
+     * @param request petición HTTP
+     * @return clave de la cabecera de cliente si es conocida, o la dirección IP en otro caso
+     */
+    private String cliente(HttpServletRequest request) {
+        String cliente = request.getHeader(config.getCabeceraCliente());
+        if (cliente != null && config.getClavesConocidas().contains(cliente)) {
+            return "cliente:" + cliente;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
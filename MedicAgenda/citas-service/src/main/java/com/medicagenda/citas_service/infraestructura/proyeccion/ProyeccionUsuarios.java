@@ -0,0 +1,412 @@
+package com.medicagenda.citas_service.infraestructura.proyeccion;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioEvento;
+import com.medicagenda.citas_service.dominio.model.UsuarioEventoPagina;
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.dominio.model.UsuarioTiposInstantanea;
+import com.medicagenda.citas_service.dominio.port.out.UsuarioEventoFuentePort;
+import com.medicagenda.citas_service.entity.ProyeccionEstado;
+import com.medicagenda.citas_service.entity.UsuarioTipoProyectado;
+import com.medicagenda.citas_service.infraestructura.config.UsuariosServiceProperties;
+import com.medicagenda.citas_service.infraestructura.repository.ProyeccionEstadoRepository;
+import com.medicagenda.citas_service.infraestructura.repository.UsuarioTipoProyectadoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Copia local del tipo de cada usuario, mantenida con los eventos de usuarios-service.
+ * <p>
+ * Guarda los tipos en la tabla <code>usuario_tipo</code> y en un mapa en memoria,
+ * de modo que validar un paciente o un médico no requiere consultar
+ * usuarios-service. Una tarea programada lee cada
+ * <code>usuarios-service.proyeccion.intervalo</code> los eventos posteriores al
+ * último aplicado, cuya posición se guarda en <code>proyeccion_estado</code>.
+ * </p>
+ *
+ * <ul>
+ *     <li>Al arrancar carga la tabla; si está vacía, lee la instantánea completa de usuarios-service.</li>
+ *     <li>Cada lectura repite los últimos <code>usuarios-service.proyeccion.solape</code> eventos,
+ *     para recoger los que se confirmaron fuera de orden; un evento solo se aplica si es
+ *     posterior al último aplicado a su usuario. El solape debe ser menor que
+ *     <code>usuarios-service.proyeccion.tamano-lote</code>, para que cada página traiga
+ *     al menos un evento nuevo si los hay.</li>
+ *     <li>Los usuarios eliminados se conservan con tipo DESCONOCIDO.</li>
+ *     <li>El mapa en memoria se actualiza después de confirmar la transacción, por lo que
+ *     nunca va por delante de la tabla.</li>
+ * </ul>
+ *
+ * Publica las métricas <code>usuarios.proyeccion.usuarios</code>,
+ * <code>usuarios.proyeccion.eventos.pendientes</code>, <code>usuarios.proyeccion.retraso</code>
+ * (segundos desde la última vez que la copia estuvo al día) y
+ * <code>usuarios.proyeccion.eventos.aplicados</code>.
+ *
+ * @since 2025-06-19
+ */
+@Component
+public class ProyeccionUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(ProyeccionUsuarios.class);
+
+    /** Nombre de la proyección en <code>proyeccion_estado</code>. */
+    static final String NOMBRE = "usuario_tipo";
+
+    /** Número de filas escritas en cada transacción al guardar la instantánea. */
+    private static final int FILAS_POR_TRANSACCION = 1000;
+
+    private final UsuarioEventoFuentePort fuente;
+    private final UsuarioTipoProyectadoRepository tipoRepository;
+    private final ProyeccionEstadoRepository estadoRepository;
+    private final TransactionTemplate escrituraTemplate;
+    private final TransactionTemplate lecturaTemplate;
+    private final UsuariosServiceProperties.Proyeccion config;
+    private final ReentrantLock sincronizacion = new ReentrantLock();
+    /** IDs de los eventos ya aplicados dentro de la ventana de solape; solo se usa con {@link #sincronizacion} tomado. */
+    private final TreeSet<Long> eventosVistos = new TreeSet<>();
+    private final Counter eventosAplicados;
+    private final Counter errores;
+
+    private volatile Map<Integer, UsuarioTipo> tipos = new ConcurrentHashMap<>();
+    private volatile boolean lista;
+    private volatile long ultimoEventoAplicado;
+    private volatile long ultimoEventoRemoto;
+    private volatile Instant alDia = Instant.now();
+    private volatile Instant ultimaSincronizacion;
+
+    /**
+     * Crea la proyección vacía y registra sus métricas.
+     *
+     * @param fuente             origen de los eventos de usuario
+     * @param tipoRepository     repositorio de la tabla <code>usuario_tipo</code>
+     * @param estadoRepository   repositorio de la tabla <code>proyeccion_estado</code>
+     * @param transactionManager gestor de transacciones
+     * @param properties         configuración de la integración con usuarios-service
+     * @param registry           registro de métricas de Micrometer
+     * @throws IllegalArgumentException si el solape no es menor que el tamaño de lote
+     */
+    public ProyeccionUsuarios(UsuarioEventoFuentePort fuente,
+                              UsuarioTipoProyectadoRepository tipoRepository,
+                              ProyeccionEstadoRepository estadoRepository,
+                              PlatformTransactionManager transactionManager,
+                              UsuariosServiceProperties properties,
+                              MeterRegistry registry) {
+        this.fuente = fuente;
+        this.tipoRepository = tipoRepository;
+        this.estadoRepository = estadoRepository;
+        this.escrituraTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.config = properties.getProyeccion();
+        // Con un solape igual o mayor que el lote, una página podría contener solo eventos
+        // ya aplicados y la lectura no avanzaría nunca
+        if (config.getTamanoLote() < 1 || config.getSolape() < 0 || config.getSolape() >= config.getTamanoLote()) {
+            throw new IllegalArgumentException("usuarios-service.proyeccion.solape debe estar entre 0 y "
+                    + "usuarios-service.proyeccion.tamano-lote menos uno.");
+        }
+
+        Gauge.builder("usuarios.proyeccion.usuarios", this, proyeccion -> proyeccion.tipos.size())
+                .description("Usuarios en la copia local de tipos")
+                .register(registry);
+        Gauge.builder("usuarios.proyeccion.eventos.pendientes", this, ProyeccionUsuarios::eventosPendientes)
+                .description("Eventos de usuarios-service aún no aplicados a la copia local")
+                .register(registry);
+        Gauge.builder("usuarios.proyeccion.retraso", this, ProyeccionUsuarios::retrasoSegundos)
+                .description("Tiempo desde la última vez que la copia local estuvo al día")
+                .baseUnit("seconds")
+                .register(registry);
+        this.eventosAplicados = Counter.builder("usuarios.proyeccion.eventos.aplicados")
+                .description("Eventos de usuarios-service aplicados a la copia local")
+                .register(registry);
+        this.errores = Counter.builder("usuarios.proyeccion.errores")
+                .description("Sincronizaciones de la copia local de tipos que fallaron")
+                .register(registry);
+    }
+
+    /**
+     * Indica si la copia local está cargada y puede usarse para validar.
+     *
+     * @return true si está habilitada y cargada
+     */
+    public boolean lista() {
+        return config.isHabilitada() && lista;
+    }
+
+    /**
+     * Obtiene el tipo de un usuario de la copia local.
+     *
+     * @param usuarioId ID del usuario
+     * @return tipo del usuario, DESCONOCIDO si se eliminó, o null si no está en la copia
+     *         o la copia no está lista
+     */
+    public UsuarioTipo tipo(Integer usuarioId) {
+        return lista() ? tipos.get(usuarioId) : null;
+    }
+
+    /**
+     * Aplica los eventos nuevos de usuarios-service; la primera vez carga antes la copia.
+     * Los errores se registran y la lectura se reintenta en la siguiente ejecución.
+     */
+    @Scheduled(fixedDelayString = "${usuarios-service.proyeccion.intervalo:1s}")
+    public void sincronizar() {
+        if (!config.isHabilitada()) {
+            return;
+        }
+        sincronizacion.lock();
+        try {
+            if (!lista) {
+                cargar();
+            }
+            leerEventos();
+        } catch (RuntimeException e) {
+            errores.increment();
+            log.warn("No se pudo sincronizar la copia local de tipos de usuario: {}", e.getMessage());
+        } finally {
+            sincronizacion.unlock();
+        }
+    }
+
+    /**
+     * Descarta la copia local y la reconstruye a partir de la instantánea completa
+     * de usuarios-service.
+     *
+     * @return estado de la proyección tras reconstruirla, o el error si falló
+     */
+    public Map<String, Object> resincronizar() {
+        if (!config.isHabilitada()) {
+            return estado();
+        }
+        sincronizacion.lock();
+        try {
+            long inicio = System.nanoTime();
+            cargarInstantanea();
+            leerEventos();
+            Map<String, Object> resultado = estado();
+            resultado.put("duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+            return resultado;
+        } catch (RuntimeException e) {
+            errores.increment();
+            log.warn("No se pudo reconstruir la copia local de tipos de usuario: {}", e.getMessage());
+            Map<String, Object> resultado = estado();
+            resultado.put("error", e.getMessage());
+            return resultado;
+        } finally {
+            sincronizacion.unlock();
+        }
+    }
+
+    /**
+     * Resume el estado de la proyección.
+     *
+     * @return estado de la proyección
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitada", config.isHabilitada());
+        estado.put("lista", lista);
+        estado.put("usuarios", tipos.size());
+        estado.put("ultimoEventoAplicado", ultimoEventoAplicado);
+        estado.put("ultimoEventoRemoto", ultimoEventoRemoto);
+        estado.put("eventosPendientes", eventosPendientes());
+        estado.put("retrasoSegundos", retrasoSegundos());
+        estado.put("ultimaSincronizacion", ultimaSincronizacion);
+        estado.put("eventosAplicados", (long) eventosAplicados.count());
+        return estado;
+    }
+
+    /**
+     * Carga la copia desde la tabla si ya se guardó una posición; si no, desde la
+     * instantánea de usuarios-service.
+     */
+    private void cargar() {
+        Optional<ProyeccionEstado> estado = lecturaTemplate.execute(s -> estadoRepository.findById(NOMBRE));
+        if (estado == null || estado.isEmpty()) {
+            cargarInstantanea();
+            return;
+        }
+        long inicio = System.nanoTime();
+        Map<Integer, UsuarioTipo> cargados = new ConcurrentHashMap<>();
+        lecturaTemplate.executeWithoutResult(s -> {
+            try (Stream<UsuarioTipoProyectado> filas = tipoRepository.streamTodos()) {
+                filas.forEach(fila -> cargados.put(fila.getUsuarioId(), fila.getTipo()));
+            }
+        });
+        publicar(cargados, estado.get().getUltimoEventoId());
+        log.info("Copia local de tipos de usuario cargada con {} usuarios en {} ms (evento {})",
+                cargados.size(), (System.nanoTime() - inicio) / 1_000_000, ultimoEventoAplicado);
+    }
+
+    /**
+     * Lee la instantánea completa de usuarios-service y reemplaza con ella la tabla y
+     * el mapa en memoria. La posición se borra junto con la tabla y se guarda al
+     * final, de modo que una carga interrumpida se repite completa en el siguiente arranque.
+     */
+    private void cargarInstantanea() {
+        long inicio = System.nanoTime();
+        Map<Integer, UsuarioTipo> leidos = new HashMap<>();
+        long posicion = -1;
+        int despuesDe = 0;
+        while (true) {
+            UsuarioTiposInstantanea pagina = fuente.leerInstantanea(despuesDe, config.getTamanoInstantanea());
+            if (posicion < 0) {
+                posicion = pagina.ultimoEventoId();
+            }
+            leidos.putAll(pagina.tipos());
+            if (pagina.tipos().size() < config.getTamanoInstantanea()) {
+                break;
+            }
+            despuesDe = pagina.tipos().keySet().stream().mapToInt(Integer::intValue).max().orElseThrow();
+        }
+
+        escrituraTemplate.executeWithoutResult(s -> {
+            estadoRepository.deleteById(NOMBRE);
+            tipoRepository.deleteAllInBatch();
+        });
+        long evento = posicion;
+        List<UsuarioTipoProyectado> filas = new ArrayList<>(FILAS_POR_TRANSACCION);
+        for (Map.Entry<Integer, UsuarioTipo> entrada : leidos.entrySet()) {
+            filas.add(new UsuarioTipoProyectado(entrada.getKey(), entrada.getValue(), evento));
+            if (filas.size() == FILAS_POR_TRANSACCION) {
+                guardarFilas(filas);
+                filas.clear();
+            }
+        }
+        guardarFilas(filas);
+        escrituraTemplate.executeWithoutResult(s -> estadoRepository.save(new ProyeccionEstado(NOMBRE, evento)));
+
+        eventosVistos.clear();
+        publicar(new ConcurrentHashMap<>(leidos), evento);
+        log.info("Copia local de tipos de usuario reconstruida con {} usuarios en {} ms (evento {})",
+                leidos.size(), (System.nanoTime() - inicio) / 1_000_000, evento);
+    }
+
+    /**
+     * Lee y aplica los eventos posteriores al último aplicado hasta alcanzar el
+     * último publicado por usuarios-service.
+     */
+    private void leerEventos() {
+        while (true) {
+            long desde = Math.max(0, ultimoEventoAplicado - config.getSolape());
+            UsuarioEventoPagina pagina = fuente.leerEventos(desde, config.getTamanoLote());
+            ultimoEventoRemoto = pagina.ultimoEventoId();
+            long anterior = ultimoEventoAplicado;
+            aplicar(pagina.eventos());
+            if (pagina.eventos().size() < config.getTamanoLote() || ultimoEventoAplicado == anterior) {
+                break;
+            }
+        }
+        Instant ahora = Instant.now();
+        ultimaSincronizacion = ahora;
+        if (ultimoEventoAplicado >= ultimoEventoRemoto) {
+            alDia = ahora;
+        }
+    }
+
+    /**
+     * Aplica en una transacción los eventos aún no vistos y avanza la posición guardada.
+     *
+     * @param eventos eventos leídos, en orden de ID
+     */
+    private void aplicar(List<UsuarioEvento> eventos) {
+        List<UsuarioEvento> nuevos = eventos.stream().filter(evento -> !eventosVistos.contains(evento.id())).toList();
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        // El último evento de cada usuario en la página es el que determina su tipo
+        Map<Integer, UsuarioEvento> ultimos = nuevos.stream()
+                .collect(Collectors.toMap(UsuarioEvento::usuarioId, Function.identity(),
+                        (primero, segundo) -> segundo.id() > primero.id() ? segundo : primero, LinkedHashMap::new));
+        long posicion = Math.max(ultimoEventoAplicado, nuevos.stream().mapToLong(UsuarioEvento::id).max().orElse(0));
+
+        Map<Integer, UsuarioTipo> cambios = escrituraTemplate.execute(s -> {
+            Map<Integer, UsuarioTipoProyectado> existentes = tipoRepository.findAllById(ultimos.keySet()).stream()
+                    .collect(Collectors.toMap(UsuarioTipoProyectado::getUsuarioId, Function.identity()));
+            Map<Integer, UsuarioTipo> aplicados = new HashMap<>();
+            List<UsuarioTipoProyectado> nuevas = new ArrayList<>();
+            for (UsuarioEvento evento : ultimos.values()) {
+                UsuarioTipoProyectado fila = existentes.get(evento.usuarioId());
+                if (fila == null) {
+                    nuevas.add(new UsuarioTipoProyectado(evento.usuarioId(), evento.tipo(), evento.id()));
+                } else if (evento.id() > fila.getUltimoEventoId()) {
+                    fila.setTipo(evento.tipo());
+                    fila.setUltimoEventoId(evento.id());
+                } else {
+                    continue;
+                }
+                aplicados.put(evento.usuarioId(), evento.tipo());
+            }
+            tipoRepository.saveAll(nuevas);
+            ProyeccionEstado estado = estadoRepository.findById(NOMBRE)
+                    .orElseGet(() -> new ProyeccionEstado(NOMBRE, 0));
+            estado.setUltimoEventoId(posicion);
+            estado.setActualizado(LocalDateTime.now());
+            estadoRepository.save(estado);
+            return aplicados;
+        });
+
+        if (cambios != null) {
+            tipos.putAll(cambios);
+            eventosAplicados.increment(cambios.size());
+        }
+        ultimoEventoAplicado = posicion;
+        nuevos.forEach(evento -> eventosVistos.add(evento.id()));
+        // Los eventos anteriores a la próxima ventana de lectura ya no se vuelven a leer
+        eventosVistos.headSet(posicion - config.getSolape(), false).clear();
+    }
+
+    /**
+     * Inserta un bloque de filas en su propia transacción.
+     *
+     * @param filas filas nuevas
+     */
+    private void guardarFilas(List<UsuarioTipoProyectado> filas) {
+        if (!filas.isEmpty()) {
+            escrituraTemplate.executeWithoutResult(s -> tipoRepository.saveAll(filas));
+        }
+    }
+
+    /**
+     * Sustituye el mapa en memoria y la posición aplicada.
+     *
+     * @param nuevos tipos cargados
+     * @param evento ID del último evento reflejado en ellos
+     */
+    private void publicar(Map<Integer, UsuarioTipo> nuevos, long evento) {
+        tipos = nuevos;
+        ultimoEventoAplicado = evento;
+        ultimoEventoRemoto = Math.max(ultimoEventoRemoto, evento);
+        lista = true;
+    }
+
+    private long eventosPendientes() {
+        return Math.max(0, ultimoEventoRemoto - ultimoEventoAplicado);
+    }
+
+    private double retrasoSegundos() {
+        if (!config.isHabilitada()) {
+            return 0;
+        }
+        return Duration.between(alDia, Instant.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.medicagenda.citas_service.infraestructura.proyeccion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator de la {@link ProyeccionUsuarios}.
+ * <p>
+ * Disponible en <code>/actuator/proyeccionusuarios</code>. Con GET devuelve el estado
+ * y el retraso de la copia local; con POST la reconstruye desde la instantánea
+ * completa de usuarios-service.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@Endpoint(id = "proyeccionusuarios")
+@RequiredArgsConstructor
+public class ProyeccionUsuariosEndpoint {
+
+    private final ProyeccionUsuarios proyeccionUsuarios;
+
+    /**
+     * Obtiene el estado de la copia local de tipos de usuario.
+     *
+     * @return estado de la proyección
+     */
+    @ReadOperation
+    public Map<String, Object> estado() {
+        return proyeccionUsuarios.estado();
+    }
+
+    /**
+     * Reconstruye la copia local de tipos de usuario.
+     *
+     * @return estado de la proyección tras reconstruirla
+     */
+    @WriteOperation
+    public Map<String, Object> resincronizar() {
+        return proyeccionUsuarios.resincronizar();
+    }
+}
@@ -0,0 +1,241 @@
+package com.medicagenda.citas_service.infraestructura.repository;
+
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.dominio.model.CitaResumenDTO;
+import com.medicagenda.citas_service.dominio.model.ConteoCitas;
+import com.medicagenda.citas_service.entity.Cita;
+import com.medicagenda.citas_service.entity.CitaArchivada;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio JPA para las citas archivadas ({@link CitaArchivada}, tabla <code>cita_archivo</code>).
+ * <p>
+ * Ofrece las mismas consultas de lectura que {@link CitaRepository} para los
+ * listados que alcanzan fechas archivadas, y las sentencias con las que se
+ * trasladan las citas desde la tabla <code>cita</code>.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Repository
+public interface CitaArchivadaRepository extends JpaRepository<CitaArchivada, Integer>,
+        JpaSpecificationExecutor<CitaArchivada> {
+
+    /**
+     * Copia al archivo las citas indicadas de la tabla <code>cita</code> que siguen siendo
+     * anteriores a una fecha, con una sola sentencia INSERT ... SELECT y sin cargar las
+     * entidades. Debe ejecutarse dentro de una transacción.
+     *
+     * @param ids       IDs de las citas a copiar
+     * @param antesDe   fecha a partir de la cual no se copian citas
+     * @param archivada momento del traslado
+     * @return número de citas copiadas
+     */
+    @Modifying
+    @Query("INSERT INTO CitaArchivada (id, fecha, hora, estado, observaciones, pacienteId, medicoId, version, archivada) "
+            + "SELECT c.id, c.fecha, c.hora, c.estado, c.observaciones, c.pacienteId, c.medicoId, c.version, :archivada "
+            + "FROM Cita c WHERE c.id IN :ids AND c.fecha < :antesDe")
+    int copiarDesdeCitas(@Param("ids") Collection<Integer> ids, @Param("antesDe") LocalDate antesDe,
+                         @Param("archivada") Instant archivada);
+
+    /**
+     * Elimina las copias de las citas que siguen en la tabla <code>cita</code>, es decir,
+     * las que se modificaron mientras se archivaban. Debe ejecutarse dentro de una transacción.
+     *
+     * @param ids IDs de las citas copiadas
+     * @return número de copias eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM CitaArchivada a WHERE a.id IN :ids AND EXISTS (SELECT 1 FROM Cita c WHERE c.id = a.id)")
+    int deleteNoTrasladadas(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Obtiene los datos de agenda de las citas archivadas indicadas.
+     *
+     * @param ids IDs de las citas
+     * @return datos de agenda de las que están archivadas
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "a.id, a.medicoId, a.pacienteId, a.fecha, a.hora, a.estado) FROM CitaArchivada a WHERE a.id IN :ids")
+    List<CitaHorario> findHorariosByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Obtiene la fecha de la cita archivada más reciente.
+     *
+     * @return fecha más reciente del archivo, vacía si no hay citas archivadas
+     */
+    @Query("SELECT MAX(a.fecha) FROM CitaArchivada a")
+    Optional<LocalDate> findFechaMaxima();
+
+    /**
+     * Obtiene la versión de una cita archivada sin cargar la entidad.
+     *
+     * @param id identificador de la cita
+     * @return versión de la cita, si está archivada
+     */
+    @Query("SELECT a.version FROM CitaArchivada a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    /**
+     * Recorre todas las citas archivadas ordenadas por ID leyéndolas por bloques.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @return flujo de citas archivadas
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a FROM CitaArchivada a ORDER BY a.id")
+    Stream<CitaArchivada> streamAllByOrderById();
+
+    /**
+     * Obtiene los datos de agenda de las citas archivadas de un médico en un rango de fechas,
+     * ordenados por fecha y hora.
+     *
+     * @param medicoId ID del médico
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @return datos de agenda de las citas archivadas del médico
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "a.id, a.medicoId, a.pacienteId, a.fecha, a.hora, a.estado) FROM CitaArchivada a "
+            + "WHERE a.medicoId = :medicoId AND a.fecha BETWEEN :desde AND :hasta ORDER BY a.fecha, a.hora")
+    List<CitaHorario> findHorariosMedico(@Param("medicoId") Integer medicoId,
+                                         @Param("desde") LocalDate desde,
+                                         @Param("hasta") LocalDate hasta);
+
+    /**
+     * Recorre los datos de agenda de las citas archivadas de un rango de fechas,
+     * leyéndolos por bloques. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @param desde fecha inicial (inclusive)
+     * @param hasta fecha final (inclusive)
+     * @return flujo de datos de agenda
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "a.id, a.medicoId, a.pacienteId, a.fecha, a.hora, a.estado) FROM CitaArchivada a "
+            + "WHERE a.fecha BETWEEN :desde AND :hasta")
+    Stream<CitaHorario> streamHorariosEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Cuenta las citas activas y archivadas de un rango de fechas agrupándolas por médico,
+     * día y estado.
+     * <p>
+     * Ambas tablas se leen en una sola sentencia, y por tanto en una sola instantánea: una
+     * cita que se archiva mientras tanto se cuenta exactamente una vez.
+     * </p>
+     *
+     * @param medicoId ID del médico, o nulo para todos los médicos
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @return número de citas de cada médico, día y estado con alguna cita
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.ConteoCitas("
+            + "t.medicoId, t.fecha, t.estado, COUNT(*)) FROM ("
+            + "SELECT c.medicoId AS medicoId, c.fecha AS fecha, c.estado AS estado FROM Cita c "
+            + "WHERE (:medicoId IS NULL OR c.medicoId = :medicoId) AND c.fecha BETWEEN :desde AND :hasta "
+            + "UNION ALL "
+            + "SELECT a.medicoId, a.fecha, a.estado FROM CitaArchivada a "
+            + "WHERE (:medicoId IS NULL OR a.medicoId = :medicoId) AND a.fecha BETWEEN :desde AND :hasta) t "
+            + "GROUP BY t.medicoId, t.fecha, t.estado")
+    List<ConteoCitas> contarConActivasEntre(@Param("medicoId") Integer medicoId,
+                                            @Param("desde") LocalDate desde,
+                                            @Param("hasta") LocalDate hasta);
+
+    /**
+     * Obtiene los resúmenes de las citas archivadas de un médico. Mismo contrato que
+     * {@link CitaRepository#findResumenesMedico}.
+     *
+     * @param medicoId    ID del médico
+     * @param desde       fecha inicial (inclusive)
+     * @param hasta       fecha final (inclusive)
+     * @param estado      estado de las citas, o nulo para todos
+     * @param cursorFecha fecha de la última cita de la página anterior, o nulo para la primera página
+     * @param cursorHora  hora de la última cita de la página anterior
+     * @param limite      número máximo de resúmenes
+     * @return resúmenes ordenados por fecha y hora
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaResumenDTO("
+            + "a.id, a.medicoId, a.pacienteId, a.fecha, a.hora, a.estado) FROM CitaArchivada a "
+            + "WHERE a.medicoId = :medicoId AND a.fecha BETWEEN :desde AND :hasta "
+            + "AND (:estado IS NULL OR a.estado = :estado) "
+            + "AND (:cursorFecha IS NULL OR a.fecha > :cursorFecha OR (a.fecha = :cursorFecha AND a.hora > :cursorHora)) "
+            + "ORDER BY a.fecha, a.hora")
+    List<CitaResumenDTO> findResumenesMedico(@Param("medicoId") Integer medicoId,
+                                             @Param("desde") LocalDate desde,
+                                             @Param("hasta") LocalDate hasta,
+                                             @Param("estado") Cita.Estado estado,
+                                             @Param("cursorFecha") LocalDate cursorFecha,
+                                             @Param("cursorHora") LocalTime cursorHora,
+                                             Limit limite);
+
+    /**
+     * Obtiene los resúmenes de las citas archivadas de un paciente, de la más reciente
+     * a la más antigua. Mismo contrato que {@link CitaRepository#findHistorialPaciente}.
+     *
+     * @param pacienteId  ID del paciente
+     * @param estado      estado de las citas, o nulo para todos
+     * @param cursorFecha fecha de la última cita de la página anterior, o nulo para la primera página
+     * @param cursorHora  hora de la última cita de la página anterior
+     * @param limite      número máximo de resúmenes
+     * @return resúmenes ordenados por fecha y hora descendentes
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaResumenDTO("
+            + "a.id, a.medicoId, a.pacienteId, a.fecha, a.hora, a.estado) FROM CitaArchivada a "
+            + "WHERE a.pacienteId = :pacienteId "
+            + "AND (:estado IS NULL OR a.estado = :estado) "
+            + "AND (:cursorFecha IS NULL OR a.fecha < :cursorFecha OR (a.fecha = :cursorFecha AND a.hora < :cursorHora)) "
+            + "ORDER BY a.fecha DESC, a.hora DESC")
+    List<CitaResumenDTO> findHistorialPaciente(@Param("pacienteId") Integer pacienteId,
+                                               @Param("estado") Cita.Estado estado,
+                                               @Param("cursorFecha") LocalDate cursorFecha,
+                                               @Param("cursorHora") LocalTime cursorHora,
+                                               Limit limite);
+
+    /**
+     * Obtiene los resúmenes de las citas archivadas en un estado. Mismo contrato que
+     * {@link CitaRepository#findResumenesPorEstado}.
+     *
+     * @param estado      estado de las citas
+     * @param desde       fecha inicial (inclusive)
+     * @param hasta       fecha final (inclusive)
+     * @param cursorFecha fecha de la última cita de la página anterior, o nulo para la primera página
+     * @param cursorHora  hora de la última cita de la página anterior
+     * @param cursorId    ID de la última cita de la página anterior
+     * @param limite      número máximo de resúmenes
+     * @return resúmenes ordenados por fecha, hora e ID
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaResumenDTO("
+            + "a.id, a.medicoId, a.pacienteId, a.fecha, a.hora, a.estado) FROM CitaArchivada a "
+            + "WHERE a.estado = :estado AND a.fecha BETWEEN :desde AND :hasta "
+            + "AND (:cursorFecha IS NULL OR a.fecha > :cursorFecha OR (a.fecha = :cursorFecha "
+            + "AND (a.hora > :cursorHora OR (a.hora = :cursorHora AND a.id > :cursorId)))) "
+            + "ORDER BY a.fecha, a.hora, a.id")
+    List<CitaResumenDTO> findResumenesPorEstado(@Param("estado") Cita.Estado estado,
+                                                @Param("desde") LocalDate desde,
+                                                @Param("hasta") LocalDate hasta,
+                                                @Param("cursorFecha") LocalDate cursorFecha,
+                                                @Param("cursorHora") LocalTime cursorHora,
+                                                @Param("cursorId") Integer cursorId,
+                                                Limit limite);
+}
@@ -1,12 +1,27 @@
 package com.medicagenda.citas_service.infraestructura.repository;
 
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.dominio.model.CitaResumenDTO;
+import com.medicagenda.citas_service.dominio.model.ConteoCitas;
 import com.medicagenda.citas_service.entity.Cita;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad {@link Cita}.
@@ -18,6 +33,8 @@ import java.util.Optional;
  * <ul>
  *     <li>Utilizado por {@link com.medicagenda.citas_service.infraestructura.adapter.CitaAdapter} para interactuar con la base de datos.</li>
  *     <li>Permite verificar si un paciente o médico ya tiene una cita en una fecha y hora específicas.</li>
+ *     <li>Admite consultas filtradas y paginadas mediante {@link CitaSpecifications}.</li>
+ *     <li>Ofrece listados de solo lectura que devuelven {@link CitaResumenDTO} sin cargar entidades.</li>
  * </ul>
  *
  * @author Ander
@@ -25,7 +42,7 @@ import java.util.Optional;
  * @since 2025-06-18
  */
 @Repository
-public interface CitaRepository extends JpaRepository<Cita, Integer> {
+public interface CitaRepository extends JpaRepository<Cita, Integer>, JpaSpecificationExecutor<Cita> {
 
     /**
      * Busca una cita por paciente, fecha y hora.
@@ -46,4 +63,250 @@ public interface CitaRepository extends JpaRepository<Cita, Integer> {
      * @return un Optional que puede contener la cita encontrada
      */
     Optional<Cita> findByMedicoIdAndFechaAndHora(Integer medicoId, LocalDate fecha, LocalTime hora);
+
+    /**
+     * Recorre todas las citas ordenadas por ID leyéndolas de la base de datos por bloques.
+     * <p>
+     * Debe consumirse dentro de una transacción y cerrarse al terminar. Con MySQL,
+     * el tamaño de bloque solo se respeta si la URL incluye <code>useCursorFetch=true</code>.
+     * </p>
+     *
+     * @return flujo de citas
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM Cita c ORDER BY c.id")
+    Stream<Cita> streamAllByOrderById();
+
+    /**
+     * Obtiene los datos de agenda de una cita sin cargar la entidad.
+     * <p>
+     * Al ser una proyección, devuelve siempre el valor almacenado en la base de
+     * datos aunque la entidad esté modificada en memoria.
+     * </p>
+     *
+     * @param id identificador de la cita
+     * @return datos de agenda de la cita, si existe
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c WHERE c.id = :id")
+    Optional<CitaHorario> findHorarioById(@Param("id") Integer id);
+
+    /**
+     * Elimina una cita de la tabla <code>cita</code> con una sola sentencia.
+     *
+     * @param id identificador de la cita
+     * @return número de citas eliminadas: 0 si ya no estaba, por ejemplo porque se ha archivado
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Cita c WHERE c.id = :id")
+    int deleteActivaById(@Param("id") Integer id);
+
+    /**
+     * Obtiene la versión de una cita sin cargar la entidad.
+     *
+     * @param id identificador de la cita
+     * @return versión de la cita, si existe
+     */
+    @Query("SELECT c.version FROM Cita c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    /**
+     * Recorre los datos de agenda de todas las citas, sin observaciones, leyéndolos por bloques.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @return flujo de datos de agenda
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c")
+    Stream<CitaHorario> streamHorarios();
+
+    /**
+     * Recorre los datos de agenda de las citas de un rango de fechas, ordenados por
+     * médico, fecha y hora, leyéndolos por bloques. Debe consumirse dentro de una
+     * transacción y cerrarse al terminar.
+     *
+     * @param desde fecha inicial (inclusive)
+     * @param hasta fecha final (inclusive)
+     * @return flujo de datos de agenda
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c "
+            + "WHERE c.fecha BETWEEN :desde AND :hasta ORDER BY c.medicoId, c.fecha, c.hora")
+    Stream<CitaHorario> streamHorariosEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Obtiene los datos de agenda de las citas de un médico en un rango de fechas,
+     * ordenados por fecha y hora. Usa el índice único (medico_id, fecha, hora).
+     *
+     * @param medicoId ID del médico
+     * @param desde    fecha inicial (inclusive)
+     * @param hasta    fecha final (inclusive)
+     * @return datos de agenda de las citas del médico
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c "
+            + "WHERE c.medicoId = :medicoId AND c.fecha BETWEEN :desde AND :hasta ORDER BY c.fecha, c.hora")
+    List<CitaHorario> findHorariosMedico(@Param("medicoId") Integer medicoId,
+                                         @Param("desde") LocalDate desde,
+                                         @Param("hasta") LocalDate hasta);
+
+    /**
+     * Obtiene los datos de agenda de las citas de varios médicos en un rango de fechas.
+     *
+     * @param medicoIds IDs de los médicos
+     * @param desde     fecha inicial (inclusive)
+     * @param hasta     fecha final (inclusive)
+     * @return datos de agenda de las citas de los médicos
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c "
+            + "WHERE c.medicoId IN :medicoIds AND c.fecha BETWEEN :desde AND :hasta")
+    List<CitaHorario> findHorariosMedicos(@Param("medicoIds") Collection<Integer> medicoIds,
+                                          @Param("desde") LocalDate desde,
+                                          @Param("hasta") LocalDate hasta);
+
+    /**
+     * Obtiene los datos de agenda de las citas de varios pacientes en un rango de fechas.
+     *
+     * @param pacienteIds IDs de los pacientes
+     * @param desde       fecha inicial (inclusive)
+     * @param hasta       fecha final (inclusive)
+     * @return datos de agenda de las citas de los pacientes
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaHorario("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c "
+            + "WHERE c.pacienteId IN :pacienteIds AND c.fecha BETWEEN :desde AND :hasta")
+    List<CitaHorario> findHorariosPacientes(@Param("pacienteIds") Collection<Integer> pacienteIds,
+                                            @Param("desde") LocalDate desde,
+                                            @Param("hasta") LocalDate hasta);
+
+    /**
+     * Obtiene los IDs de las citas anteriores a una fecha, de la más antigua a la más
+     * reciente. Recorre el índice (fecha, hora, id).
+     *
+     * @param antesDe fecha a partir de la cual no se devuelven citas
+     * @param limite  número máximo de IDs
+     * @return IDs de las citas más antiguas
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.fecha < :antesDe ORDER BY c.fecha, c.hora, c.id")
+    List<Integer> findIdsAnterioresA(@Param("antesDe") LocalDate antesDe, Limit limite);
+
+    /**
+     * Elimina las citas ya copiadas al archivo cuya versión coincide con la de su copia,
+     * con una sola sentencia. Las que se modificaron después de copiarlas se conservan.
+     * Debe ejecutarse dentro de una transacción.
+     *
+     * @param ids IDs de las citas copiadas
+     * @return número de citas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM Cita c WHERE c.id IN :ids "
+            + "AND c.version = (SELECT a.version FROM CitaArchivada a WHERE a.id = c.id)")
+    int deleteArchivadas(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Cuenta las citas agrupándolas por médico, día y estado.
+     *
+     * @return número de citas de cada médico, día y estado con alguna cita
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.ConteoCitas("
+            + "c.medicoId, c.fecha, c.estado, COUNT(c)) FROM Cita c GROUP BY c.medicoId, c.fecha, c.estado")
+    List<ConteoCitas> contarPorMedicoFechaEstado();
+
+    /**
+     * Cuenta las citas de un médico en un día agrupándolas por estado.
+     *
+     * @param medicoId ID del médico
+     * @param fecha    día
+     * @return número de citas de cada estado con alguna cita
+     */
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.ConteoCitas("
+            + "c.medicoId, c.fecha, c.estado, COUNT(c)) FROM Cita c "
+            + "WHERE c.medicoId = :medicoId AND c.fecha = :fecha GROUP BY c.medicoId, c.fecha, c.estado")
+    List<ConteoCitas> contarPorEstado(@Param("medicoId") Integer medicoId, @Param("fecha") LocalDate fecha);
+
+    /**
+     * Obtiene los resúmenes de las citas de un médico en un rango de fechas, ordenados
+     * por fecha y hora, a partir de una posición. Recorre el índice único (medico_id, fecha, hora).
+     *
+     * @param medicoId    ID del médico
+     * @param desde       fecha inicial (inclusive)
+     * @param hasta       fecha final (inclusive)
+     * @param estado      estado de las citas, o nulo para todos
+     * @param cursorFecha fecha de la última cita de la página anterior, o nulo para la primera página
+     * @param cursorHora  hora de la última cita de la página anterior
+     * @param limite      número máximo de resúmenes
+     * @return resúmenes de las citas del médico
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaResumenDTO("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c "
+            + "WHERE c.medicoId = :medicoId AND c.fecha BETWEEN :desde AND :hasta "
+            + "AND (:estado IS NULL OR c.estado = :estado) "
+            + "AND (:cursorFecha IS NULL OR c.fecha > :cursorFecha OR (c.fecha = :cursorFecha AND c.hora > :cursorHora)) "
+            + "ORDER BY c.fecha, c.hora")
+    List<CitaResumenDTO> findResumenesMedico(@Param("medicoId") Integer medicoId,
+                                             @Param("desde") LocalDate desde,
+                                             @Param("hasta") LocalDate hasta,
+                                             @Param("estado") Cita.Estado estado,
+                                             @Param("cursorFecha") LocalDate cursorFecha,
+                                             @Param("cursorHora") LocalTime cursorHora,
+                                             Limit limite);
+
+    /**
+     * Obtiene los resúmenes de las citas de un paciente de la más reciente a la más
+     * antigua, a partir de una posición. Recorre hacia atrás el índice único
+     * (paciente_id, fecha, hora).
+     *
+     * @param pacienteId  ID del paciente
+     * @param estado      estado de las citas, o nulo para todos
+     * @param cursorFecha fecha de la última cita de la página anterior, o nulo para la primera página
+     * @param cursorHora  hora de la última cita de la página anterior
+     * @param limite      número máximo de resúmenes
+     * @return resúmenes de las citas del paciente
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaResumenDTO("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c "
+            + "WHERE c.pacienteId = :pacienteId "
+            + "AND (:estado IS NULL OR c.estado = :estado) "
+            + "AND (:cursorFecha IS NULL OR c.fecha < :cursorFecha OR (c.fecha = :cursorFecha AND c.hora < :cursorHora)) "
+            + "ORDER BY c.fecha DESC, c.hora DESC")
+    List<CitaResumenDTO> findHistorialPaciente(@Param("pacienteId") Integer pacienteId,
+                                               @Param("estado") Cita.Estado estado,
+                                               @Param("cursorFecha") LocalDate cursorFecha,
+                                               @Param("cursorHora") LocalTime cursorHora,
+                                               Limit limite);
+
+    /**
+     * Obtiene los resúmenes de las citas en un estado dentro de un rango de fechas,
+     * ordenados por fecha, hora e ID, a partir de una posición. Recorre el índice
+     * (estado, fecha, hora, id).
+     *
+     * @param estado      estado de las citas
+     * @param desde       fecha inicial (inclusive)
+     * @param hasta       fecha final (inclusive)
+     * @param cursorFecha fecha de la última cita de la página anterior, o nulo para la primera página
+     * @param cursorHora  hora de la última cita de la página anterior
+     * @param cursorId    ID de la última cita de la página anterior
+     * @param limite      número máximo de resúmenes
+     * @return resúmenes de las citas en el estado indicado
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.medicagenda.citas_service.dominio.model.CitaResumenDTO("
+            + "c.id, c.medicoId, c.pacienteId, c.fecha, c.hora, c.estado) FROM Cita c "
+            + "WHERE c.estado = :estado AND c.fecha BETWEEN :desde AND :hasta "
+            + "AND (:cursorFecha IS NULL OR c.fecha > :cursorFecha OR (c.fecha = :cursorFecha "
+            + "AND (c.hora > :cursorHora OR (c.hora = :cursorHora AND c.id > :cursorId)))) "
+            + "ORDER BY c.fecha, c.hora, c.id")
+    List<CitaResumenDTO> findResumenesPorEstado(@Param("estado") Cita.Estado estado,
+                                                @Param("desde") LocalDate desde,
+                                                @Param("hasta") LocalDate hasta,
+                                                @Param("cursorFecha") LocalDate cursorFecha,
+                                                @Param("cursorHora") LocalTime cursorHora,
+                                                @Param("cursorId") Integer cursorId,
+                                                Limit limite);
 }
\ No newline at end of file
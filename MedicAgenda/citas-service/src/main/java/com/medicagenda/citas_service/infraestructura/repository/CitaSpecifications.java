@@ -0,0 +1,71 @@
+package com.medicagenda.citas_service.infraestructura.repository;
+
+import com.medicagenda.citas_service.dominio.model.CitaCursor;
+import com.medicagenda.citas_service.dominio.model.CitaFiltro;
+import com.medicagenda.citas_service.entity.Cita;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Especificaciones JPA para consultar citas con filtros dinámicos.
+ * <p>
+ * Traducen los criterios de {@link CitaFiltro} y la posición de un
+ * {@link CitaCursor} a condiciones SQL, de modo que el filtrado y la
+ * paginación se resuelven en la base de datos. Se aplican igual a {@link Cita}
+ * y a {@link com.medicagenda.citas_service.entity.CitaArchivada}, que comparten
+ * los nombres de atributo.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+public final class CitaSpecifications {
+
+    /** Orden estable del listado paginado: fecha, hora e ID ascendentes. */
+    public static final Sort ORDEN_AGENDA = Sort.by("fecha", "hora", "id");
+
+    private CitaSpecifications() {
+    }
+
+    /**
+     * Construye la condición para los filtros indicados y la posición del cursor.
+     *
+     * @param filtro    criterios de filtrado; los nulos se ignoran
+     * @param despuesDe cursor a partir del cual se listan citas, o nulo para empezar desde el principio
+     * @param <T>       entidad consultada: cita o cita archivada
+     * @return especificación con todas las condiciones combinadas
+     */
+    public static <T> Specification<T> filtradas(CitaFiltro filtro, CitaCursor despuesDe) {
+        return (root, query, cb) -> {
+            List<Predicate> condiciones = new ArrayList<>();
+            if (filtro.getMedicoId() != null) {
+                condiciones.add(cb.equal(root.get("medicoId"), filtro.getMedicoId()));
+            }
+            if (filtro.getPacienteId() != null) {
+                condiciones.add(cb.equal(root.get("pacienteId"), filtro.getPacienteId()));
+            }
+            if (filtro.getEstado() != null) {
+                condiciones.add(cb.equal(root.get("estado"), filtro.getEstado()));
+            }
+            if (filtro.getDesde() != null) {
+                condiciones.add(cb.greaterThanOrEqualTo(root.get("fecha"), filtro.getDesde()));
+            }
+            if (filtro.getHasta() != null) {
+                condiciones.add(cb.lessThanOrEqualTo(root.get("fecha"), filtro.getHasta()));
+            }
+            if (despuesDe != null) {
+                // (fecha, hora, id) > (cursor.fecha, cursor.hora, cursor.id)
+                condiciones.add(cb.or(
+                        cb.greaterThan(root.get("fecha"), despuesDe.getFecha()),
+                        cb.and(cb.equal(root.get("fecha"), despuesDe.getFecha()),
+                                cb.or(cb.greaterThan(root.get("hora"), despuesDe.getHora()),
+                                        cb.and(cb.equal(root.get("hora"), despuesDe.getHora()),
+                                                cb.greaterThan(root.get("id"), despuesDe.getId()))))));
+            }
+            return cb.and(condiciones.toArray(Predicate[]::new));
+        };
+    }
+}
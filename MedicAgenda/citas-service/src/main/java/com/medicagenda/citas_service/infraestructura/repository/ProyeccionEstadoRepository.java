@@ -0,0 +1,14 @@
+package com.medicagenda.citas_service.infraestructura.repository;
+
+import com.medicagenda.citas_service.entity.ProyeccionEstado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio JPA para la posición de lectura de las proyecciones (<code>proyeccion_estado</code>).
+ *
+ * @since 2025-06-19
+ */
+@Repository
+public interface ProyeccionEstadoRepository extends JpaRepository<ProyeccionEstado, String> {
+}
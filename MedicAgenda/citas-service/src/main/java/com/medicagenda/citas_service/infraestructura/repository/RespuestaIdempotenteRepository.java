@@ -0,0 +1,32 @@
+package com.medicagenda.citas_service.infraestructura.repository;
+
+import com.medicagenda.citas_service.entity.RespuestaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Repositorio JPA para las respuestas guardadas de las claves de idempotencia
+ * (<code>idempotencia_respuesta</code>).
+ *
+ * @since 2025-06-19
+ */
+@Repository
+public interface RespuestaIdempotenteRepository extends JpaRepository<RespuestaIdempotente, String> {
+
+    /**
+     * Elimina las respuestas guardadas antes de un instante, con una sola sentencia.
+     *
+     * @param limite instante a partir del cual se conservan las respuestas
+     * @return número de respuestas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.creada < :limite")
+    int deleteCreadasAntesDe(@Param("limite") Instant limite);
+}
@@ -0,0 +1,33 @@
+package com.medicagenda.citas_service.infraestructura.repository;
+
+import com.medicagenda.citas_service.entity.UsuarioTipoProyectado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+/**
+ * Repositorio JPA para la copia local del tipo de cada usuario (<code>usuario_tipo</code>).
+ *
+ * @since 2025-06-19
+ */
+@Repository
+public interface UsuarioTipoProyectadoRepository extends JpaRepository<UsuarioTipoProyectado, Integer> {
+
+    /**
+     * Recorre todas las filas leyéndolas por bloques, sin dejarlas en el contexto
+     * de persistencia. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @return flujo de filas
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM UsuarioTipoProyectado u")
+    Stream<UsuarioTipoProyectado> streamTodos();
+}
@@ -1,21 +1,40 @@
 package com.medicagenda.citas_service.infraestructura.rest;
 
+import com.medicagenda.citas_service.dominio.excepciones.CitaVersionNoCoincideException;
+import com.medicagenda.citas_service.dominio.model.AgendaDiaDTO;
 import com.medicagenda.citas_service.dominio.model.CitaDTO;
+import com.medicagenda.citas_service.dominio.model.CitaFiltro;
+import com.medicagenda.citas_service.dominio.model.CitaLoteResultadoDTO;
+import com.medicagenda.citas_service.dominio.model.CitaPaginaDTO;
 import com.medicagenda.citas_service.dominio.model.CitaRequest;
 import com.medicagenda.citas_service.dominio.model.CitaResponse;
+import com.medicagenda.citas_service.dominio.model.CitaResumenPaginaDTO;
+import com.medicagenda.citas_service.dominio.model.DisponibilidadDTO;
+import com.medicagenda.citas_service.dominio.model.EstadisticasCitasDTO;
 import com.medicagenda.citas_service.dominio.port.in.CitaPortIn;
+import com.medicagenda.citas_service.entity.Cita;
+import com.medicagenda.citas_service.infraestructura.idempotencia.AlmacenIdempotencia;
+import com.medicagenda.citas_service.infraestructura.util.CitaExportador;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controlador REST para la gestión de citas médicas.
@@ -40,20 +59,45 @@ import java.util.Map;
 public class CitaController {
 
     private final CitaPortIn citaService;
+    private final CitaExportador exportador;
+    private final AlmacenIdempotencia idempotencia;
 
     /**
      * Registra una nueva cita médica.
+     * <p>
+     * Con la cabecera Idempotency-Key, una repetición de la misma petición (por
+     * ejemplo, un reintento tras un timeout) recibe la respuesta original sin volver
+     * a validar ni guardar la cita.
+     * </p>
      *
      * @param request datos de la nueva cita
+     * @param clave   clave de idempotencia elegida por el cliente (opcional)
      * @return mensaje de éxito y datos de la cita creada
      */
-    @Operation(summary = "Registrar una cita", description = "Registra una nueva cita médica para un paciente con un médico.")
+    @Operation(summary = "Registrar una cita", description = "Registra una nueva cita médica para un paciente con un médico. Con Idempotency-Key los reintentos de la misma petición devuelven la respuesta original.")
     @ApiResponses({
         @ApiResponse(responseCode = "201", description = "Cita creada exitosamente"),
-        @ApiResponse(responseCode = "400", description = "Datos inválidos")
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "409", description = "Horario ocupado, o la petición original con la misma Idempotency-Key sigue en curso"),
+        @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otros datos")
     })
     @PostMapping
-    public ResponseEntity<Map<String, Object>> crear(@RequestBody CitaRequest request) {
+    public ResponseEntity<Map<String, Object>> crear(
+            @RequestBody CitaRequest request,
+            @Parameter(description = "Clave única de la petición para reintentarla sin duplicar la cita") @RequestHeader(value = AlmacenIdempotencia.CABECERA, required = false) String clave) {
+        if (clave == null) {
+            return registrar(request);
+        }
+        return idempotencia.ejecutar(clave, request, () -> registrar(request));
+    }
+
+    /**
+     * Registra una cita y construye la respuesta de creación.
+     *
+     * @param request datos de la nueva cita
+     * @return respuesta 201 con los datos de la cita creada
+     */
+    private ResponseEntity<Map<String, Object>> registrar(CitaRequest request) {
         CitaDTO creada = citaService.crearCita(request);
         Map<String, Object> respuesta = new HashMap<>();
         respuesta.put("mensaje", "Cita creada exitosamente");
@@ -63,66 +107,314 @@ public class CitaController {
     }
 
     /**
-     * Lista todas las citas médicas registradas.
+     * Registra varias citas en una sola petición.
+     *
+     * @param requests datos de las citas a registrar
+     * @return resultado de cada fila
+     */
+    @Operation(summary = "Registrar citas en bloque", description = "Registra hasta 10000 citas en una sola petición. Cada fila se valida por separado y el resultado indica el ID creado o el motivo del rechazo.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Carga procesada; consulte el resultado de cada fila"),
+        @ApiResponse(responseCode = "400", description = "Carga vacía o demasiado grande"),
+        @ApiResponse(responseCode = "503", description = "Servicio de usuarios no disponible")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<CitaLoteResultadoDTO> crearLote(@RequestBody List<CitaRequest> requests) {
+        return ResponseEntity.ok(citaService.crearCitasLote(requests));
+    }
+
+    /**
+     * Lista las citas médicas registradas, paginadas por cursor y con filtros opcionales.
+     * La respuesta incluye la versión de la página en la cabecera ETag; si coincide con
+     * la enviada en If-None-Match se responde 304 sin convertir ni enviar las citas.
      *
-     * @return lista de citas
+     * @param medicoId   ID del médico (opcional)
+     * @param pacienteId ID del paciente (opcional)
+     * @param estado     estado de la cita (opcional)
+     * @param desde      fecha mínima, inclusive (opcional)
+     * @param hasta      fecha máxima, inclusive (opcional)
+     * @param cursor     cursor devuelto por la página anterior (opcional)
+     * @param limite     tamaño de página, máximo 500 (opcional)
+     * @param ifNoneMatch versiones de la página que ya tiene el cliente (opcional)
+     * @return página de citas y cursor de la siguiente
      */
-    @Operation(summary = "Listar todas las citas", description = "Obtiene una lista de todas las citas registradas en el sistema.")
-    @ApiResponse(responseCode = "200", description = "Citas listadas correctamente")
+    @Operation(summary = "Listar citas", description = "Obtiene una página de citas ordenadas por fecha, hora e ID. Use el campo siguienteCursor para pedir la página siguiente. Admite peticiones condicionales con If-None-Match.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Citas listadas correctamente"),
+        @ApiResponse(responseCode = "304", description = "La página no ha cambiado desde la versión indicada en If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Filtro, cursor o límite inválidos")
+    })
     @GetMapping
-    public ResponseEntity<List<CitaDTO>> listar() {
-        return ResponseEntity.ok(citaService.listarCitas());
+    public ResponseEntity<CitaPaginaDTO> listar(
+            @Parameter(description = "ID del médico") @RequestParam(required = false) Integer medicoId,
+            @Parameter(description = "ID del paciente") @RequestParam(required = false) Integer pacienteId,
+            @Parameter(description = "Estado de la cita (PENDIENTE, CONFIRMADA, CANCELADA)") @RequestParam(required = false) Cita.Estado estado,
+            @Parameter(description = "Fecha mínima (YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Fecha máxima (YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @Parameter(description = "Cursor de la página siguiente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 500)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "ETag de una respuesta anterior") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CitaFiltro filtro = new CitaFiltro(medicoId, pacienteId, estado, desde, hasta);
+        Set<String> conocidas = etiquetas(ifNoneMatch);
+        return citaService.listarCitasSiCambia(filtro, cursor, limite, conocidas)
+                .map(pagina -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(pagina.getVersion())
+                        .body(pagina))
+                // Con varias versiones conocidas no se sabe cuál coincidió y el 304 va sin ETag
+                .orElseGet(() -> noModificado(conocidas.size() == 1 ? conocidas.iterator().next() : null));
     }
 
     /**
-     * Consulta una cita por su ID.
+     * Consulta el número de citas por día y estado en un rango de fechas.
      *
-     * @param id identificador de la cita
+     * @param medicoId ID del médico (opcional; sin él se cuentan todos los médicos)
+     * @param desde    fecha inicial, inclusive
+     * @param hasta    fecha final, inclusive
+     * @return número de citas por día y estado, y totales del rango
+     */
+    @Operation(summary = "Estadísticas de citas", description = "Obtiene el número de citas por día y estado entre dos fechas, de un médico o de todos, a partir de contadores en memoria.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Estadísticas calculadas"),
+        @ApiResponse(responseCode = "400", description = "Rango de fechas no válido")
+    })
+    @GetMapping("/estadisticas")
+    public ResponseEntity<EstadisticasCitasDTO> estadisticas(
+            @Parameter(description = "ID del médico") @RequestParam(required = false) Integer medicoId,
+            @Parameter(description = "Fecha inicial (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Fecha final (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(citaService.obtenerEstadisticas(medicoId, desde, hasta));
+    }
+
+    /**
+     * Lista los resúmenes de las citas en un estado dentro de un rango de fechas.
+     *
+     * @param estado estado de las citas
+     * @param desde  fecha inicial, inclusive
+     * @param hasta  fecha final, inclusive
+     * @param cursor cursor devuelto por la página anterior (opcional)
+     * @param limite tamaño de página, máximo 500 (opcional)
+     * @return página de resúmenes y cursor de la siguiente
+     */
+    @Operation(summary = "Listar resúmenes de citas por estado", description = "Obtiene una página de citas en un estado, sin observaciones, ordenadas por fecha, hora e ID.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Citas listadas correctamente"),
+        @ApiResponse(responseCode = "400", description = "Estado, fechas, cursor o límite inválidos")
+    })
+    @GetMapping("/resumen")
+    public ResponseEntity<CitaResumenPaginaDTO> resumenPorEstado(
+            @Parameter(description = "Estado de la cita (PENDIENTE, CONFIRMADA, CANCELADA)", required = true) @RequestParam Cita.Estado estado,
+            @Parameter(description = "Fecha inicial (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Fecha final (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @Parameter(description = "Cursor de la página siguiente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 500)") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(citaService.listarResumenesPorEstado(estado, desde, hasta, cursor, limite));
+    }
+
+    /**
+     * Lista los resúmenes de las citas de un médico en un rango de fechas.
+     *
+     * @param medicoId ID del médico
+     * @param desde    fecha inicial, inclusive
+     * @param hasta    fecha final, inclusive
+     * @param estado   estado de la cita (opcional)
+     * @param cursor   cursor devuelto por la página anterior (opcional)
+     * @param limite   tamaño de página, máximo 500 (opcional)
+     * @return página de resúmenes y cursor de la siguiente
+     */
+    @Operation(summary = "Listar resúmenes de citas de un médico", description = "Obtiene una página de citas de un médico entre dos fechas, sin observaciones, ordenadas por fecha y hora.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Citas listadas correctamente"),
+        @ApiResponse(responseCode = "400", description = "Fechas, estado, cursor o límite inválidos")
+    })
+    @GetMapping("/medicos/{medicoId}/resumen")
+    public ResponseEntity<CitaResumenPaginaDTO> resumenMedico(
+            @Parameter(description = "ID del médico", required = true) @PathVariable Integer medicoId,
+            @Parameter(description = "Fecha inicial (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Fecha final (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @Parameter(description = "Estado de la cita (PENDIENTE, CONFIRMADA, CANCELADA)") @RequestParam(required = false) Cita.Estado estado,
+            @Parameter(description = "Cursor de la página siguiente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 500)") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(citaService.listarResumenesMedico(medicoId, desde, hasta, estado, cursor, limite));
+    }
+
+    /**
+     * Lista el historial de citas de un paciente, de la más reciente a la más antigua.
+     *
+     * @param pacienteId ID del paciente
+     * @param estado     estado de la cita (opcional)
+     * @param cursor     cursor devuelto por la página anterior (opcional)
+     * @param limite     tamaño de página, máximo 500 (opcional)
+     * @return página de resúmenes y cursor de la siguiente
+     */
+    @Operation(summary = "Historial de citas de un paciente", description = "Obtiene una página de citas de un paciente, sin observaciones, de la más reciente a la más antigua.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Citas listadas correctamente"),
+        @ApiResponse(responseCode = "400", description = "Estado, cursor o límite inválidos")
+    })
+    @GetMapping("/pacientes/{pacienteId}/historial")
+    public ResponseEntity<CitaResumenPaginaDTO> historialPaciente(
+            @Parameter(description = "ID del paciente", required = true) @PathVariable Integer pacienteId,
+            @Parameter(description = "Estado de la cita (PENDIENTE, CONFIRMADA, CANCELADA)") @RequestParam(required = false) Cita.Estado estado,
+            @Parameter(description = "Cursor de la página siguiente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 500)") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(citaService.listarHistorialPaciente(pacienteId, estado, cursor, limite));
+    }
+
+    /**
+     * Exporta todas las citas en NDJSON o CSV, enviándolas a medida que se leen
+     * de la base de datos.
+     *
+     * @param formato formato de salida (NDJSON o CSV)
+     * @return cuerpo de la respuesta que se escribe de forma incremental
+     */
+    @Operation(summary = "Exportar citas", description = "Exporta todas las citas en formato NDJSON o CSV sin cargarlas en memoria.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Exportación iniciada"),
+        @ApiResponse(responseCode = "400", description = "Formato no soportado")
+    })
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Formato de salida (NDJSON o CSV)")
+            @RequestParam(defaultValue = "NDJSON") CitaExportador.Formato formato) {
+        StreamingResponseBody cuerpo = salida -> exportador.exportar(formato, citaService::exportarCitas, salida);
+        return ResponseEntity.ok()
+                .contentType(formato.getMediaType())
+                .header("Content-Disposition", "attachment; filename=\"citas." + formato.name().toLowerCase() + "\"")
+                .body(cuerpo);
+    }
+
+    /**
+     * Consulta los intervalos libres de un médico en un rango de fechas.
+     *
+     * @param medicoId ID del médico
+     * @param desde    fecha inicial
+     * @param hasta    fecha final
+     * @param duracion duración mínima de los intervalos en minutos
+     * @return intervalos libres agrupados
+     */
+    @Operation(summary = "Consultar disponibilidad de un médico", description = "Obtiene los intervalos libres de la jornada de un médico entre dos fechas en los que cabe una cita de la duración indicada.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Disponibilidad calculada"),
+        @ApiResponse(responseCode = "400", description = "Rango de fechas o duración no válidos")
+    })
+    @GetMapping("/medicos/{medicoId}/disponibilidad")
+    public ResponseEntity<DisponibilidadDTO> disponibilidad(
+            @Parameter(description = "ID del médico", required = true) @PathVariable Integer medicoId,
+            @Parameter(description = "Fecha inicial (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Fecha final (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @Parameter(description = "Duración mínima en minutos (por defecto la de una cita)") @RequestParam(required = false) Integer duracion) {
+        return ResponseEntity.ok(citaService.consultarDisponibilidad(medicoId, desde, hasta, duracion));
+    }
+
+    /**
+     * Consulta la agenda de un médico en un día. La respuesta incluye la versión de la
+     * agenda en la cabecera ETag. Si la petición trae If-None-Match, primero se consulta
+     * solo la versión y, si coincide, se responde 304 sin construir la agenda.
+     *
+     * @param medicoId    ID del médico
+     * @param fecha       día de la agenda
+     * @param ifNoneMatch versiones de la agenda que ya tiene el cliente (opcional)
+     * @return agenda del día con sus citas ordenadas por hora
+     */
+    @Operation(summary = "Consultar la agenda diaria de un médico", description = "Obtiene las citas de un médico en un día, ordenadas por hora y con su estado. Admite peticiones condicionales con If-None-Match.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Agenda encontrada"),
+        @ApiResponse(responseCode = "304", description = "La agenda no ha cambiado desde la versión indicada en If-None-Match")
+    })
+    @GetMapping("/medicos/{medicoId}/agenda/{fecha}")
+    public ResponseEntity<AgendaDiaDTO> agendaDia(
+            @Parameter(description = "ID del médico", required = true) @PathVariable Integer medicoId,
+            @Parameter(description = "Día de la agenda (YYYY-MM-DD)", required = true) @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @Parameter(description = "ETag de una respuesta anterior") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Set<String> conocidas = etiquetas(ifNoneMatch);
+            String version = citaService.obtenerVersionAgendaDia(medicoId, fecha);
+            if (conocidas.contains(version) || conocidas.contains("*")) {
+                return noModificado(version);
+            }
+        }
+        AgendaDiaDTO agenda = citaService.obtenerAgendaDia(medicoId, fecha);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(agenda.getVersion())
+                .body(agenda);
+    }
+
+    /**
+     * Consulta una cita por su ID. La respuesta incluye la versión de la cita en la
+     * cabecera ETag. Si la petición trae If-None-Match, primero se consulta solo la
+     * versión y, si coincide, se responde 304 sin cargar la cita.
+     *
+     * @param id          identificador de la cita
+     * @param ifNoneMatch versiones de la cita que ya tiene el cliente (opcional)
      * @return cita correspondiente
      */
-    @Operation(summary = "Consultar cita por ID", description = "Obtiene la información de una cita médica mediante su identificador.")
+    @Operation(summary = "Consultar cita por ID", description = "Obtiene la información de una cita médica mediante su identificador. Admite peticiones condicionales con If-None-Match.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Cita encontrada"),
+        @ApiResponse(responseCode = "304", description = "La cita no ha cambiado desde la versión indicada en If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Cita no encontrada")
     })
     @GetMapping("/{id}")
     public ResponseEntity<CitaDTO> obtener(
             @Parameter(description = "ID de la cita a consultar", required = true)
-            @PathVariable Integer id) {
-        return ResponseEntity.ok(citaService.obtenerCitaPorId(id));
+            @PathVariable Integer id,
+            @Parameter(description = "ETag de una respuesta anterior") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Set<String> conocidas = etiquetas(ifNoneMatch);
+            String version = citaService.obtenerVersionCita(id).toString();
+            if (conocidas.contains(version) || conocidas.contains("*")) {
+                return noModificado(version);
+            }
+        }
+        CitaDTO cita = citaService.obtenerCitaPorId(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(cita.getVersion().toString())
+                .body(cita);
     }
 
     /**
-     * Actualiza una cita existente.
+     * Actualiza una cita existente. Con la cabecera If-Match la actualización solo se
+     * aplica si la cita sigue en la versión indicada; la nueva versión se devuelve en
+     * la cabecera ETag.
      *
-     * @param id identificador de la cita
+     * @param id      identificador de la cita
      * @param request nuevos datos
+     * @param ifMatch versión de la cita que leyó el cliente (opcional)
      * @return mensaje de éxito
      */
-    @Operation(summary = "Actualizar cita", description = "Actualiza los datos de una cita existente.")
+    @Operation(summary = "Actualizar cita", description = "Actualiza los datos de una cita existente. Con If-Match solo se actualiza si la cita no ha cambiado desde la versión indicada.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Cita actualizada correctamente"),
-        @ApiResponse(responseCode = "404", description = "Cita no encontrada")
+        @ApiResponse(responseCode = "404", description = "Cita no encontrada"),
+        @ApiResponse(responseCode = "409", description = "La cita está archivada y es de solo lectura"),
+        @ApiResponse(responseCode = "412", description = "La cita ha cambiado desde la versión indicada en If-Match")
     })
     @PutMapping("/{id}")
     public ResponseEntity<CitaResponse> actualizar(
             @Parameter(description = "ID de la cita a actualizar", required = true)
             @PathVariable Integer id,
-            @RequestBody CitaRequest request) {
-        citaService.actualizarCita(id, request);
-        return ResponseEntity.ok(new CitaResponse("Cita actualizada exitosamente"));
+            @RequestBody CitaRequest request,
+            @Parameter(description = "ETag de la versión de la cita que se quiere modificar") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CitaDTO actualizada = citaService.actualizarCita(id, request, versionEsperada(id, ifMatch));
+        return ResponseEntity.ok()
+                .eTag(actualizada.getVersion().toString())
+                .body(new CitaResponse("Cita actualizada exitosamente"));
     }
 
     /**
-     * Elimina una cita médica.
+     * Elimina una cita médica. Las citas archivadas son de solo lectura y no se eliminan.
      *
      * @param id identificador de la cita
      * @return mensaje de éxito
      */
-    @Operation(summary = "Eliminar cita", description = "Elimina una cita médica del sistema.")
+    @Operation(summary = "Eliminar cita", description = "Elimina una cita médica del sistema. Las citas pasadas archivadas son de solo lectura y no se pueden eliminar.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Cita eliminada correctamente"),
-        @ApiResponse(responseCode = "404", description = "Cita no encontrada")
+        @ApiResponse(responseCode = "404", description = "Cita no encontrada"),
+        @ApiResponse(responseCode = "409", description = "La cita está archivada y es de solo lectura")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<CitaResponse> eliminar(
@@ -131,4 +423,72 @@ public class CitaController {
         citaService.eliminarCita(id);
         return ResponseEntity.ok(new CitaResponse("Cita eliminada exitosamente"));
     }
+
+    /**
+     * Construye una respuesta 304 con la versión que el cliente ya tiene.
+     *
+     * @param version versión vigente, o nula si no se conoce
+     * @param <T>     tipo del cuerpo que se habría devuelto
+     * @return respuesta sin cuerpo
+     */
+    private static <T> ResponseEntity<T> noModificado(String version) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache());
+        if (version != null) {
+            respuesta.eTag(version);
+        }
+        return respuesta.build();
+    }
+
+    /**
+     * Extrae las etiquetas de una cabecera If-None-Match o If-Match, sin comillas ni
+     * prefijo de etiqueta débil.
+     *
+     * @param cabecera valor de la cabecera, o nulo
+     * @return etiquetas de la cabecera, vacío si no viene
+     */
+    private static Set<String> etiquetas(String cabecera) {
+        if (cabecera == null || cabecera.isBlank()) {
+            return Set.of();
+        }
+        Set<String> etiquetas = new HashSet<>();
+        for (String etiqueta : cabecera.split(",")) {
+            etiqueta = etiqueta.trim();
+            if (etiqueta.startsWith("W/")) {
+                etiqueta = etiqueta.substring(2);
+            }
+            if (etiqueta.length() >= 2 && etiqueta.startsWith("\"") && etiqueta.endsWith("\"")) {
+                etiqueta = etiqueta.substring(1, etiqueta.length() - 1);
+            }
+            if (!etiqueta.isEmpty()) {
+                etiquetas.add(etiqueta);
+            }
+        }
+        return etiquetas;
+    }
+
+    /**
+     * Obtiene la versión esperada de una cita a partir de la cabecera If-Match.
+     *
+     * @param id      identificador de la cita
+     * @param ifMatch valor de la cabecera, o nulo
+     * @return versión esperada, o nula si no hay que comprobarla
+     * @throws IllegalArgumentException si la cabecera trae más de una versión
+     * @throws CitaVersionNoCoincideException si la etiqueta no es una versión de cita
+     */
+    private static Long versionEsperada(Integer id, String ifMatch) {
+        Set<String> etiquetas = etiquetas(ifMatch);
+        if (etiquetas.isEmpty() || etiquetas.contains("*")) {
+            return null;
+        }
+        if (etiquetas.size() > 1) {
+            throw new IllegalArgumentException("If-Match debe contener una sola versión de la cita.");
+        }
+        try {
+            return Long.valueOf(etiquetas.iterator().next());
+        } catch (NumberFormatException e) {
+            // Ninguna versión de la cita puede coincidir con esa etiqueta
+            throw new CitaVersionNoCoincideException(id);
+        }
+    }
 }
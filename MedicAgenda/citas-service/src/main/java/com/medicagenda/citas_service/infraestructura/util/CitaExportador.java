@@ -0,0 +1,141 @@
+package com.medicagenda.citas_service.infraestructura.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.medicagenda.citas_service.dominio.model.CitaDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Escribe citas en formato NDJSON o CSV directamente sobre un flujo de salida.
+ * <p>
+ * Cada cita se escribe en cuanto se recibe, por lo que el consumo de memoria no
+ * depende del número de citas exportadas. La salida se vacía tras la primera cita
+ * y después cada {@value #CITAS_POR_VACIADO} citas.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+@Component
+@RequiredArgsConstructor
+public class CitaExportador {
+
+    private static final int CITAS_POR_VACIADO = 500;
+    private static final String CABECERA_CSV = "id,fecha,hora,estado,observaciones,pacienteId,medicoId";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Formatos de exportación soportados.
+     */
+    public enum Formato {
+        /** Un objeto JSON por línea. */
+        NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+        /** Valores separados por comas con cabecera. */
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        private final MediaType mediaType;
+
+        Formato(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * Obtiene el tipo de contenido HTTP del formato.
+         *
+         * @return tipo de contenido
+         */
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+
+    /**
+     * Exporta las citas entregadas por la fuente en el formato indicado.
+     *
+     * @param formato formato de salida
+     * @param fuente  función que entrega las citas, una a una, al consumidor recibido
+     * @param salida  flujo donde se escriben las citas
+     * @throws IOException si falla la escritura
+     */
+    public void exportar(Formato formato, Consumer<Consumer<CitaDTO>> fuente, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        ObjectWriter json = objectMapper.writerFor(CitaDTO.class);
+        if (formato == Formato.CSV) {
+            writer.write(CABECERA_CSV);
+            writer.write('\n');
+        }
+        long[] escritas = {0};
+        try {
+            fuente.accept(cita -> {
+                try {
+                    if (formato == Formato.CSV) {
+                        escribirCsv(writer, cita);
+                    } else {
+                        writer.write(json.writeValueAsString(cita));
+                        writer.write('\n');
+                    }
+                    if (++escritas[0] % CITAS_POR_VACIADO == 1) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Escribe una cita como línea CSV.
+     *
+     * @param writer destino
+     * @param cita   cita a escribir
+     * @throws IOException si falla la escritura
+     */
+    private static void escribirCsv(Writer writer, CitaDTO cita) throws IOException {
+        writer.write(String.valueOf(cita.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(cita.getFecha()));
+        writer.write(',');
+        writer.write(cita.getHora() == null ? "" : DateTimeFormatter.ISO_LOCAL_TIME.format(cita.getHora()));
+        writer.write(',');
+        writer.write(String.valueOf(cita.getEstado()));
+        writer.write(',');
+        writer.write(escaparCsv(cita.getObservaciones()));
+        writer.write(',');
+        writer.write(String.valueOf(cita.getPacienteId()));
+        writer.write(',');
+        writer.write(String.valueOf(cita.getMedicoId()));
+        writer.write('\n');
+    }
+
+    /**
+     * Escapa un valor de texto según RFC 4180.
+     *
+     * @param valor texto a escapar, puede ser nulo
+     * @return valor listo para una celda CSV
+     */
+    private static String escaparCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
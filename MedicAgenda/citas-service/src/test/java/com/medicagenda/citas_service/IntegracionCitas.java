@@ -0,0 +1,85 @@
+package com.medicagenda.citas_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.infraestructura.proyeccion.ProyeccionUsuarios;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Base de las pruebas de integración de la API de citas.
+ * <p>
+ * Todas las subclases comparten un mismo contexto de Spring, con su propia base de
+ * datos H2 y su propio directorio de auditoría. Los tipos de usuario se resuelven con
+ * una copia local simulada: los IDs por debajo de 1000 son pacientes, hasta 8999
+ * médicos y el resto desconocidos. Cada prueba usa sus propios usuarios y fechas para
+ * no depender de las citas que crean las demás.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:citas-integracion;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "citas.auditoria.directorio=target/auditoria-integracion"
+})
+@AutoConfigureMockMvc
+public abstract class IntegracionCitas {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @MockitoBean
+    protected ProyeccionUsuarios proyeccion;
+
+    @BeforeEach
+    void tiposDeUsuario() {
+        when(proyeccion.lista()).thenReturn(true);
+        when(proyeccion.tipo(anyInt())).thenAnswer(invocacion -> tipo(invocacion.getArgument(0)));
+    }
+
+    /**
+     * Crea una cita pendiente y comprueba que se responde 201.
+     *
+     * @return ID de la cita creada
+     */
+    protected int crear(String fecha, String hora, int pacienteId, int medicoId) throws Exception {
+        String respuesta = mockMvc.perform(post("/api/citas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita(fecha, hora, "PENDIENTE", pacienteId, medicoId)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return leer(respuesta).path("cita").path("id").asInt();
+    }
+
+    /**
+     * Construye el cuerpo JSON de una cita.
+     */
+    protected static String cita(String fecha, String hora, String estado, int pacienteId, int medicoId) {
+        return """
+                {"fecha":"%s","hora":"%s","estado":"%s","pacienteId":%d,"medicoId":%d}"""
+                .formatted(fecha, hora, estado, pacienteId, medicoId);
+    }
+
+    protected JsonNode leer(String json) throws Exception {
+        return objectMapper.readTree(json);
+    }
+
+    private static UsuarioTipo tipo(Integer usuarioId) {
+        if (usuarioId < 1000) {
+            return UsuarioTipo.PACIENTE;
+        }
+        return usuarioId < 9000 ? UsuarioTipo.MEDICO : UsuarioTipo.DESCONOCIDO;
+    }
+}
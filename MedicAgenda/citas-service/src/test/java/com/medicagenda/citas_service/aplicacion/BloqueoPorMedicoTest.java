@@ -0,0 +1,117 @@
+package com.medicagenda.citas_service.aplicacion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloqueoPorMedicoTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BloqueoPorMedico bloqueo = new BloqueoPorMedico(registry);
+
+    @Test
+    void serializaLasOperacionesDeUnMismoMedico() throws Exception {
+        AtomicInteger dentro = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        try (ExecutorService hilos = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                hilos.submit(() -> bloqueo.ejecutar(7, () -> {
+                    maximo.accumulateAndGet(dentro.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    return dentro.decrementAndGet();
+                }));
+            }
+        }
+
+        assertThat(maximo.get()).isEqualTo(1);
+    }
+
+    @Test
+    void moverUnaCitaBloqueaAAmbosMedicos() throws Exception {
+        int origen = 1;
+        int destino = medicoEnOtraFranja(origen);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salir = new CountDownLatch(1);
+        try (ExecutorService hilos = Executors.newCachedThreadPool()) {
+            hilos.submit(() -> bloqueo.ejecutar(origen, destino, () -> {
+                dentro.countDown();
+                return esperar(salir);
+            }));
+            assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<Boolean> reservaOrigen = hilos.submit(() -> bloqueo.ejecutar(origen, () -> true));
+            Future<Boolean> reservaDestino = hilos.submit(() -> bloqueo.ejecutar(destino, () -> true));
+            Thread.sleep(200);
+            assertThat(reservaOrigen.isDone()).isFalse();
+            assertThat(reservaDestino.isDone()).isFalse();
+
+            salir.countDown();
+            assertThat(reservaOrigen.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(reservaDestino.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(registry.counter("citas.bloqueo.medico.contencion").count()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void movimientosCruzadosNoSeBloqueanEntreSi() {
+        int a = 3;
+        int b = medicoEnOtraFranja(a);
+        AtomicInteger movimientos = new AtomicInteger();
+        try (ExecutorService hilos = Executors.newFixedThreadPool(4)) {
+            CompletableFuture<?>[] tareas = new CompletableFuture<?>[400];
+            for (int i = 0; i < tareas.length; i++) {
+                boolean ida = i % 2 == 0;
+                tareas[i] = CompletableFuture.runAsync(() -> bloqueo.ejecutar(ida ? a : b, ida ? b : a,
+                        movimientos::incrementAndGet), hilos);
+            }
+            CompletableFuture.allOf(tareas).orTimeout(10, TimeUnit.SECONDS).join();
+        }
+
+        assertThat(movimientos.get()).isEqualTo(400);
+    }
+
+    @Test
+    void medicosDeLaMismaFranjaSeBloqueanUnaSolaVez() {
+        int medico = 5;
+        int mismaFranja = medicoEnLaMismaFranja(medico);
+
+        assertThat(bloqueo.ejecutar(medico, mismaFranja, () -> "ok")).isEqualTo("ok");
+        // Si el candado no se hubiera liberado del todo, otro hilo no podría tomarlo
+        assertThat(CompletableFuture.supplyAsync(() -> bloqueo.ejecutar(medico, () -> true))
+                .orTimeout(5, TimeUnit.SECONDS).join()).isTrue();
+    }
+
+    private int medicoEnOtraFranja(int medico) {
+        int otro = medico + 1;
+        while (bloqueo.franja(otro) == bloqueo.franja(medico)) {
+            otro++;
+        }
+        return otro;
+    }
+
+    private int medicoEnLaMismaFranja(int medico) {
+        int otro = medico + 1;
+        while (bloqueo.franja(otro) != bloqueo.franja(medico)) {
+            otro++;
+        }
+        return otro;
+    }
+
+    private static boolean esperar(CountDownLatch salir) {
+        try {
+            return salir.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.medicagenda.citas_service.aplicacion;
+
+import com.medicagenda.citas_service.dominio.excepciones.CitaArchivadaException;
+import com.medicagenda.citas_service.dominio.excepciones.CitaNoEncontradaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricasReservaTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MetricasReserva metricas = new MetricasReserva(registry);
+
+    @Test
+    void unaCitaArchivadaTieneSuPropioResultado() {
+        Supplier<Object> archivada = () -> {
+            throw new CitaArchivadaException(7);
+        };
+        Supplier<Object> noEncontrada = () -> {
+            throw new CitaNoEncontradaException(8);
+        };
+
+        assertThatThrownBy(() -> metricas.medir(MetricasReserva.ACTUALIZAR, MetricasReserva.FASE_CARGA, archivada))
+                .isInstanceOf(CitaArchivadaException.class);
+        assertThatThrownBy(() -> metricas.medir(MetricasReserva.ACTUALIZAR, MetricasReserva.FASE_CARGA, noEncontrada))
+                .isInstanceOf(CitaNoEncontradaException.class);
+        metricas.medirAsync(MetricasReserva.ACTUALIZAR, MetricasReserva.FASE_TOTAL,
+                () -> CompletableFuture.failedFuture(new CitaArchivadaException(7)), valor -> MetricasReserva.OK);
+
+        assertThat(contar(MetricasReserva.FASE_CARGA, MetricasReserva.ARCHIVADA)).isEqualTo(1);
+        assertThat(contar(MetricasReserva.FASE_CARGA, MetricasReserva.NO_ENCONTRADA)).isEqualTo(1);
+        assertThat(contar(MetricasReserva.FASE_TOTAL, MetricasReserva.ARCHIVADA)).isEqualTo(1);
+        assertThat(registry.find("citas.reserva.fase").tag("resultado", MetricasReserva.ERROR).timer()).isNull();
+    }
+
+    private long contar(String fase, String resultado) {
+        return registry.get("citas.reserva.fase")
+                .tags("operacion", MetricasReserva.ACTUALIZAR, "fase", fase, "resultado", resultado)
+                .timer().count();
+    }
+}
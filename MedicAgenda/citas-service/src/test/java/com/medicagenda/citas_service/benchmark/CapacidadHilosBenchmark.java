@@ -0,0 +1,165 @@
+package com.medicagenda.citas_service.benchmark;
+
+import com.medicagenda.citas_service.CitasServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compara la capacidad de citas-service con hilos de plataforma y con hilos virtuales.
+ * <p>
+ * Arranca un {@link UsuariosServiceSimulado} que responde con una latencia fija y, para
+ * cada modo, levanta la aplicación sobre H2 y lanza peticiones
+ * <code>POST /api/citas</code> con un número fijo de peticiones simultáneas. Cada
+ * petición usa un paciente y un médico distintos, por lo que todas esperan a la
+ * consulta remota. Al final se imprime el rendimiento y las latencias de cada modo.
+ * </p>
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.medicagenda.citas_service.benchmark.CapacidadHilosBenchmark \
+ *     -Dconcurrencia=1000 -Dpeticiones=20000 -Dlatencia=100
+ * </pre>
+ *
+ * <ul>
+ *     <li><code>concurrencia</code>: peticiones simultáneas (por defecto 1000).</li>
+ *     <li><code>peticiones</code>: peticiones por modo (por defecto 10000).</li>
+ *     <li><code>latencia</code>: latencia simulada de usuarios-service en ms (por defecto 100).</li>
+ * </ul>
+ *
+ * H2 usa bloques <code>synchronized</code>, por lo que en modo virtual pueden verse
+ * anclajes breves que no se producen con MySQL Connector/J 9.
+ *
+ * @since 2025-06-19
+ */
+public final class CapacidadHilosBenchmark {
+
+    private CapacidadHilosBenchmark() {
+    }
+
+    /**
+     * Ejecuta la comparación.
+     *
+     * @param args no se usan
+     * @throws Exception si falla el arranque o las peticiones
+     */
+    public static void main(String[] args) throws Exception {
+        int concurrencia = Integer.getInteger("concurrencia", 1000);
+        int peticiones = Integer.getInteger("peticiones", 10_000);
+        int latencia = Integer.getInteger("latencia", 100);
+
+        try (UsuariosServiceSimulado usuarios = new UsuariosServiceSimulado(0, latencia, 0, 0)) {
+            String urlUsuarios = usuarios.url();
+            List<String> filas = new ArrayList<>();
+            filas.add(medir("plataforma", false, urlUsuarios, concurrencia, peticiones, 0));
+            filas.add(medir("virtual", true, urlUsuarios, concurrencia, peticiones, peticiones));
+            System.out.printf("%nconcurrencia=%d peticiones=%d latencia=%dms%n", concurrencia, peticiones, latencia);
+            System.out.printf("%-11s %10s %8s %8s %8s %8s%n", "modo", "peticion/s", "p50 ms", "p99 ms", "max ms", "errores");
+            filas.forEach(System.out::println);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Arranca la aplicación en el modo indicado y mide sus peticiones.
+     *
+     * @param modo         nombre del modo
+     * @param virtual      si se activan los hilos virtuales
+     * @param urlUsuarios  URL del usuarios-service simulado
+     * @param concurrencia peticiones simultáneas
+     * @param peticiones   número de peticiones
+     * @param desplazamiento primer índice de usuario, para no repetir IDs entre modos
+     * @return fila de resultados
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private static String medir(String modo, boolean virtual, String urlUsuarios, int concurrencia, int peticiones,
+                                int desplazamiento) throws InterruptedException {
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CitasServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "usuarios-service.url=" + urlUsuarios,
+                        "spring.datasource.url=jdbc:h2:mem:bench_" + modo + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        try {
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + puerto + "/api/citas");
+            try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient http = HttpClient.newBuilder().executor(clientes).connectTimeout(Duration.ofSeconds(10)).build();
+
+                // Calentamiento breve para cargar clases y compilar las rutas calientes
+                lanzar(http, clientes, uri, Math.min(concurrencia, 200), 2_000, 1_000_000 + desplazamiento);
+
+                long[] latencias = new long[peticiones];
+                AtomicInteger errores = new AtomicInteger();
+                long inicio = System.nanoTime();
+                lanzar(http, clientes, uri, concurrencia, peticiones, desplazamiento, latencias, errores);
+                double segundos = (System.nanoTime() - inicio) / 1e9;
+
+                Arrays.sort(latencias);
+                return String.format("%-11s %10.0f %8.1f %8.1f %8.1f %8d", modo, peticiones / segundos,
+                        latencias[peticiones / 2] / 1e6, latencias[(int) (peticiones * 0.99)] / 1e6,
+                        latencias[peticiones - 1] / 1e6, errores.get());
+            }
+        } finally {
+            contexto.close();
+        }
+    }
+
+    private static void lanzar(HttpClient http, ExecutorService clientes, URI uri, int concurrencia,
+                               int peticiones, int desplazamiento) throws InterruptedException {
+        lanzar(http, clientes, uri, concurrencia, peticiones, desplazamiento, new long[peticiones], new AtomicInteger());
+    }
+
+    /**
+     * Envía las peticiones limitando cuántas están en curso a la vez.
+     */
+    private static void lanzar(HttpClient http, ExecutorService clientes, URI uri, int concurrencia, int peticiones,
+                               int desplazamiento, long[] latencias, AtomicInteger errores) throws InterruptedException {
+        Semaphore enCurso = new Semaphore(concurrencia);
+        for (int i = 0; i < peticiones; i++) {
+            int n = i;
+            enCurso.acquire();
+            clientes.submit(() -> {
+                int usuario = desplazamiento + n;
+                String cuerpo = "{\"fecha\":\"2030-01-01\",\"hora\":\"10:00:00\",\"estado\":\"PENDIENTE\","
+                        + "\"pacienteId\":" + (2 * usuario + 1) + ",\"medicoId\":" + (2 * usuario + 2) + "}";
+                HttpRequest peticion = HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                        .build();
+                long inicio = System.nanoTime();
+                try {
+                    HttpResponse<Void> respuesta = http.send(peticion, HttpResponse.BodyHandlers.discarding());
+                    if (respuesta.statusCode() != 201) {
+                        errores.incrementAndGet();
+                    }
+                } catch (IOException | InterruptedException e) {
+                    errores.incrementAndGet();
+                } finally {
+                    latencias[n] = System.nanoTime() - inicio;
+                    enCurso.release();
+                }
+            });
+        }
+        enCurso.acquire(concurrencia);
+        enCurso.release(concurrencia);
+    }
+}
@@ -0,0 +1,419 @@
+package com.medicagenda.citas_service.benchmark;
+
+import com.medicagenda.citas_service.CitasServiceApplication;
+import com.medicagenda.citas_service.infraestructura.proyeccion.ProyeccionUsuarios;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga de extremo a extremo de citas-service.
+ * <p>
+ * Arranca un {@link UsuariosServiceSimulado} con latencia y tasa de error configurables,
+ * levanta la aplicación con la configuración de <code>src/main/resources</code> sobre H2
+ * en modo MySQL y lanza una mezcla de operaciones CRUD sobre
+ * <code>/api/citas</code> a un ritmo fijo de peticiones por segundo. Las peticiones se
+ * programan en bucle abierto: la latencia se mide desde el instante en que debía
+ * enviarse cada una, de modo que un servicio lento no reduce la carga ni oculta
+ * la cola de espera.
+ * </p>
+ *
+ * <pre>
+ * mvn -Pcarga test-compile exec:java@carga -Drps=300 -Dduracion=60 -Dlatencia=50 -DtasaError=0.02
+ * </pre>
+ *
+ * <ul>
+ *     <li><code>rps</code>: peticiones por segundo objetivo (por defecto 200).</li>
+ *     <li><code>duracion</code>: segundos de medición (por defecto 60).</li>
+ *     <li><code>calentamiento</code>: segundos de carga previa que no se miden (por defecto 10).</li>
+ *     <li><code>latencia</code> y <code>variacion</code>: retardo fijo y aleatorio máximo de
+ *     usuarios-service en ms (por defecto 20 y 10).</li>
+ *     <li><code>tasaError</code>: fracción de respuestas 503 de usuarios-service (por defecto 0).</li>
+ *     <li><code>mezcla</code>: peso de cada operación (por defecto
+ *     <code>crear=30,obtener=40,listar=15,actualizar=10,eliminar=5</code>).</li>
+ *     <li><code>medicos</code>: número de médicos distintos (por defecto 200).</li>
+ *     <li><code>maximoEnCurso</code>: peticiones en curso a partir de las cuales se descartan
+ *     las nuevas (por defecto 10000).</li>
+ *     <li><code>virtual</code>: activa los hilos virtuales en la aplicación (por defecto false).</li>
+ *     <li><code>usuarios</code>: usuarios de la instantánea que carga la copia local de tipos,
+ *     con IDs desde 1 (por defecto 100000); los demás se consultan a usuarios-service.</li>
+ *     <li><code>auditoria</code>: activa el registro de auditoría de cambios de citas, escrito en
+ *     <code>target/carga-auditoria</code> (por defecto true).</li>
+ *     <li><code>limiteTasa</code>: aplica el límite de peticiones por cliente; todas las
+ *     peticiones de la carga salen de la misma IP (por defecto false).</li>
+ * </ul>
+ *
+ * Al terminar imprime, por operación, el número de peticiones, los errores por tipo y
+ * los percentiles de latencia.
+ *
+ * @since 2025-06-19
+ */
+public final class CargaCitas {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final LocalDate PRIMER_DIA = LocalDate.of(2030, 1, 1);
+    private static final LocalTime PRIMERA_HORA = LocalTime.of(8, 0);
+    private static final int HUECOS_POR_DIA = 20;
+    private static final int CITAS_RECORDADAS = 16_384;
+
+    /**
+     * Operaciones de la mezcla de carga.
+     */
+    enum Operacion {
+        CREAR, OBTENER, LISTAR, ACTUALIZAR, ELIMINAR
+    }
+
+    /**
+     * Cita creada durante la prueba.
+     *
+     * @param id ID asignado por el servicio
+     * @param n  índice de creación, del que se derivan paciente, médico, fecha y hora
+     */
+    private record Reserva(int id, int n) {
+    }
+
+    private final HttpClient http;
+    private final URI base;
+    private final int medicos;
+    private final Operacion[] tabla;
+    private final int maximoEnCurso;
+    private final Semaphore enCurso;
+    private final AtomicInteger creadas = new AtomicInteger();
+    private final AtomicReferenceArray<Reserva> reservas = new AtomicReferenceArray<>(CITAS_RECORDADAS);
+    private final Map<Operacion, Estadistica> estadisticas = new EnumMap<>(Operacion.class);
+    private final LongAdder descartadas = new LongAdder();
+
+    private CargaCitas(HttpClient http, URI base, int medicos, Operacion[] tabla, int maximoEnCurso) {
+        this.http = http;
+        this.base = base;
+        this.medicos = medicos;
+        this.tabla = tabla;
+        this.maximoEnCurso = maximoEnCurso;
+        this.enCurso = new Semaphore(maximoEnCurso);
+        for (Operacion operacion : Operacion.values()) {
+            estadisticas.put(operacion, new Estadistica());
+        }
+    }
+
+    /**
+     * Ejecuta la prueba de carga.
+     *
+     * @param args no se usan
+     * @throws Exception si falla el arranque o la carga
+     */
+    public static void main(String[] args) throws Exception {
+        int rps = Integer.getInteger("rps", 200);
+        int duracion = Integer.getInteger("duracion", 60);
+        int calentamiento = Integer.getInteger("calentamiento", 10);
+        int latencia = Integer.getInteger("latencia", 20);
+        int variacion = Integer.getInteger("variacion", 10);
+        double tasaError = Double.parseDouble(System.getProperty("tasaError", "0"));
+        String mezcla = System.getProperty("mezcla", "crear=30,obtener=40,listar=15,actualizar=10,eliminar=5");
+        int medicos = Integer.getInteger("medicos", 200);
+        int maximoEnCurso = Integer.getInteger("maximoEnCurso", 10_000);
+        boolean virtual = Boolean.getBoolean("virtual");
+        int usuariosProyectados = Integer.getInteger("usuarios", 100_000);
+        boolean auditoria = Boolean.parseBoolean(System.getProperty("auditoria", "true"));
+        boolean limiteTasa = Boolean.getBoolean("limiteTasa");
+
+        try (UsuariosServiceSimulado usuarios = new UsuariosServiceSimulado(0, latencia, variacion, tasaError,
+                usuariosProyectados);
+             ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            // La configuración de producción (src/main/resources) con la base de datos cambiada por H2;
+            // los argumentos tienen prioridad sobre el fichero
+            String configuracion = CitasServiceApplication.class.getProtectionDomain().getCodeSource().getLocation()
+                    + "application.properties";
+            ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CitasServiceApplication.class)
+                    .run("--spring.config.location=" + configuracion,
+                            "--server.port=0",
+                            "--spring.datasource.url=jdbc:h2:mem:carga;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                            "--spring.datasource.username=sa",
+                            "--spring.datasource.password=",
+                            "--spring.datasource.driver-class-name=org.h2.Driver",
+                            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                            "--spring.jpa.hibernate.ddl-auto=create-drop",
+                            "--spring.jpa.show-sql=false",
+                            "--spring.threads.virtual.enabled=" + virtual,
+                            "--usuarios-service.url=" + usuarios.url(),
+                            "--citas.auditoria.habilitada=" + auditoria,
+                            "--citas.auditoria.directorio=target/carga-auditoria",
+                            "--citas.limite-tasa.habilitado=" + limiteTasa,
+                            "--logging.level.root=WARN",
+                            "--logging.level.com.github.benmanes.caffeine=ERROR");
+            try {
+                int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+                HttpClient http = HttpClient.newBuilder()
+                        .executor(clientes)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                CargaCitas carga = new CargaCitas(http, URI.create("http://localhost:" + puerto + "/api/citas"),
+                        medicos, tabla(mezcla), maximoEnCurso);
+
+                // La copia local de tipos se carga en segundo plano; se espera a que esté lista como mucho un minuto
+                ProyeccionUsuarios proyeccion = contexto.getBean(ProyeccionUsuarios.class);
+                long limiteCarga = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+                while (!proyeccion.lista() && System.nanoTime() < limiteCarga) {
+                    Thread.sleep(100);
+                }
+                carga.lanzar(clientes, rps, calentamiento);
+                carga.reiniciar();
+                long peticionesUsuarios = usuarios.peticiones();
+                long erroresUsuarios = usuarios.errores();
+                carga.lanzar(clientes, rps, duracion);
+
+                System.out.printf("%nrps=%d duracion=%ds latencia=%d+%dms tasaError=%.3f virtual=%b usuarios=%d auditoria=%b limiteTasa=%b%n",
+                        rps, duracion, latencia, variacion, tasaError, virtual, usuariosProyectados, auditoria, limiteTasa);
+                System.out.printf("mezcla=%s%n", mezcla);
+                carga.imprimir(duracion);
+                System.out.printf("usuarios-service: %d peticiones, %d errores simulados%n",
+                        usuarios.peticiones() - peticionesUsuarios, usuarios.errores() - erroresUsuarios);
+            } finally {
+                contexto.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Lanza peticiones al ritmo indicado durante un tiempo y espera a que terminen.
+     *
+     * @param clientes ejecutor de las peticiones
+     * @param rps      peticiones por segundo
+     * @param segundos duración de la carga
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private void lanzar(ExecutorService clientes, int rps, int segundos) throws InterruptedException {
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / rps;
+        long total = (long) rps * segundos;
+        long inicio = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long programada = inicio + i * intervalo;
+            long espera = programada - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            if (!enCurso.tryAcquire()) {
+                descartadas.increment();
+                continue;
+            }
+            Operacion operacion = tabla[ThreadLocalRandom.current().nextInt(tabla.length)];
+            clientes.submit(() -> {
+                try {
+                    ejecutar(operacion, programada);
+                } finally {
+                    enCurso.release();
+                }
+            });
+        }
+        enCurso.acquire(maximoEnCurso);
+        enCurso.release(maximoEnCurso);
+    }
+
+    /**
+     * Ejecuta una operación y registra su latencia desde el instante programado.
+     * Si la operación necesita una cita existente y aún no hay ninguna, se crea una.
+     *
+     * @param operacion  operación elegida
+     * @param programada instante en que debía enviarse, en nanosegundos
+     */
+    private void ejecutar(Operacion operacion, long programada) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int recordadas = Math.min(creadas.get(), CITAS_RECORDADAS);
+        int hueco = recordadas == 0 ? -1 : aleatorio.nextInt(recordadas);
+        Reserva reserva = switch (operacion) {
+            case OBTENER, ACTUALIZAR -> hueco < 0 ? null : reservas.get(hueco);
+            case ELIMINAR -> hueco < 0 ? null : reservas.getAndSet(hueco, null);
+            default -> null;
+        };
+        if (reserva == null && operacion != Operacion.LISTAR) {
+            operacion = Operacion.CREAR;
+        }
+
+        int n = operacion == Operacion.CREAR ? creadas.getAndIncrement() : reserva == null ? 0 : reserva.n();
+        HttpRequest peticion = switch (operacion) {
+            case CREAR -> json(HttpRequest.newBuilder(base), "POST", cuerpo(n, "PENDIENTE"));
+            case OBTENER -> HttpRequest.newBuilder(base.resolve("citas/" + reserva.id())).GET().build();
+            case LISTAR -> HttpRequest.newBuilder(URI.create(base + "?limite=50&medicoId="
+                    + medico(aleatorio.nextInt(medicos)))).GET().build();
+            case ACTUALIZAR -> json(HttpRequest.newBuilder(base.resolve("citas/" + reserva.id())), "PUT",
+                    cuerpo(n, "CONFIRMADA"));
+            case ELIMINAR -> HttpRequest.newBuilder(base.resolve("citas/" + reserva.id())).DELETE().build();
+        };
+
+        Estadistica estadistica = estadisticas.get(operacion);
+        try {
+            HttpResponse<String> respuesta = http.send(peticion, HttpResponse.BodyHandlers.ofString());
+            estadistica.registrar(respuesta.statusCode(), System.nanoTime() - programada);
+            if (operacion == Operacion.CREAR && respuesta.statusCode() == 201) {
+                Matcher matcher = ID.matcher(respuesta.body());
+                if (matcher.find()) {
+                    reservas.set(n % CITAS_RECORDADAS, new Reserva(Integer.parseInt(matcher.group(1)), n));
+                }
+            }
+        } catch (IOException e) {
+            estadistica.registrar(0, System.nanoTime() - programada);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Construye el cuerpo de una cita. El índice de creación determina un paciente único
+     * y un hueco libre del médico, de modo que las creaciones no chocan entre sí.
+     *
+     * @param n      índice de creación
+     * @param estado estado de la cita
+     * @return cuerpo JSON
+     */
+    private String cuerpo(int n, String estado) {
+        int vuelta = n / medicos;
+        LocalDate fecha = PRIMER_DIA.plusDays(vuelta / HUECOS_POR_DIA);
+        LocalTime hora = PRIMERA_HORA.plusMinutes(30L * (vuelta % HUECOS_POR_DIA));
+        return "{\"fecha\":\"" + fecha + "\",\"hora\":\"" + hora + ":00\",\"estado\":\"" + estado + "\","
+                + "\"observaciones\":\"Prueba de carga\",\"pacienteId\":" + (2 * n + 1)
+                + ",\"medicoId\":" + medico(n % medicos) + "}";
+    }
+
+    private static int medico(int indice) {
+        return 2 * indice + 2;
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String metodo, String cuerpo) {
+        return builder.header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    /**
+     * Descarta las mediciones del calentamiento.
+     */
+    private void reiniciar() {
+        estadisticas.values().forEach(Estadistica::reiniciar);
+        descartadas.reset();
+    }
+
+    /**
+     * Imprime los resultados de cada operación y el total.
+     *
+     * @param segundos duración de la medición
+     */
+    private void imprimir(int segundos) {
+        System.out.printf("%-11s %8s %8s %6s %6s %6s %6s %8s %8s %8s %8s %8s%n", "operacion", "total", "pet/s",
+                "2xx", "4xx", "5xx", "io", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(3);
+        long[] codigos = new long[4];
+        for (Map.Entry<Operacion, Estadistica> entrada : estadisticas.entrySet()) {
+            Estadistica estadistica = entrada.getValue();
+            Histogram histograma = estadistica.latencias.getIntervalHistogram();
+            total.add(histograma);
+            long[] porTipo = estadistica.codigos();
+            for (int i = 0; i < codigos.length; i++) {
+                codigos[i] += porTipo[i];
+            }
+            fila(entrada.getKey().name().toLowerCase(), histograma, porTipo, segundos);
+        }
+        fila("total", total, codigos, segundos);
+        System.out.printf("descartadas por exceso de peticiones en curso: %d%n", descartadas.sum());
+    }
+
+    private static void fila(String nombre, Histogram histograma, long[] codigos, int segundos) {
+        long total = histograma.getTotalCount();
+        System.out.printf("%-11s %8d %8.1f %6d %6d %6d %6d %8.1f %8.1f %8.1f %8.1f %8.1f%n", nombre, total,
+                (double) total / segundos, codigos[0], codigos[1], codigos[2], codigos[3],
+                milisegundos(histograma, 50), milisegundos(histograma, 90), milisegundos(histograma, 99),
+                milisegundos(histograma, 99.9), histograma.getMaxValue() / 1e6);
+    }
+
+    private static double milisegundos(Histogram histograma, double percentil) {
+        return histograma.getTotalCount() == 0 ? 0 : histograma.getValueAtPercentile(percentil) / 1e6;
+    }
+
+    /**
+     * Construye la tabla de sorteo de operaciones a partir de sus pesos.
+     *
+     * @param mezcla pesos con formato <code>operacion=peso,...</code>
+     * @return tabla con cada operación repetida según su peso
+     */
+    private static Operacion[] tabla(String mezcla) {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        for (String parte : mezcla.split(",")) {
+            String[] claveValor = parte.trim().split("=");
+            pesos.put(Operacion.valueOf(claveValor[0].trim().toUpperCase()), Integer.parseInt(claveValor[1].trim()));
+        }
+        Operacion[] tabla = new Operacion[pesos.values().stream().mapToInt(Integer::intValue).sum()];
+        int i = 0;
+        for (Map.Entry<Operacion, Integer> peso : pesos.entrySet()) {
+            for (int j = 0; j < peso.getValue(); j++) {
+                tabla[i++] = peso.getKey();
+            }
+        }
+        return tabla;
+    }
+
+    /**
+     * Latencias y códigos de respuesta de una operación.
+     */
+    private static final class Estadistica {
+
+        private final Recorder latencias = new Recorder(3);
+        private final LongAdder correctas = new LongAdder();
+        private final LongAdder erroresCliente = new LongAdder();
+        private final LongAdder erroresServidor = new LongAdder();
+        private final LongAdder erroresConexion = new LongAdder();
+
+        /**
+         * Registra una respuesta.
+         *
+         * @param codigo   código HTTP, o 0 si falló la conexión
+         * @param duracion latencia en nanosegundos
+         */
+        void registrar(int codigo, long duracion) {
+            latencias.recordValue(duracion);
+            if (codigo == 0) {
+                erroresConexion.increment();
+            } else if (codigo >= 500) {
+                erroresServidor.increment();
+            } else if (codigo >= 400) {
+                erroresCliente.increment();
+            } else {
+                correctas.increment();
+            }
+        }
+
+        long[] codigos() {
+            return new long[]{correctas.sum(), erroresCliente.sum(), erroresServidor.sum(), erroresConexion.sum()};
+        }
+
+        void reiniciar() {
+            latencias.reset();
+            correctas.reset();
+            erroresCliente.reset();
+            erroresServidor.reset();
+            erroresConexion.reset();
+        }
+    }
+}
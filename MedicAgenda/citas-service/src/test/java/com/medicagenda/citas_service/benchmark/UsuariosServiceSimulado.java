@@ -0,0 +1,204 @@
+package com.medicagenda.citas_service.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * usuarios-service simulado para benchmarks y pruebas de carga.
+ * <p>
+ * Atiende <code>GET /api/usuarios/{id}</code> y <code>POST /api/usuarios/tipos</code>.
+ * Los IDs impares son pacientes y los pares médicos. Cada respuesta se retrasa una
+ * latencia fija más una variación aleatoria, y una fracción configurable de las
+ * peticiones responde <code>503</code> para simular un servicio degradado.
+ * </p>
+ * <p>
+ * También atiende, sin retardo ni errores y sin contarlas, las lecturas de la copia
+ * local de citas-service: <code>GET /api/usuarios/tipos</code> devuelve los usuarios
+ * del 1 al número indicado y <code>GET /api/usuarios/eventos</code> no devuelve eventos.
+ * </p>
+ *
+ * @since 2025-06-19
+ */
+final class UsuariosServiceSimulado implements AutoCloseable {
+
+    private static final Pattern NUMERO = Pattern.compile("\\d+");
+
+    private final HttpServer servidor;
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final int latencia;
+    private final int variacion;
+    private final double tasaError;
+    private final int usuarios;
+    private final LongAdder peticiones = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+
+    /**
+     * Arranca el servidor simulado.
+     *
+     * @param puerto    puerto de escucha, o 0 para uno libre
+     * @param latencia  retardo fijo de cada respuesta en milisegundos
+     * @param variacion retardo aleatorio adicional máximo en milisegundos
+     * @param tasaError fracción de peticiones que responden 503, entre 0 y 1
+     * @throws IOException si no se puede abrir el puerto
+     */
+    UsuariosServiceSimulado(int puerto, int latencia, int variacion, double tasaError) throws IOException {
+        this(puerto, latencia, variacion, tasaError, 0);
+    }
+
+    /**
+     * Arranca el servidor simulado con una instantánea de usuarios para la copia local.
+     *
+     * @param puerto    puerto de escucha, o 0 para uno libre
+     * @param latencia  retardo fijo de cada respuesta en milisegundos
+     * @param variacion retardo aleatorio adicional máximo en milisegundos
+     * @param tasaError fracción de peticiones que responden 503, entre 0 y 1
+     * @param usuarios  número de usuarios de la instantánea de tipos, con IDs desde 1
+     * @throws IOException si no se puede abrir el puerto
+     */
+    UsuariosServiceSimulado(int puerto, int latencia, int variacion, double tasaError, int usuarios)
+            throws IOException {
+        this.usuarios = usuarios;
+        this.latencia = latencia;
+        this.variacion = variacion;
+        this.tasaError = tasaError;
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 1024);
+        servidor.setExecutor(hilos);
+        servidor.createContext("/api/usuarios", this::atender);
+        servidor.start();
+    }
+
+    /**
+     * Obtiene la URL base del servidor.
+     *
+     * @return URL base, sin barra final
+     */
+    String url() {
+        return "http://localhost:" + servidor.getAddress().getPort();
+    }
+
+    /**
+     * Obtiene el número de peticiones atendidas.
+     *
+     * @return peticiones atendidas
+     */
+    long peticiones() {
+        return peticiones.sum();
+    }
+
+    /**
+     * Obtiene el número de peticiones respondidas con error.
+     *
+     * @return peticiones con error simulado
+     */
+    long errores() {
+        return errores.sum();
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        hilos.shutdownNow();
+    }
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            if ("GET".equals(intercambio.getRequestMethod()) && atenderCopiaLocal(intercambio)) {
+                return;
+            }
+            peticiones.increment();
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            long retardo = latencia + (variacion > 0 ? aleatorio.nextInt(variacion + 1) : 0);
+            if (retardo > 0) {
+                Thread.sleep(retardo);
+            }
+            if (tasaError > 0 && aleatorio.nextDouble() < tasaError) {
+                errores.increment();
+                intercambio.sendResponseHeaders(503, -1);
+                return;
+            }
+            String ruta = intercambio.getRequestURI().getPath();
+            StringBuilder cuerpo = new StringBuilder();
+            if (ruta.endsWith("/tipos")) {
+                String ids = new String(intercambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                Matcher matcher = NUMERO.matcher(ids);
+                cuerpo.append('[');
+                while (matcher.find()) {
+                    if (cuerpo.length() > 1) {
+                        cuerpo.append(',');
+                    }
+                    cuerpo.append(usuario(Integer.parseInt(matcher.group())));
+                }
+                cuerpo.append(']');
+            } else {
+                cuerpo.append(usuario(Integer.parseInt(ruta.substring(ruta.lastIndexOf('/') + 1))));
+            }
+            responder(intercambio, cuerpo.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Atiende las lecturas de la instantánea de tipos y de los eventos.
+     *
+     * @param intercambio petición GET
+     * @return true si la petición era una de ellas
+     * @throws IOException si falla la respuesta
+     */
+    private boolean atenderCopiaLocal(HttpExchange intercambio) throws IOException {
+        String ruta = intercambio.getRequestURI().getPath();
+        if (ruta.endsWith("/eventos")) {
+            responder(intercambio, "{\"eventos\":[],\"ultimoEventoId\":0}");
+            return true;
+        }
+        if (!ruta.endsWith("/tipos")) {
+            return false;
+        }
+        int despuesDe = 0;
+        int limite = 5000;
+        String consulta = intercambio.getRequestURI().getQuery();
+        if (consulta != null) {
+            for (String parametro : consulta.split("&")) {
+                String[] partes = parametro.split("=", 2);
+                if (partes.length == 2 && partes[0].equals("despuesDe")) {
+                    despuesDe = Integer.parseInt(partes[1]);
+                } else if (partes.length == 2 && partes[0].equals("limite")) {
+                    limite = Integer.parseInt(partes[1]);
+                }
+            }
+        }
+        StringBuilder cuerpo = new StringBuilder("{\"ultimoEventoId\":0,\"tipos\":[");
+        for (int id = despuesDe + 1; id <= Math.min(usuarios, despuesDe + limite); id++) {
+            if (id > despuesDe + 1) {
+                cuerpo.append(',');
+            }
+            cuerpo.append(usuario(id));
+        }
+        responder(intercambio, cuerpo.append("]}").toString());
+        return true;
+    }
+
+    private static String usuario(int id) {
+        return "{\"id\":" + id + ",\"tipo\":\"" + (id % 2 == 1 ? "PACIENTE" : "MEDICO") + "\"}";
+    }
+
+    private static void responder(HttpExchange intercambio, String cuerpo) throws IOException {
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(200, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+}
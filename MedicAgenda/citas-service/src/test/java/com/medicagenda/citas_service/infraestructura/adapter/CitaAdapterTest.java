@@ -0,0 +1,64 @@
+package com.medicagenda.citas_service.infraestructura.adapter;
+
+import com.medicagenda.citas_service.IntegracionCitas;
+import com.medicagenda.citas_service.entity.Cita;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CitaAdapterTest extends IntegracionCitas {
+
+    @Autowired
+    private CitaAdapter adapter;
+
+    @Test
+    void unaCitaInvalidaEnMitadDelLoteSoloFallaEnSuFila() throws Exception {
+        Cita primera = cita(151, "09:00");
+        Cita invalida = cita(152, "09:30");
+        invalida.setEstado(null);
+        Cita ultima = cita(153, "10:00");
+
+        List<String> errores = adapter.guardarLote(List.of(primera, invalida, ultima));
+
+        assertThat(errores.get(0)).isNull();
+        assertThat(errores.get(1)).isEqualTo("La cita no cumple las restricciones de la base de datos.");
+        assertThat(errores.get(2)).isNull();
+        assertThat(primera.getId()).isNotNull();
+        assertThat(ultima.getId()).isNotNull();
+        mockMvc.perform(get("/api/citas").param("medicoId", "1051"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.citas.length()").value(2))
+                .andExpect(jsonPath("$.citas[0].id").value(primera.getId()))
+                .andExpect(jsonPath("$.citas[1].id").value(ultima.getId()));
+    }
+
+    @Test
+    void unaCitaDuplicadaEnMitadDelLoteRecibeSuError() {
+        Cita primera = cita(154, "11:00");
+        Cita duplicada = cita(155, "11:00");
+        Cita ultima = cita(156, "11:30");
+
+        List<String> errores = adapter.guardarLote(List.of(primera, duplicada, ultima));
+
+        assertThat(errores).containsExactly(null, "El médico ya tiene una cita a esa fecha y hora.", null);
+        assertThat(ultima.getId()).isNotNull();
+    }
+
+    private static Cita cita(int pacienteId, String hora) {
+        Cita cita = new Cita();
+        cita.setFecha(LocalDate.of(2031, 7, 1));
+        cita.setHora(LocalTime.parse(hora));
+        cita.setEstado(Cita.Estado.PENDIENTE);
+        cita.setPacienteId(pacienteId);
+        cita.setMedicoId(1051);
+        return cita;
+    }
+}
@@ -0,0 +1,93 @@
+package com.medicagenda.citas_service.infraestructura.adapter;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.infraestructura.config.UsuariosServiceProperties;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CitaUsuarioTipoCacheAdapterTest {
+
+    private final CitaUsuarioValidatorAdapter remoto = mock(CitaUsuarioValidatorAdapter.class);
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private CitaUsuarioResilienteAdapter resiliente;
+    private CitaUsuarioTipoCacheAdapter cache;
+
+    @BeforeEach
+    void crear() {
+        UsuariosServiceProperties properties = new UsuariosServiceProperties();
+        properties.getColapsador().setHabilitado(false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        resiliente = new CitaUsuarioResilienteAdapter(remoto, circuitBreakers, BulkheadRegistry.ofDefaults(),
+                properties, registry);
+        cache = new CitaUsuarioTipoCacheAdapter(resiliente, properties, registry);
+    }
+
+    @Test
+    void elTipoDeRespaldoNoSeGuardaYSeRefrescaAlCerrarseElCircuito() throws Exception {
+        when(remoto.obtenerTipoUsuarioAsync(7)).thenReturn(CompletableFuture.completedFuture(UsuarioTipo.MEDICO));
+        assertThat(resiliente.obtenerTipoUsuarioAsync(7).get(5, TimeUnit.SECONDS)).isEqualTo(UsuarioTipo.MEDICO);
+
+        circuito().transitionToForcedOpenState();
+        assertThat(cache.obtenerTipoUsuarioAsync(7).get(5, TimeUnit.SECONDS)).isEqualTo(UsuarioTipo.MEDICO);
+        verify(remoto, times(1)).obtenerTipoUsuarioAsync(7);
+
+        when(remoto.obtenerTipoUsuarioAsync(7)).thenReturn(CompletableFuture.completedFuture(UsuarioTipo.PACIENTE));
+        circuito().transitionToClosedState();
+
+        assertThat(cache.obtenerTipoUsuarioAsync(7).get(5, TimeUnit.SECONDS)).isEqualTo(UsuarioTipo.PACIENTE);
+        assertThat(cache.obtenerTipoUsuarioAsync(7).get(5, TimeUnit.SECONDS)).isEqualTo(UsuarioTipo.PACIENTE);
+        verify(remoto, times(2)).obtenerTipoUsuarioAsync(7);
+    }
+
+    @Test
+    void losTiposDeRespaldoDeUnLoteNoSeGuardan() throws Exception {
+        when(remoto.obtenerTiposUsuarioAsync(Set.of(7, 8))).thenReturn(CompletableFuture.completedFuture(
+                Map.of(7, UsuarioTipo.MEDICO, 8, UsuarioTipo.PACIENTE)));
+        resiliente.obtenerTiposUsuarioAsync(Set.of(7, 8)).get(5, TimeUnit.SECONDS);
+
+        circuito().transitionToForcedOpenState();
+        assertThat(cache.obtenerTiposUsuarioAsync(Set.of(7, 8)).get(5, TimeUnit.SECONDS))
+                .containsExactlyInAnyOrderEntriesOf(Map.of(7, UsuarioTipo.MEDICO, 8, UsuarioTipo.PACIENTE));
+
+        when(remoto.obtenerTiposUsuarioAsync(Set.of(7, 8))).thenReturn(CompletableFuture.completedFuture(
+                Map.of(7, UsuarioTipo.ADMIN, 8, UsuarioTipo.PACIENTE)));
+        circuito().transitionToClosedState();
+
+        assertThat(cache.obtenerTiposUsuarioAsync(Set.of(7, 8)).get(5, TimeUnit.SECONDS))
+                .containsEntry(7, UsuarioTipo.ADMIN);
+        verify(remoto, times(2)).obtenerTiposUsuarioAsync(Set.of(7, 8));
+    }
+
+    @Test
+    void conElCircuitoAbiertoLosTiposYaGuardadosSeSiguenSirviendo() throws Exception {
+        when(remoto.obtenerTipoUsuarioAsync(9)).thenReturn(CompletableFuture.completedFuture(UsuarioTipo.DESCONOCIDO));
+        when(remoto.obtenerTiposUsuarioAsync(Set.of(10))).thenReturn(CompletableFuture.completedFuture(
+                Map.of(10, UsuarioTipo.MEDICO)));
+        cache.obtenerTipoUsuarioAsync(9).get(5, TimeUnit.SECONDS);
+        resiliente.obtenerTiposUsuarioAsync(Set.of(10)).get(5, TimeUnit.SECONDS);
+
+        circuito().transitionToForcedOpenState();
+
+        assertThat(cache.obtenerTiposUsuarioAsync(Set.of(9, 10)).get(5, TimeUnit.SECONDS))
+                .containsExactlyInAnyOrderEntriesOf(Map.of(9, UsuarioTipo.DESCONOCIDO, 10, UsuarioTipo.MEDICO));
+    }
+
+    private CircuitBreaker circuito() {
+        return circuitBreakers.circuitBreaker(CitaUsuarioResilienteAdapter.INSTANCIA);
+    }
+}
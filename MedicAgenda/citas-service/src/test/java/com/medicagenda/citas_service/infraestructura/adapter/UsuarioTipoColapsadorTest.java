@@ -0,0 +1,125 @@
+package com.medicagenda.citas_service.infraestructura.adapter;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsuarioTipoColapsadorTest {
+
+    private final List<Set<Integer>> lotes = new CopyOnWriteArrayList<>();
+    private UsuarioTipoColapsador colapsador;
+
+    @AfterEach
+    void cerrar() {
+        colapsador.cerrar();
+    }
+
+    @Test
+    void lasConsultasSimultaneasSeAgrupanEnUnaSolaLlamada() throws Exception {
+        colapsador = new UsuarioTipoColapsador(responder(Map.of(1, UsuarioTipo.PACIENTE, 2, UsuarioTipo.MEDICO)),
+                Duration.ofMinutes(1), 100);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<CompletableFuture<UsuarioTipo>>> consultas = new ArrayList<>();
+        try (ExecutorService hilos = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 16; i++) {
+                int usuarioId = i % 2 + 1;
+                consultas.add(hilos.submit(() -> {
+                    salida.await();
+                    return colapsador.obtener(usuarioId);
+                }));
+            }
+            salida.countDown();
+        }
+
+        colapsador.cerrar();
+
+        assertThat(lotes).containsExactly(Set.of(1, 2));
+        for (int i = 0; i < consultas.size(); i++) {
+            assertThat(consultas.get(i).get().get(5, TimeUnit.SECONDS))
+                    .isEqualTo(i % 2 == 0 ? UsuarioTipo.PACIENTE : UsuarioTipo.MEDICO);
+        }
+    }
+
+    @Test
+    void lasConsultasRepetidasCompartenResultado() {
+        colapsador = new UsuarioTipoColapsador(responder(Map.of()), Duration.ofMinutes(1), 100);
+
+        assertThat(colapsador.obtener(7)).isSameAs(colapsador.obtener(7));
+    }
+
+    @Test
+    void alLlenarseElLoteSeEnviaSinEsperarLaVentana() throws Exception {
+        colapsador = new UsuarioTipoColapsador(responder(Map.of(1, UsuarioTipo.PACIENTE)), Duration.ofMinutes(1), 2);
+
+        CompletableFuture<UsuarioTipo> primero = colapsador.obtener(1);
+        CompletableFuture<UsuarioTipo> segundo = colapsador.obtener(2);
+
+        assertThat(primero.get(5, TimeUnit.SECONDS)).isEqualTo(UsuarioTipo.PACIENTE);
+        assertThat(lotes).containsExactly(Set.of(1, 2));
+        assertThat(segundo.get(5, TimeUnit.SECONDS)).isEqualTo(UsuarioTipo.DESCONOCIDO);
+    }
+
+    @Test
+    void elLoteSeEnviaAlCerrarseLaVentana() throws Exception {
+        colapsador = new UsuarioTipoColapsador(responder(Map.of(3, UsuarioTipo.MEDICO)), Duration.ofMillis(20), 100);
+
+        assertThat(colapsador.obtener(3).get(5, TimeUnit.SECONDS)).isEqualTo(UsuarioTipo.MEDICO);
+    }
+
+    @Test
+    void siFallaElLoteFallanTodasSusConsultas() {
+        IllegalStateException error = new IllegalStateException("usuarios-service caído");
+        colapsador = new UsuarioTipoColapsador(ids -> {
+            lotes.add(Set.copyOf(ids));
+            return CompletableFuture.failedFuture(error);
+        }, Duration.ofMinutes(1), 100);
+        List<CompletableFuture<UsuarioTipo>> consultas = List.of(
+                colapsador.obtener(1), colapsador.obtener(2), colapsador.obtener(3));
+
+        colapsador.cerrar();
+
+        assertThat(lotes).hasSize(1);
+        assertThat(consultas).allSatisfy(consulta -> assertThat(consulta)
+                .failsWithin(Duration.ofSeconds(5))
+                .withThrowableThat()
+                .havingRootCause()
+                .isSameAs(error));
+    }
+
+    @Test
+    void siLaConsultaLanzaUnErrorFallanTodasSusConsultas() {
+        colapsador = new UsuarioTipoColapsador(ids -> {
+            throw new IllegalStateException("sin conexión");
+        }, Duration.ofMinutes(1), 100);
+        CompletableFuture<UsuarioTipo> primera = colapsador.obtener(1);
+        CompletableFuture<UsuarioTipo> segunda = colapsador.obtener(2);
+
+        colapsador.cerrar();
+
+        assertThat(primera).isCompletedExceptionally();
+        assertThat(segunda).isCompletedExceptionally();
+    }
+
+    private Function<Set<Integer>, CompletableFuture<Map<Integer, UsuarioTipo>>> responder(Map<Integer, UsuarioTipo> tipos) {
+        return ids -> {
+            lotes.add(Set.copyOf(ids));
+            return CompletableFuture.completedFuture(tipos);
+        };
+    }
+}
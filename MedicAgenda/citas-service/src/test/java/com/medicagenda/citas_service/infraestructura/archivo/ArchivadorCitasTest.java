@@ -0,0 +1,118 @@
+package com.medicagenda.citas_service.infraestructura.archivo;
+
+import com.medicagenda.citas_service.IntegracionCitas;
+import com.medicagenda.citas_service.infraestructura.auditoria.AuditoriaCitas;
+import com.medicagenda.citas_service.infraestructura.auditoria.RegistroAuditoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ArchivadorCitasTest extends IntegracionCitas {
+
+    @Autowired
+    private ArchivadorCitas archivador;
+
+    @Autowired
+    private AuditoriaCitas auditoria;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archivarNoCambiaLoQueDevuelvenLasLecturas() throws Exception {
+        int confirmada = crear("2019-03-04", "09:00:00", 141, 1041);
+        crear("2019-03-04", "10:00:00", 142, 1041);
+        crear("2019-03-05", "09:00:00", 143, 1041);
+        mockMvc.perform(put("/api/citas/{id}", confirmada)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita("2019-03-04", "09:00:00", "CONFIRMADA", 141, 1041)))
+                .andExpect(status().isOk());
+        List<RegistroAuditoria> historial = esperarHistorial(confirmada);
+        String estadisticas = estadisticas("2019-03-01", "2019-03-31");
+        String agenda = agenda("2019-03-04");
+
+        Map<String, Object> resultado = archivador.archivar();
+
+        assertThat((long) resultado.get("trasladadas")).isGreaterThanOrEqualTo(3);
+        assertThat(estadisticas("2019-03-01", "2019-03-31")).isEqualTo(estadisticas);
+        assertThat(agenda("2019-03-04")).isEqualTo(agenda);
+        mockMvc.perform(get("/api/citas").param("medicoId", "1041").param("desde", "2019-03-01"))
+                .andExpect(jsonPath("$.citas.length()").value(3));
+        mockMvc.perform(get("/api/citas/{id}", confirmada))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("CONFIRMADA"));
+        mockMvc.perform(delete("/api/citas/{id}", confirmada)).andExpect(status().isConflict());
+        assertThat(auditoria.consultar(confirmada)).isEqualTo(historial);
+    }
+
+    @Test
+    void unaCitaArchivadaAntesDeLlegarSuEventoNoSeCuentaDosVeces() throws Exception {
+        int id = crear("2019-04-02", "09:00:00", 144, 1042);
+
+        // Traslado sin publicar CitasArchivadasEvent: los contadores siguen contando la cita
+        jdbcTemplate.update("INSERT INTO cita_archivo (id, fecha, hora, estado, paciente_id, medico_id, version, archivada) "
+                + "SELECT id, fecha, hora, estado, paciente_id, medico_id, version, CURRENT_TIMESTAMP FROM cita WHERE id = ?", id);
+        jdbcTemplate.update("DELETE FROM cita WHERE id = ?", id);
+
+        mockMvc.perform(get("/api/citas/estadisticas")
+                        .param("medicoId", "1042")
+                        .param("desde", "2019-04-01")
+                        .param("hasta", "2019-04-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totales.PENDIENTE").value(1))
+                .andExpect(jsonPath("$.dias.length()").value(1))
+                .andExpect(jsonPath("$.dias[0].total").value(1));
+    }
+
+    private String estadisticas(String desde, String hasta) throws Exception {
+        return mockMvc.perform(get("/api/citas/estadisticas")
+                        .param("medicoId", "1041")
+                        .param("desde", desde)
+                        .param("hasta", hasta))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totales.PENDIENTE").value(2))
+                .andExpect(jsonPath("$.totales.CONFIRMADA").value(1))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String agenda(String fecha) throws Exception {
+        return mockMvc.perform(get("/api/citas/medicos/{medicoId}/agenda/{fecha}", 1041, fecha))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.citas.length()").value(2))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    /**
+     * Espera a que el historial de la cita termine con su alta y su modificación. El
+     * directorio de auditoría se conserva entre ejecuciones, así que puede contener
+     * registros anteriores con el mismo ID.
+     */
+    private List<RegistroAuditoria> esperarHistorial(int citaId) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        List<RegistroAuditoria> historial = auditoria.consultar(citaId);
+        while (!terminaConAltaYCambio(historial) && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            historial = auditoria.consultar(citaId);
+        }
+        assertThat(terminaConAltaYCambio(historial)).isTrue();
+        return historial;
+    }
+
+    private static boolean terminaConAltaYCambio(List<RegistroAuditoria> historial) {
+        int n = historial.size();
+        return n >= 2 && historial.get(n - 2).operacion() == RegistroAuditoria.Operacion.CREADA
+                && historial.get(n - 1).operacion() == RegistroAuditoria.Operacion.MODIFICADA;
+    }
+}
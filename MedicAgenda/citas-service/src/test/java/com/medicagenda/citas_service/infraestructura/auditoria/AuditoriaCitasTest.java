@@ -0,0 +1,135 @@
+package com.medicagenda.citas_service.infraestructura.auditoria;
+
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.entity.Cita;
+import com.medicagenda.citas_service.infraestructura.config.AuditoriaProperties;
+import com.medicagenda.citas_service.infraestructura.evento.CitaModificadaEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditoriaCitasTest {
+
+    @TempDir
+    Path directorio;
+
+    private final AuditoriaProperties properties = new AuditoriaProperties();
+    private AuditoriaCitas auditoria;
+
+    @AfterEach
+    void detener() {
+        if (auditoria != null) {
+            auditoria.stop();
+        }
+    }
+
+    @Test
+    void conLaColaLlenaEsperaEnLugarDeDescartar() throws Exception {
+        properties.setCapacidadCola(1);
+        properties.setEsperaColaLlena(Duration.ofSeconds(10));
+        auditoria = arrancar();
+
+        try (ExecutorService hilos = Executors.newFixedThreadPool(4)) {
+            for (int hilo = 0; hilo < 4; hilo++) {
+                int primera = hilo * 500 + 1;
+                hilos.submit(() -> {
+                    for (int id = primera; id < primera + 500; id++) {
+                        auditoria.alModificarCita(new CitaModificadaEvent(null, cita(id, 10)));
+                    }
+                });
+            }
+        }
+        esperarEscritura(2_000);
+
+        assertThat(auditoria.estado())
+                .containsEntry("descartados", 0L)
+                .containsEntry("registros", 2_000L);
+        assertThat(new AuditoriaCitasHealthIndicator(auditoria).health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void elIndiceEstaAcotadoYLasDemasCitasSeLeenDeLosSegmentos() throws Exception {
+        properties.setMaximoCitasIndexadas(2);
+        auditoria = arrancar();
+        for (int id = 1; id <= 20; id++) {
+            auditoria.alModificarCita(new CitaModificadaEvent(null, cita(id, 10)));
+        }
+        for (int id = 1; id <= 20; id++) {
+            auditoria.alModificarCita(new CitaModificadaEvent(cita(id, 10), cita(id, 11)));
+        }
+        esperarEscritura(40);
+
+        for (int id = 1; id <= 20; id++) {
+            assertThat(auditoria.consultar(id))
+                    .extracting(RegistroAuditoria::operacion)
+                    .containsExactly(RegistroAuditoria.Operacion.CREADA, RegistroAuditoria.Operacion.MODIFICADA);
+        }
+        assertThat(auditoria.consultar(21)).isEmpty();
+        assertThat((long) auditoria.estado().get("citasIndexadas")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void trasReiniciarReconstruyeElHistorialDeCadaCita() throws Exception {
+        properties.setMaximoCitasIndexadas(3);
+        auditoria = arrancar();
+        for (int id = 1; id <= 10; id++) {
+            auditoria.alModificarCita(new CitaModificadaEvent(null, cita(id, 10)));
+            auditoria.alModificarCita(new CitaModificadaEvent(cita(id, 10), null));
+        }
+        esperarEscritura(20);
+        auditoria.stop();
+
+        auditoria = arrancar();
+        auditoria.alModificarCita(new CitaModificadaEvent(null, cita(11, 12)));
+        esperarEscritura(21);
+
+        for (int id = 1; id <= 10; id++) {
+            assertThat(auditoria.consultar(id))
+                    .extracting(RegistroAuditoria::operacion)
+                    .containsExactly(RegistroAuditoria.Operacion.CREADA, RegistroAuditoria.Operacion.ELIMINADA);
+        }
+        assertThat(auditoria.consultar(11)).extracting(RegistroAuditoria::secuencia).containsExactly(21L);
+    }
+
+    @Test
+    void laSaludCaeSiElRegistroNoEstaActivo() {
+        auditoria = new AuditoriaCitas(configurar(), new SimpleMeterRegistry());
+
+        assertThat(new AuditoriaCitasHealthIndicator(auditoria).health().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    private AuditoriaCitas arrancar() {
+        AuditoriaCitas nueva = new AuditoriaCitas(configurar(), new SimpleMeterRegistry());
+        nueva.start();
+        return nueva;
+    }
+
+    private AuditoriaProperties configurar() {
+        properties.setDirectorio(directorio.toString());
+        properties.setTamanoSegmento(DataSize.ofKilobytes(16));
+        return properties;
+    }
+
+    private void esperarEscritura(long registros) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while ((long) auditoria.estado().get("registros") < registros && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static CitaHorario cita(int id, int hora) {
+        return new CitaHorario(id, 3001, 301, LocalDate.of(2031, 4, 1), LocalTime.of(hora, 0), Cita.Estado.PENDIENTE);
+    }
+}
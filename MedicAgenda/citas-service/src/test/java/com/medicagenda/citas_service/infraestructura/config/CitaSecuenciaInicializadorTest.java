@@ -0,0 +1,43 @@
+package com.medicagenda.citas_service.infraestructura.config;
+
+import com.medicagenda.citas_service.IntegracionCitas;
+import com.medicagenda.citas_service.entity.Cita;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CitaSecuenciaInicializadorTest extends IntegracionCitas {
+
+    @Autowired
+    private CitaSecuenciaInicializador inicializador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void adelantaLaSecuenciaPorEncimaDelMayorId() throws Exception {
+        int id = crear("2031-02-01", "09:00:00", 111, 1011);
+        jdbcTemplate.execute("ALTER SEQUENCE cita_seq RESTART WITH 1");
+
+        inicializador.afterSingletonsInstantiated();
+
+        assertThat(siguienteValor()).isGreaterThan(id + Cita.TAMANO_ASIGNACION_ID);
+    }
+
+    @Test
+    void nuncaRetrocedeLaSecuencia() throws Exception {
+        int id = crear("2031-02-01", "10:00:00", 112, 1011);
+        long adelantada = id + 100L * Cita.TAMANO_ASIGNACION_ID;
+        jdbcTemplate.execute("ALTER SEQUENCE cita_seq RESTART WITH " + adelantada);
+
+        inicializador.afterSingletonsInstantiated();
+
+        assertThat(siguienteValor()).isGreaterThan(adelantada);
+    }
+
+    private long siguienteValor() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR cita_seq", Long.class);
+    }
+}
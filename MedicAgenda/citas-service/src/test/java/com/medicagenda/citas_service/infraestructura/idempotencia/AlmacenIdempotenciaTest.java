@@ -0,0 +1,83 @@
+package com.medicagenda.citas_service.infraestructura.idempotencia;
+
+import com.medicagenda.citas_service.IntegracionCitas;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AlmacenIdempotenciaTest extends IntegracionCitas {
+
+    @Test
+    void unaRepeticionRecibeLaRespuestaOriginalSinCrearOtraCita() throws Exception {
+        String cuerpo = cita("2031-06-02", "09:00:00", "PENDIENTE", 131, 1031);
+
+        MvcResult original = reservar("reserva-131", cuerpo).andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(AlmacenIdempotencia.CABECERA_REPETIDA))
+                .andReturn();
+        MvcResult repetida = reservar("reserva-131", cuerpo).andExpect(status().isCreated())
+                .andExpect(header().exists(AlmacenIdempotencia.CABECERA_REPETIDA))
+                .andReturn();
+
+        assertThat(id(repetida)).isEqualTo(id(original));
+        mockMvc.perform(get("/api/citas").param("medicoId", "1031"))
+                .andExpect(jsonPath("$.citas.length()").value(1));
+    }
+
+    @Test
+    void laMismaClaveConOtrosDatosSeRechaza() throws Exception {
+        reservar("reserva-132", cita("2031-06-02", "10:00:00", "PENDIENTE", 132, 1032))
+                .andExpect(status().isCreated());
+
+        reservar("reserva-132", cita("2031-06-02", "11:00:00", "PENDIENTE", 132, 1032))
+                .andExpect(status().isUnprocessableEntity());
+
+        mockMvc.perform(get("/api/citas").param("medicoId", "1032"))
+                .andExpect(jsonPath("$.citas.length()").value(1))
+                .andExpect(jsonPath("$.citas[0].hora").value("10:00:00"));
+    }
+
+    @Test
+    void lasRepeticionesSimultaneasEsperanALaOriginal() throws Exception {
+        String cuerpo = cita("2031-06-03", "09:00:00", "PENDIENTE", 133, 1033);
+        List<Future<MvcResult>> respuestas = new ArrayList<>();
+        try (ExecutorService hilos = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                respuestas.add(hilos.submit(() -> reservar("reserva-133", cuerpo).andReturn()));
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        for (Future<MvcResult> respuesta : respuestas) {
+            assertThat(respuesta.get().getResponse().getStatus()).isEqualTo(201);
+            ids.add(id(respuesta.get()));
+        }
+        assertThat(ids).containsOnly(ids.get(0));
+        mockMvc.perform(get("/api/citas").param("medicoId", "1033"))
+                .andExpect(jsonPath("$.citas.length()").value(1));
+    }
+
+    private ResultActions reservar(String clave, String cuerpo) throws Exception {
+        return mockMvc.perform(post("/api/citas")
+                .header(AlmacenIdempotencia.CABECERA, clave)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cuerpo));
+    }
+
+    private int id(MvcResult resultado) throws Exception {
+        return leer(resultado.getResponse().getContentAsString()).path("cita").path("id").asInt();
+    }
+}
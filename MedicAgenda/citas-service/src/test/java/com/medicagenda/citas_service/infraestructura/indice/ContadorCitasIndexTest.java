@@ -0,0 +1,74 @@
+package com.medicagenda.citas_service.infraestructura.indice;
+
+import com.medicagenda.citas_service.IntegracionCitas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ContadorCitasIndexTest extends IntegracionCitas {
+
+    @Autowired
+    private ContadorCitasIndex contadores;
+
+    @Test
+    void losContadoresSiguenLasAltasCambiosYBajas() throws Exception {
+        int primera = crear("2031-03-02", "09:00:00", 201, 2001);
+        crear("2031-03-02", "10:00:00", 202, 2001);
+        crear("2031-03-03", "09:00:00", 203, 2001);
+
+        estadisticas(2001)
+                .andExpect(jsonPath("$.totales.PENDIENTE").value(3))
+                .andExpect(jsonPath("$.dias.length()").value(2))
+                .andExpect(jsonPath("$.dias[0].fecha").value("2031-03-02"))
+                .andExpect(jsonPath("$.dias[0].total").value(2));
+
+        // Confirmar la primera cita y moverla a otro médico y otro día
+        mockMvc.perform(put("/api/citas/{id}", primera)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita("2031-03-04", "09:00:00", "CONFIRMADA", 201, 2002)))
+                .andExpect(status().isOk());
+
+        estadisticas(2001)
+                .andExpect(jsonPath("$.totales.PENDIENTE").value(2))
+                .andExpect(jsonPath("$.totales.CONFIRMADA").value(0))
+                .andExpect(jsonPath("$.dias[0].total").value(1));
+        estadisticas(2002)
+                .andExpect(jsonPath("$.totales.CONFIRMADA").value(1))
+                .andExpect(jsonPath("$.dias[0].fecha").value("2031-03-04"));
+
+        mockMvc.perform(delete("/api/citas/{id}", primera)).andExpect(status().isOk());
+
+        estadisticas(2002)
+                .andExpect(jsonPath("$.totales.CONFIRMADA").value(0))
+                .andExpect(jsonPath("$.dias.length()").value(0));
+    }
+
+    @Test
+    void recargarCoincideConLosContadoresMantenidos() throws Exception {
+        int id = crear("2031-03-10", "09:00:00", 204, 2003);
+        crear("2031-03-10", "09:30:00", 205, 2003);
+        mockMvc.perform(delete("/api/citas/{id}", id)).andExpect(status().isOk());
+        estadisticas(2003).andExpect(jsonPath("$.totales.PENDIENTE").value(1));
+
+        contadores.recargar();
+
+        estadisticas(2003)
+                .andExpect(jsonPath("$.totales.PENDIENTE").value(1))
+                .andExpect(jsonPath("$.dias[0].fecha").value("2031-03-10"));
+    }
+
+    private ResultActions estadisticas(int medicoId) throws Exception {
+        return mockMvc.perform(get("/api/citas/estadisticas")
+                        .param("medicoId", Integer.toString(medicoId))
+                        .param("desde", "2031-03-01")
+                        .param("hasta", "2031-03-31"))
+                .andExpect(status().isOk());
+    }
+}
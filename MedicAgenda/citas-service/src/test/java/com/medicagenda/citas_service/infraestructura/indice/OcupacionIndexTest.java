@@ -0,0 +1,129 @@
+package com.medicagenda.citas_service.infraestructura.indice;
+
+import com.medicagenda.citas_service.dominio.model.CitaHorario;
+import com.medicagenda.citas_service.entity.Cita;
+import com.medicagenda.citas_service.infraestructura.evento.CitaModificadaEvent;
+import com.medicagenda.citas_service.infraestructura.evento.CitasArchivadasEvent;
+import com.medicagenda.citas_service.infraestructura.repository.CitaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OcupacionIndexTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2030, 3, 4);
+    private static final LocalTime HORA = LocalTime.of(10, 30);
+
+    private CitaRepository citaRepository;
+    private OcupacionIndex indice;
+
+    @BeforeEach
+    void crearIndice() {
+        citaRepository = mock(CitaRepository.class);
+        when(citaRepository.streamHorarios()).thenAnswer(invocacion -> Stream.empty());
+        indice = new OcupacionIndex(citaRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void todoPosiblementeOcupadoHastaCargar() {
+        assertThat(indice.medicoPosiblementeOcupado(1, FECHA, HORA)).isTrue();
+
+        indice.cargar();
+
+        assertThat(indice.medicoPosiblementeOcupado(1, FECHA, HORA)).isFalse();
+    }
+
+    @Test
+    void ocuparYLiberarUnaCita() {
+        indice.cargar();
+        CitaHorario cita = horario(1, 10, 20, HORA);
+
+        indice.alModificarCita(new CitaModificadaEvent(null, cita));
+
+        assertThat(indice.medicoPosiblementeOcupado(20, FECHA, HORA)).isTrue();
+        assertThat(indice.pacientePosiblementeOcupado(10, FECHA, HORA)).isTrue();
+        assertThat(indice.medicoPosiblementeOcupado(20, FECHA, HORA.plusMinutes(1))).isFalse();
+        assertThat(indice.medicoPosiblementeOcupado(20, FECHA.plusDays(1), HORA)).isFalse();
+
+        indice.alModificarCita(new CitaModificadaEvent(cita, null));
+
+        assertThat(indice.medicoPosiblementeOcupado(20, FECHA, HORA)).isFalse();
+        assertThat(indice.pacientePosiblementeOcupado(10, FECHA, HORA)).isFalse();
+    }
+
+    @Test
+    void minutoCompartidoSigueOcupadoHastaLiberarLaUltimaCita() {
+        indice.cargar();
+        CitaHorario primera = horario(1, 10, 20, HORA);
+        CitaHorario segunda = horario(2, 11, 20, HORA.plusSeconds(30));
+        indice.alModificarCita(new CitaModificadaEvent(null, primera));
+        indice.alModificarCita(new CitaModificadaEvent(null, segunda));
+
+        indice.alModificarCita(new CitaModificadaEvent(primera, null));
+
+        assertThat(indice.medicoPosiblementeOcupado(20, FECHA, HORA)).isTrue();
+
+        indice.alModificarCita(new CitaModificadaEvent(segunda, null));
+
+        assertThat(indice.medicoPosiblementeOcupado(20, FECHA, HORA)).isFalse();
+    }
+
+    @Test
+    void moverUnaCitaLiberaElHorarioAnterior() {
+        indice.cargar();
+        CitaHorario anterior = horario(1, 10, 20, HORA);
+        CitaHorario actual = horario(1, 10, 21, HORA.plusHours(1));
+        indice.alModificarCita(new CitaModificadaEvent(null, anterior));
+
+        indice.alModificarCita(new CitaModificadaEvent(anterior, actual));
+
+        assertThat(indice.medicoPosiblementeOcupado(20, FECHA, HORA)).isFalse();
+        assertThat(indice.medicoPosiblementeOcupado(21, FECHA, HORA.plusHours(1))).isTrue();
+        assertThat(indice.pacientePosiblementeOcupado(10, FECHA, HORA)).isFalse();
+        assertThat(indice.pacientePosiblementeOcupado(10, FECHA, HORA.plusHours(1))).isTrue();
+    }
+
+    @Test
+    void archivarDescartaLosDiasSinCitas() {
+        indice.cargar();
+        CitaHorario cita = horario(1, 10, 20, HORA);
+        indice.alModificarCita(new CitaModificadaEvent(null, cita));
+
+        indice.alArchivarCitas(new CitasArchivadasEvent(List.of(cita)));
+
+        assertThat(indice.medicoPosiblementeOcupado(20, FECHA, HORA)).isFalse();
+        assertThat(indice.verificar())
+                .containsEntry("diasMedico", 0)
+                .containsEntry("diasPaciente", 0)
+                .containsEntry("consistente", true);
+    }
+
+    @Test
+    void verificarDetectaDiferenciasConLaBaseDeDatos() {
+        CitaHorario enBd = horario(1, 10, 20, HORA);
+        CitaHorario compartida = horario(2, 11, 20, HORA.plusSeconds(30));
+        when(citaRepository.streamHorarios()).thenAnswer(invocacion -> Stream.of(enBd, compartida));
+        indice.cargar();
+
+        assertThat(indice.verificar()).containsEntry("consistente", true);
+
+        indice.alModificarCita(new CitaModificadaEvent(compartida, null));
+
+        assertThat(indice.verificar())
+                .containsEntry("diferenciasMedico", 1L)
+                .containsEntry("consistente", false);
+    }
+
+    private static CitaHorario horario(int id, int pacienteId, int medicoId, LocalTime hora) {
+        return new CitaHorario(id, medicoId, pacienteId, FECHA, hora, Cita.Estado.PENDIENTE);
+    }
+}
@@ -0,0 +1,64 @@
+package com.medicagenda.citas_service.infraestructura.limite;
+
+import com.medicagenda.citas_service.infraestructura.config.LimiteTasaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LimitadorTasaTest {
+
+    private final LimiteTasaProperties properties = new LimiteTasaProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void admiteUnaRafagaDeLaCapacidadYDespuesIndicaLaEspera() {
+        properties.setEscrituras(new LimiteTasaProperties.Limite(3, 10));
+        LimitadorTasa limitador = new LimitadorTasa(properties, registry);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "a")).isZero();
+        }
+        long espera = limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "a");
+
+        assertThat(espera).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(registry.counter("citas.limite.rechazadas", "clase", "escritura").count()).isEqualTo(1);
+    }
+
+    @Test
+    void laCubetaSeReponeAlRitmoConfigurado() throws Exception {
+        properties.setEscrituras(new LimiteTasaProperties.Limite(1, 20));
+        LimitadorTasa limitador = new LimitadorTasa(properties, registry);
+        assertThat(limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "a")).isZero();
+        long espera = limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "a");
+        assertThat(espera).isPositive();
+
+        TimeUnit.NANOSECONDS.sleep(espera + TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "a")).isZero();
+        assertThat(limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "a")).isPositive();
+    }
+
+    @Test
+    void cadaClienteYCadaClaseTienenSuCubeta() {
+        properties.setLecturas(new LimiteTasaProperties.Limite(1, 1));
+        properties.setEscrituras(new LimiteTasaProperties.Limite(1, 1));
+        LimitadorTasa limitador = new LimitadorTasa(properties, registry);
+
+        assertThat(limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "a")).isZero();
+        assertThat(limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "a")).isPositive();
+        assertThat(limitador.intentar(LimitadorTasa.Clase.LECTURA, "a")).isZero();
+        assertThat(limitador.intentar(LimitadorTasa.Clase.ESCRITURA, "b")).isZero();
+    }
+
+    @Test
+    void rechazaUnLimiteSinCapacidad() {
+        properties.setLecturas(new LimiteTasaProperties.Limite(0, 10));
+
+        assertThatThrownBy(() -> new LimitadorTasa(properties, registry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
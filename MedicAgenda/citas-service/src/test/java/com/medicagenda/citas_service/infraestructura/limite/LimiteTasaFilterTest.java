@@ -0,0 +1,77 @@
+package com.medicagenda.citas_service.infraestructura.limite;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicagenda.citas_service.infraestructura.config.LimiteTasaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimiteTasaFilterTest {
+
+    private final LimiteTasaProperties properties = new LimiteTasaProperties();
+    private LimiteTasaFilter filtro;
+
+    @BeforeEach
+    void crearFiltro() {
+        properties.setEscrituras(new LimiteTasaProperties.Limite(1, 0.5));
+        properties.setClavesConocidas(Set.of("integracion-a"));
+        filtro = new LimiteTasaFilter(new LimitadorTasa(properties, new SimpleMeterRegistry()),
+                properties, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    void superadoElLimiteRespondeDemasiadasPeticiones() throws Exception {
+        assertThat(publicar("10.0.0.1", null).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rechazada = publicar("10.0.0.1", null);
+
+        assertThat(rechazada.getStatus()).isEqualTo(429);
+        assertThat(rechazada.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(rechazada.getContentAsString()).contains("\"codigo\":429");
+    }
+
+    @Test
+    void cambiarDeClaveDesconocidaNoSaltaElLimite() throws Exception {
+        assertThat(publicar("10.0.0.2", "clave-1").getStatus()).isEqualTo(200);
+
+        assertThat(publicar("10.0.0.2", "clave-2").getStatus()).isEqualTo(429);
+        assertThat(publicar("10.0.0.2", null).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void unaClaveConocidaTieneSuPropiaCubeta() throws Exception {
+        assertThat(publicar("10.0.0.3", null).getStatus()).isEqualTo(200);
+
+        assertThat(publicar("10.0.0.3", "integracion-a").getStatus()).isEqualTo(200);
+        assertThat(publicar("10.0.0.4", "integracion-a").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void noLimitaLasRutasFueraDeLaApi() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/actuator/auditoriacitas");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filtro.doFilter(request, response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+    }
+
+    private MockHttpServletResponse publicar(String ip, String clave) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/citas");
+        request.setRemoteAddr(ip);
+        if (clave != null) {
+            request.addHeader(properties.getCabeceraCliente(), clave);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,146 @@
+package com.medicagenda.citas_service.infraestructura.proyeccion;
+
+import com.medicagenda.citas_service.dominio.model.UsuarioEvento;
+import com.medicagenda.citas_service.dominio.model.UsuarioEventoPagina;
+import com.medicagenda.citas_service.dominio.model.UsuarioTipo;
+import com.medicagenda.citas_service.dominio.model.UsuarioTiposInstantanea;
+import com.medicagenda.citas_service.dominio.port.out.UsuarioEventoFuentePort;
+import com.medicagenda.citas_service.entity.ProyeccionEstado;
+import com.medicagenda.citas_service.infraestructura.config.UsuariosServiceProperties;
+import com.medicagenda.citas_service.infraestructura.repository.ProyeccionEstadoRepository;
+import com.medicagenda.citas_service.infraestructura.repository.UsuarioTipoProyectadoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProyeccionUsuariosTest {
+
+    private final FuenteEnMemoria fuente = new FuenteEnMemoria();
+    private final UsuariosServiceProperties properties = new UsuariosServiceProperties();
+    private UsuarioTipoProyectadoRepository tipoRepository;
+    private ProyeccionEstadoRepository estadoRepository;
+
+    @BeforeEach
+    void crearRepositorios() {
+        tipoRepository = mock(UsuarioTipoProyectadoRepository.class);
+        estadoRepository = mock(ProyeccionEstadoRepository.class);
+        when(estadoRepository.findById(ProyeccionUsuarios.NOMBRE))
+                .thenReturn(Optional.of(new ProyeccionEstado(ProyeccionUsuarios.NOMBRE, 0)));
+        when(estadoRepository.save(any())).thenAnswer(invocacion -> invocacion.getArgument(0));
+        when(tipoRepository.streamTodos()).thenAnswer(invocacion -> Stream.empty());
+    }
+
+    @Test
+    void elCursorAvanzaHastaElUltimoEvento() {
+        properties.getProyeccion().setTamanoLote(100);
+        properties.getProyeccion().setSolape(99);
+        for (int id = 1; id <= 1_000; id++) {
+            fuente.publicar(id, id, UsuarioTipo.PACIENTE);
+        }
+        ProyeccionUsuarios proyeccion = crear();
+
+        proyeccion.sincronizar();
+
+        assertThat(proyeccion.estado())
+                .containsEntry("ultimoEventoAplicado", 1_000L)
+                .containsEntry("eventosPendientes", 0L)
+                .containsEntry("usuarios", 1_000);
+        assertThat(proyeccion.tipo(1)).isEqualTo(UsuarioTipo.PACIENTE);
+        assertThat(proyeccion.tipo(1_000)).isEqualTo(UsuarioTipo.PACIENTE);
+    }
+
+    @Test
+    void siguientesLecturasContinuanDesdeElUltimoAplicado() {
+        properties.getProyeccion().setTamanoLote(10);
+        properties.getProyeccion().setSolape(5);
+        for (int id = 1; id <= 25; id++) {
+            fuente.publicar(id, id, UsuarioTipo.PACIENTE);
+        }
+        ProyeccionUsuarios proyeccion = crear();
+        proyeccion.sincronizar();
+
+        fuente.publicar(26, 3, UsuarioTipo.MEDICO);
+        proyeccion.sincronizar();
+
+        assertThat(proyeccion.estado()).containsEntry("ultimoEventoAplicado", 26L);
+        assertThat(proyeccion.tipo(3)).isEqualTo(UsuarioTipo.MEDICO);
+        // Cada lectura empieza el solape por detrás del último evento aplicado
+        assertThat(fuente.lecturas).containsExactly(0L, 5L, 10L, 15L, 20L, 20L);
+    }
+
+    @Test
+    void aplicaLosEventosConfirmadosFueraDeOrdenDentroDelSolape() {
+        properties.getProyeccion().setTamanoLote(10);
+        properties.getProyeccion().setSolape(5);
+        for (int id = 1; id <= 8; id++) {
+            if (id != 6) {
+                fuente.publicar(id, id, UsuarioTipo.PACIENTE);
+            }
+        }
+        ProyeccionUsuarios proyeccion = crear();
+        proyeccion.sincronizar();
+        assertThat(proyeccion.tipo(6)).isNull();
+
+        fuente.publicar(6, 6, UsuarioTipo.MEDICO);
+        proyeccion.sincronizar();
+
+        assertThat(proyeccion.tipo(6)).isEqualTo(UsuarioTipo.MEDICO);
+        assertThat(proyeccion.estado()).containsEntry("ultimoEventoAplicado", 8L);
+    }
+
+    @Test
+    void rechazaUnSolapeQueNoCabeEnElLote() {
+        properties.getProyeccion().setTamanoLote(50);
+        properties.getProyeccion().setSolape(50);
+
+        assertThatThrownBy(this::crear)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("usuarios-service.proyeccion.solape");
+    }
+
+    private ProyeccionUsuarios crear() {
+        return new ProyeccionUsuarios(fuente, tipoRepository, estadoRepository,
+                mock(PlatformTransactionManager.class), properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Fuente de eventos que devuelve, en orden de ID, los eventos publicados posteriores
+     * al indicado y recuerda desde dónde se leyó cada vez.
+     */
+    private static final class FuenteEnMemoria implements UsuarioEventoFuentePort {
+
+        private final TreeMap<Long, UsuarioEvento> eventos = new TreeMap<>();
+        private final List<Long> lecturas = new ArrayList<>();
+
+        void publicar(long id, int usuarioId, UsuarioTipo tipo) {
+            eventos.put(id, new UsuarioEvento(id, usuarioId, tipo, LocalDateTime.now()));
+        }
+
+        @Override
+        public UsuarioEventoPagina leerEventos(long despuesDe, int limite) {
+            lecturas.add(despuesDe);
+            List<UsuarioEvento> pagina = eventos.tailMap(despuesDe, false).values().stream().limit(limite).toList();
+            return new UsuarioEventoPagina(pagina, eventos.isEmpty() ? 0 : eventos.lastKey());
+        }
+
+        @Override
+        public UsuarioTiposInstantanea leerInstantanea(int despuesDeUsuarioId, int limite) {
+            return new UsuarioTiposInstantanea(0, Map.of());
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.medicagenda.citas_service.infraestructura.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicagenda.citas_service.IntegracionCitas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CitaControllerTest extends IntegracionCitas {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cargaMasivaRechazaSoloLasFilasEnConflicto() throws Exception {
+        crear("2031-01-10", "09:00:00", 101, 1001);
+
+        mockMvc.perform(post("/api/citas/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"fecha":"2031-01-10","hora":"10:00:00","pacienteId":102,"medicoId":1001},
+                                  {"fecha":"2031-01-10","hora":"09:00:00","pacienteId":101,"medicoId":1002},
+                                  {"fecha":"2031-01-10","hora":"10:00:00","pacienteId":103,"medicoId":1001},
+                                  {"fecha":"2031-01-10","hora":"11:00:00","pacienteId":9999,"medicoId":1001},
+                                  {"fecha":"2031-01-10","hora":"25:00:00","pacienteId":104,"medicoId":1001},
+                                  {"fecha":"2031-01-10","hora":"11:00:00","pacienteId":104,"medicoId":1001}
+                                ]"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(6))
+                .andExpect(jsonPath("$.creadas").value(2))
+                .andExpect(jsonPath("$.rechazadas").value(4))
+                .andExpect(jsonPath("$.resultados[0].id").value(notNullValue()))
+                .andExpect(jsonPath("$.resultados[0].error").value(nullValue()))
+                .andExpect(jsonPath("$.resultados[1].id").value(nullValue()))
+                .andExpect(jsonPath("$.resultados[1].error").value("El paciente ya tiene una cita a esa fecha y hora."))
+                .andExpect(jsonPath("$.resultados[2].error").value("El médico ya tiene una cita a esa fecha y hora."))
+                .andExpect(jsonPath("$.resultados[3].error").value(notNullValue()))
+                .andExpect(jsonPath("$.resultados[4].error").value("Fecha u hora no válidas."))
+                .andExpect(jsonPath("$.resultados[5].id").value(notNullValue()));
+    }
+
+    @Test
+    void cargaMasivaVaciaEsInvalida() throws Exception {
+        mockMvc.perform(post("/api/citas/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void consultaCondicionalRespondeNoModificadaMientrasLaCitaNoCambia() throws Exception {
+        int id = crear("2031-05-05", "09:00:00", 121, 1021);
+        String etag = mockMvc.perform(get("/api/citas/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/citas/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(put("/api/citas/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita("2031-05-05", "09:00:00", "CONFIRMADA", 121, 1021)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/citas/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.estado").value("CONFIRMADA"));
+    }
+
+    @Test
+    void listadoCondicionalRespondeNoModificadoMientrasLaPaginaNoCambia() throws Exception {
+        crear("2031-05-06", "09:00:00", 122, 1022);
+        String etag = mockMvc.perform(get("/api/citas").param("medicoId", "1022"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.citas.length()").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/citas").param("medicoId", "1022").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        crear("2031-05-06", "10:00:00", 123, 1022);
+
+        mockMvc.perform(get("/api/citas").param("medicoId", "1022").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.citas.length()").value(2));
+    }
+
+    @Test
+    void agendaCondicionalRespondeNoModificadaMientrasElDiaNoCambia() throws Exception {
+        crear("2032-01-05", "09:00:00", 221, 1111);
+        String etag = mockMvc.perform(get("/api/citas/medicos/{medicoId}/agenda/{fecha}", 1111, "2032-01-05"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.citas.length()").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/citas/medicos/{medicoId}/agenda/{fecha}", 1111, "2032-01-05")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        crear("2032-01-05", "10:00:00", 222, 1111);
+
+        mockMvc.perform(get("/api/citas/medicos/{medicoId}/agenda/{fecha}", 1111, "2032-01-05")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.citas.length()").value(2));
+    }
+
+    @Test
+    void actualizarConUnaVersionAntiguaFallaConPrecondicion() throws Exception {
+        int id = crear("2031-05-07", "09:00:00", 124, 1023);
+        String leida = mockMvc.perform(get("/api/citas/{id}", id))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String nueva = mockMvc.perform(put("/api/citas/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, leida)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita("2031-05-07", "09:00:00", "CONFIRMADA", 124, 1023)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(nueva).isNotEqualTo(leida);
+
+        // Otro cliente que aún tiene la versión leída al principio no pisa el cambio
+        mockMvc.perform(put("/api/citas/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, leida)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita("2031-05-07", "09:00:00", "CANCELADA", 124, 1023)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/citas/{id}", id))
+                .andExpect(header().string(HttpHeaders.ETAG, nueva))
+                .andExpect(jsonPath("$.estado").value("CONFIRMADA"));
+    }
+
+    @Test
+    void eliminarUnaCitaQueNoExisteRespondeNoEncontrada() throws Exception {
+        mockMvc.perform(delete("/api/citas/{id}", 987_654_321))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void unaCitaArchivadaSeConsultaPeroNoSeModificaNiSeElimina() throws Exception {
+        jdbcTemplate.update("INSERT INTO cita_archivo (id, fecha, hora, estado, paciente_id, medico_id, version, archivada) "
+                + "VALUES (900001, DATE '2020-01-15', TIME '09:00:00', 'CONFIRMADA', 125, 1024, 0, CURRENT_TIMESTAMP)");
+
+        mockMvc.perform(get("/api/citas/{id}", 900001))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("CONFIRMADA"));
+        mockMvc.perform(put("/api/citas/{id}", 900001)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita("2020-01-15", "09:00:00", "CANCELADA", 125, 1024)))
+                .andExpect(status().isConflict());
+        mockMvc.perform(delete("/api/citas/{id}", 900001))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.mensaje").value("La cita con ID 900001 está archivada y no se puede modificar."));
+
+        mockMvc.perform(get("/api/citas/{id}", 900001))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("CONFIRMADA"));
+    }
+
+    @Test
+    void elCursorRecorreCitasConLaMismaFechaYHoraSinRepetirNiSaltar() throws Exception {
+        List<Integer> creadas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            creadas.add(crear("2031-09-01", "09:00:00", 161 + i, 1061 + i));
+        }
+        creadas.add(crear("2031-09-01", "08:30:00", 166, 1066));
+        creadas.add(crear("2031-09-02", "08:00:00", 167, 1061));
+
+        List<Integer> leidas = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder peticion = get("/api/citas").param("desde", "2031-09-01").param("hasta", "2031-09-02")
+                    .param("limite", "2");
+            if (cursor != null) {
+                peticion.param("cursor", cursor);
+            }
+            JsonNode pagina = leer(mockMvc.perform(peticion)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            pagina.path("citas").forEach(cita -> leidas.add(cita.path("id").asInt()));
+            cursor = pagina.path("siguienteCursor").isNull() ? null : pagina.path("siguienteCursor").asText(null);
+            paginas++;
+        } while (cursor != null && paginas < 10);
+
+        List<Integer> esperadas = new ArrayList<>();
+        esperadas.add(creadas.get(5));
+        creadas.subList(0, 5).stream().sorted().forEach(esperadas::add);
+        esperadas.add(creadas.get(6));
+        assertThat(leidas).containsExactlyElementsOf(esperadas);
+    }
+
+    @Test
+    void elListadoFiltraPorEstadoMedicoYFechas() throws Exception {
+        int confirmada = crear("2031-09-10", "09:00:00", 171, 1071);
+        int pendiente = crear("2031-09-10", "10:00:00", 172, 1071);
+        crear("2031-09-10", "09:00:00", 173, 1072);
+        int posterior = crear("2031-09-12", "09:00:00", 174, 1071);
+        mockMvc.perform(put("/api/citas/{id}", confirmada)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita("2031-09-10", "09:00:00", "CONFIRMADA", 171, 1071)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/citas").param("medicoId", "1071"))
+                .andExpect(jsonPath("$.citas[*].id", contains(confirmada, pendiente, posterior)));
+        mockMvc.perform(get("/api/citas").param("medicoId", "1071").param("estado", "PENDIENTE"))
+                .andExpect(jsonPath("$.citas[*].id", contains(pendiente, posterior)));
+        mockMvc.perform(get("/api/citas").param("medicoId", "1071")
+                        .param("desde", "2031-09-11").param("hasta", "2031-09-12"))
+                .andExpect(jsonPath("$.citas[*].id", contains(posterior)));
+        mockMvc.perform(get("/api/citas").param("pacienteId", "173"))
+                .andExpect(jsonPath("$.citas.length()").value(1))
+                .andExpect(jsonPath("$.citas[0].medicoId").value(1072));
+    }
+
+    @Test
+    void unCursorInvalidoSeRechaza() throws Exception {
+        mockMvc.perform(get("/api/citas").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void laExportacionIncluyeLasCitasEnElFormatoPedido() throws Exception {
+        int id = crear("2031-10-05", "09:00:00", 182, 1082);
+
+        String csv = exportar("CSV");
+        String ndjson = exportar("NDJSON");
+
+        assertThat(csv).startsWith("id,fecha,hora,estado,observaciones,pacienteId,medicoId\n")
+                .contains("\n" + id + ",2031-10-05,09:00:00,PENDIENTE,,182,1082\n");
+        assertThat(ndjson.lines())
+                .allSatisfy(linea -> assertThat(leer(linea).has("id")).isTrue())
+                .anySatisfy(linea -> assertThat(leer(linea).path("id").asInt()).isEqualTo(id));
+    }
+
+    @Test
+    void laDisponibilidadRespetaLosBordesDeLaJornadaYLasCitasContiguasOSolapadas() throws Exception {
+        // Citas al principio y al final de la jornada
+        crear("2031-11-03", "08:00:00", 191, 1091);
+        crear("2031-11-03", "17:30:00", 192, 1091);
+        // Citas contiguas y citas solapadas
+        crear("2031-11-04", "10:00:00", 193, 1091);
+        crear("2031-11-04", "10:30:00", 194, 1091);
+        crear("2031-11-04", "13:00:00", 195, 1091);
+        crear("2031-11-04", "13:15:00", 196, 1091);
+        // Hueco de media hora entre dos citas
+        crear("2031-11-06", "09:00:00", 197, 1091);
+        crear("2031-11-06", "10:00:00", 198, 1091);
+
+        disponibilidad(null)
+                .andExpect(jsonPath("$.duracionMinutos").value(30))
+                .andExpect(jsonPath("$.intervalos.length()").value(8))
+                .andExpect(intervalo(0, "2031-11-03", "08:30:00", "17:30:00"))
+                .andExpect(intervalo(1, "2031-11-04", "08:00:00", "10:00:00"))
+                .andExpect(intervalo(2, "2031-11-04", "11:00:00", "13:00:00"))
+                .andExpect(intervalo(3, "2031-11-04", "13:45:00", "18:00:00"))
+                .andExpect(intervalo(4, "2031-11-05", "08:00:00", "18:00:00"))
+                .andExpect(intervalo(5, "2031-11-06", "08:00:00", "09:00:00"))
+                .andExpect(intervalo(6, "2031-11-06", "09:30:00", "10:00:00"))
+                .andExpect(intervalo(7, "2031-11-06", "10:30:00", "18:00:00"));
+
+        disponibilidad(60)
+                .andExpect(jsonPath("$.intervalos[*].inicio", not(contains("09:30:00"))))
+                .andExpect(jsonPath("$.intervalos.length()").value(7))
+                .andExpect(intervalo(5, "2031-11-06", "08:00:00", "09:00:00"))
+                .andExpect(intervalo(6, "2031-11-06", "10:30:00", "18:00:00"));
+    }
+
+    @Test
+    void laDisponibilidadRechazaDuracionesYRangosNoValidos() throws Exception {
+        mockMvc.perform(get("/api/citas/medicos/{medicoId}/disponibilidad", 1091)
+                        .param("desde", "2031-11-03").param("hasta", "2031-11-03").param("duracion", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/citas/medicos/{medicoId}/disponibilidad", 1091)
+                        .param("desde", "2031-11-04").param("hasta", "2031-11-03"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/citas/medicos/{medicoId}/disponibilidad", 1091)
+                        .param("desde", "2031-01-01").param("hasta", "2031-12-31"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void losResumenesDevuelvenLasCitasSinObservacionesEnSuOrden() throws Exception {
+        int primera = crear("2031-12-01", "09:00:00", 211, 1101);
+        int otroMedico = crear("2031-12-02", "10:00:00", 211, 1102);
+        int confirmada = crear("2031-12-03", "09:00:00", 211, 1101);
+        int otroPaciente = crear("2031-12-01", "10:00:00", 212, 1101);
+        mockMvc.perform(put("/api/citas/{id}", confirmada)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cita("2031-12-03", "09:00:00", "CONFIRMADA", 211, 1101)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/citas/resumen").param("estado", "CONFIRMADA")
+                        .param("desde", "2031-12-01").param("hasta", "2031-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.citas.length()").value(1))
+                .andExpect(jsonPath("$.citas[0].id").value(confirmada))
+                .andExpect(jsonPath("$.citas[0].medicoId").value(1101))
+                .andExpect(jsonPath("$.citas[0].pacienteId").value(211))
+                .andExpect(jsonPath("$.citas[0].fecha").value("2031-12-03"))
+                .andExpect(jsonPath("$.citas[0].hora").value("09:00:00"))
+                .andExpect(jsonPath("$.citas[0].estado").value("CONFIRMADA"))
+                .andExpect(jsonPath("$.citas[0].observaciones").doesNotExist());
+
+        String siguiente = leer(mockMvc.perform(get("/api/citas/medicos/{medicoId}/resumen", 1101)
+                        .param("desde", "2031-12-01").param("hasta", "2031-12-31").param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.citas[*].id", contains(primera, otroPaciente)))
+                .andExpect(jsonPath("$.siguienteCursor").value(notNullValue()))
+                .andReturn().getResponse().getContentAsString()).path("siguienteCursor").asText();
+        mockMvc.perform(get("/api/citas/medicos/{medicoId}/resumen", 1101)
+                        .param("desde", "2031-12-01").param("hasta", "2031-12-31").param("limite", "2")
+                        .param("cursor", siguiente))
+                .andExpect(jsonPath("$.citas[*].id", contains(confirmada)))
+                .andExpect(jsonPath("$.siguienteCursor").value(nullValue()));
+        mockMvc.perform(get("/api/citas/medicos/{medicoId}/resumen", 1101)
+                        .param("desde", "2031-12-01").param("hasta", "2031-12-01").param("estado", "PENDIENTE"))
+                .andExpect(jsonPath("$.citas[*].id", contains(primera, otroPaciente)));
+
+        mockMvc.perform(get("/api/citas/pacientes/{pacienteId}/historial", 211))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.citas[*].id", contains(confirmada, otroMedico, primera)))
+                .andExpect(jsonPath("$.citas[0].observaciones").doesNotExist());
+        mockMvc.perform(get("/api/citas/pacientes/{pacienteId}/historial", 211).param("estado", "PENDIENTE"))
+                .andExpect(jsonPath("$.citas[*].id", contains(otroMedico, primera)));
+        siguiente = leer(mockMvc.perform(get("/api/citas/pacientes/{pacienteId}/historial", 211).param("limite", "1"))
+                .andExpect(jsonPath("$.citas[*].id", contains(confirmada)))
+                .andReturn().getResponse().getContentAsString()).path("siguienteCursor").asText();
+        mockMvc.perform(get("/api/citas/pacientes/{pacienteId}/historial", 211).param("limite", "2")
+                        .param("cursor", siguiente))
+                .andExpect(jsonPath("$.citas[*].id", contains(otroMedico, primera)));
+    }
+
+    private String exportar(String formato) throws Exception {
+        MvcResult inicio = mockMvc.perform(get("/api/citas/exportar").param("formato", formato))
+                .andExpect(status().isOk())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private ResultActions disponibilidad(Integer duracion) throws Exception {
+        MockHttpServletRequestBuilder peticion = get("/api/citas/medicos/{medicoId}/disponibilidad", 1091)
+                .param("desde", "2031-11-03").param("hasta", "2031-11-06");
+        if (duracion != null) {
+            peticion.param("duracion", duracion.toString());
+        }
+        return mockMvc.perform(peticion).andExpect(status().isOk());
+    }
+
+    private static ResultMatcher intervalo(int posicion, String fecha, String inicio, String fin) {
+        return ResultMatcher.matchAll(
+                jsonPath("$.intervalos[" + posicion + "].fecha").value(fecha),
+                jsonPath("$.intervalos[" + posicion + "].inicio").value(inicio),
+                jsonPath("$.intervalos[" + posicion + "].fin").value(fin));
+    }
+}
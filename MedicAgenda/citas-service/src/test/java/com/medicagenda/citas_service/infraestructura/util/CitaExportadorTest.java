@@ -0,0 +1,90 @@
+package com.medicagenda.citas_service.infraestructura.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medicagenda.citas_service.dominio.model.CitaDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CitaExportadorTest {
+
+    // Misma configuración de fechas que el ObjectMapper de Spring Boot
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final CitaExportador exportador = new CitaExportador(objectMapper);
+
+    @Test
+    void elCsvEntrecomillaLosValoresConSeparadoresComillasOSaltos() throws Exception {
+        String csv = exportar(CitaExportador.Formato.CSV, List.of(
+                cita(1, "sin caracteres especiales"),
+                cita(2, "dolor de cabeza, mareos"),
+                cita(3, "dice \"urgente\""),
+                cita(4, "primera línea\nsegunda línea"),
+                cita(5, "retorno\r"),
+                cita(6, null)));
+
+        assertThat(csv).isEqualTo("""
+                id,fecha,hora,estado,observaciones,pacienteId,medicoId
+                1,2031-10-01,09:30:00,PENDIENTE,sin caracteres especiales,181,1081
+                2,2031-10-01,09:30:00,PENDIENTE,"dolor de cabeza, mareos",181,1081
+                3,2031-10-01,09:30:00,PENDIENTE,"dice ""urgente\"\"",181,1081
+                4,2031-10-01,09:30:00,PENDIENTE,"primera línea
+                segunda línea",181,1081
+                5,2031-10-01,09:30:00,PENDIENTE,"retorno\r",181,1081
+                6,2031-10-01,09:30:00,PENDIENTE,,181,1081
+                """);
+    }
+
+    @Test
+    void elNdjsonEscribeUnaCitaCompletaPorLinea() throws Exception {
+        String ndjson = exportar(CitaExportador.Formato.NDJSON, List.of(
+                cita(1, "línea 1\nlínea 2"),
+                cita(2, null)));
+
+        assertThat(ndjson).endsWith("\n");
+        String[] lineas = ndjson.split("\n");
+        assertThat(lineas).hasSize(2);
+        JsonNode primera = objectMapper.readTree(lineas[0]);
+        assertThat(primera.path("id").asInt()).isEqualTo(1);
+        assertThat(primera.path("fecha").asText()).isEqualTo("2031-10-01");
+        assertThat(primera.path("hora").asText()).isEqualTo("09:30:00");
+        assertThat(primera.path("observaciones").asText()).isEqualTo("línea 1\nlínea 2");
+        assertThat(objectMapper.readTree(lineas[1]).path("observaciones").isNull()).isTrue();
+    }
+
+    @Test
+    void sinCitasElCsvSoloTieneLaCabeceraYElNdjsonEstaVacio() throws Exception {
+        assertThat(exportar(CitaExportador.Formato.CSV, List.of()))
+                .isEqualTo("id,fecha,hora,estado,observaciones,pacienteId,medicoId\n");
+        assertThat(exportar(CitaExportador.Formato.NDJSON, List.of())).isEmpty();
+    }
+
+    private String exportar(CitaExportador.Formato formato, List<CitaDTO> citas) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportador.exportar(formato, consumidor -> citas.forEach(consumidor), salida);
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+
+    private static CitaDTO cita(int id, String observaciones) {
+        CitaDTO cita = new CitaDTO();
+        cita.setId(id);
+        cita.setFecha(LocalDate.of(2031, 10, 1));
+        cita.setHora(LocalTime.of(9, 30));
+        cita.setEstado("PENDIENTE");
+        cita.setObservaciones(observaciones);
+        cita.setPacienteId(181);
+        cita.setMedicoId(1081);
+        cita.setVersion(0L);
+        return cita;
+    }
+}
@@ -0,0 +1,42 @@
+package com.medicagenda.usuarios_service.benchmark;
+
+import com.medicagenda.usuarios_service.dominio.port.out.UsuarioEventoPortOut;
+import com.medicagenda.usuarios_service.entity.UsuarioEvento;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementación en memoria de {@link UsuarioEventoPortOut} para los benchmarks.
+ *
+ * @since 1.0
+ */
+class UsuarioEventoPortOutEnMemoria implements UsuarioEventoPortOut {
+
+    private final ConcurrentSkipListMap<Long, UsuarioEvento> eventos = new ConcurrentSkipListMap<>();
+    private final AtomicLong secuencia = new AtomicLong();
+
+    /**
+     * Elimina todos los eventos guardados.
+     */
+    void vaciar() {
+        eventos.clear();
+    }
+
+    @Override
+    public void registrar(UsuarioEvento evento) {
+        evento.setId(secuencia.incrementAndGet());
+        eventos.put(evento.getId(), evento);
+    }
+
+    @Override
+    public List<UsuarioEvento> listarDesde(long despuesDe, int limite) {
+        return eventos.tailMap(despuesDe, false).values().stream().limit(limite).toList();
+    }
+
+    @Override
+    public long ultimoId() {
+        return secuencia.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.medicagenda.usuarios_service.benchmark;
+
+import com.medicagenda.usuarios_service.dominio.model.UsuarioDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioRequest;
+import com.medicagenda.usuarios_service.entity.Especialidad;
+import com.medicagenda.usuarios_service.entity.Rol;
+import com.medicagenda.usuarios_service.entity.Usuario;
+import com.medicagenda.usuarios_service.infraestructura.util.UsuarioMapper;
+import com.medicagenda.usuarios_service.infraestructura.util.UsuarioMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las conversiones de {@link UsuarioMapper} entre entidades, solicitudes y DTOs.
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsuarioMapperBenchmark {
+
+    private final UsuarioMapper mapper = new UsuarioMapperImpl();
+    private Usuario medico;
+    private UsuarioRequest request;
+
+    /**
+     * Prepara los objetos de entrada.
+     */
+    @Setup
+    public void preparar() {
+        medico = new Usuario();
+        medico.setId(2);
+        medico.setNombre("Laura Gómez");
+        medico.setCorreo("laura.gomez@medicagenda.com");
+        medico.setContrasena("secreta");
+        medico.setTipo(Usuario.TipoUsuario.MEDICO);
+        medico.setRol(new Rol(2, "MEDICO"));
+        medico.setEspecialidad(new Especialidad(1, "Cardiología"));
+
+        request = new UsuarioRequest();
+        request.setNombre("Laura Gómez");
+        request.setCorreo("laura.gomez@medicagenda.com");
+        request.setContrasena("secreta");
+        request.setTipo(Usuario.TipoUsuario.MEDICO);
+        request.setEspecialidadId(1);
+    }
+
+    /**
+     * Convierte una entidad con rol y especialidad en DTO.
+     *
+     * @return DTO generado
+     */
+    @Benchmark
+    public UsuarioDTO toDTO() {
+        return mapper.toDTO(medico);
+    }
+
+    /**
+     * Convierte una solicitud en entidad.
+     *
+     * @return entidad generada
+     */
+    @Benchmark
+    public Usuario toEntity() {
+        return mapper.toEntity(request);
+    }
+}
@@ -0,0 +1,75 @@
+package com.medicagenda.usuarios_service.benchmark;
+
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO;
+import com.medicagenda.usuarios_service.dominio.port.out.UsuarioPortOut;
+import com.medicagenda.usuarios_service.entity.Usuario;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementación en memoria de {@link UsuarioPortOut} para los benchmarks.
+ *
+ * @since 1.0
+ */
+class UsuarioPortOutEnMemoria implements UsuarioPortOut {
+
+    private final Map<Integer, Usuario> usuarios = new ConcurrentHashMap<>();
+    private final AtomicInteger secuencia = new AtomicInteger();
+
+    /**
+     * Elimina todos los usuarios guardados.
+     */
+    void vaciar() {
+        usuarios.clear();
+    }
+
+    @Override
+    public Usuario guardar(Usuario usuario) {
+        if (usuario.getId() == null) {
+            usuario.setId(secuencia.incrementAndGet());
+        }
+        usuarios.put(usuario.getId(), usuario);
+        return usuario;
+    }
+
+    @Override
+    public Optional<Usuario> buscarPorId(Integer id) {
+        return Optional.ofNullable(usuarios.get(id));
+    }
+
+    @Override
+    public List<Usuario> listar() {
+        return new ArrayList<>(usuarios.values());
+    }
+
+    @Override
+    public void eliminar(Integer id) {
+        usuarios.remove(id);
+    }
+
+    @Override
+    public List<UsuarioTipoDTO> buscarTiposPorIds(Collection<Integer> ids) {
+        return ids.stream()
+                .map(usuarios::get)
+                .filter(usuario -> usuario != null)
+                .map(usuario -> new UsuarioTipoDTO(usuario.getId(), usuario.getTipo()))
+                .toList();
+    }
+
+    @Override
+    public List<UsuarioTipoDTO> listarTipos(Integer despuesDe, int limite) {
+        return usuarios.values().stream()
+                .filter(usuario -> usuario.getId() > despuesDe)
+                .sorted(Comparator.comparing(Usuario::getId))
+                .limit(limite)
+                .map(usuario -> new UsuarioTipoDTO(usuario.getId(), usuario.getTipo()))
+                .toList();
+    }
+}
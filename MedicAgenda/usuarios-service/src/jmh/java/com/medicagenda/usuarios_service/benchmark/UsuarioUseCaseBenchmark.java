@@ -0,0 +1,96 @@
+package com.medicagenda.usuarios_service.benchmark;
+
+import com.medicagenda.usuarios_service.aplicacion.UsuarioUseCase;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioRequest;
+import com.medicagenda.usuarios_service.entity.Usuario;
+import com.medicagenda.usuarios_service.infraestructura.util.UsuarioMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link UsuarioUseCase#crearUsuario(UsuarioRequest)} sobre una persistencia en memoria.
+ * <p>
+ * El resultado refleja solo el coste de la capa de aplicación: reglas por tipo de
+ * usuario, mapeo de entrada y salida y registro del evento de cambio.
+ * </p>
+ *
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsuarioUseCaseBenchmark {
+
+    private UsuarioPortOutEnMemoria usuarioPortOut;
+    private UsuarioEventoPortOutEnMemoria usuarioEventoPortOut;
+    private UsuarioUseCase useCase;
+    private UsuarioRequest paciente;
+    private UsuarioRequest medico;
+
+    /**
+     * Construye el caso de uso y las solicitudes de entrada.
+     */
+    @Setup(Level.Trial)
+    public void preparar() {
+        usuarioPortOut = new UsuarioPortOutEnMemoria();
+        usuarioEventoPortOut = new UsuarioEventoPortOutEnMemoria();
+        useCase = new UsuarioUseCase(usuarioPortOut, usuarioEventoPortOut, new UsuarioMapperImpl());
+        paciente = request("Ana Pérez", "ana.perez@medicagenda.com", Usuario.TipoUsuario.PACIENTE, null);
+        medico = request("Laura Gómez", "laura.gomez@medicagenda.com", Usuario.TipoUsuario.MEDICO, 1);
+    }
+
+    /**
+     * Vacía la persistencia en memoria para que no crezca entre iteraciones.
+     */
+    @Setup(Level.Iteration)
+    public void vaciar() {
+        usuarioPortOut.vaciar();
+        usuarioEventoPortOut.vaciar();
+    }
+
+    /**
+     * Crea un paciente.
+     *
+     * @return usuario creado
+     */
+    @Benchmark
+    public UsuarioDTO crearPaciente() {
+        return useCase.crearUsuario(paciente);
+    }
+
+    /**
+     * Crea un médico con especialidad.
+     *
+     * @return usuario creado
+     */
+    @Benchmark
+    public UsuarioDTO crearMedico() {
+        return useCase.crearUsuario(medico);
+    }
+
+    private static UsuarioRequest request(String nombre, String correo, Usuario.TipoUsuario tipo,
+                                          Integer especialidadId) {
+        UsuarioRequest request = new UsuarioRequest();
+        request.setNombre(nombre);
+        request.setCorreo(correo);
+        request.setContrasena("secreta");
+        request.setTipo(tipo);
+        request.setEspecialidadId(especialidadId);
+        return request;
+    }
+}
@@ -3,23 +3,37 @@ package com.medicagenda.usuarios_service.aplicacion;
 import com.medicagenda.usuarios_service.dominio.excepciones.CorreoDuplicadoException;
 import com.medicagenda.usuarios_service.dominio.excepciones.UsuarioInvalidoException;
 import com.medicagenda.usuarios_service.dominio.model.UsuarioDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioEventoPaginaDTO;
 import com.medicagenda.usuarios_service.dominio.model.UsuarioRequest;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTiposInstantaneaDTO;
 import com.medicagenda.usuarios_service.dominio.port.in.UsuarioPortIn;
+import com.medicagenda.usuarios_service.dominio.port.out.UsuarioEventoPortOut;
 import com.medicagenda.usuarios_service.dominio.port.out.UsuarioPortOut;
 import com.medicagenda.usuarios_service.entity.Especialidad;
 import com.medicagenda.usuarios_service.entity.Rol;
 import com.medicagenda.usuarios_service.entity.Usuario;
+import com.medicagenda.usuarios_service.entity.UsuarioEvento;
 import com.medicagenda.usuarios_service.infraestructura.util.UsuarioMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Caso de uso para la gestión de usuarios.
  * Aplica reglas de negocio específicas para creación, actualización y
  * recuperación de usuarios.
  * Forma parte de la capa de aplicación dentro de la arquitectura hexagonal.
+ * <p>
+ * Cada cambio de un usuario escribe, en la misma transacción, un evento en la
+ * tabla <code>usuario_evento</code> (outbox) del que otros servicios leen los
+ * cambios de tipo en orden.
+ * </p>
  *
  * @author Ander
  * @version 1.0
@@ -29,7 +43,33 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UsuarioUseCase implements UsuarioPortIn {
 
+    /**
+     * Número máximo de IDs aceptados en una consulta de tipos por lotes.
+     */
+    static final int MAXIMO_IDS_POR_LOTE = 1000;
+
+    /**
+     * Número de eventos devueltos por página si no se indica otro.
+     */
+    static final int EVENTOS_POR_PAGINA = 500;
+
+    /**
+     * Número máximo de eventos devueltos por página.
+     */
+    static final int MAXIMO_EVENTOS_POR_PAGINA = 1000;
+
+    /**
+     * Número de usuarios devueltos por página de la instantánea de tipos si no se indica otro.
+     */
+    static final int TIPOS_POR_PAGINA = 5000;
+
+    /**
+     * Número máximo de usuarios devueltos por página de la instantánea de tipos.
+     */
+    static final int MAXIMO_TIPOS_POR_PAGINA = 10000;
+
     private final UsuarioPortOut usuarioPortOut;
+    private final UsuarioEventoPortOut usuarioEventoPortOut;
     private final UsuarioMapper mapper;
 
     /**
@@ -48,6 +88,7 @@ public class UsuarioUseCase implements UsuarioPortIn {
      * @throws CorreoDuplicadoException si el correo ya está registrado.
      */
     @Override
+    @Transactional
     public UsuarioDTO crearUsuario(UsuarioRequest request) {
         Usuario usuario = mapper.toEntity(request);
         Usuario.TipoUsuario tipo = request.getTipo();
@@ -73,6 +114,8 @@ public class UsuarioUseCase implements UsuarioPortIn {
 
         try {
             Usuario guardado = usuarioPortOut.guardar(usuario);
+            usuarioEventoPortOut.registrar(new UsuarioEvento(guardado.getId(), guardado.getTipo(),
+                    UsuarioEvento.Operacion.CREADO));
             return mapper.toDTO(guardado);
         } catch (Exception e) {
             if (e.getMessage() != null && e.getMessage().contains("uq_correo")) {
@@ -125,6 +168,7 @@ public class UsuarioUseCase implements UsuarioPortIn {
      *                                  usuario.
      */
     @Override
+    @Transactional
     public UsuarioDTO actualizarUsuario(Integer id, UsuarioRequest request) {
         Usuario existente = usuarioPortOut.buscarPorId(id)
                 .orElseThrow(() -> new UsuarioInvalidoException("Usuario no encontrado con ID: " + id));
@@ -158,16 +202,101 @@ public class UsuarioUseCase implements UsuarioPortIn {
         }
 
         Usuario guardado = usuarioPortOut.guardar(existente);
+        usuarioEventoPortOut.registrar(new UsuarioEvento(guardado.getId(), guardado.getTipo(),
+                UsuarioEvento.Operacion.ACTUALIZADO));
         return mapper.toDTO(guardado);
     }
 
     /**
-     * Elimina un usuario por su identificador.
+     * Elimina un usuario por su identificador. Solo se registra el evento de
+     * eliminación si el usuario existía.
      *
      * @param id identificador del usuario a eliminar.
      */
     @Override
+    @Transactional
     public void eliminarUsuario(Integer id) {
+        if (usuarioPortOut.buscarPorId(id).isPresent()) {
+            usuarioEventoPortOut.registrar(new UsuarioEvento(id, null, UsuarioEvento.Operacion.ELIMINADO));
+        }
         usuarioPortOut.eliminar(id);
-    }   
+    }
+
+    /**
+     * Obtiene el tipo de varios usuarios con una única consulta a la base de datos.
+     * Los IDs repetidos o nulos se descartan y los IDs inexistentes se omiten
+     * de la respuesta.
+     *
+     * @param ids identificadores de los usuarios.
+     * @return lista con el ID y el tipo de cada usuario encontrado.
+     * @throws UsuarioInvalidoException si se piden más de {@value #MAXIMO_IDS_POR_LOTE} IDs.
+     */
+    @Override
+    public List<UsuarioTipoDTO> obtenerTiposUsuarios(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Integer> distintos = new LinkedHashSet<>(ids);
+        distintos.removeIf(Objects::isNull);
+        if (distintos.size() > MAXIMO_IDS_POR_LOTE) {
+            throw new UsuarioInvalidoException(
+                    "No se pueden consultar más de " + MAXIMO_IDS_POR_LOTE + " usuarios por solicitud.");
+        }
+        if (distintos.isEmpty()) {
+            return List.of();
+        }
+        return usuarioPortOut.buscarTiposPorIds(distintos);
+    }
+
+    /**
+     * Lista los eventos de usuario posteriores a un ID, en orden de ID.
+     *
+     * @param despuesDe ID del último evento ya leído, o null para empezar desde el principio.
+     * @param limite    número máximo de eventos, o null para usar {@value #EVENTOS_POR_PAGINA}.
+     * @return página de eventos con el ID del último evento escrito.
+     * @throws UsuarioInvalidoException si el límite no está entre 1 y {@value #MAXIMO_EVENTOS_POR_PAGINA}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UsuarioEventoPaginaDTO listarEventos(Long despuesDe, Integer limite) {
+        int tamano = limite == null ? EVENTOS_POR_PAGINA : limite;
+        if (tamano < 1 || tamano > MAXIMO_EVENTOS_POR_PAGINA) {
+            throw new UsuarioInvalidoException(
+                    "El límite de eventos debe estar entre 1 y " + MAXIMO_EVENTOS_POR_PAGINA + ".");
+        }
+        long ultimoEventoId = usuarioEventoPortOut.ultimoId();
+        return new UsuarioEventoPaginaDTO(
+                usuarioEventoPortOut.listarDesde(despuesDe == null ? 0 : despuesDe, tamano)
+                        .stream()
+                        .map(mapper::toEventoDTO)
+                        .toList(),
+                ultimoEventoId);
+    }
+
+    /**
+     * Obtiene una página del tipo de todos los usuarios, en orden de ID, junto con
+     * el ID del último evento escrito antes de leerla.
+     * <p>
+     * Quien recorre todas las páginas debe quedarse con el ID de evento de la
+     * primera: aplicar después los eventos posteriores a ese ID deja una copia al
+     * día, aunque alguno ya esté reflejado en la instantánea.
+     * </p>
+     *
+     * @param despuesDeUsuarioId ID del último usuario ya leído, o null para empezar desde el principio.
+     * @param limite             número máximo de usuarios, o null para usar {@value #TIPOS_POR_PAGINA}.
+     * @return página de la instantánea de tipos de usuario.
+     * @throws UsuarioInvalidoException si el límite no está entre 1 y {@value #MAXIMO_TIPOS_POR_PAGINA}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UsuarioTiposInstantaneaDTO obtenerInstantaneaTipos(Integer despuesDeUsuarioId, Integer limite) {
+        int tamano = limite == null ? TIPOS_POR_PAGINA : limite;
+        if (tamano < 1 || tamano > MAXIMO_TIPOS_POR_PAGINA) {
+            throw new UsuarioInvalidoException(
+                    "El límite de usuarios debe estar entre 1 y " + MAXIMO_TIPOS_POR_PAGINA + ".");
+        }
+        long ultimoEventoId = usuarioEventoPortOut.ultimoId();
+        return new UsuarioTiposInstantaneaDTO(ultimoEventoId,
+                usuarioPortOut.listarTipos(despuesDeUsuarioId == null ? 0 : despuesDeUsuarioId, tamano));
+    }
 }
@@ -0,0 +1,52 @@
+package com.medicagenda.usuarios_service.dominio.model;
+
+import com.medicagenda.usuarios_service.entity.Usuario.TipoUsuario;
+import com.medicagenda.usuarios_service.entity.UsuarioEvento.Operacion;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un evento de cambio de usuario publicado en el feed de eventos.
+ *
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cambio de un usuario")
+public class UsuarioEventoDTO {
+
+    /**
+     * Identificador del evento.
+     */
+    @Schema(description = "ID del evento, creciente", example = "1523")
+    private Long id;
+
+    /**
+     * ID del usuario modificado.
+     */
+    @Schema(description = "ID del usuario modificado", example = "101")
+    private Integer usuarioId;
+
+    /**
+     * Tipo del usuario tras el cambio.
+     */
+    @Schema(description = "Tipo del usuario tras el cambio; nulo si se eliminó", example = "MEDICO", nullable = true)
+    private TipoUsuario tipo;
+
+    /**
+     * Operación realizada.
+     */
+    @Schema(description = "Operación realizada", example = "ACTUALIZADO")
+    private Operacion operacion;
+
+    /**
+     * Fecha y hora del cambio.
+     */
+    @Schema(description = "Fecha y hora del cambio", example = "2025-06-19T10:15:30")
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,32 @@
+package com.medicagenda.usuarios_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página del feed de eventos de usuario.
+ *
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de eventos de usuario en orden de ID")
+public class UsuarioEventoPaginaDTO {
+
+    /**
+     * Eventos de la página, en orden de ID.
+     */
+    @Schema(description = "Eventos posteriores al ID solicitado, en orden")
+    private List<UsuarioEventoDTO> eventos;
+
+    /**
+     * ID del último evento escrito, para calcular el retraso del consumidor.
+     */
+    @Schema(description = "ID del último evento existente", example = "1600")
+    private Long ultimoEventoId;
+}
@@ -0,0 +1,35 @@
+package com.medicagenda.usuarios_service.dominio.model;
+
+import com.medicagenda.usuarios_service.entity.Usuario.TipoUsuario;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO reducido que contiene únicamente el identificador y el tipo de un usuario.
+ * <p>
+ * Se utiliza en la consulta por lotes de tipos de usuario, donde otros
+ * microservicios solo necesitan saber si un ID corresponde a un paciente o a un médico.
+ * </p>
+ *
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Identificador y tipo de un usuario")
+public class UsuarioTipoDTO {
+
+    /**
+     * Identificador único del usuario.
+     */
+    @Schema(description = "ID único del usuario", example = "101")
+    private Integer id;
+
+    /**
+     * Tipo de usuario (PACIENTE, MEDICO).
+     */
+    @Schema(description = "Tipo de usuario", example = "MEDICO")
+    private TipoUsuario tipo;
+}
@@ -0,0 +1,36 @@
+package com.medicagenda.usuarios_service.dominio.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Tipo de todos los usuarios junto al último evento incluido.
+ * <p>
+ * Permite a un consumidor reconstruir su copia completa y seguir leyendo el
+ * feed de eventos a partir de {@link #ultimoEventoId}.
+ * </p>
+ *
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Tipo de todos los usuarios y último evento incluido")
+public class UsuarioTiposInstantaneaDTO {
+
+    /**
+     * ID del último evento reflejado en la instantánea.
+     */
+    @Schema(description = "ID del último evento reflejado", example = "1600")
+    private Long ultimoEventoId;
+
+    /**
+     * ID y tipo de todos los usuarios.
+     */
+    @Schema(description = "ID y tipo de todos los usuarios")
+    private List<UsuarioTipoDTO> tipos;
+}
@@ -1,7 +1,10 @@
 package com.medicagenda.usuarios_service.dominio.port.in;
 
 import com.medicagenda.usuarios_service.dominio.model.UsuarioDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioEventoPaginaDTO;
 import com.medicagenda.usuarios_service.dominio.model.UsuarioRequest;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTiposInstantaneaDTO;
 
 import java.util.List;
 
@@ -55,4 +58,31 @@ public interface UsuarioPortIn {
      * @param id identificador del usuario a eliminar
      */
     void eliminarUsuario(Integer id);
+
+    /**
+     * Obtiene el tipo de varios usuarios a la vez.
+     *
+     * @param ids identificadores de los usuarios a consultar
+     * @return ID y tipo de los usuarios que existen; los IDs inexistentes se omiten
+     */
+    List<UsuarioTipoDTO> obtenerTiposUsuarios(List<Integer> ids);
+
+    /**
+     * Lista los eventos de usuario posteriores a un ID, en orden de ID.
+     *
+     * @param despuesDe ID del último evento ya leído, o null para empezar desde el principio
+     * @param limite    número máximo de eventos, o null para el valor por defecto
+     * @return página de eventos con el ID del último evento escrito
+     */
+    UsuarioEventoPaginaDTO listarEventos(Long despuesDe, Integer limite);
+
+    /**
+     * Obtiene una página del tipo de todos los usuarios, en orden de ID, junto con
+     * el ID del último evento escrito antes de leerla.
+     *
+     * @param despuesDeUsuarioId ID del último usuario ya leído, o null para empezar desde el principio
+     * @param limite             número máximo de usuarios, o null para el valor por defecto
+     * @return página de la instantánea de tipos de usuario
+     */
+    UsuarioTiposInstantaneaDTO obtenerInstantaneaTipos(Integer despuesDeUsuarioId, Integer limite);
 }
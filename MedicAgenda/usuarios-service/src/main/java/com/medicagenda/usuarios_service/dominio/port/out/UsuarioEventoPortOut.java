@@ -0,0 +1,36 @@
+package com.medicagenda.usuarios_service.dominio.port.out;
+
+import com.medicagenda.usuarios_service.entity.UsuarioEvento;
+
+import java.util.List;
+
+/**
+ * Puerto de salida para la tabla de eventos de usuario (outbox).
+ *
+ * @since 1.0
+ */
+public interface UsuarioEventoPortOut {
+
+    /**
+     * Guarda un evento en la transacción en curso.
+     *
+     * @param evento evento a guardar
+     */
+    void registrar(UsuarioEvento evento);
+
+    /**
+     * Lista los eventos posteriores a un ID, en orden de ID.
+     *
+     * @param despuesDe ID del último evento ya leído
+     * @param limite    número máximo de eventos
+     * @return eventos encontrados
+     */
+    List<UsuarioEvento> listarDesde(long despuesDe, int limite);
+
+    /**
+     * Obtiene el ID del último evento escrito.
+     *
+     * @return ID del último evento, o 0 si no hay ninguno
+     */
+    long ultimoId();
+}
@@ -1,7 +1,9 @@
 package com.medicagenda.usuarios_service.dominio.port.out;
 
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO;
 import com.medicagenda.usuarios_service.entity.Usuario;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,4 +48,21 @@ public interface UsuarioPortOut {
      * @param id identificador del usuario a eliminar
      */
     void eliminar(Integer id);
+
+    /**
+     * Obtiene el ID y el tipo de varios usuarios en una sola consulta.
+     *
+     * @param ids identificadores de los usuarios
+     * @return ID y tipo de los usuarios que existen
+     */
+    List<UsuarioTipoDTO> buscarTiposPorIds(Collection<Integer> ids);
+
+    /**
+     * Obtiene el ID y el tipo de los usuarios con ID mayor que el indicado, en orden de ID.
+     *
+     * @param despuesDe ID a partir del cual se listan los usuarios (excluido)
+     * @param limite    número máximo de usuarios
+     * @return ID y tipo de los usuarios encontrados
+     */
+    List<UsuarioTipoDTO> listarTipos(Integer despuesDe, int limite);
 }
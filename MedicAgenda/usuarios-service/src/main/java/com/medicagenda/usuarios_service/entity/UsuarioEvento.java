@@ -0,0 +1,86 @@
+package com.medicagenda.usuarios_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de cambio de un usuario, guardado en la tabla de salida (outbox).
+ *
+ * <p>
+ * Se escribe en la misma transacción que el cambio del usuario, de modo que
+ * cada cambio confirmado tiene exactamente un evento. Otros microservicios leen
+ * los eventos en orden de ID para mantener su copia local del tipo de usuario.
+ * </p>
+ *
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "usuario_evento")
+public class UsuarioEvento {
+
+    /**
+     * Identificador del evento, creciente en orden de escritura.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * ID del usuario modificado.
+     */
+    @Column(name = "usuario_id", nullable = false)
+    private Integer usuarioId;
+
+    /**
+     * Tipo del usuario tras el cambio; nulo si se eliminó.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo")
+    private Usuario.TipoUsuario tipo;
+
+    /**
+     * Operación que generó el evento.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operacion", nullable = false)
+    private Operacion operacion;
+
+    /**
+     * Fecha y hora del cambio.
+     */
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+    /**
+     * Crea un evento con la fecha actual.
+     *
+     * @param usuarioId ID del usuario modificado
+     * @param tipo      tipo del usuario tras el cambio, o nulo si se eliminó
+     * @param operacion operación realizada
+     */
+    public UsuarioEvento(Integer usuarioId, Usuario.TipoUsuario tipo, Operacion operacion) {
+        this.usuarioId = usuarioId;
+        this.tipo = tipo;
+        this.operacion = operacion;
+        this.fecha = LocalDateTime.now();
+    }
+
+    /**
+     * Operaciones que generan eventos.
+     */
+    public enum Operacion {
+        /** Alta de un usuario. */
+        CREADO,
+
+        /** Modificación de un usuario. */
+        ACTUALIZADO,
+
+        /** Baja de un usuario. */
+        ELIMINADO
+    }
+}
@@ -1,11 +1,14 @@
 package com.medicagenda.usuarios_service.infraestructura.adapter;
 
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO;
 import com.medicagenda.usuarios_service.dominio.port.out.UsuarioPortOut;
 import com.medicagenda.usuarios_service.entity.Usuario;
 import com.medicagenda.usuarios_service.infraestructura.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -71,4 +74,27 @@ public class UsuarioAdapter implements UsuarioPortOut {
     public void eliminar(Integer id) {
         usuarioRepository.deleteById(id);
     }
+
+    /**
+     * Obtiene el ID y el tipo de varios usuarios en una sola consulta.
+     *
+     * @param ids identificadores de los usuarios
+     * @return ID y tipo de los usuarios que existen
+     */
+    @Override
+    public List<UsuarioTipoDTO> buscarTiposPorIds(Collection<Integer> ids) {
+        return usuarioRepository.findTiposByIdIn(ids);
+    }
+
+    /**
+     * Obtiene el ID y el tipo de los usuarios con ID mayor que el indicado, en orden de ID.
+     *
+     * @param despuesDe ID a partir del cual se listan los usuarios (excluido)
+     * @param limite    número máximo de usuarios
+     * @return ID y tipo de los usuarios encontrados
+     */
+    @Override
+    public List<UsuarioTipoDTO> listarTipos(Integer despuesDe, int limite) {
+        return usuarioRepository.findTiposByIdGreaterThan(despuesDe, Limit.of(limite));
+    }
 }
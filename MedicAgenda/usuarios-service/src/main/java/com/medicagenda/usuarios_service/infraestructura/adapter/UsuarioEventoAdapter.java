@@ -0,0 +1,55 @@
+package com.medicagenda.usuarios_service.infraestructura.adapter;
+
+import com.medicagenda.usuarios_service.dominio.port.out.UsuarioEventoPortOut;
+import com.medicagenda.usuarios_service.entity.UsuarioEvento;
+import com.medicagenda.usuarios_service.infraestructura.repository.UsuarioEventoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Adaptador que implementa el puerto de salida {@link UsuarioEventoPortOut}
+ * sobre la tabla <code>usuario_evento</code> mediante Spring Data JPA.
+ *
+ * @since 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class UsuarioEventoAdapter implements UsuarioEventoPortOut {
+
+    private final UsuarioEventoRepository usuarioEventoRepository;
+
+    /**
+     * Guarda un evento en la transacción en curso.
+     *
+     * @param evento evento a guardar
+     */
+    @Override
+    public void registrar(UsuarioEvento evento) {
+        usuarioEventoRepository.save(evento);
+    }
+
+    /**
+     * Lista los eventos posteriores a un ID, en orden de ID.
+     *
+     * @param despuesDe ID del último evento ya leído
+     * @param limite    número máximo de eventos
+     * @return eventos encontrados
+     */
+    @Override
+    public List<UsuarioEvento> listarDesde(long despuesDe, int limite) {
+        return usuarioEventoRepository.findByIdGreaterThanOrderByIdAsc(despuesDe, Limit.of(limite));
+    }
+
+    /**
+     * Obtiene el ID del último evento escrito.
+     *
+     * @return ID del último evento, o 0 si no hay ninguno
+     */
+    @Override
+    public long ultimoId() {
+        return usuarioEventoRepository.findUltimoId();
+    }
+}
@@ -0,0 +1,35 @@
+package com.medicagenda.usuarios_service.infraestructura.repository;
+
+import com.medicagenda.usuarios_service.entity.UsuarioEvento;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio JPA para la entidad {@link UsuarioEvento}.
+ *
+ * @since 1.0
+ */
+@Repository
+public interface UsuarioEventoRepository extends JpaRepository<UsuarioEvento, Long> {
+
+    /**
+     * Obtiene los eventos posteriores a un ID, en orden de ID.
+     *
+     * @param id     ID del último evento ya leído
+     * @param limite número máximo de eventos
+     * @return eventos encontrados
+     */
+    List<UsuarioEvento> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    /**
+     * Obtiene el ID del último evento escrito.
+     *
+     * @return ID del último evento, o 0 si no hay ninguno
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM UsuarioEvento e")
+    long findUltimoId();
+}
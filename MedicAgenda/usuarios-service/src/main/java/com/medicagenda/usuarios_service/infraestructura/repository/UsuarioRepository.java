@@ -1,9 +1,16 @@
 package com.medicagenda.usuarios_service.infraestructura.repository;
 
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO;
 import com.medicagenda.usuarios_service.entity.Usuario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repositorio JPA para la entidad {@link Usuario}.
  * 
@@ -19,5 +26,27 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
-    // Puedes agregar métodos personalizados aquí si lo necesitas
+
+    /**
+     * Obtiene el ID y el tipo de los usuarios indicados en una sola consulta,
+     * sin cargar las entidades completas ni sus relaciones.
+     *
+     * @param ids identificadores de los usuarios
+     * @return ID y tipo de los usuarios encontrados
+     */
+    @Query("SELECT new com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO(u.id, u.tipo) "
+            + "FROM Usuario u WHERE u.id IN :ids")
+    List<UsuarioTipoDTO> findTiposByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Obtiene el ID y el tipo de los usuarios con ID mayor que el indicado, en
+     * orden de ID y sin cargar sus relaciones.
+     *
+     * @param despuesDe ID a partir del cual se listan los usuarios (excluido)
+     * @param limite    número máximo de usuarios
+     * @return ID y tipo de los usuarios encontrados
+     */
+    @Query("SELECT new com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO(u.id, u.tipo) "
+            + "FROM Usuario u WHERE u.id > :despuesDe ORDER BY u.id")
+    List<UsuarioTipoDTO> findTiposByIdGreaterThan(@Param("despuesDe") Integer despuesDe, Limit limite);
 }
@@ -1,7 +1,10 @@
 package com.medicagenda.usuarios_service.infraestructura.rest;
 
 import com.medicagenda.usuarios_service.dominio.model.UsuarioDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioEventoPaginaDTO;
 import com.medicagenda.usuarios_service.dominio.model.UsuarioRequest;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTipoDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioTiposInstantaneaDTO;
 import com.medicagenda.usuarios_service.dominio.port.in.UsuarioPortIn;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -70,6 +73,61 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarioService.listarUsuarios());
     }
 
+    /**
+     * Obtiene el tipo de varios usuarios en una sola solicitud.
+     *
+     * @param ids identificadores de los usuarios a consultar
+     * @return ID y tipo de los usuarios encontrados
+     */
+    @Operation(summary = "Consultar tipos de usuario por lote", description = "Devuelve el ID y el tipo de los usuarios indicados. Los IDs inexistentes se omiten.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tipos obtenidos correctamente"),
+            @ApiResponse(responseCode = "400", description = "Demasiados IDs en la solicitud")
+    })
+    @PostMapping("/tipos")
+    public ResponseEntity<List<UsuarioTipoDTO>> obtenerTipos(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(usuarioService.obtenerTiposUsuarios(ids));
+    }
+
+    /**
+     * Obtiene una página del tipo de todos los usuarios y el ID del último evento
+     * escrito, para inicializar una copia local que después se mantiene con los eventos.
+     *
+     * @param despuesDe ID del último usuario ya leído
+     * @param limite    número máximo de usuarios
+     * @return página de la instantánea de tipos de usuario
+     */
+    @Operation(summary = "Instantánea de tipos de usuario", description = "Devuelve, en orden de ID, el ID y el tipo de los usuarios junto con el ID del último evento escrito antes de leerlos.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Instantánea obtenida correctamente"),
+            @ApiResponse(responseCode = "400", description = "Límite fuera de rango")
+    })
+    @GetMapping("/tipos")
+    public ResponseEntity<UsuarioTiposInstantaneaDTO> obtenerInstantaneaTipos(
+            @Parameter(description = "ID del último usuario ya leído") @RequestParam(required = false) Integer despuesDe,
+            @Parameter(description = "Número máximo de usuarios (1-10000)") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(usuarioService.obtenerInstantaneaTipos(despuesDe, limite));
+    }
+
+    /**
+     * Lista los eventos de cambio de usuario posteriores a un ID.
+     *
+     * @param despuesDe ID del último evento ya leído
+     * @param limite    número máximo de eventos
+     * @return página de eventos en orden de ID
+     */
+    @Operation(summary = "Listar eventos de usuario", description = "Devuelve, en orden, los eventos de creación, actualización y eliminación de usuarios posteriores al ID indicado.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Eventos obtenidos correctamente"),
+            @ApiResponse(responseCode = "400", description = "Límite fuera de rango")
+    })
+    @GetMapping("/eventos")
+    public ResponseEntity<UsuarioEventoPaginaDTO> listarEventos(
+            @Parameter(description = "ID del último evento ya leído") @RequestParam(required = false) Long despuesDe,
+            @Parameter(description = "Número máximo de eventos (1-1000)") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(usuarioService.listarEventos(despuesDe, limite));
+    }
+
     /**
      * Obtiene un usuario específico por su ID.
      *
@@ -1,8 +1,10 @@
 package com.medicagenda.usuarios_service.infraestructura.util;
 
 import com.medicagenda.usuarios_service.dominio.model.UsuarioDTO;
+import com.medicagenda.usuarios_service.dominio.model.UsuarioEventoDTO;
 import com.medicagenda.usuarios_service.dominio.model.UsuarioRequest;
 import com.medicagenda.usuarios_service.entity.Usuario;
+import com.medicagenda.usuarios_service.entity.UsuarioEvento;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -46,4 +48,12 @@ public interface UsuarioMapper {
      * @return entidad construida a partir del request
      */
     Usuario toEntity(UsuarioRequest request);
+
+    /**
+     * Convierte un evento de la tabla <code>usuario_evento</code> en su DTO.
+     *
+     * @param evento evento guardado
+     * @return DTO del evento
+     */
+    UsuarioEventoDTO toEventoDTO(UsuarioEvento evento);
 }
@@ -0,0 +1,83 @@
+package com.medicagenda.usuarios_service.infraestructura.rest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UsuarioControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void usuarios() {
+        jdbcTemplate.update("MERGE INTO rol (id, nombre) KEY (id) VALUES (2, 'MEDICO'), (3, 'PACIENTE')");
+        jdbcTemplate.update("MERGE INTO especialidad (id, nombre) KEY (id) VALUES (1, 'Cardiología')");
+        jdbcTemplate.update("MERGE INTO usuario (id, nombre, correo, contrasena, tipo, rol_id, especialidad_id) KEY (id) "
+                + "VALUES (5001, 'Paciente', 'paciente5001@correo.com', 'x', 'PACIENTE', 3, NULL), "
+                + "(5002, 'Médico', 'medico5002@correo.com', 'x', 'MEDICO', 2, 1)");
+    }
+
+    @Test
+    void losIdsRepetidosYNulosSeDescartan() throws Exception {
+        tipos("[5001, null, 5002, 5001, null]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].id", containsInAnyOrder(5001, 5002)))
+                .andExpect(jsonPath("$[?(@.id == 5001)].tipo").value("PACIENTE"))
+                .andExpect(jsonPath("$[?(@.id == 5002)].tipo").value("MEDICO"));
+    }
+
+    @Test
+    void losIdsInexistentesSeOmiten() throws Exception {
+        tipos("[5001, 999999]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(5001));
+        tipos("[null]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void masDeMilIdsDistintosSeRechazan() throws Exception {
+        tipos(ids(1001))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void milIdsDistintosConRepeticionesSeAdmiten() throws Exception {
+        tipos(ids(1000).replace("]", ", 1, 2, 3]"))
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions tipos(String cuerpo) throws Exception {
+        return mockMvc.perform(post("/api/usuarios/tipos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cuerpo));
+    }
+
+    private static String ids(int cantidad) {
+        return IntStream.rangeClosed(1, cantidad).mapToObj(Integer::toString)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}